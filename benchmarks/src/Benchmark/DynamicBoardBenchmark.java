@@ -0,0 +1,74 @@
+package Benchmark;
+
+import Model.DynamicBoard;
+import Model.PatternFormatException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generations per second of {@link DynamicBoard#nextGenerationConcurrent()}. Every iteration starts again from the
+ * pattern, so the soup has not yet burnt out and the glider has not yet left the area the board was created with.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DynamicBoardBenchmark {
+
+    @Param({"256", "1024", "4096"})
+    private int size;
+
+    @Param({"soup", "gosperglidergun", "glider"})
+    private String pattern;
+
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    @Param({"STATIC"})
+    private DynamicBoard.Scheduling scheduling;
+
+    private byte[][] cells;
+    private DynamicBoard board;
+
+    @Setup(Level.Trial)
+    public void loadPattern() throws IOException, PatternFormatException {
+        cells = Patterns.cells(pattern, size);
+    }
+
+    @Setup(Level.Iteration)
+    public void createBoard() {
+        board = new DynamicBoard(size, size);
+        board.setThreadCount(threads);
+        board.setScheduling(scheduling);
+        Patterns.place(board, cells, size);
+    }
+
+    @TearDown(Level.Iteration)
+    public void shutdown() {
+        board.shutdown();
+    }
+
+    @Benchmark
+    public void nextGeneration() {
+        board.nextGenerationConcurrent();
+    }
+}
@@ -0,0 +1,62 @@
+package Benchmark;
+
+import Model.BitBoard;
+import Model.FileHandler;
+import Model.PatternFormatException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to parse a pattern with {@link FileHandler}. The pattern is read from memory, so the benchmark measures the
+ * parser and not the disk. The soup is written as RLE by {@link FileHandler#writeRle} first.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileHandlerBenchmark {
+
+    @Param({"soup", "gosperglidergun", "glider"})
+    private String pattern;
+
+    @Param({"256"})
+    private int size;
+
+    private String text;
+
+    @Setup
+    public void loadPattern() throws IOException, PatternFormatException {
+        if (!pattern.equals("soup")) {
+            text = Patterns.text(pattern);
+            return;
+        }
+        BitBoard board = new BitBoard(size, size);
+        Patterns.place(board, Patterns.cells(pattern, size), size);
+        StringWriter writer = new StringWriter();
+        FileHandler.writeRle(board, writer);
+        text = writer.toString();
+    }
+
+    @Benchmark
+    public byte[][] readPattern() throws IOException, PatternFormatException {
+        return FileHandler.readFromString(text);
+    }
+}
@@ -0,0 +1,83 @@
+package Benchmark;
+
+import Model.Board;
+import Model.FileHandler;
+import Model.PatternFormatException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * The starting patterns of the benchmarks, from dense to sparse: a random soup filling the whole board, the glider
+ * gun and a single glider. The named patterns are the files of {@code resources/}, which are packaged into the
+ * benchmark jar.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+final class Patterns {
+
+    /**
+     * Share of living cells in the random soup.
+     */
+    static final double SOUP_DENSITY = 0.3;
+
+    private static final long SEED = 17;
+
+    private Patterns() {
+    }
+
+    /**
+     * Returns the cells of a pattern, indexed [x][y] like {@link FileHandler#readFromDisk(java.io.File)}.
+     * @param pattern {@code soup} or the name of a pattern file without its extension.
+     * @param size Width and height of the soup.
+     */
+    static byte[][] cells(String pattern, int size) throws IOException, PatternFormatException {
+        if (pattern.equals("soup")) {
+            Random random = new Random(SEED);
+            byte[][] cells = new byte[size][size];
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < size; y++) {
+                    cells[x][y] = random.nextDouble() < SOUP_DENSITY ? (byte) 1 : 0;
+                }
+            }
+            return cells;
+        }
+        return FileHandler.readFromString(text(pattern));
+    }
+
+    /**
+     * Returns the contents of a pattern file.
+     * @param pattern The name of the file without its extension.
+     */
+    static String text(String pattern) throws IOException {
+        try (InputStream in = Patterns.class.getResourceAsStream("/resources/" + pattern + ".rle")) {
+            if (in == null) {
+                throw new IOException("Unknown pattern " + pattern);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int read; (read = in.read(buffer)) > 0; ) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Sets the living cells of a pattern in the centre of a board of the given size.
+     */
+    static void place(Board board, byte[][] cells, int size) {
+        int width = cells.length;
+        int height = width == 0 ? 0 : cells[0].length;
+        int xOffset = (size - width) / 2;
+        int yOffset = (size - height) / 2;
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (cells[x][y] == 1) board.setCellState(x + xOffset, y + yOffset, true);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package Benchmark;
+
+import Model.BitBoard;
+import Model.Board;
+import Model.BoardSnapshot;
+import Model.DynamicBoard;
+import Model.PatternFormatException;
+import Model.Simulation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to prepare one frame for drawing, without JavaFX. {@link #prepareCells()} is the work of drawing a rectangle per
+ * living cell: the states of all cells are copied with {@link Board#getCellStates(byte[])}, then the bounding box of
+ * the living cells is walked and the cells that would be filled are counted. {@link #rasterise()} is the work
+ * {@code GameController.drawCells()} does before it uploads the frame: a snapshot is rasterised into a pixel buffer of
+ * one pixel per cell.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBenchmark {
+
+    @Param({"256", "1024", "4096"})
+    private int size;
+
+    @Param({"soup", "gosperglidergun", "glider"})
+    private String pattern;
+
+    @Param({"dynamic", "bit"})
+    private String engine;
+
+    private Board board;
+    private byte[] cellStates;
+    private BoardSnapshot snapshot;
+    private int[] pixels;
+    private final int[] palette = {0xFFFFFFFF, 0xFF000000};
+
+    @Setup
+    public void createBoard() throws IOException, PatternFormatException {
+        board = engine.equals("dynamic") ? new DynamicBoard(size, size) : new BitBoard(size, size);
+        Patterns.place(board, Patterns.cells(pattern, size), size);
+        cellStates = new byte[board.getWIDTH() * board.getHEIGHT()];
+        pixels = new int[board.getWIDTH() * board.getHEIGHT()];
+        try (Simulation simulation = new Simulation(board)) {
+            simulation.getSnapshot(0, 0, size, size);
+            simulation.call(b -> null);
+            snapshot = simulation.getSnapshot(0, 0, size, size);
+        }
+    }
+
+    @TearDown
+    public void shutdown() {
+        if (board instanceof DynamicBoard) {
+            ((DynamicBoard) board).shutdown();
+        }
+    }
+
+    @Benchmark
+    public int prepareCells() {
+        int width = board.getWIDTH();
+        if (board.getPopulation() == 0) return 0;
+        int fromX = Math.max(0, board.getMinX());
+        int fromY = Math.max(0, board.getMinY());
+        int toX = Math.min(width - 1, board.getMaxX());
+        int toY = Math.min(board.getHEIGHT() - 1, board.getMaxY());
+        board.getCellStates(cellStates);
+
+        int filled = 0;
+        for (int j = fromY; j <= toY; j++) {
+            int row = j * width;
+            for (int i = fromX; i <= toX; i++) {
+                if (cellStates[row + i] != 0) filled++;
+            }
+        }
+        return filled;
+    }
+
+    @Benchmark
+    public int[] rasterise() {
+        snapshot.getPixels(pixels, snapshot.getWIDTH(), snapshot.getHEIGHT(), palette);
+        return pixels;
+    }
+}
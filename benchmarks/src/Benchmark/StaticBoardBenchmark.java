@@ -0,0 +1,61 @@
+package Benchmark;
+
+import Model.PatternFormatException;
+import Model.StaticBoard;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generations per second of {@link StaticBoard#nextGeneration()}, the single threaded baseline of the engines.
+ * Every iteration starts again from the pattern.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+@SuppressWarnings("deprecation")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StaticBoardBenchmark {
+
+    @Param({"256", "1024", "4096"})
+    private int size;
+
+    @Param({"soup", "gosperglidergun", "glider"})
+    private String pattern;
+
+    private byte[][] cells;
+    private StaticBoard board;
+
+    @Setup(Level.Trial)
+    public void loadPattern() throws IOException, PatternFormatException {
+        cells = Patterns.cells(pattern, size);
+    }
+
+    @Setup(Level.Iteration)
+    public void createBoard() {
+        board = new StaticBoard(size, size);
+        Patterns.place(board, cells, size);
+    }
+
+    @Benchmark
+    public void nextGeneration() {
+        board.nextGeneration();
+    }
+}
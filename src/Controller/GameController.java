@@ -1,9 +1,8 @@
 package Controller;
 
 import Model.*;
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -12,14 +11,16 @@ import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.*;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.paint.Color;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
-import javafx.util.Duration;
 
+import javax.management.JMException;
 import java.io.File;
 import java.io.IOException;
 import java.net.*;
@@ -61,6 +62,9 @@ public class GameController implements Initializable {
     @FXML
     public Label speedInd;
 
+    @FXML
+    public CheckBox turboBox;
+
     @FXML
     public Label shapeLabel;
 
@@ -78,15 +82,34 @@ public class GameController implements Initializable {
 
     private GraphicsContext gc;
 
-    private final Timeline TIMELINE = new Timeline();
+    private Simulation simulation;
 
-    private Board gameBoard;
+    private BoardSnapshot snapshot;
 
     private byte[][] loadBoard;
 
     private TextInputDialog textInputDialog = new TextInputDialog("");
 
-    private int genCount;
+    private static final long HISTORY_BUDGET = 64L << 20;
+
+    // the cycle detector, the history and boardEdited are only touched on the simulation thread
+    private final CycleDetector cycleDetector = new CycleDetector(1024);
+
+    private final History history = new History(HISTORY_BUDGET);
+
+    private boolean boardEdited = true;
+
+    private volatile CycleDetector.Cycle cycle;
+
+    private final SimulationMetrics metrics = new SimulationMetrics();
+
+    private Color[] stateColors;
+
+    private int[] statePixels;
+
+    private WritableImage cellImage;
+
+    private int[] pixels;
 
     /*private int xOffset, yOffset;
 
@@ -97,12 +120,16 @@ public class GameController implements Initializable {
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        gameBoard = /*new StaticBoard(
+        Board gameBoard = /*new StaticBoard(
                 (int) (playArea.getHeight() / cellSizeSlider.getMin()), (int) (playArea.getWidth()
                 / cellSizeSlider.getMin())
         ); */
                 new DynamicBoard();
+        gameBoard.setMetrics(metrics);
+        simulation = new Simulation(gameBoard);
+        snapshot = latestSnapshot();
         gc = playArea.getGraphicsContext2D();
+        registerMetrics();
 
         // call appropriate setup methods
         initAnimation();
@@ -111,6 +138,22 @@ public class GameController implements Initializable {
         clearMetaLabels();
     }
 
+    /**
+     * Makes the timings of the generations and of drawing available to JMX clients such as JConsole, under
+     * {@code GameofLife17:type=SimulationMetrics,name=game}.
+     *
+     * @see SimulationMetrics#register(String)
+     */
+    private void registerMetrics() {
+        try {
+            metrics.register("game");
+        } catch (JMException ex) {
+            // print exception messages to console
+            System.out.println("Could not register the simulation metrics");
+            System.out.println(ex.getMessage());
+        }
+    }
+
     /**
      * Sets default values for instruments and calls methods to run a basic animation.
      *
@@ -127,34 +170,162 @@ public class GameController implements Initializable {
     }
 
     /**
-     * Provides the initial animation for the application using a fixed time duration handled by a keyframe. When the
-     * keyframe finishes, the {@code nextGeneration()} method of the game board is called. The keyframes generated
-     * get set into a timeline, which again runs indefinitely (or until the user pauses the animation).
+     * Provides the animation of the application. The generations are computed by the {@code Simulation} on a thread of
+     * its own, which records every generation through the listener set here. On every frame, an animation timer on
+     * the JavaFX thread takes the latest snapshot the simulation has published and draws it if it is new; the
+     * generations computed between two frames are never drawn.
      *
-     * @see javafx.util.Duration
-     * @see javafx.animation.KeyFrame
-     * @see javafx.animation.Timeline
+     * @see Simulation
+     * @see javafx.animation.AnimationTimer
      */
     private void initAnimation() {
+        simulation.setListener(new Simulation.Listener() {
+            @Override
+            public boolean wantsEveryGeneration() {
+                // the history and the cycle detector follow the generations one by one, in turbo mode as well
+                return true;
+            }
 
-        Duration duration = new Duration(1000);
+            @Override
+            public void beforeGeneration(Board board, long generation) {
+                recordEdits(board, generation);
+            }
 
-        // call nextGeneration after each keyframe
-        KeyFrame keyFrame = new KeyFrame(duration, (ActionEvent) -> {
+            @Override
+            public void afterGeneration(Board board, long generation) {
+                recordGen(board, generation);
+            }
+
+            @Override
+            public void simulationFailed(Throwable failure) {
+                // the simulation has stopped itself, so the view follows and tells the user
+                Platform.runLater(() -> {
+                    stopAnimation();
+                    Alert alert = new Alert(Alert.AlertType.ERROR);
+                    alert.setHeaderText("Simulation error!");
+                    alert.setContentText("The simulation stopped: " + failure);
+                    alert.show();
+                });
+            }
 
-            ((DynamicBoard) gameBoard).nextGenerationConcurrent();
-            genCount++;
-            printGen();
-            draw();
+            @Override
+            public void taskFailed(RuntimeException failure) {
+                // the simulation goes on, so the user is only told that the change did not work
+                Platform.runLater(() -> {
+                    Alert alert = new Alert(Alert.AlertType.ERROR);
+                    alert.setHeaderText("Change failed!");
+                    alert.setContentText(failure.getMessage());
+                    alert.show();
+                });
+            }
         });
 
-        // make the timeline run indefinitely by default
-        TIMELINE.setCycleCount(Timeline.INDEFINITE);
-        TIMELINE.getKeyFrames().add(keyFrame);
+        // draw the latest snapshot on every frame
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                BoardSnapshot latest = latestSnapshot();
+                if (latest != snapshot) {
+                    snapshot = latest;
+                    printGen();
+                    draw();
+                    if (simulation.isTurbo()) {
+                        printSpeed();
+                    }
+                }
+            }
+        }.start();
+    }
+
+    /**
+     * Returns the latest snapshot of the simulation and asks for the next one, of the cells that fit on the canvas at
+     * the current cell size.
+     */
+    private BoardSnapshot latestSnapshot() {
+        double cS = cellSizeSlider.getValue();
+        return simulation.getSnapshot(0, 0, (int) Math.ceil(playArea.getWidth() / cS),
+                (int) Math.ceil(playArea.getHeight() / cS));
     }
 
     private void printGen() {
-        genLabel.setText(String.format("%s: %d", "Generation", genCount));
+        CycleDetector.Cycle cycle = this.cycle;
+        String population = String.format("%s: %d", "Population", snapshot.getPopulation());
+        if (cycle == null) {
+            genLabel.setText(String.format("%s: %d, %s", "Generation", snapshot.getGeneration(), population));
+        } else {
+            genLabel.setText(String.format("%s: %d (%s), %s", "Generation", snapshot.getGeneration(), cycle,
+                    population));
+        }
+    }
+
+    /**
+     * Records the state hash of a {@code DynamicBoard} after every generation, so that a pattern that has become
+     * periodic is recognised and shown next to the generation counter. Runs on the simulation thread.
+     *
+     * @see CycleDetector
+     */
+    private void recordGen(Board board, long generation) {
+        if (board instanceof DynamicBoard) {
+            cycle = cycleDetector.record(generation, ((DynamicBoard) board).getStateHash());
+        }
+        history.record(generation, board);
+        boardEdited = false;
+    }
+
+    /**
+     * Records the current generation in the history if the user has changed the board since it was recorded. The
+     * generations that were undone after it are forgotten. Runs on the simulation thread.
+     *
+     * @see History#record(long, Board)
+     */
+    private void recordEdits(Board board, long generation) {
+        if (boardEdited) {
+            history.record(generation, board);
+            boardEdited = false;
+        }
+    }
+
+    /**
+     * Forgets the generations and the cycle of the board, after it has been cleared or replaced. Runs on the
+     * simulation thread.
+     */
+    private void resetGenerations() {
+        simulation.setGeneration(0);
+        cycleDetector.reset();
+        cycle = null;
+        history.clear();
+        boardEdited = true;
+    }
+
+    /**
+     * Steps the game back one generation by loading it from the history. Nothing happens if the generation before is
+     * no longer in the history.
+     */
+    @FXML
+    private void undoGeneration() {
+        simulation.submit(board -> {
+            long generation = simulation.getGeneration();
+            recordEdits(board, generation);
+            if (history.contains(generation - 1)) {
+                history.seek(generation - 1, board);
+                simulation.setGeneration(generation - 1);
+            }
+        });
+    }
+
+    /**
+     * Steps the game forward one generation that was undone, by loading it from the history. Nothing happens if the
+     * board has been changed since, or if no generation was undone.
+     */
+    @FXML
+    private void redoGeneration() {
+        simulation.submit(board -> {
+            long generation = simulation.getGeneration();
+            if (!boardEdited && history.contains(generation + 1)) {
+                history.seek(generation + 1, board);
+                simulation.setGeneration(generation + 1);
+            }
+        });
     }
 
     /**
@@ -162,10 +333,7 @@ public class GameController implements Initializable {
      */
     @FXML
     private void nextGen() {
-       ((DynamicBoard)gameBoard).nextGenerationConcurrent();
-        gameBoard.nextGeneration();
-        printGen();
-        draw();
+        simulation.nextGeneration();
     }
 
     /**
@@ -175,26 +343,61 @@ public class GameController implements Initializable {
     @FXML
     public void handleAnimation() {
         // stop animation if running
-        if (TIMELINE.getStatus() == Animation.Status.RUNNING) {
-            TIMELINE.stop();
-            animBtn.setText("Start");
+        if (simulation.isRunning()) {
+            stopAnimation();
         }
         // start animation if stopped
-        else if (TIMELINE.getStatus() == Animation.Status.STOPPED) {
+        else {
             setTimelineRate();
-            TIMELINE.play();
+            simulation.start();
             animBtn.setText("Stop");
         }
     }
 
     /**
-     * Sets timeline rate to value of speed slider and indicates number of generations per second.
+     * Stops the animation, for example before a pattern is loaded.
+     */
+    private void stopAnimation() {
+        simulation.stop();
+        animBtn.setText("Start");
+    }
+
+    /**
+     * Sets the rate of the simulation to value of speed slider and indicates number of generations per second.
      */
     @FXML
     public void setTimelineRate() {
         int speed = speedSlider.valueProperty().intValue();
-        TIMELINE.setRate(speed);
-        speedInd.setText(String.format("%s: %d\n%s", "Speed", speed, "Generations per second"));
+        simulation.setRate(Math.max(speed, 1));
+        printSpeed();
+    }
+
+    /**
+     * Switches turbo mode on or off. In turbo mode the speed slider is ignored; the simulation computes as many
+     * generations between two frames as it can while keeping the frame rate, and the generations per second it
+     * achieves are shown instead.
+     *
+     * @see Simulation#setTurbo(boolean)
+     */
+    @FXML
+    public void toggleTurbo() {
+        simulation.setTurbo(turboBox.isSelected());
+        speedSlider.setDisable(turboBox.isSelected());
+        printSpeed();
+    }
+
+    /**
+     * Indicates the speed of the simulation: the value of the speed slider, or in turbo mode the generations computed
+     * per frame and per second.
+     */
+    private void printSpeed() {
+        if (simulation.isTurbo()) {
+            speedInd.setText(String.format("%s: %d %s\n%,.0f %s", "Turbo", simulation.getBatchSize(),
+                    "per frame", simulation.getGenerationsPerSecond(), "generations per second"));
+        } else {
+            int speed = speedSlider.valueProperty().intValue();
+            speedInd.setText(String.format("%s: %d\n%s", "Speed", speed, "Generations per second"));
+        }
     }
 
     /**
@@ -210,22 +413,23 @@ public class GameController implements Initializable {
      */
     private void changeCellState(MouseEvent e, boolean mouseDrag) {
         // determine x - and y-coordinates of the mouse event on screen
-        int x = (int) Math.ceil((e.getX() / gameBoard.getCellSize())) - 1;
-        int y = (int) Math.ceil((e.getY() / gameBoard.getCellSize())) - 1;
+        int x = (int) Math.ceil((e.getX() / cellSizeSlider.getValue())) - 1;
+        int y = (int) Math.ceil((e.getY() / cellSizeSlider.getValue())) - 1;
 
         // check for correct mouse button and legal cell position on gameBoard
         if (e.getButton() == MouseButton.PRIMARY && indexCheck(x, y)) {
-
-            // if the mouse was dragged, draw cells along the mouse click
-            if (mouseDrag) {
-                gameBoard.setCellState(x, y, true);
-            } else {
-                gameBoard.setCellState(x, y, !(gameBoard.getCellState(x, y)));
-            }
+            // the simulation publishes the updated board once the change is made
+            simulation.submit(gameBoard -> {
+                boardEdited = true;
+
+                // if the mouse was dragged, draw cells along the mouse click
+                if (mouseDrag) {
+                    gameBoard.setCellState(x, y, true);
+                } else {
+                    gameBoard.setCellState(x, y, !(gameBoard.getCellState(x, y)));
+                }
+            });
         }
-
-        // draw the updated board normally
-        draw();
     }
 
     /**
@@ -267,7 +471,8 @@ public class GameController implements Initializable {
     @FXML
     public void changeCellSize() {
         // set size to slider's value and indicate size
-        gameBoard.setCellSize(cellSizeSlider.getValue());
+        double cellSize = cellSizeSlider.getValue();
+        simulation.submit(gameBoard -> gameBoard.setCellSize(cellSize));
         sizeInd.setText(String.format("%s : %d", "Cell Size", (int) cellSizeSlider.getValue()));
 
         // draw board with updated cell size
@@ -276,41 +481,120 @@ public class GameController implements Initializable {
 
     /**
      * Method {@code draw()} is the main graphical method in the application. It calls all the main drawing
-     * methods in the class, making it suitable to update the view after operations.
+     * methods in the class, making it suitable to update the view after operations. The latest snapshot of the
+     * simulation is drawn, so the board itself is never touched by the JavaFX thread.
      *
      * @see #drawBackground()
-     * @see #drawGrid()
      * @see #drawCells()
+     * @see #drawGrid()
+     * @see SimulationMetrics.Phase#RENDER
+     * @see RenderEvent
      */
     private void draw() {
+        long start = System.nanoTime();
+        RenderEvent event = new RenderEvent();
+        event.begin();
         drawBackground();
-        drawGrid();
         drawCells();
+        drawGrid();
+        event.end();
+        if (event.shouldCommit()) {
+            event.describe(snapshot.getEngine(), snapshot.getWIDTH(), snapshot.getHEIGHT(), snapshot.getPopulation(),
+                    snapshot.getThreadCount());
+            event.setCellSize(cellSizeSlider.getValue());
+            event.commit();
+        }
+        long end = metrics.recordPhase(SimulationMetrics.Phase.RENDER, start);
+
+        // turbo mode does not compute more frames than can be drawn
+        simulation.setRenderTime(end - start);
     }
 
     /**
-     * For drawing the cells onto the board, method {@code drawCells()} gets the color value that the user has
-     * specified for the cells, then iterates through the game board to check which of the cells are alive or dead. It
-     * then colors the ones that are alive.
+     * For drawing the cells onto the board, method {@code drawCells()} rasterises the cells of the latest snapshot that
+     * fit on the canvas into a pixel buffer, one pixel per cell, uploads the buffer into an image in one call and draws
+     * the image scaled up to the cell size. Living cells get the color the user has specified for the cells, and cells
+     * in refractory states get a color on a ramp from the cell color towards the background color, so that dying
+     * cells fade out. A frame takes as long as there are cells on the canvas, however many of them are alive.
      *
-     * @see Board#setCellState(int, int, boolean)
+     * @see BoardSnapshot#getPixels(int[], int, int, int[])
+     * @see javafx.scene.image.PixelWriter#setPixels(int, int, int, int, PixelFormat, int[], int, int)
      */
     private void drawCells() {
-        // get the value of the cell color picker
-        gc.setFill(cellColorPicker.getValue());
-
-        // get the size of the cells
-        double cS = gameBoard.getCellSize();
-
-        // iterate through the height and width of the board
-        for (int i = 0; i < gameBoard.getWIDTH(); i++) {
-            for (int j = 0; j < gameBoard.getHEIGHT(); j++) {
-                // check if a given cell is alive and color it
-                if (gameBoard.getCellState(i, j)) {
-                    gc.fillRect((i * cS) + .25, (j * cS) + .25, cS - .5, cS - .5);
-                }
-            }
+        // get the size of the cells and the number of cells that fit on the canvas
+        double cS = cellSizeSlider.getValue();
+        BoardSnapshot cells = snapshot;
+        int width = Math.min(cells.getWIDTH(), (int) Math.ceil(playArea.getWidth() / cS));
+        int height = Math.min(cells.getHEIGHT(), (int) Math.ceil(playArea.getHeight() / cS));
+        if (width <= 0 || height <= 0) return;
+
+        // the image and buffer only grow, so that they are not allocated again for every frame
+        if (cellImage == null || cellImage.getWidth() < width || cellImage.getHeight() < height) {
+            cellImage = new WritableImage(Math.max(width, cellImage == null ? 0 : (int) cellImage.getWidth()),
+                    Math.max(height, cellImage == null ? 0 : (int) cellImage.getHeight()));
         }
+        if (pixels == null || pixels.length < width * height) {
+            pixels = new int[width * height];
+        }
+
+        // rasterise, upload and scale the cells
+        cells.getPixels(pixels, width, height, statePixels(cells.getStates()));
+        cellImage.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        gc.setImageSmoothing(false);
+        gc.drawImage(cellImage, 0, 0, width, height, 0, 0, width * cS, height * cS);
+    }
+
+    /**
+     * Returns the colors of the cell states as ARGB pixels, converted from {@link #colorRamp(int)} whenever the ramp
+     * has been rebuilt.
+     *
+     * @param states
+     *      The number of states of the current rule
+     * @return
+     *      Array with the ARGB pixel of each state
+     */
+    private int[] statePixels(int states) {
+        Color[] ramp = colorRamp(states);
+        if (statePixels != null) {
+            return statePixels;
+        }
+        statePixels = new int[ramp.length];
+        for (int state = 0; state < ramp.length; state++) {
+            Color color = ramp[state];
+            statePixels[state] = (int) Math.round(color.getOpacity() * 255) << 24
+                    | (int) Math.round(color.getRed() * 255) << 16
+                    | (int) Math.round(color.getGreen() * 255) << 8
+                    | (int) Math.round(color.getBlue() * 255);
+        }
+        return statePixels;
+    }
+
+    /**
+     * Returns the colors of the cell states. State 1 gets the value of the cell color picker, and the refractory
+     * states fade evenly towards the value of the background color picker. The ramp is only rebuilt when the number
+     * of states or one of the colors has changed.
+     *
+     * @param states
+     *      The number of states of the current rule
+     * @return
+     *      Array with the color of each state; the color of state 0 is the background color
+     */
+    private Color[] colorRamp(int states) {
+        Color cellColor = cellColorPicker.getValue();
+        Color backColor = backColorPicker.getValue();
+        if (stateColors != null && stateColors.length == states && stateColors[1].equals(cellColor)
+                && stateColors[0].equals(backColor)) {
+            return stateColors;
+        }
+
+        stateColors = new Color[states];
+        statePixels = null;
+        stateColors[0] = backColor;
+        stateColors[1] = cellColor;
+        for (int state = 2; state < states; state++) {
+            stateColors[state] = cellColor.interpolate(backColor, (double) (state - 1) / (states - 1));
+        }
+        return stateColors;
     }
 
     /*@FXML
@@ -354,19 +638,65 @@ public class GameController implements Initializable {
 
     /**
      * Handles all the key bindings associated with game control.
-     * For moving the cells, a temporary {@code byte} array is used to store the current active cells, then draw them
-     * one place further in the direction of the corresponding key pressed.
+     * Moving the cells is submitted to the simulation, which shows the moved cells in its next snapshot.
      *
      * @param event
      *      {@code KeyEvent} whose code is used to determine which key was pressed.
+     * @see #moveCells(Board, String)
      */
     @FXML
     public void handleKeyEvents(KeyEvent event) {
+        String key = event.getCode().toString().toLowerCase();
+        if (event.isShortcutDown() && (key.equals("z") || key.equals("y"))) {
+            if (key.equals("z")) {
+                undoGeneration();
+            } else {
+                redoGeneration();
+            }
+            return;
+        }
+
+        switch (key) {
+            case "w":
+            case "a":
+            case "s":
+            case "d":
+                simulation.submit(gameBoard -> moveCells(gameBoard, key));
+                break;
+            case "r":
+                // Shh! Easter egg!
+                if (event.isShiftDown()) {
+                    backColorPicker.setValue(Color.WHITE);
+                    cellColorPicker.setValue(Color.BLACK);
+                    draw();
+                    break;
+                }
+                else {
+                    backColorPicker.setValue(new Color(Math.random(), Math.random(), Math.random(), 1));
+                    cellColorPicker.setValue(new Color(Math.random(), Math.random(), Math.random(), 1));
+                    draw();
+                    break;
+                }
+        }
+    }
+
+    /**
+     * Moves the cells one place in the direction of the key pressed. A temporary {@code boolean} array is used to
+     * store the current active cells, then draw them one place further in that direction. Runs on the simulation
+     * thread.
+     *
+     * @param gameBoard
+     *      The board whose cells are moved
+     * @param key
+     *      One of the keys w, a, s and d
+     */
+    private void moveCells(Board gameBoard, String key) {
         // temporary array must take one more value at each dimension than the gameBoard
         boolean[][] temp = new boolean[gameBoard.getWIDTH() + 1][gameBoard.getHEIGHT() + 1];
 
-        switch (event.getCode().toString().toLowerCase()) {
+        switch (key) {
             case "w":
+                boardEdited = true;
                 try {
                     // move cells one spot up and copy to temp
                     for (int i = 0; i < gameBoard.getWIDTH(); i++) {
@@ -391,8 +721,6 @@ public class GameController implements Initializable {
                         }
                     }
 
-                    // draw normally
-                    draw();
                     break;
                 } catch (ArrayIndexOutOfBoundsException ex) {
                     // if exception is caught, place active cells in same positions in temp
@@ -413,6 +741,7 @@ public class GameController implements Initializable {
                }
 
             case "d":
+                boardEdited = true;
                 // move cells one spot right and copy to temp
                 for (int i = 0; i < gameBoard.getWIDTH(); i++) {
                     for (int j = 0; j < gameBoard.getHEIGHT(); j++) {
@@ -436,11 +765,10 @@ public class GameController implements Initializable {
                     }
                 }
 
-                // draw normally
-                draw();
                 break;
 
             case "s":
+                boardEdited = true;
                 // move cells one spot down and copy to temp
                 for (int i = 0; i < gameBoard.getWIDTH(); i++) {
                     for (int j = 0; j < gameBoard.getHEIGHT(); j++) {
@@ -464,10 +792,9 @@ public class GameController implements Initializable {
                     }
                 }
 
-                // draw normally
-                draw();
                 break;
             case "a":
+                boardEdited = true;
                 try {
                     // move cells one spot left and copy to temp
                     for (int i = 0; i < gameBoard.getWIDTH(); i++) {
@@ -492,8 +819,6 @@ public class GameController implements Initializable {
                         }
                     }
 
-                    // draw cells on updated positions
-                    draw();
                     break;
                 } catch (ArrayIndexOutOfBoundsException ex) {
                     // exception handled in same way as for 'w'-case
@@ -511,20 +836,6 @@ public class GameController implements Initializable {
                     }
                     break;
                 }
-            case "r":
-                // Shh! Easter egg!
-                if (event.isShiftDown()) {
-                    backColorPicker.setValue(Color.WHITE);
-                    cellColorPicker.setValue(Color.BLACK);
-                    draw();
-                    break;
-                }
-                else {
-                    backColorPicker.setValue(new Color(Math.random(), Math.random(), Math.random(), 1));
-                    cellColorPicker.setValue(new Color(Math.random(), Math.random(), Math.random(), 1));
-                    draw();
-                    break;
-                }
         }
     }
 
@@ -545,10 +856,10 @@ public class GameController implements Initializable {
      * current cell size.
      */
     private void drawGrid() {
-        // get dimensions of gameBoard and cell size
-        int width = gameBoard.getWIDTH();
-        int height = gameBoard.getHEIGHT();
+        // get dimensions of gameBoard and cell size, only drawing the lines that fall on the canvas
         double cS = cellSizeSlider.getValue();
+        int width = Math.min(snapshot.getWIDTH(), (int) Math.ceil(playArea.getWidth() / cS));
+        int height = Math.min(snapshot.getHEIGHT(), (int) Math.ceil(playArea.getHeight() / cS));
 
         // set the grid color equal to the cell color and adjust line width
         gc.setStroke(cellColorPicker.getValue());
@@ -569,14 +880,13 @@ public class GameController implements Initializable {
     @FXML
     public void clearBoard() {
         // assign a blank board to gameBoard
-        gameBoard.clear();
+        simulation.submit(gameBoard -> {
+            gameBoard.clear();
+            resetGenerations();
+        });
 
-        // clear the meta information and canvas
+        // clear the meta information
         clearMetaLabels();
-        draw();
-
-        genCount = 0;
-        printGen();
     }
 
     /**
@@ -625,8 +935,7 @@ public class GameController implements Initializable {
     @FXML
     private void loadFileDisk() {
         // prepare stage for opening file
-        TIMELINE.stop();
-        animBtn.setText("Start");
+        stopAnimation();
         // instantiate Alert object in case of error
         Alert alert = new Alert(Alert.AlertType.ERROR);
 
@@ -643,20 +952,8 @@ public class GameController implements Initializable {
                 // call FileHandler method readFromDisk and assign returned value to loadBoard
                 loadBoard = FileHandler.readFromDisk(selectedFile);
 
-                if (gameBoard instanceof DynamicBoard) {
-                    // throw PatternFormatException if loadBoard is too large
-                    if (loadBoard.length > ((DynamicBoard) gameBoard).getMAXSIZE() || loadBoard[0].length > (
-                            (DynamicBoard) gameBoard).getMAXSIZE()) {
-                        throw new PatternFormatException("Pattern size " +
-                                "too large for dynamic board size of " + ((DynamicBoard) gameBoard).getMAXSIZE() + " x" +
-                                " " + ((DynamicBoard) gameBoard).getMAXSIZE());
-                    }
-                    // expand gameBoard to fit loadBoard
-                    ((DynamicBoard) gameBoard).expand(2 * (loadBoard.length - gameBoard.getWIDTH()), 2 * (loadBoard[0]
-                            .length - gameBoard.getWIDTH()));
-                }
-                // implement loaded pattern
-                setPattern();
+                // implement loaded pattern, expanding a DynamicBoard to fit it
+                setPattern(true);
             }
           // make use of alert window in case of exception
         } catch (IOException ex) {
@@ -670,9 +967,6 @@ public class GameController implements Initializable {
             alert.setContentText(ex.getMessage());
             alert.showAndWait();
         }
-
-        // draw normally
-        draw();
     }
 
     /**
@@ -701,26 +995,13 @@ public class GameController implements Initializable {
         if (!(input == null))
             try {
                 // stop animation
-                TIMELINE.stop();
-                animBtn.setText("Start");
+                stopAnimation();
 
                 // parse input String and assign returned value to loadBoard
                 loadBoard = FileHandler.readFromURL(input);
 
-                if (gameBoard instanceof DynamicBoard) {
-                    // throw PatternFormatException if loadBoard dimensions are greater than gameBoard dimensions
-                    if (loadBoard.length > ((DynamicBoard) gameBoard).getMAXSIZE() || loadBoard[0].length > (
-                            (DynamicBoard) gameBoard).getMAXSIZE()) {
-                        throw new PatternFormatException("Pattern size " +
-                                "too large for dynamic board size of " + ((DynamicBoard) gameBoard).getMAXSIZE() + " x" +
-                                " " + ((DynamicBoard) gameBoard).getMAXSIZE());
-                    }
-                    // expand gameBoard to appropriate dimensions
-                    ((DynamicBoard) gameBoard).expand(2 * (loadBoard.length - gameBoard.getWIDTH()), 2 * (loadBoard[0]
-                            .length - gameBoard.getWIDTH()));
-                }
-                // implement loaded pattern
-                setPattern();
+                // implement loaded pattern, expanding a DynamicBoard to appropriate dimensions
+                setPattern(true);
 
             } catch (PatternFormatException pfe) {
                 // inform user in case of pattern error
@@ -734,24 +1015,162 @@ public class GameController implements Initializable {
                 alert.setContentText("Please try again with a correct URL!");
                 alert.showAndWait();
             }
-        // draw loaded pattern
-        draw();
     }
 
     /**
-     * This method is used in {@code loadFileDisk()} and {@code loadFileNet()} to implement the loaded patterns in the
-     * {@code gameBoard}. */
-    private void setPattern() {
-        int xOffset = (gameBoard.getWIDTH() - loadBoard.length) / 2;
-        int yOffset = (gameBoard.getHEIGHT() - loadBoard[0].length) / 2;
-
-        for (int i = 0; i < loadBoard.length; i++) {
-            for (int j = 0; j < loadBoard[0].length; j++) {
-                gameBoard.setCellState(i + xOffset, j + yOffset, loadBoard[i][j] == 1);
+     * Method {@code changeRule()} lets the user type in a Life-like rulestring, such as {@code B36/S23}, an isotropic
+     * rulestring in Hensel notation, such as {@code B2-a/S12}, a Generations rulestring, such as {@code B2/S/C3}, or
+     * a Larger than Life rulestring, such as {@code R5,C0,M1,S34..58,B34..45}, and applies it to the current board.
+     * If the rulestring is invalid or the board cannot run the rule, the user is told so and the old rule is kept.
+     *
+     * @see Rule#forRulestring(String)
+     */
+    @FXML
+    private void changeRule() {
+        // prepare text input dialog
+        textInputDialog.setTitle("Change rule");
+        textInputDialog.setHeaderText("Enter a rulestring, for example B3/S23, B2-a/S12 or B2/S/C3");
+        textInputDialog.getEditor().setText(simulation.call(gameBoard -> gameBoard.getRule().toString()));
+        textInputDialog.showAndWait();
+
+        // get input String and clear text input dialog
+        String input = textInputDialog.getResult();
+        textInputDialog.getEditor().setText("");
+
+        if (input != null) {
+            try {
+                Rule rule = Rule.forRulestring(input);
+                simulation.call(gameBoard -> {
+                    gameBoard.setRule(rule);
+                    boardEdited = true;
+                    return null;
+                });
+            } catch (IllegalArgumentException ex) {
+                // inform user of the invalid rule
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setHeaderText("Rule error!");
+                alert.setContentText(ex.getMessage());
+                alert.showAndWait();
+            }
+        }
+    }
+
+    /**
+     * Method {@code changeTopology()} lets the user choose the shape of the universe of the current board, such as a
+     * torus or a Klein bottle. If the board does not support the chosen topology, the user is told so and the old
+     * topology is kept.
+     *
+     * @see Topology
+     */
+    @FXML
+    private void changeTopology() {
+        ChoiceDialog<Topology> choiceDialog = new ChoiceDialog<>(simulation.call(Board::getTopology),
+                Topology.values());
+        choiceDialog.setTitle("Change topology");
+        choiceDialog.setHeaderText("Choose the shape of the universe");
+        choiceDialog.showAndWait().ifPresent(topology -> {
+            try {
+                simulation.call(gameBoard -> {
+                    gameBoard.setTopology(topology);
+                    return null;
+                });
+            } catch (IllegalArgumentException ex) {
+                // inform user of the unsupported topology
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setHeaderText("Topology error!");
+                alert.setContentText(ex.getMessage());
+                alert.showAndWait();
+            }
+        });
+    }
+
+    /**
+     * Method {@code jumpToGeneration()} lets the user type in a generation and moves the board straight to it, without
+     * computing the generations in between. Generations that are still in the history are loaded from it. Once the
+     * pattern on a {@code DynamicBoard} has been found to be periodic, any later generation can be reached as well;
+     * otherwise the user is told that the generation cannot be reached.
+     *
+     * @see History#seek(long, Board)
+     * @see CycleDetector.Cycle#fastForward(DynamicBoard, long, long)
+     */
+    @FXML
+    private void jumpToGeneration() {
+        // the history can only be read on the simulation thread
+        String header = simulation.call(gameBoard -> {
+            recordEdits(gameBoard, simulation.getGeneration());
+            CycleDetector.Cycle cycle = gameBoard instanceof DynamicBoard ? cycleDetector.getCycle() : null;
+            if (cycle == null) {
+                return String.format("Enter a generation from %d to %d",
+                        history.getFirstGeneration(), history.getLastGeneration());
+            }
+            return String.format("Enter a generation from %d, the pattern is periodic (%s)",
+                    history.getFirstGeneration(), cycle);
+        });
+
+        // prepare text input dialog
+        textInputDialog.setTitle("Jump to generation");
+        textInputDialog.setHeaderText(header);
+        textInputDialog.getEditor().setText(Long.toString(snapshot.getGeneration()));
+        textInputDialog.showAndWait();
+
+        // get input String and clear text input dialog
+        String input = textInputDialog.getResult();
+        textInputDialog.getEditor().setText("");
+
+        if (input != null) {
+            try {
+                long target = Long.parseLong(input.trim());
+                simulation.call(gameBoard -> {
+                    CycleDetector.Cycle cycle = gameBoard instanceof DynamicBoard ? cycleDetector.getCycle() : null;
+                    if (history.contains(target)) {
+                        history.seek(target, gameBoard);
+                        simulation.setGeneration(target);
+                    } else if (cycle != null) {
+                        cycle.fastForward((DynamicBoard) gameBoard, simulation.getGeneration(), target);
+                        simulation.setGeneration(target);
+                        recordGen(gameBoard, target);
+                    } else {
+                        throw new IllegalArgumentException("Generation " + target + " is not in the history");
+                    }
+                    return null;
+                });
+            } catch (IllegalArgumentException ex) {
+                // inform user of the invalid generation
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setHeaderText("Generation error!");
+                alert.setContentText(ex.getMessage());
+                alert.showAndWait();
             }
         }
+    }
 
-        gameBoard.setCellSize(Math.floor(cellSizeSlider.getValue()));
+    /**
+     * This method is used in {@code loadFileDisk()} and {@code loadFileNet()} to implement the loaded patterns in the
+     * {@code gameBoard}. The pattern is copied onto the board on the simulation thread.
+     *
+     * @param expand
+     *      Whether a {@code DynamicBoard} is expanded to fit the pattern first
+     */
+    private void setPattern(boolean expand) {
+        byte[][] pattern = loadBoard;
+        double cellSize = Math.floor(cellSizeSlider.getValue());
+        simulation.submit(gameBoard -> {
+            if (expand && gameBoard instanceof DynamicBoard) {
+                ((DynamicBoard) gameBoard).expand(2 * (pattern.length - gameBoard.getWIDTH()), 2 * (pattern[0]
+                        .length - gameBoard.getWIDTH()));
+            }
+            int xOffset = (gameBoard.getWIDTH() - pattern.length) / 2;
+            int yOffset = (gameBoard.getHEIGHT() - pattern[0].length) / 2;
+
+            for (int i = 0; i < pattern.length; i++) {
+                for (int j = 0; j < pattern[0].length; j++) {
+                    gameBoard.setCellState(i + xOffset, j + yOffset, pattern[i][j] == 1);
+                }
+            }
+
+            gameBoard.setCellSize(cellSize);
+            boardEdited = true;
+        });
         readMeta();
     }
 
@@ -800,9 +1219,8 @@ public class GameController implements Initializable {
             // parse file and assign returned value to loadBoard
             loadBoard = FileHandler.readFromDisk(new File(resource));
 
-            // implement pattern and draw
-            setPattern();
-            draw();
+            // implement pattern
+            setPattern(false);
           // print exception messages to console
         } catch (IOException e) {
             System.out.println("Something went wrong...");
@@ -874,8 +1292,89 @@ public class GameController implements Initializable {
      */
     @FXML
     public void newTest() {
-        gameBoard = new DynamicBoard();
-        gameBoard.setCellSize(cellSizeSlider.getValue());
-        draw();
+        setBoard(new DynamicBoard());
+    }
+
+    /**
+     * Creates a new {@code BitBoard} covering the whole canvas at the smallest cell size and implements it in the
+     * game.
+     *
+     * @see BitBoard
+     */
+    @FXML
+    public void newBitBoard() {
+        setBoard(new BitBoard((int) (playArea.getWidth() / cellSizeSlider.getMin()),
+                (int) (playArea.getHeight() / cellSizeSlider.getMin())));
+    }
+
+    /**
+     * Creates a new {@code HashLifeBoard} with a view covering the whole canvas at the smallest cell size and
+     * implements it in the game.
+     *
+     * @see HashLifeBoard
+     */
+    @FXML
+    public void newHashLifeBoard() {
+        setBoard(new HashLifeBoard((int) (playArea.getWidth() / cellSizeSlider.getMin()),
+                (int) (playArea.getHeight() / cellSizeSlider.getMin())));
+    }
+
+    /**
+     * Creates a new {@code GenerationsBoard} covering the whole canvas at the smallest cell size and implements it in
+     * the game. The board starts out with Brian's Brain ({@code B2/S/C3}); other Generations rules, such as
+     * {@code 345/2/4}, can be chosen in the rule menu.
+     *
+     * @see GenerationsBoard
+     */
+    @FXML
+    public void newGenerationsBoard() {
+        setBoard(new GenerationsBoard((int) (playArea.getWidth() / cellSizeSlider.getMin()),
+                (int) (playArea.getHeight() / cellSizeSlider.getMin())));
+    }
+
+    /**
+     * Creates a new {@code LargerThanLifeBoard} covering the whole canvas at the smallest cell size and implements it
+     * in the game. The board starts out with Bosco's rule ({@code R5,C0,M1,S34..58,B34..45,NM}).
+     *
+     * @see LargerThanLifeBoard
+     */
+    @FXML
+    public void newLargerThanLifeBoard() {
+        setBoard(new LargerThanLifeBoard((int) (playArea.getWidth() / cellSizeSlider.getMin()),
+                (int) (playArea.getHeight() / cellSizeSlider.getMin())));
+    }
+
+    /**
+     * Creates a new {@code OffHeapBoard} covering the whole canvas at the smallest cell size and implements it in the
+     * game. The cells of the board live outside the Java heap, so they never stall the user interface with garbage
+     * collection.
+     *
+     * @see OffHeapBoard
+     */
+    @FXML
+    public void newOffHeapBoard() {
+        setBoard(new OffHeapBoard((int) (playArea.getWidth() / cellSizeSlider.getMin()),
+                (int) (playArea.getHeight() / cellSizeSlider.getMin())));
+    }
+
+    /**
+     * Implements a new board in the game. The worker threads of the old board are stopped, and the generation
+     * counter starts over. The board is handed to the simulation thread and must not be used afterwards.
+     *
+     * @param board
+     *      The board that replaces the current one
+     */
+    private void setBoard(Board board) {
+        board.setCellSize(cellSizeSlider.getValue());
+        board.setMetrics(metrics);
+        simulation.submit(gameBoard -> {
+            if (gameBoard instanceof DynamicBoard) {
+                ((DynamicBoard) gameBoard).shutdown();
+            } else if (gameBoard instanceof OffHeapBoard) {
+                ((OffHeapBoard) gameBoard).close();
+            }
+            simulation.setBoard(board);
+            resetGenerations();
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,188 @@
+package Main;
+
+import Model.BitBoard;
+import Model.DistributedStrip;
+import Model.PatternFormatException;
+import Model.Rule;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Runs the game without a user interface on several processes, each of which holds one horizontal strip of the board
+ * in a {@link DistributedStrip}. Started without {@code --rank}, the launcher starts one Java process per strip on this
+ * machine with the same class path and waits for all of them. A process started with {@code --rank} is one of the
+ * workers: it loads the pattern, keeps the rows of its own strip, connects to its neighbours and runs the
+ * generations. Process 0 collects the population, prints the statistics and writes the final board in the RLE
+ * format when an output file is given.
+ * <pre>
+ * java Main.Distributed PATTERN [options]
+ *   -p, --processes N      number of processes the board is split between (default 2)
+ *   -g, --generations N    number of generations to run (default 100)
+ *   -k, --halo N           generations between two exchanges of the halo rows (default 1)
+ *   -r, --rule RULE        rulestring to run, for example B36/S23 (default B3/S23)
+ *   -w, --width N          width of the board (default: pattern width + 128)
+ *   -h, --height N         height of the board (default: pattern height + 128)
+ *   --host HOST            address the processes connect on (default 127.0.0.1)
+ *   --port N               port of process 0, process r listens on port + r (default 47100)
+ *   -o, --output FILE      file the final board is written to by process 0
+ *   --rank N               run as worker N instead of starting the workers
+ * </pre>
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+public class Distributed extends PatternRun {
+
+    private int processes = 2;
+    private int halo = 1;
+    private String host = "127.0.0.1";
+    private int port = 47100;
+    private int rank = -1;
+
+    public static void main(String[] args) {
+        execute(new Distributed(), args);
+    }
+
+    @Override
+    boolean parseOption(String option, String value) {
+        switch (option) {
+            case "-p":
+            case "--processes":
+                processes = (int) Math.max(1, Math.min(1024, parseNumber(option, value)));
+                return true;
+            case "-k":
+            case "--halo":
+                halo = (int) Math.max(1, Math.min(DistributedStrip.MAX_HALO, parseNumber(option, value)));
+                return true;
+            case "--host":
+                host = value;
+                return true;
+            case "--port":
+                port = (int) Math.min(65535, parseNumber(option, value));
+                return true;
+            case "--rank":
+                rank = (int) Math.min(Integer.MAX_VALUE, parseNumber(option, value));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    void checkArguments() {
+        if (rank >= processes) throw new IllegalArgumentException("Rank must be smaller than the number of processes");
+        if (port + processes - 1 > 65535) throw new IllegalArgumentException("Not enough ports above " + port);
+    }
+
+    @Override
+    String[] getOptionLines() {
+        return new String[]{
+                "-p, --processes N      number of processes the board is split between (default 2)",
+                "-g, --generations N    number of generations to run (default 100)",
+                "-k, --halo N           generations between two exchanges of the halo rows (default 1)",
+                "-r, --rule RULE        rulestring to run, for example B36/S23",
+                "-w, --width N          width of the board (default: pattern width + 128)",
+                "-h, --height N         height of the board (default: pattern height + 128)",
+                "--host HOST            address the processes connect on (default 127.0.0.1)",
+                "--port N               port of process 0, process r listens on port + r (default 47100)",
+                "-o, --output FILE      file the final board is written to by process 0",
+                "--rank N               run as worker N instead of starting the workers"
+        };
+    }
+
+    /**
+     * Starts the workers, or runs the strip of this worker.
+     */
+    @Override
+    int run(String[] args) throws IOException, PatternFormatException, InterruptedException {
+        return rank < 0 ? launch(args) : work();
+    }
+
+    /**
+     * Starts one worker process per strip and waits for all of them.
+     * @return The largest exit code of the workers.
+     */
+    private int launch(String[] args) throws IOException, InterruptedException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> workers = new ArrayList<>();
+        try {
+            for (int r = 0; r < processes; r++) {
+                List<String> command = new ArrayList<>();
+                command.add(java);
+                command.add("-cp");
+                command.add(System.getProperty("java.class.path"));
+                command.add(Distributed.class.getName());
+                for (String arg : args) {
+                    command.add(arg);
+                }
+                command.add("--processes");
+                command.add(Integer.toString(processes));
+                command.add("--rank");
+                command.add(Integer.toString(r));
+                workers.add(new ProcessBuilder(command).inheritIO().start());
+            }
+            int exitCode = 0;
+            for (Process worker : workers) {
+                exitCode = Math.max(exitCode, worker.waitFor());
+            }
+            return exitCode;
+        } finally {
+            for (Process worker : workers) {
+                worker.destroy();
+            }
+        }
+    }
+
+    /**
+     * Runs the strip of this worker.
+     * @return The exit code of the worker.
+     */
+    private int work() throws IOException, PatternFormatException {
+        byte[][] cells = loadPattern();
+
+        try (DistributedStrip strip = new DistributedStrip(width, height, rank, processes, halo)) {
+            if (rule != null) {
+                strip.setRule(Rule.forRulestring(rule));
+            }
+            placePattern(cells, strip.getStart(), strip.getEnd(), (x, y) -> strip.setCellState(x, y, true));
+            cells = null;
+
+            strip.connect(host, port);
+            long initialPopulation = strip.reducePopulation();
+            long start = System.nanoTime();
+            strip.step((int) generations);
+            long time = System.nanoTime() - start;
+            long population = strip.reducePopulation();
+            BitBoard board = output == null ? null : strip.gather();
+            if (rank != 0) return 0;
+
+            ArrayList<String> stats = statistics(strip, time, initialPopulation, population);
+            for (String line : stats) {
+                System.out.println(line);
+            }
+            if (board != null) {
+                try (Writer writer = output.equals("-") ? new OutputStreamWriter(System.out) : new FileWriter(output)) {
+                    writeResult(writer, board, stats);
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Describes the run, one statistic per line.
+     */
+    private ArrayList<String> statistics(DistributedStrip strip, long time, long initialPopulation, long population) {
+        ArrayList<String> stats = newStatistics(String.format(Locale.ROOT,
+                "processes: %d, halo: %d, rule: %s, board: %dx%d", processes, halo, strip.getRule(), width, height));
+        addRunTime(stats, time, (double) width * height * generations);
+        stats.add(String.format(Locale.ROOT, "population: %d -> %d", initialPopulation, population));
+        return stats;
+    }
+}
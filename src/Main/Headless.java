@@ -0,0 +1,198 @@
+package Main;
+
+import Model.BitBoard;
+import Model.Board;
+import Model.DynamicBoard;
+import Model.FileHandler;
+import Model.GenerationsBoard;
+import Model.HashLifeBoard;
+import Model.LargerThanLifeBoard;
+import Model.OffHeapBoard;
+import Model.PatternFormatException;
+import Model.Rule;
+import Model.SimulationMetrics;
+import Model.StaticBoard;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Locale;
+
+/**
+ * Runs the game without a user interface, for batch runs and throughput measurements on machines without a display.
+ * A pattern is loaded with {@link Model.FileHandler}, advanced a number of generations on the chosen engine, and the final
+ * board is written in the RLE format, preceded by comment lines with the timing, phase latency and population
+ * statistics of the run.
+ * No JavaFX class is loaded.
+ * <pre>
+ * java Main.Headless PATTERN [options]
+ *   -g, --generations N    number of generations to run (default 100)
+ *   -e, --engine NAME      dynamic, bit, offheap, hashlife, generations, ltl or static (default dynamic)
+ *   -t, --threads N        number of threads of the dynamic and off-heap engines (default: processors)
+ *   -s, --scheduling NAME  static or fork-join scheduling of the dynamic engine (default static)
+ *   -r, --rule RULE        rulestring to run, for example B36/S23 (default: the rule of the engine)
+ *   -w, --width N          width of fixed-size boards (default: pattern width + 128)
+ *   -h, --height N         height of fixed-size boards (default: pattern height + 128)
+ *   -o, --output FILE      file the final board is written to (default: standard output)
+ * </pre>
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+public class Headless extends PatternRun {
+
+    private String engine = "dynamic";
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private DynamicBoard.Scheduling scheduling = DynamicBoard.Scheduling.STATIC;
+
+    public static void main(String[] args) {
+        execute(new Headless(), args);
+    }
+
+    @Override
+    boolean parseOption(String option, String value) {
+        switch (option) {
+            case "-e":
+            case "--engine":
+                engine = value.toLowerCase(Locale.ROOT);
+                return true;
+            case "-t":
+            case "--threads":
+                threads = (int) Math.max(1, Math.min(1024, parseNumber(option, value)));
+                return true;
+            case "-s":
+            case "--scheduling":
+                switch (value.toLowerCase(Locale.ROOT)) {
+                    case "static":
+                        scheduling = DynamicBoard.Scheduling.STATIC;
+                        break;
+                    case "fork-join":
+                    case "forkjoin":
+                        scheduling = DynamicBoard.Scheduling.FORK_JOIN;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown scheduling " + value);
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    String[] getOptionLines() {
+        return new String[]{
+                "-g, --generations N    number of generations to run (default 100)",
+                "-e, --engine NAME      dynamic, bit, offheap, hashlife, generations, ltl or static",
+                "-t, --threads N        threads of the dynamic and off-heap engines (default: processors)",
+                "-s, --scheduling NAME  static or fork-join scheduling of the dynamic engine",
+                "-r, --rule RULE        rulestring to run, for example B36/S23",
+                "-w, --width N          width of fixed-size boards (default: pattern width + 128)",
+                "-h, --height N         height of fixed-size boards (default: pattern height + 128)",
+                "-o, --output FILE      file the final board is written to (default: standard output)"
+        };
+    }
+
+    /**
+     * Loads the pattern, runs the generations and writes the result.
+     */
+    @Override
+    int run(String[] args) throws IOException, PatternFormatException {
+        // the first pattern load event starts the event machinery of the JVM, which is not part of loading
+        FileHandler.prepareRecording();
+        long loadStart = System.nanoTime();
+        byte[][] cells = loadPattern();
+        long loadTime = System.nanoTime() - loadStart;
+
+        Board board = createBoard();
+        try {
+            if (rule != null) {
+                board.setRule(Rule.forRulestring(rule));
+            }
+            placePattern(cells, 0, height, (x, y) -> board.setCellState(x, y, true));
+            long initialPopulation = board.getPopulation();
+            SimulationMetrics metrics = new SimulationMetrics();
+            board.setMetrics(metrics);
+
+            long start = System.nanoTime();
+            board.step((int) generations);
+            long time = System.nanoTime() - start;
+
+            ArrayList<String> stats = statistics(board, metrics, loadTime, time, initialPopulation);
+            if (output == null) {
+                writeResult(new OutputStreamWriter(System.out), board, stats);
+            } else {
+                try (Writer writer = new FileWriter(output)) {
+                    writeResult(writer, board, stats);
+                }
+                for (String line : stats) {
+                    System.out.println(line);
+                }
+            }
+            return 0;
+        } finally {
+            if (board instanceof DynamicBoard) {
+                ((DynamicBoard) board).shutdown();
+            } else if (board instanceof OffHeapBoard) {
+                ((OffHeapBoard) board).close();
+            }
+        }
+    }
+
+    /**
+     * Creates the board of the chosen engine.
+     */
+    @SuppressWarnings("deprecation")
+    private Board createBoard() {
+        switch (engine) {
+            case "dynamic":
+                DynamicBoard dynamicBoard = new DynamicBoard(width, height);
+                dynamicBoard.setThreadCount(threads);
+                dynamicBoard.setScheduling(scheduling);
+                return dynamicBoard;
+            case "bit":
+                return new BitBoard(width, height);
+            case "offheap":
+                return new OffHeapBoard(width, height, null, threads);
+            case "hashlife":
+                return new HashLifeBoard(width, height);
+            case "generations":
+                return new GenerationsBoard(width, height);
+            case "ltl":
+                return new LargerThanLifeBoard(width, height);
+            case "static":
+                return new StaticBoard(height, width);
+            default:
+                throw new IllegalArgumentException("Unknown engine " + engine);
+        }
+    }
+
+    /**
+     * Describes the run, one statistic per line.
+     */
+    private ArrayList<String> statistics(Board board, SimulationMetrics metrics, long loadTime, long time,
+                                         long initialPopulation) {
+        ArrayList<String> stats = newStatistics(String.format(Locale.ROOT,
+                "engine: %s, threads: %d, rule: %s, board: %dx%d", engine, threads, board.getRule(), width, height));
+        stats.add(String.format(Locale.ROOT, "load time: %.3f ms", loadTime / 1e6));
+        // the cells the engine computed, which boards that grow or skip cells report themselves
+        addRunTime(stats, time, metrics.getCells() > 0 ? metrics.getCells() : -1);
+        for (SimulationMetrics.Phase phase : SimulationMetrics.Phase.values()) {
+            if (metrics.getHistogram(phase).getCount() > 0) {
+                stats.add(String.format(Locale.ROOT, "%s: %s", phase.name().toLowerCase(Locale.ROOT),
+                        metrics.getStatistics(phase)));
+            }
+        }
+        if (metrics.getAllocatedBytesPerGeneration() >= 0) {
+            stats.add(String.format(Locale.ROOT, "allocated/generation: %.0f bytes",
+                    metrics.getAllocatedBytesPerGeneration()));
+        }
+        stats.add(String.format(Locale.ROOT, "population: %d -> %d", initialPopulation, board.getPopulation()));
+        if (board.getPopulation() > 0) {
+            stats.add(String.format(Locale.ROOT, "bounding box: (%d,%d) to (%d,%d)",
+                    board.getMinX(), board.getMinY(), board.getMaxX(), board.getMaxY()));
+        }
+        return stats;
+    }
+}
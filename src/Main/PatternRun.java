@@ -0,0 +1,250 @@
+package Main;
+
+import Model.Board;
+import Model.FileHandler;
+import Model.PatternFormatException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The part of the programs without a user interface that they all share: reading the pattern and the options every
+ * program has from the command line, loading the pattern into the middle of the board, and describing the run.
+ * Options a program has of its own are read by {@link #parseOption(String, String)}.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+abstract class PatternRun {
+
+    /**
+     * Number of dead cells on every side of the pattern when the size of the board is not given.
+     */
+    static final int MARGIN = 64;
+
+    String pattern;
+    long generations = 100;
+    String rule;
+    int width = -1;
+    int height = -1;
+    String output;
+
+    /**
+     * Receives the living cells of the pattern.
+     */
+    interface Placement {
+
+        /**
+         * Sets a cell of the board alive.
+         * @param x The x-position of the cell on the board.
+         * @param y The y-position of the cell on the board.
+         */
+        void setAlive(int x, int y);
+    }
+
+    /**
+     * Reads the arguments, runs the program and exits with its exit code: 1 if the pattern could not be read, and 2 if
+     * the arguments are wrong.
+     * @param program The program to run.
+     * @param args The command line arguments.
+     */
+    static void execute(PatternRun program, String[] args) {
+        try {
+            program.parse(args);
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            program.printUsage(System.err);
+            System.exit(2);
+        }
+
+        try {
+            System.exit(program.run(args));
+        } catch (IOException | PatternFormatException ex) {
+            System.err.println("Could not run " + program.pattern + ": " + ex.getMessage());
+            System.exit(1);
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.exit(2);
+        } catch (InterruptedException ex) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs the program once the arguments have been read.
+     * @param args The command line arguments.
+     * @return The exit code.
+     */
+    abstract int run(String[] args) throws IOException, PatternFormatException, InterruptedException;
+
+    /**
+     * Reads an option only this program has.
+     * @param option The option.
+     * @param value The value given for it.
+     * @return False if the program has no such option.
+     */
+    abstract boolean parseOption(String option, String value);
+
+    /**
+     * @return The lines of the usage message that describe the options, in the order they are listed.
+     */
+    abstract String[] getOptionLines();
+
+    /**
+     * Checks the arguments once they have all been read. Programs whose options depend on each other override it.
+     */
+    void checkArguments() {
+    }
+
+    /**
+     * Reads the command line arguments.
+     */
+    void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("-")) {
+                if (pattern != null) throw new IllegalArgumentException("Only one pattern can be given");
+                pattern = arg;
+                continue;
+            }
+            if (arg.equals("--help")) {
+                printUsage(System.out);
+                System.exit(0);
+            }
+            if (i + 1 == args.length) throw new IllegalArgumentException("Missing value for " + arg);
+            String value = args[++i];
+            switch (arg) {
+                case "-g":
+                case "--generations":
+                    generations = parseNumber(arg, value);
+                    if (generations > Integer.MAX_VALUE) {
+                        throw new IllegalArgumentException("At most " + Integer.MAX_VALUE + " generations can be run");
+                    }
+                    break;
+                case "-r":
+                case "--rule":
+                    rule = value;
+                    break;
+                case "-w":
+                case "--width":
+                    width = (int) Math.min(Integer.MAX_VALUE, parseNumber(arg, value));
+                    break;
+                case "-h":
+                case "--height":
+                    height = (int) Math.min(Integer.MAX_VALUE, parseNumber(arg, value));
+                    break;
+                case "-o":
+                case "--output":
+                    output = value;
+                    break;
+                default:
+                    if (!parseOption(arg, value)) throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        if (pattern == null) throw new IllegalArgumentException("No pattern given");
+        checkArguments();
+    }
+
+    static long parseNumber(String option, String value) {
+        try {
+            long number = Long.parseLong(value);
+            if (number < 0) throw new NumberFormatException();
+            return number;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid number '" + value + "' for " + option);
+        }
+    }
+
+    void printUsage(PrintStream out) {
+        out.println("Usage: java " + getClass().getName() + " PATTERN [options]");
+        for (String line : getOptionLines()) {
+            out.println("  " + line);
+        }
+    }
+
+    /**
+     * Loads the pattern from a file or URL, and makes the board the size of the pattern and its margin unless a size
+     * was given.
+     * @return The cells of the pattern, indexed by x and then y.
+     * @throws IllegalArgumentException If the board is smaller than the pattern.
+     */
+    byte[][] loadPattern() throws IOException, PatternFormatException {
+        byte[][] cells = pattern.contains("://")
+                ? FileHandler.readFromURL(pattern) : FileHandler.readFromDisk(new File(pattern));
+
+        int patternWidth = cells.length;
+        int patternHeight = cells.length == 0 ? 0 : cells[0].length;
+        if (width < 0) width = patternWidth + 2 * MARGIN;
+        if (height < 0) height = patternHeight + 2 * MARGIN;
+        if (width < patternWidth || height < patternHeight) {
+            throw new IllegalArgumentException("The board is smaller than the pattern");
+        }
+        return cells;
+    }
+
+    /**
+     * Places the living cells of the pattern that fall into some rows of the board, with the pattern in the middle of
+     * the board.
+     * @param cells The cells of the pattern, indexed by x and then y.
+     * @param fromY The first row of the board to place.
+     * @param toY The row after the last row of the board to place.
+     * @param board Receives the living cells.
+     */
+    void placePattern(byte[][] cells, int fromY, int toY, Placement board) {
+        int patternWidth = cells.length;
+        int patternHeight = cells.length == 0 ? 0 : cells[0].length;
+        int xOffset = (width - patternWidth) / 2;
+        int yOffset = (height - patternHeight) / 2;
+        int from = Math.max(0, fromY - yOffset);
+        int to = Math.min(patternHeight, toY - yOffset);
+        for (int x = 0; x < patternWidth; x++) {
+            for (int y = from; y < to; y++) {
+                if (cells[x][y] == 1) board.setAlive(x + xOffset, y + yOffset);
+            }
+        }
+    }
+
+    /**
+     * Starts the description of a run with the pattern, how it was run and the number of generations.
+     * @param setup What the pattern was run on.
+     * @return The statistics, one per line.
+     */
+    ArrayList<String> newStatistics(String setup) {
+        ArrayList<String> stats = new ArrayList<>();
+        stats.add(String.format(Locale.ROOT, "pattern: %s", pattern));
+        stats.add(setup);
+        stats.add(String.format(Locale.ROOT, "generations: %d", generations));
+        return stats;
+    }
+
+    /**
+     * Adds the run time and the throughput of a run to its statistics.
+     * @param stats The statistics.
+     * @param time The run time in nanoseconds.
+     * @param cells The number of cells computed in all generations, or a negative number if it is not known.
+     */
+    void addRunTime(List<String> stats, long time, double cells) {
+        double seconds = time / 1e9;
+        stats.add(String.format(Locale.ROOT, "run time: %.3f ms", time / 1e6));
+        if (generations > 0 && time > 0) {
+            stats.add(String.format(Locale.ROOT, "generations/s: %.1f", generations / seconds));
+            if (cells >= 0) {
+                stats.add(String.format(Locale.ROOT, "cells/s: %.4g", cells / seconds));
+            }
+        }
+    }
+
+    /**
+     * Writes the statistics as comment lines, followed by the final board.
+     */
+    static void writeResult(Writer writer, Board board, List<String> stats) throws IOException {
+        for (String line : stats) {
+            writer.write("#C " + line + "\n");
+        }
+        FileHandler.writeRle(board, writer);
+    }
+}
@@ -0,0 +1,429 @@
+package Model;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size board that stores its cells as packed bits. Every row of the board is a run of {@code long} words where
+ * bit {@code x % 64} of word {@code x / 64} holds the cell in column x. The next generation is computed with
+ * bit-sliced adders, so a single pass over one word counts the neighbours of and applies the rules to 64 cells at a
+ * time. Rules that are not Life-like, such as an {@link IsotropicRule}, are looked up in the 512 entry
+ * neighbourhood table of the rule instead, one cell after the other but without branching on the cells.
+ * Cells outside the board are treated as dead.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+public class BitBoard extends Board {
+
+    private final int WIDTH;
+    private final int HEIGHT;
+    private final int words;
+    private final long lastMask;
+    private long[] gameBoard;
+    private long[] nextBoard;
+    private LifeLikeRule lifeRule;
+    private byte[] neighbourhoodTable;
+    private long[] blockCells;
+    private long[] blockNext;
+    private final CellCensus census = new CellCensus();
+
+    /**
+     * Largest number of generations computed in one pass by {@link #step(int)}.
+     */
+    private static final int BLOCK_GENERATIONS = 8;
+
+    /**
+     * Number of words two strip buffers should hold at most, so that a strip stays in a 1 MiB cache.
+     */
+    private static final int BLOCK_WORDS = 1 << 16;
+
+    /**
+     * Constructs an empty bit board with the given dimensions.
+     * @param width Number of cells in x direction.
+     * @param height Number of cells in y direction.
+     */
+    public BitBoard(int width, int height) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Board dimensions must be positive");
+        }
+        WIDTH = width;
+        HEIGHT = height;
+        words = (width + 63) >>> 6;
+        lastMask = (width & 63) == 0 ? -1L : (1L << (width & 63)) - 1;
+        gameBoard = new long[words * height];
+        nextBoard = new long[words * height];
+        setRule(new ConwayRule());
+    }
+
+    /**
+     * Sets the rule used by the board. Life-like rules run on the bit-sliced neighbour counts, every other rule is
+     * evaluated through its neighbourhood table.
+     * @param rule The new rule.
+     */
+    @Override
+    public void setRule(Rule rule) {
+        super.setRule(rule);
+        lifeRule = rule instanceof LifeLikeRule ? (LifeLikeRule) rule : null;
+        neighbourhoodTable = rule.neighbourhoodTable();
+    }
+
+    /**
+     * Returns the cell state of the cell in position (x,y) if inside the board.
+     * @param x
+     *          x-position of the tested cell
+     * @param y
+     *          y-position of the tested cell
+     * @return True if the cell is inside the board and alive.
+     */
+    @Override
+    public boolean getCellState(int x, int y) {
+        if (x < 0 || y < 0 || x >= WIDTH || y >= HEIGHT) return false;
+        return (gameBoard[y * words + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Sets the cell in position (x,y) to alive or dead. Positions outside the board are ignored.
+     * @param x
+     *          x-position of the cell
+     * @param y
+     *          y-position of the cell
+     * @param b
+     *          state that the cell will be set to; false or true (0 or 1)
+     */
+    @Override
+    public void setCellState(int x, int y, boolean b) {
+        if (x < 0 || y < 0 || x >= WIDTH || y >= HEIGHT) return;
+        int index = y * words + (x >>> 6);
+        boolean alive = (gameBoard[index] & (1L << x)) != 0;
+        if (b && !alive) {
+            gameBoard[index] |= 1L << x;
+            census.add(x, y);
+        } else if (!b && alive) {
+            gameBoard[index] &= ~(1L << x);
+            census.remove(x, y);
+        }
+    }
+
+    /**
+     * Copies the states of the cells in a rectangle row by row, reading each word of the board once.
+     * @param states Array of at least {@code width * height} entries that receives the states.
+     * @param fromX x-position of the left edge of the rectangle.
+     * @param fromY y-position of the top edge of the rectangle.
+     * @param width Number of cells in a row of the rectangle.
+     * @param height Number of rows in the rectangle.
+     */
+    @Override
+    public void getCellStates(byte[] states, int fromX, int fromY, int width, int height) {
+        for (int y = 0; y < height; y++) {
+            int row = (fromY + y) * words;
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                int column = fromX + x;
+                states[offset + x] = (byte) (gameBoard[row + (column >>> 6)] >>> column & 1);
+            }
+        }
+    }
+
+    /**
+     * Tells a visitor about every living cell row by row, skipping the words without living cells.
+     * @param visitor The visitor to tell about the cells.
+     */
+    @Override
+    public void forEachCell(CellVisitor visitor) {
+        for (int y = 0; y < HEIGHT; y++) {
+            int row = y * words;
+            for (int w = 0; w < words; w++) {
+                long bits = gameBoard[row + w];
+                while (bits != 0) {
+                    visitor.visit(w << 6 | Long.numberOfTrailingZeros(bits), y, 1);
+                    bits &= bits - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the height of the board.
+     * @return Number of rows in the board.
+     */
+    @Override
+    public int getHEIGHT() {
+        return HEIGHT;
+    }
+
+    /**
+     * Returns the width of the board.
+     * @return Number of cells in each row.
+     */
+    @Override
+    public int getWIDTH() {
+        return WIDTH;
+    }
+
+    /**
+     * Calculates the next generation of the board. Each word of the next generation is computed from the nine words
+     * around it in the current generation, and the two buffers are swapped afterwards. The census is taken from every
+     * new row while it is still in the cache. With metrics set, the generation is timed as one step.
+     * @see SimulationMetrics
+     */
+    @Override
+    public void nextGeneration() {
+        SimulationMetrics metrics = getMetrics();
+        long start = metrics == null ? 0 : metrics.startGeneration();
+        census.clear();
+        for (int y = 0; y < HEIGHT; y++) {
+            int row = y * words;
+            nextRow(gameBoard, y > 0 ? row - words : -1, row, y < HEIGHT - 1 ? row + words : -1, nextBoard, row);
+            census.addRow(y, nextBoard, row, words);
+        }
+
+        long[] temp = gameBoard;
+        gameBoard = nextBoard;
+        nextBoard = temp;
+        if (metrics != null) {
+            metrics.recordPhase(SimulationMetrics.Phase.STEP, start);
+            metrics.endGeneration(start, (long) WIDTH * HEIGHT);
+        }
+    }
+
+    /**
+     * Advances the board by n generations with temporal blocking. The board is cut into strips of rows that fit in
+     * the cache, and each strip is copied together with k rows above and below it into a pair of strip buffers. The
+     * strip is then advanced k generations without leaving the cache; every generation the rows next to the copied
+     * halo become invalid, so after k generations exactly the rows of the strip are still correct and are written to
+     * the next generation of the board. The board is thereby read and written once per k generations instead of once
+     * per generation. With metrics set, each block of generations is timed as one step, and its generations are
+     * recorded together.
+     * @param n Number of generations to advance.
+     */
+    @Override
+    public void step(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Number of generations cannot be negative");
+        }
+        while (n > 0) {
+            int k = Math.min(n, BLOCK_GENERATIONS);
+            if (k == 1) {
+                nextGeneration();
+            } else {
+                stepBlocked(k);
+            }
+            n -= k;
+        }
+    }
+
+    /**
+     * Advances the board by k generations, one strip at a time.
+     */
+    private void stepBlocked(int k) {
+        SimulationMetrics metrics = getMetrics();
+        long generationStart = metrics == null ? 0 : metrics.startGeneration();
+        census.clear();
+        int stripRows = Math.max(4 * k, BLOCK_WORDS / 2 / words - 2 * k);
+        int bufferRows = stripRows + 2 * k;
+        if (blockCells == null || blockCells.length < bufferRows * words) {
+            blockCells = new long[bufferRows * words];
+            blockNext = new long[bufferRows * words];
+        }
+
+        for (int start = 0; start < HEIGHT; start += stripRows) {
+            int end = Math.min(HEIGHT, start + stripRows);
+            int top = Math.max(0, start - k);
+            int bottom = Math.min(HEIGHT, end + k);
+            int rows = bottom - top;
+            System.arraycopy(gameBoard, top * words, blockCells, 0, rows * words);
+
+            long[] cells = blockCells;
+            long[] next = blockNext;
+            for (int g = 1; g <= k; g++) {
+                // rows next to the edge of the board stay valid, as the cells beyond it are always dead
+                int from = top == 0 ? 0 : g;
+                int to = bottom == HEIGHT ? rows : rows - g;
+                for (int y = from; y < to; y++) {
+                    int row = y * words;
+                    nextRow(cells, y > 0 ? row - words : -1, row, y < rows - 1 ? row + words : -1, next, row);
+                }
+                long[] temp = cells;
+                cells = next;
+                next = temp;
+            }
+            System.arraycopy(cells, (start - top) * words, nextBoard, start * words, (end - start) * words);
+            for (int y = start; y < end; y++) {
+                census.addRow(y, cells, (y - top) * words, words);
+            }
+        }
+
+        long[] temp = gameBoard;
+        gameBoard = nextBoard;
+        nextBoard = temp;
+        if (metrics != null) {
+            metrics.recordPhase(SimulationMetrics.Phase.STEP, generationStart);
+            metrics.endGenerations(generationStart, k, (long) WIDTH * HEIGHT * k);
+        }
+    }
+
+    /**
+     * Computes the next state of one row of cells.
+     * @param cells Array holding the current generation.
+     * @param above Index of the first word of the row above, or -1 if the row above is dead.
+     * @param row Index of the first word of the row.
+     * @param below Index of the first word of the row below, or -1 if the row below is dead.
+     * @param next Array that receives the next generation.
+     * @param target Index of the first word the row is written to.
+     */
+    private void nextRow(long[] cells, int above, int row, int below, long[] next, int target) {
+        for (int w = 0; w < words; w++) {
+            boolean west = w > 0;
+            boolean east = w < words - 1;
+
+            long a = above < 0 ? 0 : cells[above + w];
+            long aw = above < 0 || !west ? 0 : cells[above + w - 1];
+            long ae = above < 0 || !east ? 0 : cells[above + w + 1];
+            long c = cells[row + w];
+            long cw = west ? cells[row + w - 1] : 0;
+            long ce = east ? cells[row + w + 1] : 0;
+            long b = below < 0 ? 0 : cells[below + w];
+            long bw = below < 0 || !west ? 0 : cells[below + w - 1];
+            long be = below < 0 || !east ? 0 : cells[below + w + 1];
+
+            long result = lifeRule != null
+                    ? nextWord(lifeRule, aw, a, ae, cw, c, ce, bw, b, be)
+                    : nextWord(neighbourhoodTable, aw, a, ae, cw, c, ce, bw, b, be);
+            next[target + w] = east ? result : result & lastMask;
+        }
+    }
+
+    /**
+     * Computes the next state of 64 cells at once under a Life-like rule. The parameters are the word holding the
+     * cells and the eight words around it; the words to the west and east only contribute the bit adjacent to the
+     * centre word.
+     * @param rule The rule to apply.
+     * @param aw Word above and to the west.
+     * @param a Word above.
+     * @param ae Word above and to the east.
+     * @param w Word to the west.
+     * @param c The word holding the cells.
+     * @param e Word to the east.
+     * @param bw Word below and to the west.
+     * @param b Word below.
+     * @param be Word below and to the east.
+     * @return The next generation of the cells in {@code c}.
+     */
+    static long nextWord(LifeLikeRule rule, long aw, long a, long ae, long w, long c, long e,
+                         long bw, long b, long be) {
+        // the eight neighbours of every cell in c, lined up bit for bit
+        long n0 = (a << 1) | (aw >>> 63);
+        long n1 = a;
+        long n2 = (a >>> 1) | (ae << 63);
+        long n3 = (c << 1) | (w >>> 63);
+        long n4 = (c >>> 1) | (e << 63);
+        long n5 = (b << 1) | (bw >>> 63);
+        long n6 = b;
+        long n7 = (b >>> 1) | (be << 63);
+
+        // full adders reduce the eight inputs into the bits of the neighbour count
+        long x0 = n0 ^ n1;
+        long s0 = x0 ^ n2;
+        long c0 = (n0 & n1) | (n2 & x0);
+        long x1 = n3 ^ n4;
+        long s1 = x1 ^ n5;
+        long c1 = (n3 & n4) | (n5 & x1);
+        long s2 = n6 ^ n7;
+        long c2 = n6 & n7;
+
+        long x2 = s0 ^ s1;
+        long ones = x2 ^ s2;
+        long c3 = (s0 & s1) | (s2 & x2);
+
+        long x3 = c0 ^ c1;
+        long t = x3 ^ c2;
+        long c4 = (c0 & c1) | (c2 & x3);
+        long twos = t ^ c3;
+        long c5 = t & c3;
+        long fours = c4 ^ c5;
+        long eights = c4 & c5;
+
+        return rule.nextWord(c, ones, twos, fours, eights);
+    }
+
+    /**
+     * Computes the next state of 64 cells under any rule by looking every cell up in the neighbourhood table of the
+     * rule. The parameters are the same as for {@link #nextWord(LifeLikeRule, long, long, long, long, long, long,
+     * long, long, long)}.
+     * @param table The neighbourhood table of the rule, see {@link Rule#neighbourhoodTable()}.
+     * @return The next generation of the cells in {@code c}.
+     */
+    static long nextWord(byte[] table, long aw, long a, long ae, long w, long c, long e, long bw, long b, long be) {
+        long n0 = (a << 1) | (aw >>> 63);
+        long n2 = (a >>> 1) | (ae << 63);
+        long n3 = (c << 1) | (w >>> 63);
+        long n5 = (c >>> 1) | (e << 63);
+        long n6 = (b << 1) | (bw >>> 63);
+        long n8 = (b >>> 1) | (be << 63);
+        if ((n0 | a | n2 | n3 | c | n5 | n6 | b | n8) == 0) {
+            return -(long) table[0];
+        }
+
+        long result = 0;
+        for (int i = 0; i < 64; i++) {
+            int neighbourhood = (int) (n0 >>> i & 1)
+                    | (int) (a >>> i & 1) << 1
+                    | (int) (n2 >>> i & 1) << 2
+                    | (int) (n3 >>> i & 1) << 3
+                    | (int) (c >>> i & 1) << 4
+                    | (int) (n5 >>> i & 1) << 5
+                    | (int) (n6 >>> i & 1) << 6
+                    | (int) (b >>> i & 1) << 7
+                    | (int) (n8 >>> i & 1) << 8;
+            result |= (long) table[neighbourhood] << i;
+        }
+        return result;
+    }
+
+    /**
+     * Neighbours are counted as part of {@link #nextGeneration()}, so this method is not supported.
+     */
+    @Override
+    public void countNeighbours() {
+        throw new UnsupportedOperationException("Neighbours are counted in nextGeneration()");
+    }
+
+    /**
+     * Kills every cell on the board.
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(gameBoard, 0);
+        census.clear();
+    }
+
+    /**
+     * Returns the census of the living cells, which is taken while the board steps. If a cell on the edge of the
+     * bounding box has been killed since, the rows are counted again.
+     */
+    @Override
+    CellCensus census() {
+        if (census.isStale()) {
+            census.clear();
+            for (int y = 0; y < HEIGHT; y++) {
+                census.addRow(y, gameBoard, y * words, words);
+            }
+        }
+        return census;
+    }
+
+    /**
+     * ToString method to return the cells in the board in a String format.
+     * @return String of the cells in the board.
+     */
+    @Override
+    public String toString() {
+        StringBuilder stringBuilder = new StringBuilder();
+
+        for (int i = 0; i < WIDTH; i++) {
+            for (int j = 0; j < HEIGHT; j++) {
+                stringBuilder.append(getCellState(i, j) ? 1 : 0);
+            }
+        }
+        return stringBuilder.toString();
+    }
+}
@@ -8,6 +8,24 @@ package Model;
  * */
 public abstract class Board {
 
+    /**
+     * Is told about the cells of a board that are not dead.
+     * */
+    public interface CellVisitor {
+
+        /**
+         * Called for a cell that is alive or in a refractory state.
+         *
+         * @param x
+         *          x-position of the cell
+         * @param y
+         *          y-position of the cell
+         * @param state
+         *          The state of the cell, never 0
+         * */
+        void visit(int x, int y, int state);
+    }
+
     /**
      * The size of the cells is initially set to 0.
      * */
@@ -18,6 +36,16 @@ public abstract class Board {
      * */
     private Rule rule;
 
+    /**
+     * The shape of the universe of the board.
+     * */
+    private Topology topology = Topology.BOUNDED;
+
+    /**
+     * The metrics the phases of each generation are timed into, if any.
+     * */
+    private SimulationMetrics metrics;
+
     /**
      * Get the current size of the cells.
      *
@@ -38,6 +66,274 @@ public abstract class Board {
         cellSize = x;
     }
 
+    /**
+     * Get the metrics the board times its generations into.
+     *
+     * @return
+     *          The metrics, or null if the board is not timed
+     * */
+    public SimulationMetrics getMetrics(){
+        return metrics;
+    }
+
+    /**
+     * Set the metrics the board times its generations into. Every board reports the phases it runs, the number of
+     * cells it computes and the memory it allocates. Nothing is timed while the metrics are null.
+     *
+     * @param metrics
+     *          The metrics to time into, or null to stop timing
+     * */
+    public void setMetrics(SimulationMetrics metrics){
+        this.metrics = metrics;
+    }
+
+    /**
+     * Get the set of rules used for the game.
+     *
+     * @return
+     *          The current rule
+     * */
+    public Rule getRule(){
+        return rule;
+    }
+
+    /**
+     * Set the set of rules used for the game. Boards that can only run some kinds of rules override this method and
+     * throw an {@code IllegalArgumentException} for the others.
+     *
+     * @param rule
+     *          The new rule
+     * @throws IllegalArgumentException
+     *          If the rule is null, has more states than the board can store or a neighbourhood the board cannot
+     *          count
+     * */
+    public void setRule(Rule rule){
+        if (rule == null) {
+            throw new IllegalArgumentException("Rule cannot be null");
+        }
+        if (!supportsStates(rule.getStates())) {
+            throw new IllegalArgumentException("This board cannot store rules with " + rule.getStates() + " states");
+        }
+        if (!supportsRadius(rule.getRadius())) {
+            throw new IllegalArgumentException("This board cannot count neighbours within radius " + rule.getRadius());
+        }
+        this.rule = rule;
+    }
+
+    /**
+     * Get the shape of the universe of the board.
+     *
+     * @return
+     *          The current topology
+     * */
+    public Topology getTopology(){
+        return topology;
+    }
+
+    /**
+     * Set the shape of the universe of the board. The cells on the board are kept.
+     *
+     * @param topology
+     *          The new topology
+     * @throws IllegalArgumentException
+     *          If the topology is null or not supported by the board
+     * */
+    public void setTopology(Topology topology){
+        if (topology == null) {
+            throw new IllegalArgumentException("Topology cannot be null");
+        }
+        if (!supportsTopology(topology)) {
+            throw new IllegalArgumentException("This board does not support the topology " + topology);
+        }
+        this.topology = topology;
+    }
+
+    /**
+     * Tells whether the board supports the given topology. Boards are bounded unless they override this method.
+     *
+     * @param topology
+     *          The topology in question
+     * @return
+     *          True if the board can take on that topology
+     * */
+    protected boolean supportsTopology(Topology topology) {
+        return topology == Topology.BOUNDED;
+    }
+
+    /**
+     * Tells whether the board can store cells with the given number of states. Boards only store dead and alive
+     * cells unless they override this method.
+     *
+     * @param states
+     *          The number of states of a rule
+     * @return
+     *          True if the board can run rules with that many states
+     * */
+    protected boolean supportsStates(int states) {
+        return states == 2;
+    }
+
+    /**
+     * Tells whether the board can count the neighbours within the given radius. Boards only count the eight cells
+     * around each cell unless they override this method.
+     *
+     * @param radius
+     *          The radius of the neighbourhood of a rule
+     * @return
+     *          True if the board can run rules with that radius
+     * */
+    protected boolean supportsRadius(int radius) {
+        return radius == 1;
+    }
+
+    /**
+     * Get the number of states the cells of the board can be in under the current rule.
+     *
+     * @return
+     *          The number of states, 2 for dead and alive
+     * */
+    public int getStates() {
+        return rule.getStates();
+    }
+
+    /**
+     * Copies the states of all cells into an array, row by row, so that cell (x,y) ends up at index
+     * {@code y * getWIDTH() + x}. Dead cells are 0 and living cells 1, and boards with more states use the values in
+     * between for the refractory states.
+     *
+     * @param states
+     *          Array of at least {@code getWIDTH() * getHEIGHT()} entries that receives the states
+     * @see #getCellStates(byte[], int, int, int, int)
+     * */
+    public void getCellStates(byte[] states) {
+        getCellStates(states, 0, 0, getWIDTH(), getHEIGHT());
+    }
+
+    /**
+     * Copies the states of the cells in a rectangle of the board into an array, row by row, so that cell (x,y) ends
+     * up at index {@code (y - fromY) * width + x - fromX}. This implementation asks for every cell with
+     * {@link #getState(int, int)}; boards that can copy their cells in bulk override it.
+     *
+     * @param states
+     *          Array of at least {@code width * height} entries that receives the states
+     * @param fromX
+     *          x-position of the left edge of the rectangle, at least 0
+     * @param fromY
+     *          y-position of the top edge of the rectangle, at least 0
+     * @param width
+     *          Number of cells in a row of the rectangle, at most {@code getWIDTH() - fromX}
+     * @param height
+     *          Number of rows in the rectangle, at most {@code getHEIGHT() - fromY}
+     * */
+    public void getCellStates(byte[] states, int fromX, int fromY, int width, int height) {
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                states[y * width + x] = (byte) getState(fromX + x, fromY + y);
+            }
+        }
+    }
+
+    /**
+     * Tells a visitor about every cell that is not dead, in no particular order. This implementation copies the cells
+     * of a board with the topology {@code PLANE} within the bounding box, and those of other boards row by row;
+     * boards that know where their cells are override it, so that the time it takes depends on the number of cells
+     * that are not dead rather than on the size of the board.
+     *
+     * @param visitor
+     *          The visitor to tell about the cells
+     * */
+    public void forEachCell(CellVisitor visitor) {
+        int fromX = 0;
+        int fromY = 0;
+        int width = getWIDTH();
+        int height = getHEIGHT();
+        if (getTopology() == Topology.PLANE) {
+            // an unbounded board only holds living cells, all of them within the bounding box
+            if (getPopulation() == 0) return;
+            fromX = getMinX();
+            fromY = getMinY();
+            width = getMaxX() - fromX + 1;
+            height = getMaxY() - fromY + 1;
+        }
+        byte[] row = new byte[width];
+        for (int y = fromY; y < fromY + height; y++) {
+            getCellStates(row, fromX, y, width, 1);
+            for (int x = 0; x < width; x++) {
+                if (row[x] != 0) visitor.visit(fromX + x, y, row[x] & 0xFF);
+            }
+        }
+    }
+
+    /**
+     * Get the number of living cells on the board. Cells in refractory states are not alive.
+     *
+     * @return
+     *          The population of the board
+     * */
+    public long getPopulation() {
+        return census().getPopulation();
+    }
+
+    /**
+     * Get the smallest x-position of a living cell, the left edge of the bounding box of the pattern.
+     *
+     * @return
+     *          The smallest x-position, {@code Integer.MAX_VALUE} if no cell is alive
+     * */
+    public int getMinX() {
+        return census().getMinX();
+    }
+
+    /**
+     * Get the smallest y-position of a living cell, the top edge of the bounding box of the pattern.
+     *
+     * @return
+     *          The smallest y-position, {@code Integer.MAX_VALUE} if no cell is alive
+     * */
+    public int getMinY() {
+        return census().getMinY();
+    }
+
+    /**
+     * Get the largest x-position of a living cell, the right edge of the bounding box of the pattern.
+     *
+     * @return
+     *          The largest x-position, {@code Integer.MIN_VALUE} if no cell is alive
+     * */
+    public int getMaxX() {
+        return census().getMaxX();
+    }
+
+    /**
+     * Get the largest y-position of a living cell, the bottom edge of the bounding box of the pattern.
+     *
+     * @return
+     *          The largest y-position, {@code Integer.MIN_VALUE} if no cell is alive
+     * */
+    public int getMaxY() {
+        return census().getMaxY();
+    }
+
+    /**
+     * Returns the census of the living cells. This implementation asks for every cell with
+     * {@link #getCellState(int, int)} each time it is called; boards that keep their census up to date while they
+     * step override it, so that the population and bounding box cost nothing to read.
+     *
+     * @return
+     *          A census that is not stale
+     * */
+    CellCensus census() {
+        CellCensus census = new CellCensus();
+        int width = getWIDTH();
+        int height = getHEIGHT();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (getCellState(x, y)) census.add(x, y);
+            }
+        }
+        return census;
+    }
+
     /**
      * Specifies the format of subclass methods that return the current state of the specified cell.
      *
@@ -60,6 +356,41 @@ public abstract class Board {
      * */
     public abstract void setCellState(int x, int y, boolean b);
 
+    /**
+     * Get the state of the specified cell. Dead cells are 0 and living cells 1; boards that store more states
+     * override this method to return the refractory states as well.
+     *
+     * @param x
+     *          x-position of the tested cell
+     * @param y
+     *          y-position of the tested cell
+     * @return
+     *          The state of the cell
+     * */
+    public int getState(int x, int y) {
+        return getCellState(x, y) ? 1 : 0;
+    }
+
+    /**
+     * Sets the state of a cell. Boards that only store dead and alive cells accept the states 0 and 1; boards that
+     * store more states override this method.
+     *
+     * @param x
+     *          x-position of the cell
+     * @param y
+     *          y-position of the cell
+     * @param state
+     *          The new state, from 0 to {@code getStates() - 1}
+     * @throws IllegalArgumentException
+     *          If the state is not a state of the current rule
+     * */
+    public void setState(int x, int y, int state) {
+        if (state < 0 || state >= getStates()) {
+            throw new IllegalArgumentException("Invalid cell state " + state);
+        }
+        setCellState(x, y, state == 1);
+    }
+
     /**
      * Return height of subclass boards.
      * */
@@ -76,6 +407,24 @@ public abstract class Board {
      * */
     public abstract void nextGeneration();
 
+    /**
+     * Advances the board by n generations in one call. This implementation calls {@link #nextGeneration()} n times;
+     * boards that can compute several generations in one pass over their cells override it.
+     *
+     * @param n
+     *          Number of generations to advance
+     * @throws IllegalArgumentException
+     *          If n is negative
+     * */
+    public void step(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Number of generations cannot be negative");
+        }
+        for (int i = 0; i < n; i++) {
+            nextGeneration();
+        }
+    }
+
     /**
      * Counts how many neighbouring cells each cell has. In general, this method determines which cells will die and/or
      * come to life, depending on how many neighbours each cell has. This varies from rule to rule, hence the
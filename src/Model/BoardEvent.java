@@ -0,0 +1,59 @@
+package Model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * The fields every Flight Recorder event about a board has in common: which engine ran, how large the board is, how
+ * many cells live on it and how many threads worked on it. The events are only filled in when the recording wants
+ * them, so they cost next to nothing while Flight Recorder is off.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+@Category({"Game of Life"})
+public abstract class BoardEvent extends Event {
+
+    @Label("Engine")
+    @Description("Class of the board that was run")
+    protected String engine;
+
+    @Label("Width")
+    protected int width;
+
+    @Label("Height")
+    protected int height;
+
+    @Label("Population")
+    @Description("Number of living cells")
+    protected long population;
+
+    @Label("Threads")
+    protected int threads;
+
+    /**
+     * Sets the fields of the event.
+     * @param engine The name of the engine.
+     * @param width The width of the board.
+     * @param height The height of the board.
+     * @param population The number of living cells.
+     * @param threads The number of threads working on the board.
+     */
+    public void describe(String engine, int width, int height, long population, int threads) {
+        this.engine = engine;
+        this.width = width;
+        this.height = height;
+        this.population = population;
+        this.threads = threads;
+    }
+
+    /**
+     * Sets the fields of the event from a board.
+     * @param board The board the event is about.
+     * @param threads The number of threads working on the board.
+     */
+    public void describe(Board board, int threads) {
+        describe(board.getClass().getSimpleName(), board.getWIDTH(), board.getHEIGHT(), board.getPopulation(), threads);
+    }
+}
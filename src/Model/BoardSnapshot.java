@@ -0,0 +1,211 @@
+package Model;
+
+import java.util.Arrays;
+
+/**
+ * An immutable copy of the cells of a board as they were after one generation. A {@link Simulation} publishes
+ * snapshots from its own thread, so the view can draw a generation while the board is already computing the next ones.
+ * Only the cells in the viewport the view asked for are copied, so a snapshot costs as much as the view shows however
+ * large the board has grown; the population and bounding box describe the whole board.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+public final class BoardSnapshot {
+
+    private final String engine;
+    private final long generation;
+    private final int width;
+    private final int height;
+    private final int states;
+    private final int threads;
+    private final long population;
+    private final int minX;
+    private final int minY;
+    private final int maxX;
+    private final int maxY;
+    private final int viewX;
+    private final int viewY;
+    private final int viewWidth;
+    private final int viewHeight;
+    // the part of the viewport that lies on the board, which is the part that is copied
+    private final int fromX;
+    private final int fromY;
+    private final int columns;
+    private final int rows;
+    private final byte[] cells;
+
+    /**
+     * Copies the cells of a board that lie in a viewport. Must be called on the thread that steps the board.
+     * @param board The board to copy.
+     * @param generation The generation the board is at.
+     * @param viewX The x-position of the left edge of the viewport.
+     * @param viewY The y-position of the top edge of the viewport.
+     * @param viewWidth The number of cells in a row of the viewport.
+     * @param viewHeight The number of rows in the viewport.
+     */
+    BoardSnapshot(Board board, long generation, int viewX, int viewY, int viewWidth, int viewHeight) {
+        this.engine = board.getClass().getSimpleName();
+        this.generation = generation;
+        this.width = board.getWIDTH();
+        this.height = board.getHEIGHT();
+        this.states = board.getStates();
+        this.threads = board instanceof DynamicBoard ? ((DynamicBoard) board).getThreadCount() : 1;
+        this.population = board.getPopulation();
+        this.minX = board.getMinX();
+        this.minY = board.getMinY();
+        this.maxX = board.getMaxX();
+        this.maxY = board.getMaxY();
+        this.viewX = viewX;
+        this.viewY = viewY;
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+        this.fromX = Math.max(viewX, 0);
+        this.fromY = Math.max(viewY, 0);
+        this.columns = (int) Math.max(0, Math.min((long) viewX + viewWidth, width) - fromX);
+        this.rows = (int) Math.max(0, Math.min((long) viewY + viewHeight, height) - fromY);
+        this.cells = new byte[columns * rows];
+        board.getCellStates(cells, fromX, fromY, columns, rows);
+    }
+
+    /**
+     * @return The simple class name of the board the snapshot was taken of.
+     */
+    public String getEngine() {
+        return engine;
+    }
+
+    /**
+     * @return The generation the board was at.
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return The width of the board.
+     */
+    public int getWIDTH() {
+        return width;
+    }
+
+    /**
+     * @return The height of the board.
+     */
+    public int getHEIGHT() {
+        return height;
+    }
+
+    /**
+     * @return The number of states of the rule of the board.
+     */
+    public int getStates() {
+        return states;
+    }
+
+    /**
+     * @return The number of threads that computed the generations of the board.
+     */
+    public int getThreadCount() {
+        return threads;
+    }
+
+    /**
+     * @return The number of living cells.
+     */
+    public long getPopulation() {
+        return population;
+    }
+
+    /**
+     * @return The smallest x-position of a living cell, {@code Integer.MAX_VALUE} if no cell is alive.
+     */
+    public int getMinX() {
+        return minX;
+    }
+
+    /**
+     * @return The smallest y-position of a living cell, {@code Integer.MAX_VALUE} if no cell is alive.
+     */
+    public int getMinY() {
+        return minY;
+    }
+
+    /**
+     * @return The largest x-position of a living cell, {@code Integer.MIN_VALUE} if no cell is alive.
+     */
+    public int getMaxX() {
+        return maxX;
+    }
+
+    /**
+     * @return The largest y-position of a living cell, {@code Integer.MIN_VALUE} if no cell is alive.
+     */
+    public int getMaxY() {
+        return maxY;
+    }
+
+    /**
+     * @return The x-position of the left edge of the viewport.
+     */
+    public int getViewX() {
+        return viewX;
+    }
+
+    /**
+     * @return The y-position of the top edge of the viewport.
+     */
+    public int getViewY() {
+        return viewY;
+    }
+
+    /**
+     * @return The number of cells in a row of the viewport.
+     */
+    public int getViewWidth() {
+        return viewWidth;
+    }
+
+    /**
+     * @return The number of rows in the viewport.
+     */
+    public int getViewHeight() {
+        return viewHeight;
+    }
+
+    /**
+     * Returns the state of a cell, as {@link Board#getState(int, int)} returned it when the snapshot was taken. Cells
+     * outside the viewport or the board were not copied and are dead.
+     * @param x The x-position of the cell.
+     * @param y The y-position of the cell.
+     * @return The state of the cell, 0 for dead and 1 for alive.
+     */
+    public int getState(int x, int y) {
+        if (x < fromX || y < fromY || x - fromX >= columns || y - fromY >= rows) return 0;
+        return cells[(y - fromY) * columns + x - fromX] & 0xFF;
+    }
+
+    /**
+     * Rasterises the top left corner of the viewport into a pixel buffer, one pixel per cell and row by row, so that
+     * a frame can be drawn in one call. The time this takes depends on the size of the corner only, not on how many
+     * cells live in it. Pixels beyond the edges of the viewport or the board get the color of dead cells.
+     * @param pixels Buffer of at least {@code width * height} pixels that receives the colors.
+     * @param width The number of cells in a row of the corner.
+     * @param height The number of rows in the corner.
+     * @param palette The color of every state, in any 32-bit format, indexed by state.
+     */
+    public void getPixels(int[] pixels, int width, int height, int[] palette) {
+        Arrays.fill(pixels, 0, width * height, palette[0]);
+        // the copied cells start this far into the viewport
+        int left = fromX - viewX;
+        int top = fromY - viewY;
+        int copiedColumns = Math.min(columns, width - left);
+        int copiedRows = Math.min(rows, height - top);
+        for (int y = 0; y < copiedRows; y++) {
+            int cell = y * columns;
+            int pixel = (top + y) * width + left;
+            for (int x = 0; x < copiedColumns; x++) {
+                pixels[pixel + x] = palette[cells[cell + x] & 0xFF];
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package Model;
+
+/**
+ * Keeps count of the living cells of a board and of the smallest rectangle that holds all of them. Boards update the
+ * census while they compute a generation or set a cell, so that the population and the bounding box can be read
+ * without looking at the cells again.
+ * A birth can always be added to the census. A death on the edge of the rectangle may shrink it, but by how much
+ * cannot be known without looking at the other cells, so the rectangle is then only marked as stale. Boards recount
+ * their cells once a stale rectangle is asked for.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+final class CellCensus {
+
+    private long population;
+    private int minX;
+    private int minY;
+    private int maxX;
+    private int maxY;
+    private boolean stale;
+
+    /**
+     * Constructs the census of an empty board.
+     */
+    CellCensus() {
+        clear();
+    }
+
+    /**
+     * Forgets every cell.
+     */
+    void clear() {
+        population = 0;
+        minX = Integer.MAX_VALUE;
+        minY = Integer.MAX_VALUE;
+        maxX = Integer.MIN_VALUE;
+        maxY = Integer.MIN_VALUE;
+        stale = false;
+    }
+
+    /**
+     * Adds a cell that was born.
+     * @param x x-position of the cell
+     * @param y y-position of the cell
+     */
+    void add(int x, int y) {
+        population++;
+        include(x, y, x, y);
+    }
+
+    /**
+     * Removes a cell that died. The bounding box becomes stale if the cell was on its edge.
+     * @param x x-position of the cell
+     * @param y y-position of the cell
+     */
+    void remove(int x, int y) {
+        population--;
+        if (population == 0) {
+            clear();
+        } else if (x == minX || x == maxX || y == minY || y == maxY) {
+            stale = true;
+        }
+    }
+
+    /**
+     * Adds the living cells of a row of bits, where bit i of word w is the cell at x-position {@code 64 * w + i}.
+     * @param y y-position of the row
+     * @param cells Array holding the row.
+     * @param offset Index of the first word of the row.
+     * @param words Number of words in the row.
+     */
+    void addRow(int y, long[] cells, int offset, int words) {
+        int first = -1;
+        int last = -1;
+        long count = 0;
+        for (int w = 0; w < words; w++) {
+            long word = cells[offset + w];
+            if (word == 0) continue;
+            count += Long.bitCount(word);
+            if (first < 0) first = (w << 6) + Long.numberOfTrailingZeros(word);
+            last = (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+        }
+        if (count != 0) {
+            population += count;
+            include(first, y, last, y);
+        }
+    }
+
+    /**
+     * Adds the births and removes the deaths between two generations of a block of rows of 64 cells, such as a
+     * {@link Tile}. The bounding box grows to cover the births and becomes stale if one of the deaths was on its edge.
+     * @param x0 x-position of bit 0 of every row
+     * @param y0 y-position of the first row
+     * @param before The rows before the change.
+     * @param after The rows after the change.
+     */
+    void update(int x0, int y0, long[] before, long[] after) {
+        long bornColumns = 0;
+        long diedColumns = 0;
+        int firstBorn = -1;
+        int lastBorn = -1;
+        for (int r = 0; r < after.length; r++) {
+            long born = after[r] & ~before[r];
+            long died = before[r] & ~after[r];
+            if (born != 0) {
+                population += Long.bitCount(born);
+                bornColumns |= born;
+                if (firstBorn < 0) firstBorn = r;
+                lastBorn = r;
+            }
+            if (died != 0) {
+                population -= Long.bitCount(died);
+                diedColumns |= died;
+                if (y0 + r == minY || y0 + r == maxY) stale = true;
+            }
+        }
+        if (diedColumns != 0 && (onEdge(diedColumns, minX - x0) || onEdge(diedColumns, maxX - x0))) {
+            stale = true;
+        }
+        if (population == 0) {
+            clear();
+        } else if (bornColumns != 0) {
+            include(x0 + Long.numberOfTrailingZeros(bornColumns), y0 + firstBorn,
+                    x0 + 63 - Long.numberOfLeadingZeros(bornColumns), y0 + lastBorn);
+        }
+    }
+
+    /**
+     * Tells whether a column of the bounding box is one of the set bits of a word.
+     */
+    private static boolean onEdge(long columns, long bit) {
+        return bit >= 0 && bit < 64 && (columns >>> bit & 1) != 0;
+    }
+
+    /**
+     * Adds a number of living cells that all lie within the given rectangle, each of whose edges touches one of
+     * them.
+     * @param count Number of living cells.
+     */
+    void add(long count, int x0, int y0, int x1, int y1) {
+        if (count == 0) return;
+        population += count;
+        include(x0, y0, x1, y1);
+    }
+
+    /**
+     * Adds the cells of another census, such as the census of a strip of the board.
+     * @param other The census to add.
+     */
+    void add(CellCensus other) {
+        if (other.population == 0) return;
+        population += other.population;
+        include(other.minX, other.minY, other.maxX, other.maxY);
+        stale |= other.stale;
+    }
+
+    /**
+     * Grows the bounding box to cover a rectangle.
+     */
+    private void include(int x0, int y0, int x1, int y1) {
+        if (x0 < minX) minX = x0;
+        if (y0 < minY) minY = y0;
+        if (x1 > maxX) maxX = x1;
+        if (y1 > maxY) maxY = y1;
+    }
+
+    /**
+     * Tells whether the bounding box may be larger than the living cells, because a cell on its edge died.
+     * @return True if the board has to recount its cells to know the bounding box.
+     */
+    boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * Returns the number of living cells.
+     * @return The population.
+     */
+    long getPopulation() {
+        return population;
+    }
+
+    /**
+     * Returns the smallest x-position of a living cell.
+     * @return The left edge of the bounding box, {@code Integer.MAX_VALUE} if no cell is alive.
+     */
+    int getMinX() {
+        return minX;
+    }
+
+    /**
+     * Returns the smallest y-position of a living cell.
+     * @return The top edge of the bounding box, {@code Integer.MAX_VALUE} if no cell is alive.
+     */
+    int getMinY() {
+        return minY;
+    }
+
+    /**
+     * Returns the largest x-position of a living cell.
+     * @return The right edge of the bounding box, {@code Integer.MIN_VALUE} if no cell is alive.
+     */
+    int getMaxX() {
+        return maxX;
+    }
+
+    /**
+     * Returns the largest y-position of a living cell.
+     * @return The bottom edge of the bounding box, {@code Integer.MIN_VALUE} if no cell is alive.
+     */
+    int getMaxY() {
+        return maxY;
+    }
+}
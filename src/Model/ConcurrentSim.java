@@ -1,49 +1,220 @@
 package Model;
 
 import java.util.ArrayList;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * This ConcurrentSim class makes it possible to implement concurrent operations on the Game of Life application
  * using <code>threads</code>.
+ * The worker threads are started the first time work is done and are then reused for every following call to
+ * {@link #doWork()}. A <code>Phaser</code> releases the workers when a batch of tasks is ready and lets the calling
+ * thread wait until every task in the batch is done. The calling thread works on the batch as well, so a simulator
+ * with a parallelism of n runs n - 1 worker threads.
  * @author Abelsen, Tommy
  * @author Petrovic, Branislav
  */
 public class ConcurrentSim {
 
-    private ArrayList<Thread> threadList;
+    private ArrayList<Runnable> taskList;
+    private final int parallelism;
+    private final Phaser phaser = new Phaser(1);
+    private final AtomicInteger nextTask = new AtomicInteger();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private Thread[] workers;
+    private volatile boolean shutdown;
+    private String engine = "ConcurrentSim";
+    private int width;
+    private int height;
+    private long population;
 
     /**
-     * Constructs a new ConcurrentSim object and instantiates the threadList ArrayList.
+     * Constructs a new ConcurrentSim object using one thread per available processor.
      */
     public ConcurrentSim(){
-        threadList = new ArrayList<>();
+        this(Runtime.getRuntime().availableProcessors());
     }
 
     /**
-     * Adds a new thread with a <code>Runnable</code> task to the threadList ArrayList.
-     * @param task - The task the thread is going to run when started.
+     * Constructs a new ConcurrentSim object using the given number of threads, including the calling thread.
+     * @param parallelism - The number of threads working on each batch of tasks.
+     */
+    public ConcurrentSim(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+        taskList = new ArrayList<>();
+    }
+
+    /**
+     * Adds a <code>Runnable</code> task to the batch that is run by the next call to {@link #doWork()}.
+     * @param task - The task a thread is going to run.
      * @see Runnable
      */
     public void addThreadTask(Runnable task) {
-        threadList.add(new Thread(task));
+        taskList.add(task);
     }
 
     /**
-     * Iterates through the threadList ArrayList and starts all the threads withing the ArrayList.
-     * When all tasks are done and threads finished, the ArrayList is then cleared.
+     * Describes the board the following batches work on, for the {@link SimulationPhaseEvent}s of the batches.
+     * @param engine - The name of the engine.
+     * @param width - The width of the board.
+     * @param height - The height of the board.
+     * @param population - The number of living cells.
+     */
+    public void describe(String engine, int width, int height, long population) {
+        this.engine = engine;
+        this.width = width;
+        this.height = height;
+        this.population = population;
+    }
+
+    /**
+     * Runs every task in the current batch on the worker threads and the calling thread, and returns when all of
+     * them are done. The batch is then cleared. A task that throws does not stop the others: once the whole batch has
+     * finished, an {@code IllegalStateException} is thrown with the first exception or error as its cause. This is
+     * the same however many tasks the batch holds and whether the workers were woken up or not.
+     * When Flight Recorder is on, releasing the workers, the work of every thread and waiting for the other threads
+     * are each recorded as a {@link SimulationPhaseEvent}.
+     * @throws IllegalStateException If a task failed, or if the simulator has been shut down.
      */
     public void doWork() {
-        for (Thread t : threadList) {
-            t.start();
-        }
-        for (Thread t : threadList) {
-           try {
-               t.join();
-           }
-           catch (InterruptedException intEx){
-               System.out.println(intEx.getMessage());
-           }
-        }
-        threadList.clear();
+        if (shutdown) {
+            throw new IllegalStateException("The simulator has been shut down");
+        }
+        nextTask.set(0);
+        if (taskList.size() <= 1 || parallelism == 1) {
+            // no point in waking the workers up
+            SimulationPhaseEvent work = new SimulationPhaseEvent();
+            work.begin();
+            int tasks = runTasks();
+            commit(work, SimulationPhaseEvent.WORK, tasks);
+            finishBatch();
+            return;
+        }
+        if (workers == null) {
+            startWorkers();
+        }
+
+        SimulationPhaseEvent release = new SimulationPhaseEvent();
+        release.begin();
+        phaser.arriveAndAwaitAdvance();
+        commit(release, SimulationPhaseEvent.RELEASE, 0);
+
+        SimulationPhaseEvent work = new SimulationPhaseEvent();
+        work.begin();
+        int tasks = runTasks();
+        commit(work, SimulationPhaseEvent.WORK, tasks);
+
+        SimulationPhaseEvent barrier = new SimulationPhaseEvent();
+        barrier.begin();
+        phaser.arriveAndAwaitAdvance();
+        commit(barrier, SimulationPhaseEvent.BARRIER, 0);
+        finishBatch();
+    }
+
+    /**
+     * Clears the finished batch and throws the first failure of its tasks, if any.
+     */
+    private void finishBatch() {
+        taskList.clear();
+        Throwable thrown = failure.getAndSet(null);
+        if (thrown != null) {
+            throw new IllegalStateException("Simulation task failed", thrown);
+        }
+    }
+
+    /**
+     * Returns the number of threads working on each batch of tasks, including the calling thread.
+     * @return The parallelism of the simulator.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Stops the worker threads. Must not be called while a batch is running, and the simulator cannot be used
+     * afterwards.
+     */
+    public void shutdown() {
+        if (shutdown) return;
+        shutdown = true;
+        if (workers != null) {
+            // the workers see the flag as soon as they are released and leave the phaser
+            phaser.arriveAndAwaitAdvance();
+            for (Thread worker : workers) {
+                try {
+                    worker.join();
+                } catch (InterruptedException intEx) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts the worker threads as daemons, so that they never keep the application alive.
+     */
+    private void startWorkers() {
+        workers = new Thread[parallelism - 1];
+        for (int i = 0; i < workers.length; i++) {
+            phaser.register();
+            workers[i] = new Thread(this::workLoop, "ConcurrentSim-worker-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * The loop each worker runs: wait for a batch, take tasks from it until there are none left, then wait for the
+     * other threads.
+     */
+    private void workLoop() {
+        while (true) {
+            phaser.arriveAndAwaitAdvance();
+            if (shutdown) {
+                phaser.arriveAndDeregister();
+                return;
+            }
+            SimulationPhaseEvent work = new SimulationPhaseEvent();
+            work.begin();
+            int tasks = runTasks();
+            commit(work, SimulationPhaseEvent.WORK, tasks);
+            phaser.arriveAndAwaitAdvance();
+        }
+    }
+
+    /**
+     * Runs tasks from the current batch until every task has been taken by some thread.
+     * @return The number of tasks this thread ran.
+     */
+    private int runTasks() {
+        int tasks = 0;
+        int index;
+        while ((index = nextTask.getAndIncrement()) < taskList.size()) {
+            tasks++;
+            try {
+                taskList.get(index).run();
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Ends a phase event and commits it if the recording wants it. The description of the board is read after the
+     * phaser has released the thread, so the workers see the description of their batch.
+     */
+    private void commit(SimulationPhaseEvent event, String phase, int tasks) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.describe(engine, width, height, population, parallelism);
+            event.setPhase(phase, tasks);
+            event.commit();
+        }
     }
 }
@@ -3,11 +3,20 @@ package Model;
 
 /**
  * This class defines Conway's rules for Game Of Life. It is one of several rules that can be implemented in the
- * application.
+ * application. As a Life-like rule it is equal to {@code B3/S23}, but keeps hand-coded versions of the array based
+ * methods.
  *
  * @see Model.Rule
+ * @see Model.LifeLikeRule
  * */
-public class ConwayRule extends Rule {
+public class ConwayRule extends LifeLikeRule {
+
+    /**
+     * Constructs Conway's rules, {@code B3/S23}.
+     * */
+    public ConwayRule() {
+        super("B3/S23");
+    }
 
     /**
      * The {@code nextGeneration()} method of this class implements Conway's rules for the game. Every rule combines
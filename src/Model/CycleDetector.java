@@ -0,0 +1,200 @@
+package Model;
+
+/**
+ * Recognises a pattern that has become periodic, such as a still life, an oscillator or a spaceship, from the
+ * {@link StateHash} of a board. The hashes of a bounded number of recent generations are kept in a ring buffer, and
+ * every new generation is compared against them from the newest to the oldest. A generation matches an earlier one
+ * if both hashes agree, or, for a pattern that has moved, if the population agrees and the polynomial hash of the
+ * earlier generation moved by the shift of the centre of the pattern gives the current one.
+ * Matches are based on 64-bit hashes, so a false match is possible but very unlikely.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+public class CycleDetector {
+
+    private final long[] generations;
+    private final long[] zobrists;
+    private final long[] polynomials;
+    private final long[] populations;
+    private final long[] sumsX;
+    private final long[] sumsY;
+    private int size;
+    private int next;
+    private long epoch = -1;
+    private Cycle cycle;
+
+    /**
+     * A periodic pattern. From generation {@link #getStart()} on, the pattern of every generation is the pattern of
+     * {@link #getPeriod()} generations earlier moved by ({@link #getDx()}, {@link #getDy()}).
+     */
+    public static final class Cycle {
+
+        private final long start;
+        private final long period;
+        private final int dx;
+        private final int dy;
+
+        Cycle(long start, long period, int dx, int dy) {
+            this.start = start;
+            this.period = period;
+            this.dx = dx;
+            this.dy = dy;
+        }
+
+        /**
+         * Returns the first generation of the cycle.
+         * @return The generation that the pattern first came back to.
+         */
+        public long getStart() {
+            return start;
+        }
+
+        /**
+         * Returns the number of generations it takes the pattern to come back.
+         * @return The period, 1 for a still life.
+         */
+        public long getPeriod() {
+            return period;
+        }
+
+        /**
+         * Returns how far the pattern moves in x direction in one period.
+         * @return The shift in x.
+         */
+        public int getDx() {
+            return dx;
+        }
+
+        /**
+         * Returns how far the pattern moves in y direction in one period.
+         * @return The shift in y.
+         */
+        public int getDy() {
+            return dy;
+        }
+
+        /**
+         * Moves a board from one generation of the cycle to a later one without computing the generations in
+         * between. The board is moved by whole periods and then advanced by the generations that are left over.
+         * @param board The board, holding generation {@code from}.
+         * @param from The current generation of the board, at least {@link #getStart()}.
+         * @param to The generation to go to.
+         * @throws IllegalArgumentException If the generations are outside the cycle or the pattern would move too far.
+         */
+        public void fastForward(DynamicBoard board, long from, long to) {
+            if (from < start || to < from) {
+                throw new IllegalArgumentException("Generations must be in the cycle and in order");
+            }
+            long periods = (to - from) / period;
+            int remainder = (int) ((to - from) % period);
+            try {
+                board.translate(Math.toIntExact(Math.multiplyExact(periods, (long) dx)),
+                        Math.toIntExact(Math.multiplyExact(periods, (long) dy)));
+            } catch (ArithmeticException ex) {
+                throw new IllegalArgumentException("The pattern would move outside the universe", ex);
+            }
+            board.step(remainder);
+        }
+
+        /**
+         * Describes the cycle.
+         * @return For example {@code period 4, moving (1,1)}.
+         */
+        @Override
+        public String toString() {
+            if (dx == 0 && dy == 0) {
+                return period == 1 ? "still life" : "period " + period;
+            }
+            return "period " + period + ", moving (" + dx + "," + dy + ")";
+        }
+    }
+
+    /**
+     * Constructs a detector that remembers the given number of generations, which is the longest period it finds.
+     * @param capacity Number of generations kept.
+     */
+    public CycleDetector(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        generations = new long[capacity];
+        zobrists = new long[capacity];
+        polynomials = new long[capacity];
+        populations = new long[capacity];
+        sumsX = new long[capacity];
+        sumsY = new long[capacity];
+    }
+
+    /**
+     * Records a generation and looks for an earlier generation it repeats. Once a cycle is found, it is kept until
+     * the board is edited, so further generations are only recorded. If the board was edited since the last
+     * generation, everything recorded before is forgotten.
+     * @param generation The number of the generation.
+     * @param hash The hash of the board in that generation.
+     * @return The cycle, or null if none has been found.
+     */
+    public Cycle record(long generation, StateHash hash) {
+        if (hash.getEpoch() != epoch) {
+            reset();
+            epoch = hash.getEpoch();
+        }
+        if (cycle == null) {
+            cycle = find(generation, hash);
+        }
+
+        generations[next] = generation;
+        zobrists[next] = hash.getZobrist();
+        polynomials[next] = hash.getPolynomial();
+        populations[next] = hash.getPopulation();
+        sumsX[next] = hash.getSumX();
+        sumsY[next] = hash.getSumY();
+        next = (next + 1) % generations.length;
+        size = Math.min(size + 1, generations.length);
+        return cycle;
+    }
+
+    /**
+     * Compares a generation with the recorded ones, from the newest to the oldest.
+     */
+    private Cycle find(long generation, StateHash hash) {
+        long population = hash.getPopulation();
+        for (int i = 1; i <= size; i++) {
+            int index = (next - i + generations.length) % generations.length;
+            if (populations[index] != population || generations[index] >= generation) continue;
+
+            long period = generation - generations[index];
+            if (zobrists[index] == hash.getZobrist() && polynomials[index] == hash.getPolynomial()) {
+                return new Cycle(generation, period, 0, 0);
+            }
+            if (population == 0) continue;
+
+            long shiftX = hash.getSumX() - sumsX[index];
+            long shiftY = hash.getSumY() - sumsY[index];
+            if (shiftX % population != 0 || shiftY % population != 0) continue;
+            long dx = shiftX / population;
+            long dy = shiftY / population;
+            if ((dx != 0 || dy != 0) && polynomials[index] * StateHash.power(StateHash.A, dx)
+                    * StateHash.power(StateHash.B, dy) == hash.getPolynomial()) {
+                return new Cycle(generation, period, (int) dx, (int) dy);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the cycle found so far.
+     * @return The cycle, or null if none has been found.
+     */
+    public Cycle getCycle() {
+        return cycle;
+    }
+
+    /**
+     * Forgets every recorded generation and the cycle found.
+     */
+    public void reset() {
+        size = 0;
+        next = 0;
+        cycle = null;
+    }
+}
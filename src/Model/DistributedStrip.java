@@ -0,0 +1,467 @@
+package Model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * One horizontal strip of a fixed-size board that is split between several processes. The processes are numbered
+ * from the top of the board down, and every process holds the rows of its own strip packed into bits like a
+ * {@link BitBoard}, together with up to {@code halo} rows of each neighbouring strip.
+ * Neighbouring processes are connected by TCP sockets: process r listens on {@code basePort + r} for process r + 1
+ * and connects to process r - 1. Before every round the processes swap the rows at the edges of their strips through
+ * direct buffers, after which every process advances its strip k generations on its own. As in the temporal blocking
+ * of {@link BitBoard#step(int)}, the rows next to the copied halo become invalid each generation, so a halo of k rows
+ * is enough for k generations and the processes only talk to each other once every k generations.
+ * Cells outside the board are treated as dead.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+public class DistributedStrip implements AutoCloseable {
+
+    /**
+     * The largest number of generations between two exchanges.
+     */
+    public static final int MAX_HALO = 64;
+
+    private static final long CONNECT_TIMEOUT = 30_000;
+
+    private final int WIDTH;
+    private final int HEIGHT;
+    private final int rank;
+    private final int processes;
+    private final int halo;
+    private final int start;
+    private final int end;
+    private final int words;
+    private final long lastMask;
+
+    // rows [top, bottom) of the board: the strip and its halo rows
+    private final int top;
+    private final int bottom;
+    private long[] cells;
+    private long[] next;
+
+    private LifeLikeRule lifeRule;
+    private byte[] neighbourhoodTable;
+    private Rule rule;
+
+    private ServerSocketChannel server;
+    private SocketChannel up;
+    private SocketChannel down;
+    private Selector selector;
+    private final ByteBuffer upOut;
+    private final ByteBuffer upIn;
+    private final ByteBuffer downOut;
+    private final ByteBuffer downIn;
+
+    /**
+     * Constructs the empty strip of one process. The rows of the board are divided as evenly as possible between the
+     * processes.
+     * @param width Number of cells in x direction.
+     * @param height Number of cells in y direction.
+     * @param rank The number of this process, from 0 for the top strip.
+     * @param processes The number of processes.
+     * @param halo The number of generations between two exchanges, and the number of rows exchanged.
+     */
+    public DistributedStrip(int width, int height, int rank, int processes, int halo) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Board dimensions must be positive");
+        }
+        if (processes < 1 || rank < 0 || rank >= processes) {
+            throw new IllegalArgumentException("Invalid rank " + rank + " of " + processes + " processes");
+        }
+        if (halo < 1 || halo > MAX_HALO) {
+            throw new IllegalArgumentException("Halo must be between 1 and " + MAX_HALO);
+        }
+        if ((long) height < (long) processes * halo) {
+            throw new IllegalArgumentException("Every strip must be at least as high as the halo");
+        }
+        WIDTH = width;
+        HEIGHT = height;
+        this.rank = rank;
+        this.processes = processes;
+        this.halo = halo;
+        start = (int) ((long) height * rank / processes);
+        end = (int) ((long) height * (rank + 1) / processes);
+        words = (width + 63) >>> 6;
+        lastMask = (width & 63) == 0 ? -1L : (1L << (width & 63)) - 1;
+
+        top = Math.max(0, start - halo);
+        bottom = Math.min(height, end + halo);
+        cells = new long[(bottom - top) * words];
+        next = new long[cells.length];
+
+        int haloBytes = halo * words * Long.BYTES;
+        upOut = ByteBuffer.allocateDirect(haloBytes).order(ByteOrder.LITTLE_ENDIAN);
+        upIn = ByteBuffer.allocateDirect(haloBytes).order(ByteOrder.LITTLE_ENDIAN);
+        downOut = ByteBuffer.allocateDirect(haloBytes).order(ByteOrder.LITTLE_ENDIAN);
+        downIn = ByteBuffer.allocateDirect(haloBytes).order(ByteOrder.LITTLE_ENDIAN);
+        setRule(new ConwayRule());
+    }
+
+    /**
+     * Sets the rule used by the strip. Every process must use the same rule. Like a {@link BitBoard}, the strip runs
+     * any rule with two states and a radius of 1.
+     * @param rule The new rule.
+     * @throws IllegalArgumentException If the rule cannot be run.
+     */
+    public void setRule(Rule rule) {
+        if (rule == null) {
+            throw new IllegalArgumentException("Rule cannot be null");
+        }
+        if (rule.getStates() != 2 || rule.getRadius() != 1) {
+            throw new IllegalArgumentException("Distributed boards only support rules with two states and radius 1");
+        }
+        this.rule = rule;
+        lifeRule = rule instanceof LifeLikeRule ? (LifeLikeRule) rule : null;
+        neighbourhoodTable = rule.neighbourhoodTable();
+    }
+
+    /**
+     * Returns the rule used by the strip.
+     * @return The current rule.
+     */
+    public Rule getRule() {
+        return rule;
+    }
+
+    /**
+     * Connects the strip to the strips above and below it. This process listens for the process below it, and
+     * connects to the process above it, retrying until that process listens or the timeout of 30 seconds runs out.
+     * @param host The address all processes run on.
+     * @param basePort The port of process 0; process r listens on {@code basePort + r}.
+     * @throws IOException If a connection cannot be made.
+     */
+    public void connect(String host, int basePort) throws IOException {
+        selector = Selector.open();
+        if (rank < processes - 1) {
+            server = ServerSocketChannel.open();
+            server.bind(new InetSocketAddress(host, basePort + rank));
+        }
+        if (rank > 0) {
+            up = connectTo(new InetSocketAddress(host, basePort + rank - 1));
+        }
+        if (server != null) {
+            down = server.accept();
+            server.close();
+            server = null;
+        }
+        for (SocketChannel channel : new SocketChannel[]{up, down}) {
+            if (channel == null) continue;
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.configureBlocking(false);
+        }
+    }
+
+    /**
+     * Opens a connection, retrying while nobody listens yet.
+     */
+    private static SocketChannel connectTo(InetSocketAddress address) throws IOException {
+        long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT;
+        while (true) {
+            try {
+                return SocketChannel.open(address);
+            } catch (ConnectException ex) {
+                if (System.currentTimeMillis() > deadline) throw ex;
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while connecting to " + address, ie);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the first row of this strip.
+     * @return The y-position of the first row.
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * Returns the row after the last row of this strip.
+     * @return The y-position after the last row.
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * Returns the width of the whole board.
+     * @return Number of cells in each row.
+     */
+    public int getWIDTH() {
+        return WIDTH;
+    }
+
+    /**
+     * Returns the height of the whole board.
+     * @return Number of rows in the board.
+     */
+    public int getHEIGHT() {
+        return HEIGHT;
+    }
+
+    /**
+     * Returns the cell state of a cell of this strip.
+     * @param x x-position of the tested cell
+     * @param y y-position of the tested cell
+     * @return True if the cell is in this strip and alive.
+     */
+    public boolean getCellState(int x, int y) {
+        if (x < 0 || x >= WIDTH || y < start || y >= end) return false;
+        return (cells[(y - top) * words + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Sets a cell to alive or dead. Positions outside this strip are ignored, so every process can be given the
+     * whole pattern.
+     * @param x x-position of the cell
+     * @param y y-position of the cell
+     * @param b state that the cell will be set to; false or true (0 or 1)
+     */
+    public void setCellState(int x, int y, boolean b) {
+        if (x < 0 || x >= WIDTH || y < start || y >= end) return;
+        int index = (y - top) * words + (x >>> 6);
+        if (b) {
+            cells[index] |= 1L << x;
+        } else {
+            cells[index] &= ~(1L << x);
+        }
+    }
+
+    /**
+     * Advances the board by n generations. Every process must call this method with the same n. The halo rows are
+     * exchanged once per round of at most {@code halo} generations.
+     * @param n Number of generations to advance.
+     * @throws IOException If the connection to a neighbouring process fails.
+     */
+    public void step(int n) throws IOException {
+        if (n < 0) {
+            throw new IllegalArgumentException("Number of generations cannot be negative");
+        }
+        while (n > 0) {
+            int k = Math.min(n, halo);
+            exchange(k);
+            stepLocal(k);
+            n -= k;
+        }
+    }
+
+    /**
+     * Sends the k rows at each edge of the strip to the neighbours and receives their k rows into the halo. Both
+     * neighbours are served at the same time, so no process waits for another to finish sending.
+     */
+    private void exchange(int k) throws IOException {
+        int rowLongs = k * words;
+        if (up != null) {
+            fill(upOut, (start - top) * words, rowLongs);
+            upIn.clear().limit(rowLongs * Long.BYTES);
+        }
+        if (down != null) {
+            fill(downOut, (end - k - top) * words, rowLongs);
+            downIn.clear().limit(rowLongs * Long.BYTES);
+        }
+        transfer(upOut, upIn, downOut, downIn);
+        if (up != null) {
+            upIn.flip();
+            upIn.asLongBuffer().get(cells, (start - k - top) * words, rowLongs);
+        }
+        if (down != null) {
+            downIn.flip();
+            downIn.asLongBuffer().get(cells, (end - top) * words, rowLongs);
+        }
+    }
+
+    /**
+     * Copies rows of the strip into a buffer, ready to be sent.
+     */
+    private void fill(ByteBuffer buffer, int offset, int length) {
+        buffer.clear();
+        buffer.asLongBuffer().put(cells, offset, length);
+        buffer.limit(length * Long.BYTES);
+    }
+
+    /**
+     * Writes and reads the given buffers on the channels to the neighbours until all of them are done. Buffers are
+     * ignored for a neighbour that does not exist.
+     */
+    private void transfer(ByteBuffer toUp, ByteBuffer fromUp, ByteBuffer toDown, ByteBuffer fromDown)
+            throws IOException {
+        ByteBuffer[] upBuffers = {up == null ? null : toUp, up == null ? null : fromUp};
+        ByteBuffer[] downBuffers = {down == null ? null : toDown, down == null ? null : fromDown};
+        SelectionKey upKey = up == null ? null : up.register(selector, 0, upBuffers);
+        SelectionKey downKey = down == null ? null : down.register(selector, 0, downBuffers);
+
+        while (updateInterest(upKey) | updateInterest(downKey)) {
+            selector.select();
+            for (SelectionKey key : selector.selectedKeys()) {
+                SocketChannel channel = (SocketChannel) key.channel();
+                ByteBuffer[] buffers = (ByteBuffer[]) key.attachment();
+                if (key.isWritable()) {
+                    channel.write(buffers[0]);
+                }
+                if (key.isReadable() && channel.read(buffers[1]) < 0) {
+                    throw new IOException("Process " + (channel == up ? rank - 1 : rank + 1) + " disconnected");
+                }
+            }
+            selector.selectedKeys().clear();
+        }
+    }
+
+    /**
+     * Asks the selector for the operations a channel still has to do.
+     * @return True if the channel is not done.
+     */
+    private static boolean updateInterest(SelectionKey key) {
+        if (key == null) return false;
+        ByteBuffer[] buffers = (ByteBuffer[]) key.attachment();
+        int ops = 0;
+        if (buffers[0] != null && buffers[0].hasRemaining()) ops |= SelectionKey.OP_WRITE;
+        if (buffers[1] != null && buffers[1].hasRemaining()) ops |= SelectionKey.OP_READ;
+        key.interestOps(ops);
+        return ops != 0;
+    }
+
+    /**
+     * Advances the strip k generations from the freshly exchanged halo. Each generation the rows next to the halo
+     * become invalid, so the rows that are computed shrink by one at each end that has a neighbour.
+     */
+    private void stepLocal(int k) {
+        int rows = bottom - top;
+        for (int g = 1; g <= k; g++) {
+            int from = top == 0 ? 0 : (start - top) - k + g;
+            int to = bottom == HEIGHT ? rows : (end - top) + k - g;
+            for (int y = from; y < to; y++) {
+                int row = y * words;
+                nextRow(y > 0 ? row - words : -1, row, y < rows - 1 ? row + words : -1, row);
+            }
+            long[] temp = cells;
+            cells = next;
+            next = temp;
+        }
+    }
+
+    /**
+     * Computes the next state of one row of cells into the other buffer.
+     */
+    private void nextRow(int above, int row, int below, int target) {
+        for (int w = 0; w < words; w++) {
+            boolean west = w > 0;
+            boolean east = w < words - 1;
+
+            long a = above < 0 ? 0 : cells[above + w];
+            long aw = above < 0 || !west ? 0 : cells[above + w - 1];
+            long ae = above < 0 || !east ? 0 : cells[above + w + 1];
+            long c = cells[row + w];
+            long cw = west ? cells[row + w - 1] : 0;
+            long ce = east ? cells[row + w + 1] : 0;
+            long b = below < 0 ? 0 : cells[below + w];
+            long bw = below < 0 || !west ? 0 : cells[below + w - 1];
+            long be = below < 0 || !east ? 0 : cells[below + w + 1];
+
+            long result = lifeRule != null
+                    ? BitBoard.nextWord(lifeRule, aw, a, ae, cw, c, ce, bw, b, be)
+                    : BitBoard.nextWord(neighbourhoodTable, aw, a, ae, cw, c, ce, bw, b, be);
+            next[target + w] = east ? result : result & lastMask;
+        }
+    }
+
+    /**
+     * Returns the number of living cells in this strip.
+     * @return The population of the strip.
+     */
+    public long getLocalPopulation() {
+        long population = 0;
+        for (int i = (start - top) * words; i < (end - top) * words; i++) {
+            population += Long.bitCount(cells[i]);
+        }
+        return population;
+    }
+
+    /**
+     * Adds up the populations of all strips. Every process must call this method; the sums are passed up from the
+     * bottom strip, so only process 0 learns the population of the whole board.
+     * @return The population of the board on process 0, the population of this strip and the strips below it on
+     *          every other process.
+     * @throws IOException If the connection to a neighbouring process fails.
+     */
+    public long reducePopulation() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        long population = getLocalPopulation();
+        if (down != null) {
+            transfer(null, null, null, buffer);
+            buffer.flip();
+            population += buffer.getLong();
+        }
+        if (up != null) {
+            buffer.clear();
+            buffer.putLong(population).flip();
+            transfer(buffer, null, null, null);
+        }
+        return population;
+    }
+
+    /**
+     * Collects the rows of all strips on process 0. Every process must call this method; the rows are passed up
+     * from the bottom strip, so the whole board has to fit in the memory of process 0.
+     * @return A board holding every cell on process 0, null on every other process.
+     * @throws IOException If the connection to a neighbouring process fails.
+     */
+    public BitBoard gather() throws IOException {
+        int ownLongs = (end - start) * words;
+        int belowLongs = (HEIGHT - end) * words;
+        ByteBuffer buffer = ByteBuffer.allocateDirect((ownLongs + belowLongs) * Long.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asLongBuffer().put(cells, (start - top) * words, ownLongs);
+        if (down != null) {
+            buffer.position(ownLongs * Long.BYTES);
+            transfer(null, null, null, buffer);
+        }
+        buffer.clear();
+
+        if (up != null) {
+            transfer(buffer, null, null, null);
+            return null;
+        }
+        BitBoard board = new BitBoard(WIDTH, HEIGHT);
+        board.setRule(rule);
+        LongBuffer rows = buffer.asLongBuffer();
+        long[] row = new long[words];
+        for (int y = 0; y < HEIGHT; y++) {
+            rows.get(row);
+            for (int w = 0; w < words; w++) {
+                long word = row[w];
+                while (word != 0) {
+                    int bit = Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    board.setCellState((w << 6) + bit, y, true);
+                }
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Closes the connections to the neighbouring processes.
+     */
+    @Override
+    public void close() throws IOException {
+        for (Closeable closeable : new Closeable[]{server, up, down, selector}) {
+            if (closeable != null) closeable.close();
+        }
+    }
+}
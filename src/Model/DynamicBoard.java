@@ -1,58 +1,174 @@
 package Model;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * A dynamic board class used for dynamically altering the size of the board used in the Game of Life application.
- * This class contains all methods used in the Game of Life board representation, including dynamically resizing the
- * board, counting neighbours and changing the board values to represent the next generation.
+ * The universe is sparse: cells are stored in square {@link Tile}s kept in a {@link TileMap}, and only tiles that
+ * contain living cells, or border them while a generation is computed, are allocated. Memory therefore scales with
+ * the living area of the pattern rather than its bounding box, and coordinates may be negative.
+ * A tile is only recomputed when it or one of its eight neighbours changed in the previous generation. Settled
+ * regions such as still lifes are asleep and cost nothing per generation until something next to them changes.
+ * The width and height of the board describe the area from (0,0) that has held living cells, and are used when the
+ * board is drawn.
  * @author Abelsen, Tommy
  * @author Petrovic, Branislav
  */
 public class DynamicBoard extends Board {
 
-    private ArrayList<ArrayList<AtomicInteger>> gameBoard = new ArrayList<>();
-    private Rule rule;
+    private TileMap tiles = new TileMap();
+    private TileMap activeMap = new TileMap();
+    private ArrayList<Tile> activeList = new ArrayList<>();
+    private ArrayDeque<Tile> spareTiles = new ArrayDeque<>();
+    private long[] changedKeys = new long[64];
+    private int changedCount;
+    private int activeTiles;
     private int height;
     private int width;
     private int initSize = 100;
-    private final int MAXSIZE = 2000;
-    private ConcurrentSim simulator = new ConcurrentSim();
-    private final int THREADNUM = Runtime.getRuntime().availableProcessors();
+    private int threadNum = Runtime.getRuntime().availableProcessors();
+    private ConcurrentSim simulator = new ConcurrentSim(threadNum);
+    private Scheduling scheduling = Scheduling.STATIC;
+    private ForkJoinPool forkJoinPool;
+    private long[] weights = new long[64];
+    private LifeLikeRule lifeRule;
+    private byte[] neighbourhoodTable;
+    private final StateHash stateHash = new StateHash();
+    private final CellCensus census = new CellCensus();
+
+    private static final int TILE_COST = Tile.SIZE;
+    private static final int LEAF_TILES = 4;
+
+    /**
+     * The ways the active tiles of a generation can be divided between threads.
+     */
+    public enum Scheduling {
+        /**
+         * The active tiles are cut into one equally long slice per thread of a {@link ConcurrentSim}.
+         */
+        STATIC,
+        /**
+         * The active tiles are split recursively on a {@link ForkJoinPool}, and idle threads steal work from busy
+         * ones. Split points are weighted by the living cells of the tiles on top of a fixed cost per tile.
+         */
+        FORK_JOIN
+    }
 
     /**
      * Default constructor using a predefined initial size.
      */
     public DynamicBoard() {
-        for (int i = 0; i < initSize; i++) {
-            gameBoard.add(i, new ArrayList<>());
-            for (int j = 0; j < initSize; j++) {
-                gameBoard.get(i).add(new AtomicInteger(0));
-            }
-        }
+        height = initSize;
+        width = initSize;
+        setRule(new ConwayRule());
+        setTopology(Topology.PLANE);
+    }
 
-        rule = new ConwayRule();
-        height = gameBoard.size();
-        width = gameBoard.get(0).size();
+    /**
+     * The board grows with the pattern, so it always lives on the unbounded plane.
+     */
+    @Override
+    protected boolean supportsTopology(Topology topology) {
+        return topology == Topology.PLANE;
     }
 
     /**
-     * Returns the cell state of the cell in position (x,y) if inside the board.
+     * Sets the rule used by the board and wakes every tile up, since no region is settled under a new rule.
+     * Life-like rules run on bit-sliced neighbour counts and every other rule through its neighbourhood table.
+     * Rules with birth on 0 neighbours are not supported, as such a rule would fill the whole unbounded universe.
+     * @param rule The new rule.
+     * @throws IllegalArgumentException If the rule gives birth on 0 neighbours.
+     */
+    @Override
+    public void setRule(Rule rule) {
+        if (rule != null && rule.nextCellState(0)) {
+            throw new IllegalArgumentException("Rules with birth on 0 neighbours need a bounded board");
+        }
+        super.setRule(rule);
+        lifeRule = rule instanceof LifeLikeRule ? (LifeLikeRule) rule : null;
+        neighbourhoodTable = rule.neighbourhoodTable();
+        stateHash.edited();
+        for (Tile tile : tiles.tiles()) {
+            markChanged(tile);
+        }
+    }
+
+    /**
+     * Returns the cell state of the cell in position (x,y).
      * @param x
      *          x-position of the tested cell
      * @param y
      *          y-position of the tested cell
-     * @return Returns the boolean value of if the cell is within the boards borders and if the cell is alive.
+     * @return Returns the boolean value of if the cell is alive.
      */
     @Override
     public boolean getCellState(int x, int y) {
-        return !(x >= MAXSIZE || y >= MAXSIZE) && !(x >= width || y >= height) && gameBoard.get(x).get(y).intValue() == 1;
+        Tile tile = tiles.get(x >> Tile.SHIFT, y >> Tile.SHIFT);
+        return tile != null && (tile.cells[y & Tile.MASK] & (1L << x)) != 0;
+    }
+
+    /**
+     * Copies the states of the cells in a rectangle row by row, looking up each tile once per row and leaving the
+     * rows of missing tiles dead.
+     * @param states Array of at least {@code width * height} entries that receives the states.
+     * @param fromX x-position of the left edge of the rectangle.
+     * @param fromY y-position of the top edge of the rectangle.
+     * @param width Number of cells in a row of the rectangle.
+     * @param height Number of rows in the rectangle.
+     */
+    @Override
+    public void getCellStates(byte[] states, int fromX, int fromY, int width, int height) {
+        for (int y = 0; y < height; y++) {
+            int row = fromY + y;
+            int offset = y * width;
+            int x = 0;
+            while (x < width) {
+                int column = fromX + x;
+                int end = Math.min(width, x + Tile.SIZE - (column & Tile.MASK));
+                Tile tile = tiles.get(column >> Tile.SHIFT, row >> Tile.SHIFT);
+                long bits = tile == null ? 0 : tile.cells[row & Tile.MASK];
+                for (; x < end; x++, column++) {
+                    states[offset + x] = (byte) (bits >>> column & 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tells a visitor about every living cell row by row. Only the tiles are visited, sorted into bands of tiles that
+     * share their rows, so that the time this takes does not depend on how far apart the living cells are.
+     * @param visitor The visitor to tell about the cells.
+     */
+    @Override
+    public void forEachCell(CellVisitor visitor) {
+        Tile[] sorted = tiles.tiles();
+        Arrays.sort(sorted, Comparator.comparingInt((Tile tile) -> tile.ty).thenComparingInt(tile -> tile.tx));
+        int band = 0;
+        while (band < sorted.length) {
+            int end = band;
+            while (end < sorted.length && sorted[end].ty == sorted[band].ty) end++;
+            int originY = sorted[band].ty << Tile.SHIFT;
+            for (int r = 0; r < Tile.SIZE; r++) {
+                for (int t = band; t < end; t++) {
+                    long bits = sorted[t].cells[r];
+                    while (bits != 0) {
+                        visitor.visit((sorted[t].tx << Tile.SHIFT) + Long.numberOfTrailingZeros(bits), originY + r, 1);
+                        bits &= bits - 1;
+                    }
+                }
+            }
+            band = end;
+        }
     }
 
     /**
      *  Sets the cell in position (x,y) to 1 or 0 depending on the boolean b.
-     *  If the (x,y) position is not in the boards borders, the board will expand to the size of (x,y)
+     *  If a living cell is set outside the boards borders, the board will expand to the size of (x,y)
      * @param x
      *          x-position of the cell
      * @param y
@@ -62,16 +178,66 @@ public class DynamicBoard extends Board {
      */
     @Override
     public void setCellState(int x, int y, boolean b) {
-        if (x >= MAXSIZE || y >= MAXSIZE) return;
-        else if ((x > (width - 2) && b) || (y > (height - 2) && b)) {
+        if ((x > (width - 2) && b) || (y > (height - 2) && b)) {
             expand(x, y);
         }
-        gameBoard.get(x).set(y, b ? new AtomicInteger(1) : new AtomicInteger(0));
+        setCell(x, y, b);
+        stateHash.edited();
+    }
+
+    /**
+     * Sets a cell without changing the dimensions of the board, allocating its tile if needed.
+     */
+    private void setCell(int x, int y, boolean b) {
+        Tile tile = tiles.get(x >> Tile.SHIFT, y >> Tile.SHIFT);
+        if (tile == null) {
+            if (!b) return;
+            tile = newTile(x >> Tile.SHIFT, y >> Tile.SHIFT);
+            tiles.put(tile);
+        }
+        long row = tile.cells[y & Tile.MASK];
+        long bit = 1L << x;
+        if (b == ((row & bit) != 0)) return;
+
+        tile.cells[y & Tile.MASK] = row ^ bit;
+        tile.population += b ? 1 : -1;
+        stateHash.toggle(x, y, b);
+        if (b) {
+            census.add(x, y);
+        } else {
+            census.remove(x, y);
+        }
+        markChanged(tile);
+    }
+
+    /**
+     * Wakes a tile and its neighbours up for the next generation.
+     */
+    private void markChanged(Tile tile) {
+        if (!tile.changed) {
+            tile.changed = true;
+            if (changedCount == changedKeys.length) {
+                changedKeys = Arrays.copyOf(changedKeys, changedCount * 2);
+            }
+            changedKeys[changedCount++] = tile.key;
+        }
+    }
+
+    /**
+     * Returns an empty tile at the given tile coordinates, reusing a spare tile if there is one.
+     */
+    private Tile newTile(int tx, int ty) {
+        Tile tile = spareTiles.poll();
+        if (tile == null) {
+            return new Tile(tx, ty);
+        }
+        tile.moveTo(tx, ty);
+        return tile;
     }
 
     /**
      * Returns the height of the board.
-     * @return The length of the <code>ArrayLists</code> in gameBoard
+     * @return The number of rows from y = 0 that have held living cells, at least the initial size.
      */
     @Override
     public int getHEIGHT() {
@@ -80,7 +246,7 @@ public class DynamicBoard extends Board {
 
     /**
      * Returns the width of the board.
-     * @return The length of the gameBoard <code>ArrayLists</code>.
+     * @return The number of columns from x = 0 that have held living cells, at least the initial size.
      */
     @Override
     public int getWIDTH() {
@@ -89,214 +255,259 @@ public class DynamicBoard extends Board {
 
     /**
      * Method to calculate the next generation of the current cells in the board.
-     * @deprecated
+     * @see #nextGenerationConcurrent()
      */
-    @Deprecated
     @Override
     public void nextGeneration() {
-        throw new UnsupportedOperationException("Please use the concurrent methods");
-        /* PRE AtomicInteger
-        //countNeighbours();
-        for (int i = 0; i < width; i++) {
-            for (int j = 0; j < height; j++) {
-                setCellState(i, j, rule.nextGenCell(gameBoard.get(i).get(j)));
-            }
-        }
-
-        for (ArrayList<Integer> arr : gameBoard) {
-            if (arr.get(0) == 1) {
-                expandNegative(0, -1);
-                break;
-            }
-        }
-
-        for (int j = 0; j < gameBoard.get(0).size(); j++) {
-            if (gameBoard.get(0).get(j) == 1) {
-                expandNegative(-1, 0);
-                break;
-            }
-        }
-        */
+        nextGenerationConcurrent();
     }
 
     /**
      * Method to count the living neighbours of the cells in the board.
-     * @deprecated
+     * @deprecated Neighbours are counted as part of {@link #nextGenerationConcurrent()}.
      */
     @Deprecated
     @Override
     public void countNeighbours() {
         throw new UnsupportedOperationException("Please use the concurrent methods");
-    /* PRE AtomicInteger
-        // iterate through the board dimensions
-        for (int i = 0; i < width; i++) {
-            for (int j = 0; j < height; j++) {
-                // increasing the count of each neighbour around a living cell.
-                // the numbers indicated by each cell after this method is run through the nextGeneration.
-                if (gameBoard.get(i).get(j) % 10 == 1) {
-                    if (i > 0) {
-                        gameBoard.get(i - 1).set(j, gameBoard.get(i - 1).get(j) + 10);
-                    }
-                    if (j > 0) {
-                        gameBoard.get(i).set(j - 1, gameBoard.get(i).get(j - 1) + 10);
-                    }
-                    if (i > 0 && j > 0) {
-                        gameBoard.get(i - 1).set(j - 1, gameBoard.get(i - 1).get(j - 1) + 10);
-                    }
-                    if (i < width - 1) {
-                        gameBoard.get(i + 1).set(j, gameBoard.get(i + 1).get(j) + 10);
-                    }
-                    if (j < height - 1) {
-                        gameBoard.get(i).set(j + 1, gameBoard.get(i).get(j + 1) + 10);
-                    }
-                    if (i < width - 1 && j < height - 1) {
-                        gameBoard.get(i + 1).set(j + 1, gameBoard.get(i + 1).get(j + 1) + 10);
-                    }
-                    if (i > 0 && j < height - 1) {
-                        gameBoard.get(i - 1).set(j + 1, gameBoard.get(i - 1).get(j + 1) + 10);
-                    }
-                    if (i < width - 1 && j > 0) {
-                        gameBoard.get(i + 1).set(j - 1, gameBoard.get(i + 1).get(j - 1) + 10);
-                    }
-                }
-            }
-        } */
     }
 
-
     /**
-     * Method for counting neighbours using threads.
-     * @param threadNum The number in the loop-iteration of the countNeighboursConcurrent() method.
+     * Calculates the next generation of the board using threads. Only the tiles that changed in the previous
+     * generation and the positions around them are active; every other tile is asleep and keeps its cells.
+     * The active tiles are split between the threads. A thread only reads the current buffers of the tiles and only
+     * writes the next buffers of its own tiles, so the threads never race and a single pass is enough. Once every
+     * thread is done, the buffers of the tiles that changed are swapped and tiles that end up empty are dropped.
+     * With metrics set, computing the tiles is timed as the step, and finding the active tiles together with
+     * committing, dropping and growing the board as the expansion. When Flight Recorder is on, the generation is
+     * recorded as a {@link GenerationEvent}.
+     * @see SimulationMetrics
      */
-    private void countNeighboursConcurrent(int threadNum) {
-        int threadWidth = gameBoard.size() / THREADNUM;
-        int start = threadNum * threadWidth;
-        int end = (threadNum + 1) * threadWidth;
+    public void nextGenerationConcurrent() {
+        SimulationMetrics metrics = getMetrics();
+        long generationStart = metrics == null ? 0 : metrics.startGeneration();
+        GenerationEvent event = new GenerationEvent();
+        event.begin();
+
+        activeMap.clear();
+        activeList.clear();
+        for (int i = 0; i < changedCount; i++) {
+            int tx = (int) (changedKeys[i] >> 32);
+            int ty = (int) changedKeys[i];
+            Tile tile = tiles.get(tx, ty);
+            if (tile != null) {
+                tile.changed = false;
+            }
+            for (int y = ty - 1; y <= ty + 1; y++) {
+                for (int x = tx - 1; x <= tx + 1; x++) {
+                    addActiveTile(x, y);
+                }
+            }
+        }
+        changedCount = 0;
+
+        int count = activeList.size();
+        long stepStart = metrics == null ? 0 : System.nanoTime();
+        if (scheduling == Scheduling.FORK_JOIN && count > LEAF_TILES) {
+            nextGenerationForkJoin(count);
+        } else {
+            int threads = Math.min(threadNum, count);
+            for (int i = 0; i < threads; i++) {
+                int start = count * i / threads;
+                int end = count * (i + 1) / threads;
+                simulator.addThreadTask(() -> nextGenerationConcurrentPartial(start, end));
+            }
+            simulator.describe("DynamicBoard", width, height, census.getPopulation());
+            simulator.doWork();
+        }
+        long stepEnd = metrics == null ? 0 : metrics.recordPhase(SimulationMetrics.Phase.STEP, stepStart);
 
-        simulator.addThreadTask(() -> countNeighConcurrentPartial(start, end));
-    }
+        activeTiles = 0;
+        for (int i = 0; i < count; i++) {
+            commitTile(activeList.get(i));
+        }
+        if (census.getPopulation() > 0) {
+            expand(census.getMaxX(), census.getMaxY());
+        }
 
-    /**
-     *  Method to count the neighbours of the different parts of the gameBoard. Used to allow multiple threads
-     *  working on the same board.
-     * @param start The start value of the loop.
-     * @param end The end value of the loop.
-     */
-    private void countNeighConcurrentPartial(int start, int end) {
-        if (end > width) {
-            end = width;
+        if (metrics != null) {
+            // the expansion is the time before and after the step, so its start is moved past the step
+            metrics.recordPhase(SimulationMetrics.Phase.EXPANSION, generationStart + (stepEnd - stepStart));
+            metrics.endGeneration(generationStart, (long) count * Tile.SIZE * Tile.SIZE);
         }
-        for (int i = start; i < end; i++) {
-            for (int j = 0; j < height; j++) {
-                if (gameBoard.get(i).get(j).intValue() % 10 == 1) {
-                    if (i > 0) {
-                        gameBoard.get(i - 1).set(j,
-                                new AtomicInteger(gameBoard.get(i - 1).get(j).intValue() + 10));
-                    }
-                    if (j > 0) {
-                        gameBoard.get(i).set(j - 1,
-                                new AtomicInteger(gameBoard.get(i).get(j - 1).intValue() + 10));
-                    }
-                    if (i > 0 && j > 0) {
-                        gameBoard.get(i - 1).set(j - 1,
-                                new AtomicInteger(gameBoard.get(i - 1).get(j - 1).intValue() + 10));
-                    }
-                    if (i < width - 1) {
-                        gameBoard.get(i + 1).set(j,
-                                new AtomicInteger(gameBoard.get(i + 1).get(j).intValue() + 10));
-                    }
-                    if (j < height - 1) {
-                        gameBoard.get(i).set(j + 1,
-                                new AtomicInteger(gameBoard.get(i).get(j + 1).intValue() + 10));
-                    }
-                    if (i < width - 1 && j < height - 1) {
-                        gameBoard.get(i + 1).set(j + 1,
-                                new AtomicInteger(gameBoard.get(i + 1).get(j + 1).intValue() + 10));
-                    }
-                    if (i > 0 && j < height - 1) {
-                        gameBoard.get(i - 1).set(j + 1,
-                                new AtomicInteger(gameBoard.get(i - 1).get(j + 1).intValue() + 10));
-                    }
-                    if (i < width - 1 && j > 0) {
-                        gameBoard.get(i + 1).set(j - 1,
-                                new AtomicInteger(gameBoard.get(i + 1).get(j - 1).intValue() + 10));
-                    }
-                }
-            }
+        event.end();
+        if (event.shouldCommit()) {
+            event.describe(this, threadNum);
+            event.setCells((long) count * Tile.SIZE * Tile.SIZE);
+            event.commit();
         }
     }
 
     /**
-     * Runs the current board through the countNeighbours and nextGeneration methods to represent the next generation
-     * of the board according to the given rules.
-     * Expands the board in negative x- and y- direction if any cells are close to the x = 0 or y = 0 borders.
+     * Calculates the next buffers of the active tiles on the fork/join pool. The running sums of the tile weights
+     * are computed first, so that every split can find the index that halves the remaining work.
+     * @param count Number of active tiles.
      */
-    public void nextGenerationConcurrent() {
-
-        for (int i = 0; i < THREADNUM; i += 2) {
-            countNeighboursConcurrent(i);
+    private void nextGenerationForkJoin(int count) {
+        if (weights.length < count + 1) {
+            weights = new long[Math.max(count + 1, weights.length * 2)];
         }
-        simulator.doWork();
-        for (int i = 1; i < THREADNUM; i += 2) {
-            countNeighboursConcurrent(i);
+        weights[0] = 0;
+        for (int i = 0; i < count; i++) {
+            weights[i + 1] = weights[i] + TILE_COST + activeList.get(i).population;
         }
-        simulator.doWork();
-        countNeighboursConcurrent(THREADNUM);
-        simulator.doWork();
-
-
-        for (int i = 0; i < THREADNUM; i += 2) {
-            nextGenerationConcurrent(i);
+        if (forkJoinPool == null) {
+            forkJoinPool = new ForkJoinPool(threadNum);
         }
-        simulator.doWork();
-        for (int i = 1; i < THREADNUM; i += 2) {
-            nextGenerationConcurrent(i);
+        forkJoinPool.invoke(new TileStepTask(0, count));
+    }
+
+    /**
+     * A fork/join task advancing a range of the active tiles. Ranges larger than a few tiles are split where the
+     * running weight reaches half of the range's weight, so that both halves hold about the same amount of work.
+     * Tasks only live for one generation and are never serialized.
+     */
+    @SuppressWarnings("serial")
+    private class TileStepTask extends RecursiveAction {
+
+        private final int start;
+        private final int end;
+
+        /**
+         * Constructs a task for the active tiles from start up to but not including end.
+         */
+        TileStepTask(int start, int end) {
+            this.start = start;
+            this.end = end;
         }
-        nextGenerationConcurrent(THREADNUM);
 
-        simulator.doWork();
-        simulator.addThreadTask(() -> {
-            for (ArrayList<AtomicInteger> arr : gameBoard) {
-                if (arr.get(0).intValue() == 1) {
-                    expandNegative(0, -1);
-                    break;
-                }
+        @Override
+        protected void compute() {
+            if (end - start <= LEAF_TILES) {
+                nextGenerationConcurrentPartial(start, end);
+                return;
             }
 
-            for (int j = 0; j < gameBoard.get(0).size(); j++) {
-                if (gameBoard.get(0).get(j).intValue() == 1) {
-                    expandNegative(-1, 0);
-                    break;
+            long half = (weights[start] + weights[end]) / 2;
+            int low = start + 1;
+            int high = end - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (weights[mid] < half) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
                 }
             }
-        });
-        simulator.doWork();
+            invokeAll(new TileStepTask(start, low), new TileStepTask(low, end));
+        }
     }
 
+    /**
+     * Adds the tile at the given position to the active tiles. Positions without a tile get an empty one, which is
+     * only stored in the board if cells are born in it.
+     */
+    private void addActiveTile(int tx, int ty) {
+        if (activeMap.get(tx, ty) == null) {
+            Tile tile = tiles.get(tx, ty);
+            if (tile == null) {
+                tile = newTile(tx, ty);
+            }
+            activeMap.put(tile);
+            activeList.add(tile);
+        }
+    }
 
     /**
-     * Method for calculating the next generation of the current board using threads.
-     * @param threadNum The number in the loop-iteration of the nextGenerationConcurrent() method.
+     * Makes the next generation of an active tile current and records whether it changed.
      */
-    private void nextGenerationConcurrent(int threadNum) {
-        int threadWidth = (gameBoard.size() / THREADNUM);
-        int start = threadNum * threadWidth;
-        int end = ((threadNum + 1) * threadWidth) < width ? (threadNum + 1) * threadWidth : width;
+    private void commitTile(Tile tile) {
+        boolean changed = !Arrays.equals(tile.cells, tile.next);
+        if (changed) {
+            stateHash.update(tile.tx, tile.ty, tile.cells, tile.next);
+            census.update(tile.tx << Tile.SHIFT, tile.ty << Tile.SHIFT, tile.cells, tile.next);
+            tile.swap();
+            tile.updatePopulation();
+            markChanged(tile);
+        }
 
-        simulator.addThreadTask(() -> nextGenerationConcurrentPartial(start, end));
+        boolean stored = tiles.get(tile.tx, tile.ty) == tile;
+        if (tile.population == 0) {
+            if (stored) {
+                tiles.remove(tile.tx, tile.ty);
+            }
+            spareTiles.push(tile);
+        } else {
+            activeTiles++;
+            if (!stored) {
+                tiles.put(tile);
+            }
+        }
     }
 
     /**
-     *  Method to calculate the next generation of the different parts of the gameBoard. Used to allow multiple threads
+     *  Method to calculate the next generation of a part of the active tiles. Used to allow multiple threads
      *  working on the same board.
      * @param start The start value of the loop.
      * @param end The end value of the loop.
      */
     private void nextGenerationConcurrentPartial(int start, int end) {
         for (int i = start; i < end; i++) {
-            for (int j = 0; j < height; j++) {
-                setCellState(i, j, rule.nextGenCell(gameBoard.get(i).get(j).intValue()));
+            nextGenerationTile(activeList.get(i));
+        }
+    }
+
+    /**
+     * Computes the next generation of a single tile from the current buffers of the tile and its eight neighbours,
+     * and writes it to the next buffer of the tile.
+     * @param tile The tile to advance.
+     */
+    private void nextGenerationTile(Tile tile) {
+        int tx = tile.tx;
+        int ty = tile.ty;
+        Tile n = tiles.get(tx, ty - 1);
+        Tile ne = tiles.get(tx + 1, ty - 1);
+        Tile e = tiles.get(tx + 1, ty);
+        Tile se = tiles.get(tx + 1, ty + 1);
+        Tile s = tiles.get(tx, ty + 1);
+        Tile sw = tiles.get(tx - 1, ty + 1);
+        Tile w = tiles.get(tx - 1, ty);
+        Tile nw = tiles.get(tx - 1, ty - 1);
+
+        long[] cells = tile.cells;
+        long[] next = tile.next;
+        for (int r = 0; r < Tile.SIZE; r++) {
+            long a;
+            long aw;
+            long ae;
+            if (r == 0) {
+                a = Tile.row(n, Tile.MASK);
+                aw = Tile.row(nw, Tile.MASK);
+                ae = Tile.row(ne, Tile.MASK);
+            } else {
+                a = cells[r - 1];
+                aw = Tile.row(w, r - 1);
+                ae = Tile.row(e, r - 1);
+            }
+
+            long b;
+            long bw;
+            long be;
+            if (r == Tile.MASK) {
+                b = Tile.row(s, 0);
+                bw = Tile.row(sw, 0);
+                be = Tile.row(se, 0);
+            } else {
+                b = cells[r + 1];
+                bw = Tile.row(w, r + 1);
+                be = Tile.row(e, r + 1);
             }
+
+            long cw = Tile.row(w, r);
+            long ce = Tile.row(e, r);
+            next[r] = lifeRule != null
+                    ? BitBoard.nextWord(lifeRule, aw, a, ae, cw, cells[r], ce, bw, b, be)
+                    : BitBoard.nextWord(neighbourhoodTable, aw, a, ae, cw, cells[r], ce, bw, b, be);
         }
     }
 
@@ -305,15 +516,73 @@ public class DynamicBoard extends Board {
      */
     @Override
     public void clear() {
-        gameBoard = new ArrayList<>();
-        for (int i = 0; i < initSize; i++) {
-            gameBoard.add(i, new ArrayList<>());
-            for (int j = 0; j < initSize; j++) {
-                gameBoard.get(i).add(new AtomicInteger(0));
+        tiles = new TileMap();
+        spareTiles.clear();
+        changedCount = 0;
+        activeTiles = 0;
+        height = initSize;
+        width = initSize;
+        stateHash.clear();
+        stateHash.edited();
+        census.clear();
+    }
+
+    /**
+     * Moves every living cell by the given distance. The board grows to cover the moved cells, and every tile is
+     * woken up. The hashes are moved along with the cells, so a {@link CycleDetector} does not take the move for an
+     * edit.
+     * @param dx Distance to move in x direction.
+     * @param dy Distance to move in y direction.
+     */
+    public void translate(int dx, int dy) {
+        if (dx == 0 && dy == 0) return;
+        Tile[] old = tiles.tiles();
+        tiles = new TileMap();
+        changedCount = 0;
+        stateHash.clear();
+        census.clear();
+
+        for (Tile tile : old) {
+            int originX = tile.tx << Tile.SHIFT;
+            int originY = tile.ty << Tile.SHIFT;
+            for (int r = 0; r < Tile.SIZE; r++) {
+                long row = tile.cells[r];
+                while (row != 0) {
+                    int bit = Long.numberOfTrailingZeros(row);
+                    row &= row - 1;
+                    int x = originX + bit + dx;
+                    int y = originY + r + dy;
+                    expand(x, y);
+                    setCell(x, y, true);
+                }
             }
+            tile.changed = false;
+            spareTiles.push(tile);
         }
-        height = gameBoard.size();
-        width = gameBoard.get(0).size();
+    }
+
+    /**
+     * Returns the census of the living cells, which is kept up to date tile by tile as the tiles change. If a cell on
+     * the edge of the bounding box has died since it was last known, the living tiles are counted again.
+     */
+    @Override
+    CellCensus census() {
+        if (census.isStale()) {
+            census.clear();
+            long[] empty = new long[Tile.SIZE];
+            for (Tile tile : tiles.tiles()) {
+                census.update(tile.tx << Tile.SHIFT, tile.ty << Tile.SHIFT, empty, tile.cells);
+            }
+        }
+        return census;
+    }
+
+    /**
+     * Returns the hashes of the living cells, which are kept up to date as the cells change.
+     * @return The state hash of the board.
+     */
+    public StateHash getStateHash() {
+        return stateHash;
     }
 
     /**
@@ -327,7 +596,7 @@ public class DynamicBoard extends Board {
 
         for (int i = 0; i < width; i++) {
             for (int j = 0; j < height; j++) {
-                stringBuilder.append(gameBoard.get(i).get(j));
+                stringBuilder.append(getCellState(i, j) ? 1 : 0);
             }
         }
 
@@ -335,95 +604,107 @@ public class DynamicBoard extends Board {
     }
 
     /**
-     * Expands the board to the given size, to a maximum of a predefined size.
+     * Expands the board so that it covers the given position. The board never shrinks, except when cleared.
      * @param x The value of the preferred expansion in x/width direction.
      * @param y The value of the preferred expansion in y/height direction.
      */
     public void expand(int x, int y) {
         if (x + 2 > width) {
-            int expandWidth = (x + 2) < MAXSIZE ? (x + 2) : MAXSIZE;
-            int i = gameBoard.size();
-            for (; i < expandWidth; i++) {
-                gameBoard.add(new ArrayList<>());
-                for (int j = gameBoard.get(i).size(); j <= height; j++) {
-                    gameBoard.get(i).add(new AtomicInteger(0));
-                }
-            }
-            width = expandWidth;
+            width = x + 2;
         }
         if (y + 2 > height) {
-            int expandHeight = (y + 2) < MAXSIZE ? (y + 2) : MAXSIZE;
-            for (int i = 0; i < width; i++) {
-                int j = gameBoard.get(i).size();
-                for (; j <= expandHeight; j++) {
-                    gameBoard.get(i).add(new AtomicInteger(0));
-                }
-            }
-            height = expandHeight;
+            height = y + 2;
         }
     }
 
     /**
-     * Expands the board to the given size, to a maximum of a predefined size.
-     * @param x The value of the preferred expansion in negative x/width direction.
-     * @param y The value of the preferred expansion in negative y/height direction.
+     * Sets the number of threads used to calculate each generation. The worker threads of the previous setting are
+     * stopped.
+     * @param threads Number of threads, including the thread calling {@link #nextGenerationConcurrent()}.
      */
-    private void expandNegative(int x, int y) {
-        if (width - x > MAXSIZE || height - y > MAXSIZE) return;
-        if (x < 0) {
-            int expandWidth = -x;
-            for (int i = 0; i < expandWidth; i++) {
-                gameBoard.add(0, new ArrayList<>());
-                for (int j = 0; j < height; j++) {
-                    gameBoard.get(0).add(new AtomicInteger(0));
-                }
-            }
-            width += expandWidth;
+    public void setThreadCount(int threads) {
+        ConcurrentSim old = simulator;
+        simulator = new ConcurrentSim(threads);
+        threadNum = threads;
+        old.shutdown();
+        if (forkJoinPool != null) {
+            forkJoinPool.shutdown();
+            forkJoinPool = null;
         }
-        if (y < 0) {
-            int expandHeight = -y;
-            for (int i = 0; i < width; i++) {
-                for (int j = 0; j < expandHeight; j++) {
-                    gameBoard.get(i).add(0, new AtomicInteger(0));
-                }
-            }
-            height += expandHeight;
+    }
+
+    /**
+     * Returns the number of threads used to calculate each generation.
+     * @return Number of threads, including the calling thread.
+     */
+    public int getThreadCount() {
+        return threadNum;
+    }
+
+    /**
+     * Stops the worker threads of the board. The board must not be advanced afterwards.
+     */
+    public void shutdown() {
+        simulator.shutdown();
+        if (forkJoinPool != null) {
+            forkJoinPool.shutdown();
         }
     }
 
     /**
-     * Returns the predefined maximum size of the gameBoard board.
-     * @return Value of the maximum number of cells in x and y direction.
+     * Sets how the active tiles of each generation are divided between threads.
+     * @param scheduling The scheduling to use from the next generation on.
      */
-    public int getMAXSIZE() {
-        return MAXSIZE;
+    public void setScheduling(Scheduling scheduling) {
+        this.scheduling = scheduling;
     }
 
+    /**
+     * Returns how the active tiles of each generation are divided between threads.
+     * @return The current scheduling.
+     */
+    public Scheduling getScheduling() {
+        return scheduling;
+    }
 
-    //      ---     For testing purposes    ---     //
-    public DynamicBoard(int x, int y) {
+    /**
+     * Returns the number of tiles currently allocated.
+     * @return Number of tiles in the universe.
+     */
+    public int getTileCount() {
+        return tiles.size();
+    }
 
-        gameBoard = new ArrayList<>(x);
+    /**
+     * Returns the number of allocated tiles that were recomputed in the last generation.
+     * @return Number of active tiles.
+     */
+    public int getActiveTileCount() {
+        return activeTiles;
+    }
 
-        for (int i = 0; i < x; i++) {
-            gameBoard.add(new ArrayList<>(y));
-            for (int j = 0; j < y; j++) {
-                gameBoard.get(i).add(j, new AtomicInteger(0));
-            }
-        }
-        width = gameBoard.size();
-        height = gameBoard.get(0).size();
+    /**
+     * Returns the number of allocated tiles that were skipped in the last generation because nothing around them
+     * changed.
+     * @return Number of sleeping tiles.
+     */
+    public int getSleepingTileCount() {
+        return tiles.size() - activeTiles;
     }
 
-    public void printPerformance() {
-        long start = System.currentTimeMillis();
-        nextGenerationConcurrent();
-        System.out.println("NextGeneration took " + (System.currentTimeMillis() - start) + "ms");
+
+    //      ---     For testing purposes    ---     //
+    public DynamicBoard(int x, int y) {
+        width = x;
+        height = y;
+        setRule(new ConwayRule());
+        setTopology(Topology.PLANE);
     }
 
     public void setCellNoExpand(int x, int y, boolean b) {
         if (x < 0 || x > width || y < 0 || y > height) return;
-        gameBoard.get(x).set(y, b ? new AtomicInteger(1) : new AtomicInteger(0));
+        setCell(x, y, b);
+        stateHash.edited();
     }
 
     public String toStringBoard() {
@@ -432,7 +713,7 @@ public class DynamicBoard extends Board {
 
         for (int i = 0; i < width; i++) {
             for (int j = 0; j < height; j++) {
-                stringBuilder.append(gameBoard.get(i).get(j));
+                stringBuilder.append(getCellState(i, j) ? 1 : 0);
             }
             stringBuilder.append("\n");
         }
@@ -23,15 +23,50 @@ public class FileHandler {
     }
 
 
+    /**
+     * Loads the {@link PatternLoadEvent} class ahead of the first pattern. The first event a program creates starts up
+     * the event machinery of the JVM, which takes a few hundred milliseconds once per process whether Flight Recorder
+     * is on or not; a program that times its loads calls this first so that the start-up is not counted as loading.
+     */
+    public static void prepareRecording() {
+        new PatternLoadEvent().shouldCommit();
+    }
+
     /**
      * Reads the file using the Reader. Then calls upon the corresponding read method depending on file type. Returns
-     * the 2-d byte-array returned by the aforementioned method call.
+     * the 2-d byte-array returned by the aforementioned method call. The parsing is recorded as a
+     * {@link PatternLoadEvent} when Flight Recorder is on, whether it succeeds or not.
      * @param reader - The <code>Reader</code> used to read the file.
+     * @param source - The file or URL the <code>Reader</code> reads, for the recording.
      * @return byte[][]
      * @throws IOException
      * @throws PatternFormatException
      */
-    private static byte[][] readFile(Reader reader) throws IOException, PatternFormatException {
+    private static byte[][] readFile(Reader reader, String source) throws IOException, PatternFormatException {
+        PatternLoadEvent event = new PatternLoadEvent();
+        event.begin();
+        String wholeFile = null;
+        byte[][] cells = null;
+        try {
+            wholeFile = readAll(reader);
+            cells = readPattern(wholeFile);
+            return cells;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                describe(event, source, wholeFile, cells);
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Reads every character the Reader delivers into a String.
+     * @param reader - The <code>Reader</code> used to read the file.
+     * @return String
+     * @throws IOException
+     */
+    private static String readAll(Reader reader) throws IOException {
 
         // Dynamic data structure making it possible to read and store every character from any file
         // independent of the file length.
@@ -51,7 +86,16 @@ public class FileHandler {
             stringBuilder.append((char)+integer);
         }
 
-        String wholeFile = stringBuilder.toString();
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Calls upon the corresponding read method depending on the file type, given by the first character of the file.
+     * @param wholeFile - The whole pattern file.
+     * @return byte[][]
+     * @throws PatternFormatException
+     */
+    private static byte[][] readPattern(String wholeFile) throws PatternFormatException {
         char ext = wholeFile.charAt(0);
 
         // A switch case on the file type. This makes sure the pattern type is sent to the corresponding method for
@@ -73,6 +117,28 @@ public class FileHandler {
         }
     }
 
+    /**
+     * Fills in the fields of a pattern load event. The file and the cells are null if reading or parsing failed.
+     */
+    private static void describe(PatternLoadEvent event, String source, String wholeFile, byte[][] cells) {
+        event.source = source;
+        if (wholeFile != null) {
+            event.characters = wholeFile.length();
+            char ext = wholeFile.isEmpty() ? ' ' : wholeFile.charAt(0);
+            event.format = ext == '#' || ext == 'x' ? "RLE" : ext == '!' ? "Plaintext" : "unknown";
+        }
+        if (cells != null) {
+            event.width = cells.length;
+            event.height = cells.length == 0 ? 0 : cells[0].length;
+            long population = 0;
+            for (byte[] column : cells) {
+                for (byte cell : column) {
+                    if (cell != 0) population++;
+                }
+            }
+            event.population = population;
+        }
+    }
 
     /**
      * Opens a connection to the specified URL given as parameter in. Calls upon the readFile method to read the
@@ -81,14 +147,14 @@ public class FileHandler {
      * @return byte[][]
      * @throws IOException
      * @throws PatternFormatException
-     * @see #readFile(Reader)
+     * @see #readFile(Reader, String)
      */
     public static byte[][] readFromURL(String url) throws IOException, PatternFormatException {
 
         URL destination = new URL(url);
         URLConnection conn = destination.openConnection();
 
-        return readFile(new BufferedReader(new InputStreamReader(conn.getInputStream())));
+        return readFile(new BufferedReader(new InputStreamReader(conn.getInputStream())), url);
     }
 
     /**
@@ -97,10 +163,100 @@ public class FileHandler {
      * @return byte[][]
      * @throws IOException
      * @throws PatternFormatException
-     * @see #readFile(Reader)
+     * @see #readFile(Reader, String)
      */
     public static byte[][] readFromDisk(File file) throws IOException, PatternFormatException {
-        return readFile(new FileReader(file));
+        return readFile(new FileReader(file), file.getPath());
+    }
+
+    /**
+     * Sends the pattern given as parameter to the readFile method, returning the 2-d byte array from readFile.
+     * @param pattern - The whole pattern file as a <code>String</code>.
+     * @return byte[][]
+     * @throws IOException
+     * @throws PatternFormatException
+     * @see #readFile(Reader, String)
+     */
+    public static byte[][] readFromString(String pattern) throws IOException, PatternFormatException {
+        return readFile(new StringReader(pattern), "string");
+    }
+
+    /**
+     * Writes the cells of a board to the Writer in the RLE format, together with the rule of the board. Boards on the
+     * unbounded plane and boards with two states are written within the bounding box of their living cells, so the
+     * pattern starts at (0,0) of the file; boards with refractory states are written whole. Two states are written
+     * as {@code b} and {@code o}, more states as {@code .} for dead and {@code A}, {@code B}, ... for the others.
+     * Every row is written in full and ended by its own {@code $}, as {@link #readRle(String[])} expects. Lines are
+     * kept within 70 characters. The Writer is flushed but not closed.
+     * @param board - The <code>Board</code> to write.
+     * @param writer - The <code>Writer</code> the pattern is written to.
+     * @throws IOException
+     */
+    public static void writeRle(Board board, Writer writer) throws IOException {
+        int states = board.getStates();
+        int fromX;
+        int fromY;
+        int width;
+        int height;
+        if (states == 2 || board.getTopology() == Topology.PLANE) {
+            if (board.getPopulation() == 0) {
+                writer.write("x = 0, y = 0, rule = " + board.getRule() + "\n!\n");
+                writer.flush();
+                return;
+            }
+            fromX = board.getMinX();
+            fromY = board.getMinY();
+            width = board.getMaxX() - fromX + 1;
+            height = board.getMaxY() - fromY + 1;
+        } else {
+            fromX = 0;
+            fromY = 0;
+            width = board.getWIDTH();
+            height = board.getHEIGHT();
+        }
+        writer.write("x = " + width + ", y = " + height + ", rule = " + board.getRule() + "\n");
+
+        StringBuilder line = new StringBuilder();
+        for (int y = 0; y < height; y++) {
+            if (y > 0) {
+                appendRun(writer, line, 1, '$');
+            }
+            int x = 0;
+            while (x < width) {
+                int state = board.getState(fromX + x, fromY + y);
+                int run = 1;
+                while (x + run < width && board.getState(fromX + x + run, fromY + y) == state) run++;
+                appendRun(writer, line, run, rleSymbol(state, states));
+                x += run;
+            }
+        }
+        appendRun(writer, line, 1, '!');
+        writer.write(line.toString());
+        writer.write("\n");
+        writer.flush();
+    }
+
+    /**
+     * Returns the RLE symbol of a cell state.
+     */
+    private static char rleSymbol(int state, int states) {
+        if (states == 2) {
+            return state == 0 ? 'b' : 'o';
+        }
+        return state == 0 ? '.' : (char) ('A' + state - 1);
+    }
+
+    /**
+     * Appends a run of a symbol to the current line, writing the line out first if the run does not fit in it.
+     */
+    private static void appendRun(Writer writer, StringBuilder line, int run, char symbol) throws IOException {
+        String item = run == 1 ? String.valueOf(symbol) : run + String.valueOf(symbol);
+        if (line.length() + item.length() > 70) {
+            writer.write(line.toString());
+            writer.write("\n");
+            line.setLength(0);
+        }
+        line.append(item);
     }
 
     /**
@@ -111,7 +267,7 @@ public class FileHandler {
      */
     private static void handleMeta() {
 
-        char patternFormat = meta.get(0).charAt(0);
+        char patternFormat = meta.isEmpty() ? ' ' : meta.get(0).charAt(0);
         String[] metaArr = new String[2];
 
         switch (patternFormat) {
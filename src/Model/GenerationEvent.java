@@ -0,0 +1,29 @@
+package Model;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event spanning the computation of one generation. The board is described as it is after the
+ * generation.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+@Name("gameoflife17.Generation")
+@Label("Generation")
+@Description("Computation of one generation")
+public class GenerationEvent extends BoardEvent {
+
+    @Label("Cells")
+    @Description("Number of cells that were computed")
+    long cells;
+
+    /**
+     * Sets the number of cells that were computed.
+     * @param cells The number of cells.
+     */
+    public void setCells(long cells) {
+        this.cells = cells;
+    }
+}
@@ -0,0 +1,347 @@
+package Model;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size board for rules with more than two states, such as the rules of the Generations family. Every cell is
+ * stored as one {@code byte} holding its state, in a flat array with a border of ghost cells around the board, so
+ * that the neighbours of every cell can be read without bounds checks. The ghost cells are filled according to the
+ * topology of the board before each generation. The next generation is written into a second array and the two are
+ * swapped afterwards, so stepping does not allocate.
+ * Two-state rules can run on the board as well, as long as they are totalistic.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+public class GenerationsBoard extends Board {
+
+    private final int WIDTH;
+    private final int HEIGHT;
+    private final int stride;
+    private byte[] cells;
+    private byte[] next;
+    private final byte[] columnSums;
+    private byte[] stateTable;
+    private final CellCensus census = new CellCensus();
+
+    /**
+     * Maps a state to 1 if the cell is alive and 0 otherwise.
+     */
+    private static final byte[] ALIVE = new byte[256];
+
+    static {
+        ALIVE[1] = 1;
+    }
+
+    /**
+     * Constructs an empty board with the given dimensions, running Brian's Brain ({@code B2/S/C3}).
+     * @param width Number of cells in x direction.
+     * @param height Number of cells in y direction.
+     */
+    public GenerationsBoard(int width, int height) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Board dimensions must be positive");
+        }
+        WIDTH = width;
+        HEIGHT = height;
+        stride = width + 2;
+        cells = new byte[stride * (height + 2)];
+        next = new byte[cells.length];
+        columnSums = new byte[stride];
+        setRule(new GenerationsRule("B2/S/C3"));
+    }
+
+    /**
+     * Sets the rule used by the board. Generations rules are run with their own state table, every other rule has to
+     * be totalistic, and is turned into a table of two states.
+     * @param rule The new rule.
+     * @throws IllegalArgumentException If the rule is a two-state rule that is not totalistic.
+     */
+    @Override
+    public void setRule(Rule rule) {
+        if (rule != null && !(rule instanceof GenerationsRule) && !rule.isTotalistic()) {
+            throw new IllegalArgumentException("GenerationsBoard only supports totalistic rules");
+        }
+        super.setRule(rule);
+        if (rule instanceof GenerationsRule) {
+            stateTable = ((GenerationsRule) rule).stateTable();
+        } else {
+            stateTable = new byte[18];
+            for (int n = 0; n <= 8; n++) {
+                stateTable[n] = (byte) (rule.nextCellState(false, n) ? 1 : 0);
+                stateTable[9 + n] = (byte) (rule.nextCellState(true, n) ? 1 : 0);
+            }
+        }
+
+        // cells in states the new rule does not have die at once
+        int states = rule.getStates();
+        for (int i = 0; i < cells.length; i++) {
+            if ((cells[i] & 0xFF) >= states) cells[i] = 0;
+        }
+    }
+
+    /**
+     * The board stores one byte per cell, so it can run rules with up to 256 states.
+     */
+    @Override
+    protected boolean supportsStates(int states) {
+        return states >= 2 && states <= 256;
+    }
+
+    /**
+     * The ghost cells can join the edges of the board in any of the fixed-size topologies.
+     */
+    @Override
+    protected boolean supportsTopology(Topology topology) {
+        return topology != Topology.PLANE;
+    }
+
+    /**
+     * Fills the ghost cells around the board according to its topology. The ghost cells at both ends of each row are
+     * filled first, then the ghost rows are copied whole, so the corners come out right as well.
+     */
+    private void fillGhostCells() {
+        int last = HEIGHT * stride;
+        int below = (HEIGHT + 1) * stride;
+        Topology topology = getTopology();
+        if (topology == Topology.BOUNDED) {
+            for (int y = 1; y <= HEIGHT; y++) {
+                cells[y * stride] = 0;
+                cells[y * stride + WIDTH + 1] = 0;
+            }
+            Arrays.fill(cells, 0, stride, (byte) 0);
+            Arrays.fill(cells, below, below + stride, (byte) 0);
+            return;
+        }
+
+        // join the left and right edges
+        for (int y = 1; y <= HEIGHT; y++) {
+            int row = y * stride;
+            cells[row] = cells[row + WIDTH];
+            cells[row + WIDTH + 1] = cells[row + 1];
+        }
+
+        // join the top and bottom edges, mirrored on a Klein bottle
+        if (topology == Topology.KLEIN_BOTTLE) {
+            for (int x = 0; x < stride; x++) {
+                cells[x] = cells[last + WIDTH + 1 - x];
+                cells[below + x] = cells[stride + WIDTH + 1 - x];
+            }
+        } else {
+            System.arraycopy(cells, last, cells, 0, stride);
+            System.arraycopy(cells, stride, cells, below, stride);
+        }
+    }
+
+    /**
+     * Returns whether the cell in position (x,y) is alive. Cells in refractory states are not alive.
+     * @param x
+     *          x-position of the tested cell
+     * @param y
+     *          y-position of the tested cell
+     * @return True if the cell is inside the board and alive.
+     */
+    @Override
+    public boolean getCellState(int x, int y) {
+        return getState(x, y) == 1;
+    }
+
+    /**
+     * Sets the cell in position (x,y) to alive or dead. Positions outside the board are ignored.
+     * @param x
+     *          x-position of the cell
+     * @param y
+     *          y-position of the cell
+     * @param b
+     *          state that the cell will be set to; false or true (0 or 1)
+     */
+    @Override
+    public void setCellState(int x, int y, boolean b) {
+        setState(x, y, b ? 1 : 0);
+    }
+
+    /**
+     * Returns the state of the cell in position (x,y).
+     * @param x
+     *          x-position of the tested cell
+     * @param y
+     *          y-position of the tested cell
+     * @return The state of the cell, 0 if it is outside the board.
+     */
+    @Override
+    public int getState(int x, int y) {
+        if (x < 0 || y < 0 || x >= WIDTH || y >= HEIGHT) return 0;
+        return cells[(y + 1) * stride + x + 1] & 0xFF;
+    }
+
+    /**
+     * Sets the state of the cell in position (x,y). Positions outside the board are ignored.
+     * @param x
+     *          x-position of the cell
+     * @param y
+     *          y-position of the cell
+     * @param state
+     *          The new state, from 0 to {@code getStates() - 1}
+     * @throws IllegalArgumentException If the state is not a state of the current rule.
+     */
+    @Override
+    public void setState(int x, int y, int state) {
+        if (state < 0 || state >= getStates()) {
+            throw new IllegalArgumentException("Invalid cell state " + state);
+        }
+        if (x < 0 || y < 0 || x >= WIDTH || y >= HEIGHT) return;
+        int index = (y + 1) * stride + x + 1;
+        boolean alive = cells[index] == 1;
+        cells[index] = (byte) state;
+        if (state == 1 && !alive) {
+            census.add(x, y);
+        } else if (state != 1 && alive) {
+            census.remove(x, y);
+        }
+    }
+
+    /**
+     * Copies the states of the cells in a rectangle row by row, one array copy per row.
+     * @param states Array of at least {@code width * height} entries that receives the states.
+     * @param fromX x-position of the left edge of the rectangle.
+     * @param fromY y-position of the top edge of the rectangle.
+     * @param width Number of cells in a row of the rectangle.
+     * @param height Number of rows in the rectangle.
+     */
+    @Override
+    public void getCellStates(byte[] states, int fromX, int fromY, int width, int height) {
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(cells, (fromY + y + 1) * stride + 1 + fromX, states, y * width, width);
+        }
+    }
+
+    /**
+     * Returns the height of the board.
+     * @return Number of rows in the board.
+     */
+    @Override
+    public int getHEIGHT() {
+        return HEIGHT;
+    }
+
+    /**
+     * Returns the width of the board.
+     * @return Number of cells in each row.
+     */
+    @Override
+    public int getWIDTH() {
+        return WIDTH;
+    }
+
+    /**
+     * Calculates the next generation of the board. For every row, the living cells of each column in the rows above,
+     * at and below it are summed first, so the neighbour count of a cell is the sum of three column sums minus the
+     * cell itself. The state table then gives the next state of the cell. With metrics set, the generation is timed as
+     * one step, as the neighbours are counted in the same pass that applies the rule.
+     * @see SimulationMetrics
+     */
+    @Override
+    public void nextGeneration() {
+        SimulationMetrics metrics = getMetrics();
+        long start = metrics == null ? 0 : metrics.startGeneration();
+        fillGhostCells();
+        census.clear();
+        byte[] table = stateTable;
+        for (int y = 1; y <= HEIGHT; y++) {
+            int row = y * stride;
+            for (int x = 0; x < stride; x++) {
+                columnSums[x] = (byte) (ALIVE[cells[row - stride + x] & 0xFF]
+                        + ALIVE[cells[row + x] & 0xFF]
+                        + ALIVE[cells[row + stride + x] & 0xFF]);
+            }
+            int count = 0;
+            int last = 0;
+            for (int x = 1; x <= WIDTH; x++) {
+                int state = cells[row + x] & 0xFF;
+                int neighbours = columnSums[x - 1] + columnSums[x] + columnSums[x + 1] - ALIVE[state];
+                byte nextState = table[state * 9 + neighbours];
+                next[row + x] = nextState;
+                int alive = ALIVE[nextState & 0xFF];
+                count += alive;
+                last = alive != 0 ? x : last;
+            }
+            addRow(next, y, count, last);
+        }
+
+        byte[] temp = cells;
+        cells = next;
+        next = temp;
+        if (metrics != null) {
+            metrics.recordPhase(SimulationMetrics.Phase.STEP, start);
+            metrics.endGeneration(start, (long) WIDTH * HEIGHT);
+        }
+    }
+
+    /**
+     * Neighbours are counted as part of {@link #nextGeneration()}, so this method is not supported.
+     */
+    @Override
+    public void countNeighbours() {
+        throw new UnsupportedOperationException("Neighbours are counted in nextGeneration()");
+    }
+
+    /**
+     * Kills every cell on the board.
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(cells, (byte) 0);
+        census.clear();
+    }
+
+    /**
+     * Adds a row of the board to the census. The stepping loop counts the living cells of the row and remembers the
+     * last one, so only the first living cell is left to be searched for.
+     */
+    private void addRow(byte[] array, int y, int count, int last) {
+        if (count == 0) return;
+        int row = y * stride;
+        int first = 1;
+        while (array[row + first] != 1) first++;
+        census.add(count, first - 1, y - 1, last - 1, y - 1);
+    }
+
+    /**
+     * Returns the census of the living cells, which is taken while the board steps. If a cell on the edge of the
+     * bounding box has been killed since, the rows are counted again.
+     */
+    @Override
+    CellCensus census() {
+        if (census.isStale()) {
+            census.clear();
+            for (int y = 1; y <= HEIGHT; y++) {
+                int row = y * stride;
+                int count = 0;
+                int last = 0;
+                for (int x = 1; x <= WIDTH; x++) {
+                    if (cells[row + x] == 1) {
+                        count++;
+                        last = x;
+                    }
+                }
+                addRow(cells, y, count, last);
+            }
+        }
+        return census;
+    }
+
+    /**
+     * ToString method to return the states of the cells in the board in a String format.
+     * @return String of the cell states in the board.
+     */
+    @Override
+    public String toString() {
+        StringBuilder stringBuilder = new StringBuilder();
+
+        for (int i = 0; i < WIDTH; i++) {
+            for (int j = 0; j < HEIGHT; j++) {
+                stringBuilder.append(getState(i, j));
+            }
+        }
+        return stringBuilder.toString();
+    }
+}
@@ -0,0 +1,149 @@
+package Model;
+
+/**
+ * This class defines a rule of the Generations family, given as a rulestring such as {@code B2/S/C3} (Brian's Brain)
+ * or, in the older S/B/C notation, {@code 345/2/4} (Star Wars). Cells have {@code C} states: 0 is dead, 1 is alive and
+ * the states in between are refractory. A living cell that does not survive starts dying instead of dying at once,
+ * and then passes through every refractory state before it is dead again. Only living cells count as neighbours,
+ * and only dead cells can be born.
+ * The rulestring is compiled once into a table indexed by the state and neighbour count of a cell, so the next state
+ * of a cell is a single array lookup.
+ *
+ * @see Model.Rule
+ * @see Model.GenerationsBoard
+ * */
+public class GenerationsRule extends Rule {
+
+    private final LifeLikeRule lifeRule;
+    private final int states;
+    private final byte[] table;
+
+    /**
+     * Compiles a rulestring into a rule.
+     *
+     * @param rulestring
+     *          The rule in B/S/C notation ({@code B2/S/C3}) or S/B/C notation ({@code 345/2/4})
+     * @throws IllegalArgumentException
+     *          If the rulestring cannot be parsed
+     * */
+    public GenerationsRule(String rulestring) {
+        String[] parts = rulestring.trim().split("/", -1);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Rulestring must have three parts separated by '/': " + rulestring);
+        }
+        lifeRule = new LifeLikeRule(parts[0] + "/" + parts[1]);
+
+        String count = parts[2].trim().toUpperCase();
+        if (count.startsWith("C") || count.startsWith("G")) {
+            count = count.substring(1);
+        }
+        try {
+            states = Integer.parseInt(count);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid number of states in rulestring " + rulestring);
+        }
+        if (states < 2 || states > 256) {
+            throw new IllegalArgumentException("Number of states must be between 2 and 256: " + rulestring);
+        }
+
+        table = new byte[states * 9];
+        for (int n = 0; n <= 8; n++) {
+            table[n] = (byte) (lifeRule.nextCellState(false, n) ? 1 : 0);
+            table[9 + n] = (byte) (lifeRule.nextCellState(true, n) ? 1 : 2 % states);
+            for (int state = 2; state < states; state++) {
+                table[state * 9 + n] = (byte) ((state + 1) % states);
+            }
+        }
+    }
+
+    /**
+     * The {@code nextGeneration()} method of this class looks every cell up in the compiled table. The cells of
+     * {@code gameBoard} hold states from 0 to {@code getStates() - 1}, and {@code neighBoard} the number of living
+     * neighbours of each cell.
+     *
+     * @param gameBoard
+     *          The board currently in use by the game
+     * @param neighBoard
+     *          The board containing the amount of living neighbouring cells of each cell in {@code gameBoard}
+     * */
+    @Override
+    public void nextGeneration(byte[][] gameBoard, byte[][] neighBoard) {
+        for (int i = 0; i < gameBoard.length; i++) {
+            for (int j = 0; j < gameBoard[0].length; j++) {
+                gameBoard[i][j] = table[(gameBoard[i][j] & 0xFF) * 9 + neighBoard[i][j]];
+            }
+        }
+    }
+
+    /**
+     * Determines whether a particular cell encoded as {@code neighbours * 10 + state} is alive in the next
+     * generation. A cell that starts dying counts as dead.
+     *
+     * @param cell
+     *      The cell in question.
+     */
+    @Override
+    public boolean nextGenCell(Integer cell) {
+        int value = cell;
+        return nextState(value % 10, value / 10) == 1;
+    }
+
+    /**
+     * Determines whether a dead or living cell is alive in the next generation. A cell that starts dying counts as
+     * dead, so this is the Life-like rule given by the birth and survival conditions.
+     *
+     * @param alive
+     *      Whether the cell is alive
+     * @param neighbours
+     *      Number of living neighbours, 0 to 8
+     * @return
+     *      True if the cell lives in the next generation
+     */
+    @Override
+    public boolean nextCellState(boolean alive, int neighbours) {
+        return lifeRule.nextCellState(alive, neighbours);
+    }
+
+    /**
+     * Determines the next state of a cell from its current state and number of living neighbours.
+     *
+     * @param state
+     *      The state of the cell, from 0 to {@code getStates() - 1}
+     * @param neighbours
+     *      Number of living neighbours, 0 to 8
+     * @return
+     *      The state of the cell in the next generation
+     */
+    public int nextState(int state, int neighbours) {
+        return table[state * 9 + neighbours] & 0xFF;
+    }
+
+    /**
+     * Returns the number of states a cell can be in, including dead and alive.
+     *
+     * @return The number of states.
+     */
+    @Override
+    public int getStates() {
+        return states;
+    }
+
+    /**
+     * Returns the compiled rule, where entry {@code state * 9 + neighbours} is the next state of a cell. The table
+     * must not be modified.
+     *
+     * @return The state table.
+     */
+    byte[] stateTable() {
+        return table;
+    }
+
+    /**
+     * Returns the rule in B/S/C notation.
+     * @return The rulestring, for example {@code B2/S/C3}.
+     */
+    @Override
+    public String toString() {
+        return lifeRule + "/C" + states;
+    }
+}
@@ -0,0 +1,712 @@
+package Model;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A board using Gosper's HashLife algorithm. The universe is stored as a quadtree where identical sub-squares are
+ * shared, and the result of advancing each sub-square is memoized in the node itself. Regular patterns such as guns
+ * and breeders therefore only ever compute a handful of distinct squares, which makes it possible to jump
+ * {@code 2^k} generations in a single call to {@link #stepPowerOfTwo(int)}.
+ * The universe is unbounded in every direction; the width and height of the board only describe the area from
+ * (0,0) that is shown in the game.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+public class HashLifeBoard extends Board {
+
+    private static final int DEFAULT_MAX_NODES = 1 << 21;
+    private static final int MIN_LEVEL = 3;
+
+    private final Node DEAD = new Node(0, 0x9E3779B9);
+    private final Node ALIVE = new Node(1, 0x7F4A7C15);
+
+    /**
+     * Next generation of the centre 2x2 cells of every possible 4x4 square under the current rule. Bit
+     * {@code y * 4 + x} of the index is the cell at (x,y), bit {@code y * 2 + x} of the value is the centre cell at
+     * (x + 1, y + 1).
+     */
+    private final byte[] leafResults = new byte[1 << 16];
+
+    private Node[] table;
+    private int nodeCount;
+    private int maxNodes;
+    private Node[] emptyNodes;
+    private int epoch;
+
+    private Node root;
+    private int stepLog;
+    private long generation;
+    private final int width;
+    private final int height;
+    private Node censusRoot;
+    private CellCensus census;
+
+    /**
+     * Constructs an empty universe shown through a view of the given size, using the default node budget.
+     * @param width Width of the visible part of the universe.
+     * @param height Height of the visible part of the universe.
+     */
+    public HashLifeBoard(int width, int height) {
+        this(width, height, DEFAULT_MAX_NODES);
+    }
+
+    /**
+     * Constructs an empty universe shown through a view of the given size.
+     * @param width Width of the visible part of the universe.
+     * @param height Height of the visible part of the universe.
+     * @param maxNodes Number of canonical nodes that may be cached before unreachable nodes are collected.
+     */
+    public HashLifeBoard(int width, int height, int maxNodes) {
+        this.width = width;
+        this.height = height;
+        setMaxNodes(maxNodes);
+        clear();
+        setRule(new ConwayRule());
+        setTopology(Topology.PLANE);
+    }
+
+    /**
+     * The universe grows with the pattern, so it always lives on the unbounded plane.
+     */
+    @Override
+    protected boolean supportsTopology(Topology topology) {
+        return topology == Topology.PLANE;
+    }
+
+    /**
+     * Sets the rule used by the universe and forgets every memoized result. Rules with birth on 0 neighbours are not
+     * supported, as they would fill the whole unbounded universe.
+     * @param rule The new rule.
+     * @throws IllegalArgumentException If the rule gives birth on 0 neighbours.
+     */
+    @Override
+    public void setRule(Rule rule) {
+        if (rule != null && rule.nextCellState(0)) {
+            throw new IllegalArgumentException("Rules with birth on 0 neighbours need a bounded board");
+        }
+        super.setRule(rule);
+
+        for (int square = 0; square < leafResults.length; square++) {
+            int result = 0;
+            for (int y = 1; y <= 2; y++) {
+                for (int x = 1; x <= 2; x++) {
+                    int neighbourhood = 0;
+                    for (int dy = -1; dy <= 1; dy++) {
+                        for (int dx = -1; dx <= 1; dx++) {
+                            if ((square >>> ((y + dy) * 4 + x + dx) & 1) == 1) {
+                                neighbourhood |= 1 << ((dy + 1) * 3 + dx + 1);
+                            }
+                        }
+                    }
+                    if (rule.nextCellState(neighbourhood)) {
+                        result |= 1 << ((y - 1) * 2 + x - 1);
+                    }
+                }
+            }
+            leafResults[square] = (byte) result;
+        }
+        clearResults();
+    }
+
+    /**
+     * Returns the cell state of the cell in position (x,y).
+     * @param x
+     *          x-position of the tested cell
+     * @param y
+     *          y-position of the tested cell
+     * @return True if the cell is alive.
+     */
+    @Override
+    public boolean getCellState(int x, int y) {
+        long half = 1L << (root.level - 1);
+        if (x < -half || y < -half || x >= half || y >= half) return false;
+
+        Node node = root;
+        long nx = x + half;
+        long ny = y + half;
+        while (node.level > 0) {
+            if (node.population == 0) return false;
+            long quarter = 1L << (node.level - 1);
+            boolean east = nx >= quarter;
+            boolean south = ny >= quarter;
+            node = south ? (east ? node.se : node.sw) : (east ? node.ne : node.nw);
+            if (east) nx -= quarter;
+            if (south) ny -= quarter;
+        }
+        return node == ALIVE;
+    }
+
+    /**
+     * Sets the cell in position (x,y) to alive or dead, growing the universe if the cell lies outside it.
+     * @param x
+     *          x-position of the cell
+     * @param y
+     *          y-position of the cell
+     * @param b
+     *          state that the cell will be set to; false or true (0 or 1)
+     */
+    @Override
+    public void setCellState(int x, int y, boolean b) {
+        long half = 1L << (root.level - 1);
+        while (x < -half || y < -half || x >= half || y >= half) {
+            root = expand(root);
+            half = 1L << (root.level - 1);
+        }
+        root = setCell(root, x + half, y + half, b);
+    }
+
+    /**
+     * Returns the node equal to {@code node} except for the cell at (x,y), relative to the node's top left corner.
+     */
+    private Node setCell(Node node, long x, long y, boolean b) {
+        if (node.level == 0) {
+            return b ? ALIVE : DEAD;
+        }
+        long quarter = 1L << (node.level - 1);
+        if (y < quarter) {
+            if (x < quarter) {
+                return join(setCell(node.nw, x, y, b), node.ne, node.sw, node.se);
+            }
+            return join(node.nw, setCell(node.ne, x - quarter, y, b), node.sw, node.se);
+        }
+        if (x < quarter) {
+            return join(node.nw, node.ne, setCell(node.sw, x, y - quarter, b), node.se);
+        }
+        return join(node.nw, node.ne, node.sw, setCell(node.se, x - quarter, y - quarter, b));
+    }
+
+    /**
+     * Tells a visitor about every living cell, walking down the quadtree and leaving out the empty nodes, so that the
+     * time this takes depends on the living cells and not on the size of the universe.
+     * @param visitor The visitor to tell about the cells.
+     */
+    @Override
+    public void forEachCell(CellVisitor visitor) {
+        long half = 1L << (root.level - 1);
+        visit(root, -half, -half, visitor);
+    }
+
+    /**
+     * Tells a visitor about the living cells of a node whose top left corner is at (x,y).
+     */
+    private void visit(Node node, long x, long y, CellVisitor visitor) {
+        if (node.population == 0) return;
+        if (node.level == 0) {
+            visitor.visit((int) x, (int) y, 1);
+            return;
+        }
+        long quarter = 1L << (node.level - 1);
+        visit(node.nw, x, y, visitor);
+        visit(node.ne, x + quarter, y, visitor);
+        visit(node.sw, x, y + quarter, visitor);
+        visit(node.se, x + quarter, y + quarter, visitor);
+    }
+
+    /**
+     * Returns the height of the visible part of the universe.
+     * @return Height given to the constructor.
+     */
+    @Override
+    public int getHEIGHT() {
+        return height;
+    }
+
+    /**
+     * Returns the width of the visible part of the universe.
+     * @return Width given to the constructor.
+     */
+    @Override
+    public int getWIDTH() {
+        return width;
+    }
+
+    /**
+     * Advances the universe by a single generation.
+     * @see #stepPowerOfTwo(int)
+     */
+    @Override
+    public void nextGeneration() {
+        stepPowerOfTwo(0);
+    }
+
+    /**
+     * Advances the universe by n generations, split into steps of powers of two from the largest to the smallest, so
+     * n generations take one step per set bit of n.
+     * @param n Number of generations to advance.
+     */
+    @Override
+    public void step(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Number of generations cannot be negative");
+        }
+        for (int k = 30; k >= 0; k--) {
+            if ((n >>> k & 1) == 1) {
+                stepPowerOfTwo(k);
+            }
+        }
+    }
+
+    /**
+     * Advances the universe by {@code 2^k} generations. Every memoized result remembers the step it was computed for,
+     * so changing k between calls keeps the results of the other step sizes; a node only computes its result again
+     * when it is asked for a different step than it last computed. Nodes small enough to advance by at most
+     * {@code 2^k} generations advance by the same number for every larger k, so their results are shared.
+     * With metrics set, growing the root is timed as the expansion and computing its successor together with
+     * collecting unused nodes as the step. The {@code 2^k} generations are recorded together without any cells, as
+     * HashLife does not compute cells one by one.
+     * @param k Base 2 logarithm of the number of generations to advance.
+     * @see SimulationMetrics
+     */
+    public void stepPowerOfTwo(int k) {
+        if (k < 0 || k > 60) {
+            throw new IllegalArgumentException("Step exponent must be between 0 and 60");
+        }
+        SimulationMetrics metrics = getMetrics();
+        long start = metrics == null ? 0 : metrics.startGeneration();
+        stepLog = k;
+
+        // the pattern must sit in the centre of a root large enough that it cannot leave the result square
+        while (root.level < k + 3 || !isPadded(root)) {
+            root = expand(root);
+        }
+        long time = metrics == null ? 0 : metrics.recordPhase(SimulationMetrics.Phase.EXPANSION, start);
+        root = successor(root);
+        generation += 1L << k;
+
+        if (nodeCount > maxNodes) {
+            collect();
+        }
+        if (metrics != null) {
+            metrics.recordPhase(SimulationMetrics.Phase.STEP, time);
+            metrics.endGenerations(start, 1L << k, 0);
+        }
+    }
+
+    /**
+     * Neighbours are never counted explicitly in HashLife, so this method is not supported.
+     */
+    @Override
+    public void countNeighbours() {
+        throw new UnsupportedOperationException("HashLife does not count neighbours");
+    }
+
+    /**
+     * Empties the universe and releases every cached node.
+     */
+    @Override
+    public void clear() {
+        table = new Node[1 << 10];
+        nodeCount = 0;
+        emptyNodes = new Node[64];
+        generation = 0;
+        root = empty(MIN_LEVEL);
+    }
+
+    /**
+     * Returns the number of generations the universe has been advanced since it was cleared.
+     * @return The current generation.
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns the number of living cells in the universe.
+     * @return Population of the root node.
+     */
+    @Override
+    public long getPopulation() {
+        return root.population;
+    }
+
+    /**
+     * Returns the census of the universe. The population is kept in every node, and the bounding box is found by
+     * walking down the edges of the quadtree, looking at every canonical node at most once per edge. The census is
+     * worked out once for every new root. Positions beyond the range of an {@code int} are clamped.
+     */
+    @Override
+    CellCensus census() {
+        if (censusRoot != root) {
+            census = new CellCensus();
+            if (root.population != 0) {
+                long half = 1L << (root.level - 1);
+                census.add(root.population,
+                        clamp(low(root, false, new IdentityHashMap<>()) - half),
+                        clamp(low(root, true, new IdentityHashMap<>()) - half),
+                        clamp(high(root, false, new IdentityHashMap<>()) - half),
+                        clamp(high(root, true, new IdentityHashMap<>()) - half));
+            }
+            censusRoot = root;
+        }
+        return census;
+    }
+
+    /**
+     * Returns the smallest x-position, or y-position if vertical, of a living cell in a node, relative to the node's
+     * top left corner, or {@code Long.MAX_VALUE} if the node is empty.
+     */
+    private long low(Node node, boolean vertical, Map<Node, Long> memo) {
+        if (node.population == 0) return Long.MAX_VALUE;
+        if (node.level == 0) return 0;
+        Long known = memo.get(node);
+        if (known != null) return known;
+
+        long result = Math.min(low(node.nw, vertical, memo), low(vertical ? node.ne : node.sw, vertical, memo));
+        if (result == Long.MAX_VALUE) {
+            result = (1L << (node.level - 1))
+                    + Math.min(low(vertical ? node.sw : node.ne, vertical, memo), low(node.se, vertical, memo));
+        }
+        memo.put(node, result);
+        return result;
+    }
+
+    /**
+     * Returns the largest x-position, or y-position if vertical, of a living cell in a node, relative to the node's
+     * top left corner, or -1 if the node is empty.
+     */
+    private long high(Node node, boolean vertical, Map<Node, Long> memo) {
+        if (node.population == 0) return -1;
+        if (node.level == 0) return 0;
+        Long known = memo.get(node);
+        if (known != null) return known;
+
+        long result = Math.max(high(vertical ? node.sw : node.ne, vertical, memo), high(node.se, vertical, memo));
+        if (result >= 0) {
+            result += 1L << (node.level - 1);
+        } else {
+            result = Math.max(high(node.nw, vertical, memo), high(vertical ? node.ne : node.sw, vertical, memo));
+        }
+        memo.put(node, result);
+        return result;
+    }
+
+    /**
+     * Clamps a position to the range of an {@code int}.
+     */
+    private static int clamp(long position) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, position));
+    }
+
+    /**
+     * Returns the number of canonical nodes currently cached.
+     * @return Size of the node cache.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Sets the number of canonical nodes that may be cached before nodes unreachable from the current universe are
+     * collected. A single step may exceed the budget, the collection runs after it.
+     * @param maxNodes The new node budget.
+     */
+    public void setMaxNodes(int maxNodes) {
+        if (maxNodes < 1024) {
+            throw new IllegalArgumentException("Node budget must be at least 1024");
+        }
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Returns the canonical node with the given quadrants, creating it if it does not already exist.
+     */
+    private Node join(Node nw, Node ne, Node sw, Node se) {
+        int hash = nw.hash;
+        hash = hash * 31 + ne.hash;
+        hash = hash * 31 + sw.hash;
+        hash = hash * 31 + se.hash;
+        hash ^= hash >>> 16;
+
+        int index = hash & (table.length - 1);
+        for (Node node = table[index]; node != null; node = node.next) {
+            if (node.nw == nw && node.ne == ne && node.sw == sw && node.se == se) {
+                return node;
+            }
+        }
+
+        Node node = new Node(nw, ne, sw, se, hash);
+        node.next = table[index];
+        table[index] = node;
+        if (++nodeCount > table.length - (table.length >>> 2)) {
+            resize(table.length << 1);
+        }
+        return node;
+    }
+
+    /**
+     * Rehashes every cached node into a table of the given size.
+     */
+    private void resize(int size) {
+        Node[] old = table;
+        table = new Node[size];
+        for (Node head : old) {
+            Node node = head;
+            while (node != null) {
+                Node next = node.next;
+                int index = node.hash & (size - 1);
+                node.next = table[index];
+                table[index] = node;
+                node = next;
+            }
+        }
+    }
+
+    /**
+     * Returns the canonical empty node of the given level.
+     */
+    private Node empty(int level) {
+        if (level == 0) return DEAD;
+        Node node = emptyNodes[level];
+        if (node == null) {
+            Node child = empty(level - 1);
+            node = join(child, child, child, child);
+            emptyNodes[level] = node;
+        }
+        return node;
+    }
+
+    /**
+     * Returns a node one level higher than {@code node}, with {@code node} in its centre.
+     */
+    private Node expand(Node node) {
+        Node border = empty(node.level - 1);
+        return join(
+                join(border, border, border, node.nw),
+                join(border, border, node.ne, border),
+                join(border, node.sw, border, border),
+                join(node.se, border, border, border));
+    }
+
+    /**
+     * Checks whether every living cell of the node lies in its centre square of a quarter of the node's width.
+     */
+    private boolean isPadded(Node node) {
+        return node.nw.population == node.nw.se.se.population
+                && node.ne.population == node.ne.sw.sw.population
+                && node.sw.population == node.sw.ne.ne.population
+                && node.se.population == node.se.nw.nw.population;
+    }
+
+    /**
+     * Returns the centre square of a node, one level lower than the node.
+     */
+    private Node centre(Node node) {
+        return join(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw);
+    }
+
+    /**
+     * Returns the square centred on the border between two horizontally adjacent nodes.
+     */
+    private Node centreHorizontal(Node w, Node e) {
+        return join(w.ne, e.nw, w.se, e.sw);
+    }
+
+    /**
+     * Returns the square centred on the border between two vertically adjacent nodes.
+     */
+    private Node centreVertical(Node n, Node s) {
+        return join(n.sw, n.se, s.nw, s.ne);
+    }
+
+    /**
+     * Returns the centre square of a node advanced by {@code 2^min(stepLog, level - 2)} generations. The result is
+     * memoized in the node together with that exponent, so every distinct square is only computed again when it is
+     * asked for a different number of generations.
+     */
+    private Node successor(Node node) {
+        int resultLog = Math.min(stepLog, node.level - 2);
+        if (node.result != null && node.resultLog == resultLog) {
+            return node.result;
+        }
+
+        Node result;
+        if (node.population == 0) {
+            result = node.nw;
+        } else if (node.level == 2) {
+            result = leafSuccessor(node);
+        } else {
+            Node n00 = node.nw;
+            Node n01 = centreHorizontal(node.nw, node.ne);
+            Node n02 = node.ne;
+            Node n10 = centreVertical(node.nw, node.sw);
+            Node n11 = centre(node);
+            Node n12 = centreVertical(node.ne, node.se);
+            Node n20 = node.sw;
+            Node n21 = centreHorizontal(node.sw, node.se);
+            Node n22 = node.se;
+
+            // a full step advances both halves, a shorter step only advances the second half
+            if (stepLog >= node.level - 2) {
+                n00 = successor(n00);
+                n01 = successor(n01);
+                n02 = successor(n02);
+                n10 = successor(n10);
+                n11 = successor(n11);
+                n12 = successor(n12);
+                n20 = successor(n20);
+                n21 = successor(n21);
+                n22 = successor(n22);
+            } else {
+                n00 = centre(n00);
+                n01 = centre(n01);
+                n02 = centre(n02);
+                n10 = centre(n10);
+                n11 = centre(n11);
+                n12 = centre(n12);
+                n20 = centre(n20);
+                n21 = centre(n21);
+                n22 = centre(n22);
+            }
+
+            result = join(
+                    successor(join(n00, n01, n10, n11)),
+                    successor(join(n01, n02, n11, n12)),
+                    successor(join(n10, n11, n20, n21)),
+                    successor(join(n11, n12, n21, n22)));
+        }
+
+        node.result = result;
+        node.resultLog = resultLog;
+        return result;
+    }
+
+    /**
+     * Computes the next generation of the centre of a 4x4 node using the precomputed leaf table.
+     */
+    private Node leafSuccessor(Node node) {
+        int square = 0;
+        Node[] quadrants = {node.nw, node.ne, node.sw, node.se};
+        for (int q = 0; q < 4; q++) {
+            Node quadrant = quadrants[q];
+            int shift = (q >> 1) * 8 + (q & 1) * 2;
+            if (quadrant.nw == ALIVE) square |= 1 << shift;
+            if (quadrant.ne == ALIVE) square |= 1 << (shift + 1);
+            if (quadrant.sw == ALIVE) square |= 1 << (shift + 4);
+            if (quadrant.se == ALIVE) square |= 1 << (shift + 5);
+        }
+        int result = leafResults[square];
+        return join(
+                (result & 1) != 0 ? ALIVE : DEAD,
+                (result & 2) != 0 ? ALIVE : DEAD,
+                (result & 4) != 0 ? ALIVE : DEAD,
+                (result & 8) != 0 ? ALIVE : DEAD);
+    }
+
+    /**
+     * Forgets every memoized result, used when the rule changes.
+     */
+    private void clearResults() {
+        for (Node head : table) {
+            for (Node node = head; node != null; node = node.next) {
+                node.result = null;
+            }
+        }
+    }
+
+    /**
+     * Removes every node that cannot be reached from the current universe from the cache. Memoized results are kept
+     * only where the result itself survives the collection.
+     */
+    private void collect() {
+        epoch++;
+        mark(root);
+
+        Node[] old = table;
+        int size = 1 << 10;
+        while (size - (size >>> 2) < nodeCount) size <<= 1;
+        table = new Node[size];
+        nodeCount = 0;
+        emptyNodes = new Node[64];
+
+        for (Node head : old) {
+            Node node = head;
+            while (node != null) {
+                Node next = node.next;
+                if (node.mark == epoch) {
+                    if (node.result != null && node.result.mark != epoch) {
+                        node.result = null;
+                    }
+                    int index = node.hash & (table.length - 1);
+                    node.next = table[index];
+                    table[index] = node;
+                    nodeCount++;
+                } else {
+                    node.next = null;
+                    node.result = null;
+                }
+                node = next;
+            }
+        }
+    }
+
+    /**
+     * Marks a node and everything below it as reachable.
+     */
+    private void mark(Node node) {
+        if (node.level == 0 || node.mark == epoch) return;
+        node.mark = epoch;
+        mark(node.nw);
+        mark(node.ne);
+        mark(node.sw);
+        mark(node.se);
+    }
+
+    /**
+     * ToString method to return the visible cells in a String format.
+     * @return String of the cells in the visible part of the universe.
+     */
+    @Override
+    public String toString() {
+        StringBuilder stringBuilder = new StringBuilder();
+
+        for (int i = 0; i < width; i++) {
+            for (int j = 0; j < height; j++) {
+                stringBuilder.append(getCellState(i, j) ? 1 : 0);
+            }
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * A square of {@code 2^level} by {@code 2^level} cells. Nodes are immutable apart from the cache bookkeeping, and
+     * every node in the cache is unique, so nodes can be compared by identity.
+     */
+    private static final class Node {
+
+        final Node nw;
+        final Node ne;
+        final Node sw;
+        final Node se;
+        final int level;
+        final long population;
+        final int hash;
+        Node next;
+        Node result;
+        int resultLog;
+        int mark;
+
+        /**
+         * Constructs a leaf node holding a single cell.
+         */
+        Node(int population, int hash) {
+            nw = ne = sw = se = null;
+            level = 0;
+            this.population = population;
+            this.hash = hash;
+        }
+
+        /**
+         * Constructs an inner node from its four quadrants.
+         */
+        Node(Node nw, Node ne, Node sw, Node se, int hash) {
+            this.nw = nw;
+            this.ne = ne;
+            this.sw = sw;
+            this.se = se;
+            level = nw.level + 1;
+            population = nw.population + ne.population + sw.population + se.population;
+            this.hash = hash;
+        }
+    }
+}
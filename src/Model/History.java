@@ -0,0 +1,563 @@
+package Model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A history of the generations of a board, so that the game can step backwards and jump to any generation it has
+ * seen. Every generation is recorded as the set of cells that are not dead. Most generations are stored as a change
+ * set: the cells whose state differs from the generation before. Every {@link #getKeyframeInterval()} generations, or
+ * sooner if the change sets since the last keyframe have grown larger than a keyframe would be, the whole generation is
+ * stored as a keyframe instead. Going to a generation starts from the nearest keyframe before it and applies the change
+ * sets after it.
+ * Cells are stored as the differences between their sorted positions, written as variable-length numbers, so a
+ * generation takes a few bytes per cell. When the history grows beyond its memory budget, the oldest keyframe is
+ * forgotten together with the change sets that depend on it.
+ * The cells are read with {@link Board#forEachCell(Board.CellVisitor)}, so on the boards that know where their cells
+ * are, recording a generation takes as long as there are cells that are not dead, however large the board or the
+ * bounding box of the pattern.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+public class History {
+
+    private static final int DEFAULT_KEYFRAME_INTERVAL = 64;
+
+    /**
+     * Estimated number of bytes a frame takes apart from its data.
+     */
+    private static final int FRAME_OVERHEAD = 48;
+
+    private static final long[] NO_KEYS = new long[0];
+
+    private final long budget;
+    private final int keyframeInterval;
+    private final ArrayList<Frame> frames = new ArrayList<>();
+    private int first;
+    private long memory;
+    private long sinceKeyframe;
+
+    // the cells of one recorded generation, sorted by key
+    private long[] keys = NO_KEYS;
+    private byte[] states = new byte[0];
+    private int size;
+    private long current;
+
+    // the arrays of the generation before, reused for the next generation that is captured
+    private long[] spareKeys = NO_KEYS;
+    private byte[] spareStates = new byte[0];
+    private boolean sorted;
+    // the cells of a change set, kept from one generation to the next
+    private long[] changedKeys = new long[16];
+    private byte[] changedStates = new byte[16];
+
+    private byte[] buffer = new byte[0];
+
+    /**
+     * One recorded generation.
+     */
+    private static final class Frame {
+        final long generation;
+        final boolean keyframe;
+        final byte[] data;
+
+        Frame(long generation, boolean keyframe, byte[] data) {
+            this.generation = generation;
+            this.keyframe = keyframe;
+            this.data = data;
+        }
+    }
+
+    /**
+     * Constructs an empty history that stores a keyframe every 64 generations.
+     * @param budget The number of bytes the history may take.
+     */
+    public History(long budget) {
+        this(budget, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * Constructs an empty history.
+     * @param budget The number of bytes the history may take.
+     * @param keyframeInterval The largest number of generations between two keyframes.
+     */
+    public History(long budget, int keyframeInterval) {
+        if (budget < 1) {
+            throw new IllegalArgumentException("Memory budget must be positive");
+        }
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Keyframe interval must be at least 1");
+        }
+        this.budget = budget;
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    /**
+     * Records the cells of a board as the given generation. A generation that directly follows the last recorded one
+     * is added to the end of the history. A generation that was recorded before replaces it, and every later
+     * generation is forgotten; this is what happens when the user steps back and then edits the board or runs it
+     * again. Any other generation starts a new history.
+     * @param generation The number of the generation.
+     * @param board The board holding the generation.
+     */
+    public void record(long generation, Board board) {
+        if (contains(generation)) {
+            truncate(generation);
+        } else if (isEmpty() || generation != getLastGeneration() + 1) {
+            clear();
+        }
+        // the change set is taken against the generation before
+        if (!isEmpty() && current != getLastGeneration()) {
+            load(getLastGeneration());
+        }
+        long[] previousKeys = keys;
+        byte[] previousStates = states;
+        int previousSize = size;
+        capture(board);
+        current = generation;
+
+        Frame frame;
+        if (!isEmpty() && generation - lastKeyframe() < keyframeInterval) {
+            int length = encodeChanges(previousKeys, previousStates, previousSize);
+            // a keyframe takes at least a byte per cell, so its exact length is only needed for large change sets
+            if (sinceKeyframe + length <= size + 2 || sinceKeyframe + length <= encodedLength(keys, size)) {
+                frame = new Frame(generation, false, Arrays.copyOf(buffer, length));
+                sinceKeyframe += length;
+            } else {
+                frame = keyframe(generation);
+            }
+        } else {
+            frame = keyframe(generation);
+        }
+        add(frame);
+        evict();
+        spareKeys = previousKeys;
+        spareStates = previousStates;
+    }
+
+    /**
+     * Stores the current cells as a keyframe.
+     */
+    private Frame keyframe(long generation) {
+        boolean withStates = false;
+        for (int i = 0; i < size && !withStates; i++) {
+            withStates = states[i] != 1;
+        }
+        int length = encode(keys, states, size, withStates);
+        sinceKeyframe = 0;
+        return new Frame(generation, true, Arrays.copyOf(buffer, length));
+    }
+
+    /**
+     * Returns the generation of the last keyframe.
+     */
+    private long lastKeyframe() {
+        for (int i = frames.size() - 1; i >= first; i--) {
+            if (frames.get(i).keyframe) return frames.get(i).generation;
+        }
+        return Long.MIN_VALUE;
+    }
+
+    /**
+     * Adds a frame to the end of the history.
+     */
+    private void add(Frame frame) {
+        frames.add(frame);
+        memory += frame.data.length + FRAME_OVERHEAD;
+    }
+
+    /**
+     * Forgets the generation and every later one.
+     */
+    private void truncate(long generation) {
+        int index = first + (int) (generation - getFirstGeneration());
+        for (int i = frames.size() - 1; i >= index; i--) {
+            memory -= frames.remove(i).data.length + FRAME_OVERHEAD;
+        }
+        if (isEmpty()) {
+            clear();
+            return;
+        }
+        sinceKeyframe = 0;
+        for (int i = frames.size() - 1; !frames.get(i).keyframe; i--) {
+            sinceKeyframe += frames.get(i).data.length;
+        }
+    }
+
+    /**
+     * Forgets the oldest keyframes and their change sets until the history fits in its budget. The newest keyframe is
+     * always kept.
+     */
+    private void evict() {
+        while (memory + (long) size * 9 > budget) {
+            int next = first + 1;
+            while (next < frames.size() && !frames.get(next).keyframe) next++;
+            if (next >= frames.size()) break;
+            for (int i = first; i < next; i++) {
+                memory -= frames.get(i).data.length + FRAME_OVERHEAD;
+                frames.set(i, null);
+            }
+            first = next;
+        }
+        // compact the list once the forgotten frames make up half of it
+        if (first > 0 && first * 2 >= frames.size()) {
+            frames.subList(0, first).clear();
+            first = 0;
+        }
+    }
+
+    /**
+     * Sets a board to a recorded generation. The board is cleared and the cells of the generation are set.
+     * @param generation The generation to go to.
+     * @param board The board to set.
+     * @throws IllegalArgumentException If the generation is not in the history.
+     */
+    public void seek(long generation, Board board) {
+        if (!contains(generation)) {
+            throw new IllegalArgumentException("Generation " + generation + " is not in the history");
+        }
+        load(generation);
+        board.clear();
+        for (int i = 0; i < size; i++) {
+            board.setState(x(keys[i]), y(keys[i]), states[i]);
+        }
+    }
+
+    /**
+     * Rebuilds the cells of a recorded generation from the keyframe before it and the change sets after that.
+     */
+    private void load(long generation) {
+        int target = first + (int) (generation - getFirstGeneration());
+        int start = target;
+        while (!frames.get(start).keyframe) start--;
+
+        decode(frames.get(start).data, true);
+        for (int i = start + 1; i <= target; i++) {
+            decode(frames.get(i).data, false);
+        }
+        current = generation;
+    }
+
+    /**
+     * Tells whether a generation is in the history.
+     * @param generation The generation in question.
+     * @return True if the board can be set to the generation.
+     */
+    public boolean contains(long generation) {
+        return !isEmpty() && generation >= getFirstGeneration() && generation <= getLastGeneration();
+    }
+
+    /**
+     * Tells whether the history is empty.
+     * @return True if no generation is recorded.
+     */
+    public boolean isEmpty() {
+        return frames.size() == first;
+    }
+
+    /**
+     * Returns the oldest generation in the history.
+     * @return The first generation that can be gone to.
+     * @throws IllegalStateException If the history is empty.
+     */
+    public long getFirstGeneration() {
+        if (isEmpty()) throw new IllegalStateException("The history is empty");
+        return frames.get(first).generation;
+    }
+
+    /**
+     * Returns the newest generation in the history.
+     * @return The last generation that can be gone to.
+     * @throws IllegalStateException If the history is empty.
+     */
+    public long getLastGeneration() {
+        if (isEmpty()) throw new IllegalStateException("The history is empty");
+        return frames.get(frames.size() - 1).generation;
+    }
+
+    /**
+     * Returns the number of bytes the history takes, estimated from the size of the stored generations.
+     * @return The memory used.
+     */
+    public long getMemoryUsage() {
+        return memory + (long) size * 9;
+    }
+
+    /**
+     * Returns the largest number of generations between two keyframes.
+     * @return The keyframe interval.
+     */
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    /**
+     * Forgets every recorded generation.
+     */
+    public void clear() {
+        frames.clear();
+        first = 0;
+        memory = 0;
+        sinceKeyframe = 0;
+        keys = NO_KEYS;
+        states = new byte[0];
+        size = 0;
+        spareKeys = NO_KEYS;
+        spareStates = new byte[0];
+    }
+
+    /**
+     * Reads the cells of a board that are not dead into the sorted arrays. The board tells about its cells itself, and
+     * they only have to be sorted if it does not do so row by row.
+     */
+    private void capture(Board board) {
+        int capacity = Math.max(16, size);
+        keys = spareKeys.length >= capacity ? spareKeys : new long[capacity];
+        states = spareStates.length >= capacity ? spareStates : new byte[capacity];
+        size = 0;
+        sorted = true;
+        board.forEachCell(this::addCell);
+        if (!sorted) {
+            sortCells();
+        }
+    }
+
+    /**
+     * Appends a cell to the captured cells, noting whether they are still sorted.
+     */
+    private void addCell(int x, int y, int state) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            states = Arrays.copyOf(states, size * 2);
+        }
+        long key = key(x, y);
+        sorted &= size == 0 || keys[size - 1] < key;
+        keys[size] = key;
+        states[size++] = (byte) state;
+    }
+
+    /**
+     * Sorts the captured cells by key. Cells that are all alive are sorted by their keys alone.
+     */
+    private void sortCells() {
+        boolean multiState = false;
+        for (int i = 0; i < size && !multiState; i++) {
+            multiState = states[i] != 1;
+        }
+        if (!multiState) {
+            Arrays.sort(keys, 0, size);
+            return;
+        }
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+        long[] sortedKeys = new long[keys.length];
+        byte[] sortedStates = new byte[states.length];
+        for (int i = 0; i < size; i++) {
+            sortedKeys[i] = keys[order[i]];
+            sortedStates[i] = states[order[i]];
+        }
+        keys = sortedKeys;
+        states = sortedStates;
+    }
+
+    /**
+     * Writes the cells that differ between the previous generation and the current one into the buffer. A cell that
+     * changed is written with its new state, 0 if it died. The states can only be left out when every cell was born
+     * alive or died, as a change set without states flips the cells it lists; a cell that went from one living or
+     * refractory state to another needs its state.
+     * @return The number of bytes written.
+     */
+    private int encodeChanges(long[] previousKeys, byte[] previousStates, int previousSize) {
+        // every cell of either generation may have changed
+        if (this.changedKeys.length < previousSize + size) {
+            this.changedKeys = new long[previousSize + size];
+            this.changedStates = new byte[previousSize + size];
+        }
+        long[] changedKeys = this.changedKeys;
+        byte[] changedStates = this.changedStates;
+        int count = 0;
+        boolean recoloured = false;
+
+        // the merge is written without branches on the cells, which change too irregularly to be predicted: each
+        // step writes the smaller key and keeps it only if the cell changed
+        int i = 0;
+        int j = 0;
+        while (i < previousSize && j < size) {
+            long previousKey = previousKeys[i];
+            long key = keys[j];
+            boolean died = previousKey < key;
+            boolean born = key < previousKey;
+            byte state = died ? 0 : states[j];
+            changedKeys[count] = died ? previousKey : key;
+            changedStates[count] = state;
+            count += died || born || previousStates[i] != state ? 1 : 0;
+            recoloured |= !died & !born & state != 0 & previousStates[i] != state;
+            i += born ? 0 : 1;
+            j += died ? 0 : 1;
+        }
+        for (; i < previousSize; i++) {
+            changedKeys[count] = previousKeys[i];
+            changedStates[count++] = 0;
+        }
+        for (; j < size; j++) {
+            changedKeys[count] = keys[j];
+            changedStates[count++] = states[j];
+        }
+        boolean withStates = recoloured;
+        for (int k = 0; k < count && !withStates; k++) {
+            withStates = changedStates[k] > 1;
+        }
+        return encode(changedKeys, changedStates, count, withStates);
+    }
+
+    /**
+     * Writes cells into the buffer: a flag telling whether states follow, the number of cells, the differences
+     * between the keys of the cells, and the states if the flag is set.
+     * @return The number of bytes written.
+     */
+    private int encode(long[] cellKeys, byte[] cellStates, int count, boolean withStates) {
+        int capacity = 1 + 10 + count * (withStates ? 11 : 10);
+        if (buffer.length < capacity) {
+            buffer = new byte[Math.max(capacity, buffer.length * 2)];
+        }
+
+        int position = 0;
+        buffer[position++] = (byte) (withStates ? 1 : 0);
+        position = writeVarLong(count, position);
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            long key = cellKeys[i];
+            position = writeVarLong(key - previous, position);
+            previous = key;
+            if (withStates) {
+                buffer[position++] = cellStates[i];
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Returns an estimate of the number of bytes the given cells take as a keyframe.
+     */
+    private static int encodedLength(long[] cellKeys, int count) {
+        int length = 2;
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            length += varLongLength(cellKeys[i] - previous);
+            previous = cellKeys[i];
+        }
+        return length;
+    }
+
+    /**
+     * Applies stored cells to the current cells. A keyframe replaces them; in a change set every cell is given its
+     * new state, and a cell without a stored state flips between dead and alive.
+     */
+    private void decode(byte[] data, boolean keyframe) {
+        int[] position = {0};
+        boolean withStates = data[position[0]++] == 1;
+        int count = (int) readVarLong(data, position);
+        long[] cellKeys = new long[count];
+        byte[] cellStates = new byte[count];
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous += readVarLong(data, position);
+            cellKeys[i] = previous;
+            cellStates[i] = withStates ? data[position[0]++] : 1;
+        }
+
+        if (keyframe) {
+            keys = cellKeys;
+            states = cellStates;
+            size = count;
+            return;
+        }
+
+        // merge the changes into the sorted cells
+        long[] newKeys = new long[size + count];
+        byte[] newStates = new byte[size + count];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size || j < count) {
+            if (j == count || (i < size && keys[i] < cellKeys[j])) {
+                newKeys[n] = keys[i];
+                newStates[n++] = states[i++];
+            } else if (i == size || cellKeys[j] < keys[i]) {
+                // a cell that was dead before: it was born, or became a refractory state
+                newKeys[n] = cellKeys[j];
+                newStates[n++] = cellStates[j++];
+            } else {
+                byte state = withStates ? cellStates[j] : 0;
+                i++;
+                j++;
+                if (state != 0) {
+                    newKeys[n] = cellKeys[j - 1];
+                    newStates[n++] = state;
+                }
+            }
+        }
+        keys = newKeys;
+        states = newStates;
+        size = n;
+    }
+
+    /**
+     * Writes a number in seven-bit groups, zigzag encoded so that small negative numbers stay short.
+     */
+    private int writeVarLong(long value, int position) {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        buffer[position++] = (byte) zigzag;
+        return position;
+    }
+
+    /**
+     * Returns the number of bytes {@link #writeVarLong(long, int)} writes for a number.
+     */
+    private static int varLongLength(long value) {
+        long zigzag = (value << 1) ^ (value >> 63);
+        int length = 1;
+        while ((zigzag & ~0x7FL) != 0) {
+            zigzag >>>= 7;
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Reads a number written by {@link #writeVarLong(long, int)}.
+     */
+    private static long readVarLong(byte[] data, int[] position) {
+        long zigzag = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[position[0]++];
+            zigzag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    /**
+     * Returns the key of a position. Keys sort by y first and then by x.
+     */
+    private static long key(int x, int y) {
+        return ((long) y << 32) | ((x ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+    }
+
+    private static int x(long key) {
+        return (int) key ^ Integer.MIN_VALUE;
+    }
+
+    private static int y(long key) {
+        return (int) (key >> 32);
+    }
+}
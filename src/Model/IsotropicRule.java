@@ -0,0 +1,239 @@
+package Model;
+
+/**
+ * This class defines an isotropic non-totalistic rule, given as a rulestring in Hensel notation such as
+ * {@code B2-a/S12} or {@code B2ce3ai/S23-k}. Each neighbour count in the rulestring may be followed by letters that
+ * pick out some of the shapes the living neighbours can form, or by a minus sign and the letters of the shapes to
+ * leave out. A count without letters stands for every shape, so a totalistic rule such as {@code B3/S23} is valid
+ * Hensel notation as well.
+ * The rulestring is compiled once into a table of 512 entries indexed by the whole 3x3 neighbourhood, which
+ * {@link #nextCellState(int)} looks the cell up in. The neighbour count alone does not decide the fate of a cell under
+ * such a rule, so the count based methods of {@link Rule} are not supported.
+ *
+ * @see Model.Rule
+ * */
+public class IsotropicRule extends Rule {
+
+    /**
+     * The letters of every neighbour count in Hensel notation, in the order of {@link #SHAPES}.
+     */
+    private static final String[] LETTERS = {
+            "", "ce", "ceaikn", "ceaiknjqry", "ceaiknjqrytwz", "ceaiknjqry", "ceaikn", "ce", ""
+    };
+
+    /**
+     * One neighbourhood of each shape for the counts 1 to 4. The shapes of 5 to 7 neighbours are the complements of
+     * the shapes of 3 to 1 neighbours with the same letter.
+     */
+    private static final int[][] SHAPES = {
+            {},
+            {1, 2},
+            {5, 10, 3, 40, 33, 68},
+            {69, 42, 11, 7, 98, 13, 14, 70, 41, 97},
+            {325, 170, 15, 45, 99, 71, 106, 102, 43, 101, 105, 78, 108}
+    };
+
+    private static final int NEIGHBOURS = 0x1FF & ~CENTRE;
+
+    private final boolean[] table = new boolean[512];
+    private final String rulestring;
+    private final boolean totalistic;
+
+    /**
+     * Compiles a rulestring in Hensel notation into a rule.
+     *
+     * @param rulestring
+     *          The rule in B/S notation, for example {@code B2-a/S12}
+     * @throws IllegalArgumentException
+     *          If the rulestring cannot be parsed
+     * */
+    public IsotropicRule(String rulestring) {
+        String[] parts = rulestring.trim().split("/", -1);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Rulestring must have two parts separated by '/': " + rulestring);
+        }
+        String birth = parts[0].trim().toLowerCase();
+        String survival = parts[1].trim().toLowerCase();
+        if (!birth.startsWith("b") || !survival.startsWith("s")) {
+            throw new IllegalArgumentException("Rulestring must be in B/S notation: " + rulestring);
+        }
+
+        parseConditions(birth.substring(1), 0, rulestring);
+        parseConditions(survival.substring(1), CENTRE, rulestring);
+
+        boolean countsOnly = true;
+        for (int neighbourhood = 0; neighbourhood < table.length; neighbourhood++) {
+            int neighbours = Integer.bitCount(neighbourhood & NEIGHBOURS);
+            int sameCount = (neighbourhood & CENTRE) | firstNeighbourhood(neighbours);
+            if (table[neighbourhood] != table[sameCount]) {
+                countsOnly = false;
+                break;
+            }
+        }
+        totalistic = countsOnly;
+        this.rulestring = "B" + birth.substring(1) + "/S" + survival.substring(1);
+    }
+
+    /**
+     * Reads the conditions of one half of the rulestring and sets the table entries they cover.
+     *
+     * @param conditions
+     *          The conditions without their leading B or S, for example {@code 2-a3ij}
+     * @param centre
+     *          The centre bit of the neighbourhoods the conditions apply to
+     */
+    private void parseConditions(String conditions, int centre, String rulestring) {
+        int i = 0;
+        while (i < conditions.length()) {
+            char c = conditions.charAt(i++);
+            if (c < '0' || c > '8') {
+                throw new IllegalArgumentException("Invalid neighbour count '" + c + "' in rulestring " + rulestring);
+            }
+            int count = c - '0';
+
+            boolean negate = i < conditions.length() && conditions.charAt(i) == '-';
+            if (negate) i++;
+            int start = i;
+            while (i < conditions.length() && Character.isLetter(conditions.charAt(i))) i++;
+            String letters = conditions.substring(start, i);
+            if (negate && letters.isEmpty()) {
+                throw new IllegalArgumentException("Missing letters after '-' in rulestring " + rulestring);
+            }
+
+            for (int n = 0; n < 512; n++) {
+                if ((n & CENTRE) == 0 && Integer.bitCount(n) == count && (letters.isEmpty() || negate)) {
+                    table[n | centre] = true;
+                }
+            }
+            for (char letter : letters.toCharArray()) {
+                int shape = LETTERS[count].indexOf(letter);
+                if (shape < 0) {
+                    throw new IllegalArgumentException("Invalid letter '" + letter + "' for " + count
+                            + " neighbours in rulestring " + rulestring);
+                }
+                int neighbourhood = count <= 4 ? SHAPES[count][shape] : NEIGHBOURS ^ SHAPES[8 - count][shape];
+                setSymmetries(neighbourhood | centre, !negate);
+            }
+        }
+    }
+
+    /**
+     * Sets the table entry of a neighbourhood and of every rotation and reflection of it.
+     */
+    private void setSymmetries(int neighbourhood, boolean value) {
+        int current = neighbourhood;
+        for (int rotation = 0; rotation < 4; rotation++) {
+            table[current] = value;
+            table[reflect(current)] = value;
+            current = rotate(current);
+        }
+    }
+
+    /**
+     * Turns a neighbourhood a quarter turn clockwise.
+     */
+    private static int rotate(int neighbourhood) {
+        int result = 0;
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 3; column++) {
+                if ((neighbourhood >>> (row * 3 + column) & 1) == 1) {
+                    result |= 1 << (column * 3 + 2 - row);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Mirrors a neighbourhood from west to east.
+     */
+    private static int reflect(int neighbourhood) {
+        int result = 0;
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 3; column++) {
+                if ((neighbourhood >>> (row * 3 + column) & 1) == 1) {
+                    result |= 1 << (row * 3 + 2 - column);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Determines the fate of a cell from its whole neighbourhood with a single table lookup.
+     *
+     * @param neighbourhood
+     *      The nine cells around and including the cell, as described in {@link Rule#nextCellState(int)}
+     * @return
+     *      True if the cell lives in the next generation
+     */
+    @Override
+    public boolean nextCellState(int neighbourhood) {
+        return table[neighbourhood];
+    }
+
+    /**
+     * Returns whether the rulestring happens to describe a totalistic rule, for example because every count is given
+     * without letters.
+     *
+     * @return
+     *      True if the rule only depends on the number of living neighbours.
+     */
+    @Override
+    public boolean isTotalistic() {
+        return totalistic;
+    }
+
+    /**
+     * Not supported, as the neighbour counts do not decide the fate of the cells.
+     */
+    @Override
+    public void nextGeneration(byte[][] gameBoard, byte[][] neighBoard) {
+        throw new UnsupportedOperationException("Non-totalistic rules need the whole neighbourhood of each cell");
+    }
+
+    /**
+     * Not supported, as the neighbour count does not decide the fate of the cell.
+     */
+    @Override
+    public boolean nextGenCell(Integer cell) {
+        throw new UnsupportedOperationException("Non-totalistic rules need the whole neighbourhood of each cell");
+    }
+
+    /**
+     * Determines the fate of a cell from its neighbour count. Only supported if the rule is totalistic.
+     *
+     * @param alive
+     *      Whether the cell is alive
+     * @param neighbours
+     *      Number of living neighbours, 0 to 8
+     * @return
+     *      True if the cell lives in the next generation
+     * @throws UnsupportedOperationException
+     *      If the rule is not totalistic
+     */
+    @Override
+    public boolean nextCellState(boolean alive, int neighbours) {
+        if (!totalistic) {
+            throw new UnsupportedOperationException("Non-totalistic rules need the whole neighbourhood of each cell");
+        }
+        return table[(alive ? CENTRE : 0) | firstNeighbourhood(neighbours)];
+    }
+
+    /**
+     * Returns a neighbourhood with the given number of living neighbours and a dead centre.
+     */
+    private static int firstNeighbourhood(int neighbours) {
+        int cells = (1 << neighbours) - 1;
+        return (cells & 15) | (cells & ~15) << 1;
+    }
+
+    /**
+     * Returns the rule in B/S notation.
+     * @return The rulestring, for example {@code B2-a/S12}.
+     */
+    @Override
+    public String toString() {
+        return rulestring;
+    }
+}
@@ -0,0 +1,347 @@
+package Model;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size board for Larger than Life rules, where a cell looks at every cell within a radius around it. Every cell
+ * is stored as one {@code byte} holding its state. Each generation starts by building a summed-area table of the
+ * living cells, in which entry (x,y) is the number of living cells above and to the left of (x,y). The number of
+ * living cells in any square is then found from four entries of the table, so counting the neighbours of a cell costs
+ * the same whatever the radius of the rule.
+ * Cells outside the board are treated as dead.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+public class LargerThanLifeBoard extends Board {
+
+    private final int WIDTH;
+    private final int HEIGHT;
+    private byte[] cells;
+    private byte[] next;
+    private final int[] summedArea;
+    private final int[] columnFrom;
+    private final int[] columnTo;
+    private int radius;
+    private int counts;
+    private byte[] stateTable;
+    private final CellCensus census = new CellCensus();
+
+    /**
+     * Maps a state to 1 if the cell is alive and 0 otherwise.
+     */
+    private static final byte[] ALIVE = new byte[256];
+
+    static {
+        ALIVE[1] = 1;
+    }
+
+    /**
+     * Constructs an empty board with the given dimensions, running Bosco's rule
+     * ({@code R5,C0,M1,S34..58,B34..45,NM}).
+     * @param width Number of cells in x direction.
+     * @param height Number of cells in y direction.
+     */
+    public LargerThanLifeBoard(int width, int height) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Board dimensions must be positive");
+        }
+        WIDTH = width;
+        HEIGHT = height;
+        cells = new byte[width * height];
+        next = new byte[width * height];
+        summedArea = new int[(width + 1) * (height + 1)];
+        columnFrom = new int[width];
+        columnTo = new int[width];
+        setRule(new LargerThanLifeRule("R5,C0,M1,S34..58,B34..45,NM"));
+    }
+
+    /**
+     * Sets the rule used by the board. Larger than Life and Generations rules are run with their own state table,
+     * every other rule has to be totalistic, and is run as a rule of radius 1 with two states.
+     * @param rule The new rule.
+     * @throws IllegalArgumentException If the rule is not supported.
+     */
+    @Override
+    public void setRule(Rule rule) {
+        if (rule != null && !(rule instanceof LargerThanLifeRule) && !rule.isTotalistic()) {
+            throw new IllegalArgumentException("LargerThanLifeBoard only supports totalistic rules");
+        }
+        super.setRule(rule);
+        if (rule instanceof LargerThanLifeRule) {
+            stateTable = ((LargerThanLifeRule) rule).stateTable();
+        } else if (rule instanceof GenerationsRule) {
+            stateTable = ((GenerationsRule) rule).stateTable();
+        } else {
+            stateTable = new byte[18];
+            for (int n = 0; n <= 8; n++) {
+                stateTable[n] = (byte) (rule.nextCellState(false, n) ? 1 : 0);
+                stateTable[9 + n] = (byte) (rule.nextCellState(true, n) ? 1 : 0);
+            }
+        }
+        radius = rule.getRadius();
+        counts = (2 * radius + 1) * (2 * radius + 1);
+
+        // the columns each square spans only depend on the radius, so they are looked up instead of clamped
+        for (int x = 0; x < WIDTH; x++) {
+            columnFrom[x] = Math.max(0, x - radius);
+            columnTo[x] = Math.min(WIDTH, x + radius + 1);
+        }
+
+        // cells in states the new rule does not have die at once
+        int states = rule.getStates();
+        for (int i = 0; i < cells.length; i++) {
+            if ((cells[i] & 0xFF) >= states) cells[i] = 0;
+        }
+    }
+
+    /**
+     * The board stores one byte per cell, so it can run rules with up to 256 states.
+     */
+    @Override
+    protected boolean supportsStates(int states) {
+        return states >= 2 && states <= 256;
+    }
+
+    /**
+     * The neighbours are counted from a summed-area table, so any radius is supported.
+     */
+    @Override
+    protected boolean supportsRadius(int radius) {
+        return radius >= 1;
+    }
+
+    /**
+     * Returns whether the cell in position (x,y) is alive. Cells in refractory states are not alive.
+     * @param x
+     *          x-position of the tested cell
+     * @param y
+     *          y-position of the tested cell
+     * @return True if the cell is inside the board and alive.
+     */
+    @Override
+    public boolean getCellState(int x, int y) {
+        return getState(x, y) == 1;
+    }
+
+    /**
+     * Sets the cell in position (x,y) to alive or dead. Positions outside the board are ignored.
+     * @param x
+     *          x-position of the cell
+     * @param y
+     *          y-position of the cell
+     * @param b
+     *          state that the cell will be set to; false or true (0 or 1)
+     */
+    @Override
+    public void setCellState(int x, int y, boolean b) {
+        if (x < 0 || y < 0 || x >= WIDTH || y >= HEIGHT) return;
+        int index = y * WIDTH + x;
+        boolean alive = cells[index] == 1;
+        cells[index] = (byte) (b ? 1 : 0);
+        if (b && !alive) {
+            census.add(x, y);
+        } else if (!b && alive) {
+            census.remove(x, y);
+        }
+    }
+
+    /**
+     * Returns the state of the cell in position (x,y).
+     * @param x
+     *          x-position of the tested cell
+     * @param y
+     *          y-position of the tested cell
+     * @return The state of the cell, 0 if it is outside the board.
+     */
+    @Override
+    public int getState(int x, int y) {
+        if (x < 0 || y < 0 || x >= WIDTH || y >= HEIGHT) return 0;
+        return cells[y * WIDTH + x] & 0xFF;
+    }
+
+    /**
+     * Sets the state of the cell in position (x,y). Positions outside the board are ignored.
+     * @param x
+     *          x-position of the cell
+     * @param y
+     *          y-position of the cell
+     * @param state
+     *          The new state, from 0 to {@code getStates() - 1}
+     * @throws IllegalArgumentException If the state is not a state of the current rule.
+     */
+    @Override
+    public void setState(int x, int y, int state) {
+        if (state < 0 || state >= getStates()) {
+            throw new IllegalArgumentException("Invalid cell state " + state);
+        }
+        if (x < 0 || y < 0 || x >= WIDTH || y >= HEIGHT) return;
+        int index = y * WIDTH + x;
+        boolean alive = cells[index] == 1;
+        cells[index] = (byte) state;
+        if (state == 1 && !alive) {
+            census.add(x, y);
+        } else if (state != 1 && alive) {
+            census.remove(x, y);
+        }
+    }
+
+    /**
+     * Copies the states of the cells in a rectangle row by row, one array copy per row.
+     * @param states Array of at least {@code width * height} entries that receives the states.
+     * @param fromX x-position of the left edge of the rectangle.
+     * @param fromY y-position of the top edge of the rectangle.
+     * @param width Number of cells in a row of the rectangle.
+     * @param height Number of rows in the rectangle.
+     */
+    @Override
+    public void getCellStates(byte[] states, int fromX, int fromY, int width, int height) {
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(cells, (fromY + y) * WIDTH + fromX, states, y * width, width);
+        }
+    }
+
+    /**
+     * Returns the height of the board.
+     * @return Number of rows in the board.
+     */
+    @Override
+    public int getHEIGHT() {
+        return HEIGHT;
+    }
+
+    /**
+     * Returns the width of the board.
+     * @return Number of cells in each row.
+     */
+    @Override
+    public int getWIDTH() {
+        return WIDTH;
+    }
+
+    /**
+     * Calculates the next generation of the board. The summed-area table of the living cells is built first, then
+     * the number of living cells in the square around every cell is read from four of its entries and the state table
+     * gives the next state of the cell. With metrics set, building the table is timed as counting the neighbours and
+     * the rest as applying the rule.
+     * @see SimulationMetrics
+     */
+    @Override
+    public void nextGeneration() {
+        SimulationMetrics metrics = getMetrics();
+        long start = metrics == null ? 0 : metrics.startGeneration();
+        countNeighbours();
+        long time = metrics == null ? 0 : metrics.recordPhase(SimulationMetrics.Phase.NEIGHBOURS, start);
+
+        census.clear();
+        int stride = WIDTH + 1;
+        byte[] table = stateTable;
+        for (int y = 0; y < HEIGHT; y++) {
+            int top = Math.max(0, y - radius) * stride;
+            int bottom = Math.min(HEIGHT, y + radius + 1) * stride;
+            int row = y * WIDTH;
+            int count = 0;
+            int last = 0;
+            for (int x = 0; x < WIDTH; x++) {
+                int from = columnFrom[x];
+                int to = columnTo[x];
+                int state = cells[row + x] & 0xFF;
+                int neighbours = summedArea[bottom + to] - summedArea[bottom + from]
+                        - summedArea[top + to] + summedArea[top + from] - ALIVE[state];
+                byte nextState = table[state * counts + neighbours];
+                next[row + x] = nextState;
+                int alive = ALIVE[nextState & 0xFF];
+                count += alive;
+                last = alive != 0 ? x : last;
+            }
+            addRow(next, y, count, last);
+        }
+
+        byte[] temp = cells;
+        cells = next;
+        next = temp;
+        if (metrics != null) {
+            metrics.recordPhase(SimulationMetrics.Phase.RULE, time);
+            metrics.endGeneration(start, (long) WIDTH * HEIGHT);
+        }
+    }
+
+    /**
+     * Builds the summed-area table of the living cells, so that entry {@code y * (getWIDTH() + 1) + x} holds the
+     * number of living cells in the rectangle from (0,0) up to but not including (x,y).
+     */
+    @Override
+    public void countNeighbours() {
+        int stride = WIDTH + 1;
+        for (int y = 0; y < HEIGHT; y++) {
+            int row = y * WIDTH;
+            int above = y * stride;
+            int below = above + stride;
+            int rowSum = 0;
+            for (int x = 0; x < WIDTH; x++) {
+                rowSum += ALIVE[cells[row + x] & 0xFF];
+                summedArea[below + x + 1] = summedArea[above + x + 1] + rowSum;
+            }
+        }
+    }
+
+    /**
+     * Kills every cell on the board.
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(cells, (byte) 0);
+        census.clear();
+    }
+
+    /**
+     * Adds a row of the board to the census. The stepping loop counts the living cells of the row and remembers the
+     * last one, so only the first living cell is left to be searched for.
+     */
+    private void addRow(byte[] array, int y, int count, int last) {
+        if (count == 0) return;
+        int row = y * WIDTH;
+        int first = 0;
+        while (array[row + first] != 1) first++;
+        census.add(count, first, y, last, y);
+    }
+
+    /**
+     * Returns the census of the living cells, which is taken while the board steps. If a cell on the edge of the
+     * bounding box has been killed since, the rows are counted again.
+     */
+    @Override
+    CellCensus census() {
+        if (census.isStale()) {
+            census.clear();
+            for (int y = 0; y < HEIGHT; y++) {
+                int row = y * WIDTH;
+                int count = 0;
+                int last = 0;
+                for (int x = 0; x < WIDTH; x++) {
+                    if (cells[row + x] == 1) {
+                        count++;
+                        last = x;
+                    }
+                }
+                addRow(cells, y, count, last);
+            }
+        }
+        return census;
+    }
+
+    /**
+     * ToString method to return the states of the cells in the board in a String format.
+     * @return String of the cell states in the board.
+     */
+    @Override
+    public String toString() {
+        StringBuilder stringBuilder = new StringBuilder();
+
+        for (int i = 0; i < WIDTH; i++) {
+            for (int j = 0; j < HEIGHT; j++) {
+                stringBuilder.append(getState(i, j));
+            }
+        }
+        return stringBuilder.toString();
+    }
+}
@@ -0,0 +1,247 @@
+package Model;
+
+/**
+ * This class defines a Larger than Life rule, where the neighbourhood of a cell is the square of cells within a given
+ * radius instead of the eight cells around it. The rule is given as a rulestring such as
+ * {@code R5,C0,M1,S34..58,B34..45,NM} (Bosco's rule):
+ * <ul>
+ *     <li>{@code R} is the radius of the neighbourhood, from 1 to {@value #MAX_RADIUS},</li>
+ *     <li>{@code C} is the number of states; 0 and 2 both mean dead and alive, higher values add refractory states
+ *     as in a {@link GenerationsRule},</li>
+ *     <li>{@code M} is 1 if a living cell counts itself when checking for survival,</li>
+ *     <li>{@code S} and {@code B} are the ranges of living neighbours that let a cell survive or be born,</li>
+ *     <li>{@code NM} selects the square (Moore) neighbourhood, which is the only one supported and may be left
+ *     out.</li>
+ * </ul>
+ * The rulestring is compiled once into a table indexed by the state and the number of living neighbours of a cell.
+ *
+ * @see Model.Rule
+ * @see Model.LargerThanLifeBoard
+ * */
+public class LargerThanLifeRule extends Rule {
+
+    /**
+     * The largest supported radius.
+     */
+    public static final int MAX_RADIUS = 50;
+
+    private final int radius;
+    private final int states;
+    private final boolean countCentre;
+    private final int survivalMin;
+    private final int survivalMax;
+    private final int birthMin;
+    private final int birthMax;
+    private final int counts;
+    private final byte[] table;
+
+    /**
+     * Compiles a rulestring into a rule.
+     *
+     * @param rulestring
+     *          The rule, for example {@code R5,C0,M1,S34..58,B34..45,NM}
+     * @throws IllegalArgumentException
+     *          If the rulestring cannot be parsed
+     * */
+    public LargerThanLifeRule(String rulestring) {
+        int r = -1;
+        int c = 0;
+        int m = 0;
+        int[] survival = null;
+        int[] birth = null;
+
+        for (String part : rulestring.trim().toUpperCase().split(",")) {
+            part = part.trim();
+            if (part.isEmpty()) {
+                throw new IllegalArgumentException("Empty condition in rulestring " + rulestring);
+            }
+            String value = part.substring(1);
+            switch (part.charAt(0)) {
+                case 'R':
+                    r = parseNumber(value, rulestring);
+                    break;
+                case 'C':
+                    c = parseNumber(value, rulestring);
+                    break;
+                case 'M':
+                    m = parseNumber(value, rulestring);
+                    break;
+                case 'S':
+                    survival = parseRange(value, rulestring);
+                    break;
+                case 'B':
+                    birth = parseRange(value, rulestring);
+                    break;
+                case 'N':
+                    if (!value.equals("M")) {
+                        throw new IllegalArgumentException("Only the Moore neighbourhood (NM) is supported: "
+                                + rulestring);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Invalid condition '" + part + "' in rulestring " + rulestring);
+            }
+        }
+
+        if (r < 1 || r > MAX_RADIUS) {
+            throw new IllegalArgumentException("Radius must be between 1 and " + MAX_RADIUS + ": " + rulestring);
+        }
+        if (c == 1 || c > 256) {
+            throw new IllegalArgumentException("Number of states must be 0 or between 2 and 256: " + rulestring);
+        }
+        if (m != 0 && m != 1) {
+            throw new IllegalArgumentException("M must be 0 or 1: " + rulestring);
+        }
+        if (survival == null || birth == null) {
+            throw new IllegalArgumentException("Rulestring needs both an S and a B range: " + rulestring);
+        }
+
+        radius = r;
+        states = Math.max(2, c);
+        countCentre = m == 1;
+        survivalMin = survival[0];
+        survivalMax = survival[1];
+        birthMin = birth[0];
+        birthMax = birth[1];
+
+        // number of possible neighbour counts, not counting the cell itself
+        counts = (2 * r + 1) * (2 * r + 1);
+        table = new byte[states * counts];
+        for (int n = 0; n < counts; n++) {
+            int self = countCentre ? 1 : 0;
+            table[n] = (byte) (n >= birthMin && n <= birthMax ? 1 : 0);
+            table[counts + n] = (byte) (n + self >= survivalMin && n + self <= survivalMax ? 1 : 2 % states);
+            for (int state = 2; state < states; state++) {
+                table[state * counts + n] = (byte) ((state + 1) % states);
+            }
+        }
+    }
+
+    /**
+     * Reads a non-negative number.
+     */
+    private static int parseNumber(String value, String rulestring) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number < 0) throw new NumberFormatException();
+            return number;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid number '" + value + "' in rulestring " + rulestring);
+        }
+    }
+
+    /**
+     * Reads a range such as {@code 34..58}. A single number is a range of one count.
+     */
+    private static int[] parseRange(String value, String rulestring) {
+        int dots = value.indexOf("..");
+        int min = parseNumber(dots < 0 ? value : value.substring(0, dots), rulestring);
+        int max = dots < 0 ? min : parseNumber(value.substring(dots + 2), rulestring);
+        if (min > max) {
+            throw new IllegalArgumentException("Empty range '" + value + "' in rulestring " + rulestring);
+        }
+        return new int[]{min, max};
+    }
+
+    /**
+     * The {@code nextGeneration()} method of this class looks every cell up in the compiled table. The cells of
+     * {@code gameBoard} hold states from 0 to {@code getStates() - 1}, and {@code neighBoard} the number of living
+     * cells within the radius of each cell, not counting the cell itself.
+     *
+     * @param gameBoard
+     *          The board currently in use by the game
+     * @param neighBoard
+     *          The board containing the amount of living neighbouring cells of each cell in {@code gameBoard}
+     * */
+    @Override
+    public void nextGeneration(byte[][] gameBoard, byte[][] neighBoard) {
+        for (int i = 0; i < gameBoard.length; i++) {
+            for (int j = 0; j < gameBoard[0].length; j++) {
+                gameBoard[i][j] = table[(gameBoard[i][j] & 0xFF) * counts + (neighBoard[i][j] & 0xFF)];
+            }
+        }
+    }
+
+    /**
+     * Determines whether a particular cell encoded as {@code neighbours * 10 + state} is alive in the next
+     * generation. Only the states 0 and 1 can be encoded this way.
+     *
+     * @param cell
+     *      The cell in question.
+     */
+    @Override
+    public boolean nextGenCell(Integer cell) {
+        int value = cell;
+        return nextState(value % 10, value / 10) == 1;
+    }
+
+    /**
+     * Determines whether a dead or living cell is alive in the next generation. A cell that starts dying counts as
+     * dead.
+     *
+     * @param alive
+     *      Whether the cell is alive
+     * @param neighbours
+     *      Number of living cells within the radius, not counting the cell itself
+     * @return
+     *      True if the cell lives in the next generation
+     */
+    @Override
+    public boolean nextCellState(boolean alive, int neighbours) {
+        return nextState(alive ? 1 : 0, neighbours) == 1;
+    }
+
+    /**
+     * Determines the next state of a cell from its current state and number of living neighbours.
+     *
+     * @param state
+     *      The state of the cell, from 0 to {@code getStates() - 1}
+     * @param neighbours
+     *      Number of living cells within the radius, not counting the cell itself
+     * @return
+     *      The state of the cell in the next generation
+     */
+    public int nextState(int state, int neighbours) {
+        return table[state * counts + neighbours] & 0xFF;
+    }
+
+    /**
+     * Returns the radius of the neighbourhood.
+     *
+     * @return The radius, from 1 to {@value #MAX_RADIUS}.
+     */
+    @Override
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * Returns the number of states a cell can be in, including dead and alive.
+     *
+     * @return The number of states.
+     */
+    @Override
+    public int getStates() {
+        return states;
+    }
+
+    /**
+     * Returns the compiled rule, where entry {@code state * (2r + 1)^2 + neighbours} is the next state of a cell.
+     * The table must not be modified.
+     *
+     * @return The state table.
+     */
+    byte[] stateTable() {
+        return table;
+    }
+
+    /**
+     * Returns the rule in Larger than Life notation.
+     * @return The rulestring, for example {@code R5,C0,M1,S34..58,B34..45,NM}.
+     */
+    @Override
+    public String toString() {
+        return "R" + radius + ",C" + (states == 2 ? 0 : states) + ",M" + (countCentre ? 1 : 0)
+                + ",S" + survivalMin + ".." + survivalMax + ",B" + birthMin + ".." + birthMax + ",NM";
+    }
+}
@@ -0,0 +1,135 @@
+package Model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of durations in nanoseconds with a fixed number of log-linear buckets. Every power of two is split
+ * into 8 buckets of equal width, so a percentile is read with an error of at most one eighth of its value, from one
+ * nanosecond up to the largest {@code long}, in under 4 KiB. Recording is a few atomic increments without any
+ * allocation, and durations can be recorded and read from different threads at the same time.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Adds a duration to the histogram. Negative durations are counted as 0.
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        record(nanos, 1);
+    }
+
+    /**
+     * Adds the same duration to the histogram several times, as fast as adding it once. Negative durations are counted
+     * as 0.
+     * @param nanos The duration in nanoseconds.
+     * @param times The number of times to add it.
+     */
+    public void record(long nanos, long times) {
+        if (times <= 0) return;
+        if (nanos < 0) nanos = 0;
+        counts.addAndGet(bucket(nanos), times);
+        count.addAndGet(times);
+        total.addAndGet(nanos * times);
+        long known;
+        while (nanos > (known = max.get()) && !max.compareAndSet(known, nanos)) {
+            // another thread raised the maximum, try again
+        }
+    }
+
+    /**
+     * Returns the bucket of a duration: values below 8 have a bucket each, larger values share a bucket with the
+     * values that agree with them in the highest 4 bits.
+     */
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the largest value that falls into a bucket.
+     */
+    private static long highestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     * @return The count of the histogram.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Returns the mean of the recorded durations.
+     * @return The mean in nanoseconds, 0 if nothing was recorded.
+     */
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) total.get() / n;
+    }
+
+    /**
+     * Returns the longest recorded duration.
+     * @return The maximum in nanoseconds, 0 if nothing was recorded.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the duration that the given share of the recorded durations does not exceed, rounded up to the end of
+     * its bucket but never above the maximum.
+     * @param percentile The share in percent, from 0 to 100.
+     * @return The percentile in nanoseconds, 0 if nothing was recorded.
+     */
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            n += counts.get(i);
+        }
+        if (n == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValue(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Forgets every recorded duration.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+}
@@ -0,0 +1,205 @@
+package Model;
+
+/**
+ * This class defines any Life-like rule, given as a rulestring such as {@code B3/S23} (Conway), {@code B36/S23}
+ * (HighLife), {@code B3678/S34678} (Day &amp; Night) or {@code B2/S} (Seeds). The older S/B notation, for example
+ * {@code 23/3}, is accepted as well.
+ * The rulestring is compiled once into lookup tables: a cell's next state is a single array lookup indexed by its
+ * state and neighbour count, and the bit-sliced boards get the list of neighbour counts that lead to a living cell.
+ *
+ * @see Model.Rule
+ * */
+public class LifeLikeRule extends Rule {
+
+    private final int birthMask;
+    private final int survivalMask;
+    private final boolean[] table = new boolean[18];
+    private final int[] liveCounts;
+    private final int[] liveModes;
+    private final boolean conway;
+
+    private static final int MODE_BIRTH = 1;
+    private static final int MODE_SURVIVAL = 2;
+    private static final int MODE_ALWAYS = 3;
+
+    /**
+     * Compiles a rulestring into a rule.
+     *
+     * @param rulestring
+     *          The rule in B/S notation ({@code B36/S23}) or S/B notation ({@code 23/36})
+     * @throws IllegalArgumentException
+     *          If the rulestring cannot be parsed
+     * */
+    public LifeLikeRule(String rulestring) {
+        String[] parts = rulestring.trim().split("/", -1);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Rulestring must have two parts separated by '/': " + rulestring);
+        }
+
+        String birth;
+        String survival;
+        String first = parts[0].trim().toUpperCase();
+        String second = parts[1].trim().toUpperCase();
+        if (first.startsWith("B") && (second.startsWith("S") || second.isEmpty())) {
+            birth = first.substring(1);
+            survival = second.isEmpty() ? "" : second.substring(1);
+        } else if (first.startsWith("S") && second.startsWith("B")) {
+            survival = first.substring(1);
+            birth = second.substring(1);
+        } else {
+            // S/B notation without letters
+            survival = first;
+            birth = second;
+        }
+
+        birthMask = parseCounts(birth, rulestring);
+        survivalMask = parseCounts(survival, rulestring);
+
+        int entries = 0;
+        for (int n = 0; n <= 8; n++) {
+            table[n] = (birthMask >> n & 1) == 1;
+            table[9 + n] = (survivalMask >> n & 1) == 1;
+            if (table[n] || table[9 + n]) entries++;
+        }
+
+        liveCounts = new int[entries];
+        liveModes = new int[entries];
+        int i = 0;
+        for (int n = 0; n <= 8; n++) {
+            int mode = (table[n] ? MODE_BIRTH : 0) | (table[9 + n] ? MODE_SURVIVAL : 0);
+            if (mode != 0) {
+                liveCounts[i] = n;
+                liveModes[i++] = mode;
+            }
+        }
+        conway = birthMask == 1 << 3 && survivalMask == (1 << 2 | 1 << 3);
+    }
+
+    /**
+     * Turns a string of digits into a bit mask of neighbour counts.
+     */
+    private static int parseCounts(String counts, String rulestring) {
+        int mask = 0;
+        for (char c : counts.toCharArray()) {
+            if (c < '0' || c > '8') {
+                throw new IllegalArgumentException("Invalid neighbour count '" + c + "' in rulestring " + rulestring);
+            }
+            mask |= 1 << (c - '0');
+        }
+        return mask;
+    }
+
+    /**
+     * The {@code nextGeneration()} method of this class looks every cell up in the compiled table.
+     *
+     * @param gameBoard
+     *          The board currently in use by the game
+     * @param neighBoard
+     *          The board containing the amount of neighbouring cells of each cell in {@code gameBoard}
+     * */
+    @Override
+    public void nextGeneration(byte[][] gameBoard, byte[][] neighBoard) {
+        for (int i = 0; i < gameBoard.length; i++) {
+            for (int j = 0; j < gameBoard[0].length; j++) {
+                gameBoard[i][j] = (byte) (table[gameBoard[i][j] * 9 + neighBoard[i][j]] ? 1 : 0);
+            }
+        }
+    }
+
+    /**
+     * Determines the fate of a particular cell encoded as {@code neighbours * 10 + state}.
+     *
+     * @param cell
+     *      The cell in question.
+     */
+    @Override
+    public boolean nextGenCell(Integer cell) {
+        int value = cell;
+        return table[(value % 2) * 9 + value / 10];
+    }
+
+    /**
+     * Determines the fate of a cell from its state and number of living neighbours with a single table lookup.
+     *
+     * @param alive
+     *      Whether the cell is alive
+     * @param neighbours
+     *      Number of living neighbours, 0 to 8
+     * @return
+     *      True if the cell lives in the next generation
+     */
+    @Override
+    public boolean nextCellState(boolean alive, int neighbours) {
+        return table[(alive ? 9 : 0) + neighbours];
+    }
+
+    /**
+     * Applies the rule to 64 cells at once. The neighbour counts are given as bit planes, so bit i of the count of
+     * cell i is spread over {@code ones}, {@code twos}, {@code fours} and {@code eights}.
+     *
+     * @param alive The current state of the cells.
+     * @param ones Lowest bit of every neighbour count.
+     * @param twos Second bit of every neighbour count.
+     * @param fours Third bit of every neighbour count.
+     * @param eights Highest bit of every neighbour count.
+     * @return The next state of the cells.
+     */
+    long nextWord(long alive, long ones, long twos, long fours, long eights) {
+        if (conway) {
+            return twos & ~fours & ~eights & (ones | alive);
+        }
+        long result = 0;
+        for (int i = 0; i < liveCounts.length; i++) {
+            int n = liveCounts[i];
+            long count = ((n & 1) != 0 ? ones : ~ones)
+                    & ((n & 2) != 0 ? twos : ~twos)
+                    & ((n & 4) != 0 ? fours : ~fours)
+                    & ((n & 8) != 0 ? eights : ~eights);
+            switch (liveModes[i]) {
+                case MODE_BIRTH:
+                    result |= count & ~alive;
+                    break;
+                case MODE_SURVIVAL:
+                    result |= count & alive;
+                    break;
+                default:
+                    result |= count;
+                    break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the neighbour counts that bring a dead cell to life.
+     * @return Bit mask where bit n is set if n neighbours cause a birth.
+     */
+    public int getBirthMask() {
+        return birthMask;
+    }
+
+    /**
+     * Returns the neighbour counts that keep a living cell alive.
+     * @return Bit mask where bit n is set if n neighbours let a cell survive.
+     */
+    public int getSurvivalMask() {
+        return survivalMask;
+    }
+
+    /**
+     * Returns the rule in B/S notation.
+     * @return The rulestring, for example {@code B36/S23}.
+     */
+    @Override
+    public String toString() {
+        StringBuilder stringBuilder = new StringBuilder("B");
+        for (int n = 0; n <= 8; n++) {
+            if ((birthMask >> n & 1) == 1) stringBuilder.append(n);
+        }
+        stringBuilder.append("/S");
+        for (int n = 0; n <= 8; n++) {
+            if ((survivalMask >> n & 1) == 1) stringBuilder.append(n);
+        }
+        return stringBuilder.toString();
+    }
+}
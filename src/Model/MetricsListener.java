@@ -0,0 +1,29 @@
+package Model;
+
+/**
+ * Receives the measurements of a {@link SimulationMetrics} as they are taken, for example to forward them to a
+ * monitoring system. The methods are called on the thread that ran the phase or generation, so they should return
+ * quickly.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+public interface MetricsListener {
+
+    /**
+     * Called after a phase of a generation, or a frame, has been timed.
+     * @param phase The phase that ran.
+     * @param nanos The time the phase took in nanoseconds.
+     */
+    default void phaseCompleted(SimulationMetrics.Phase phase, long nanos) {
+    }
+
+    /**
+     * Called after a generation has been timed.
+     * @param nanos The time the generation took in nanoseconds.
+     * @param cells The number of cells the board computed.
+     * @param allocatedBytes The bytes the simulating thread allocated during the generation, or -1 if the virtual
+     *                       machine cannot tell.
+     */
+    default void generationCompleted(long nanos, long cells, long allocatedBytes) {
+    }
+}
@@ -0,0 +1,449 @@
+package Model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A fixed-size board that keeps its cells outside the Java heap, so that universes far larger than the heap can be
+ * stepped without garbage collection pauses. The cells are packed into bits like in a {@link BitBoard}, 64 cells per
+ * {@code long}, and every row is stored in direct byte buffers of at most {@value #MAX_CHUNK_BYTES} bytes each. The
+ * buffers can instead be mapped from a file, which then holds the rows of the board one after the other, every word
+ * in little-endian order.
+ * There is only one copy of the cells. A generation is computed in place by streaming the rows of horizontal strips
+ * through three scratch rows, so apart from the buffers the board only uses a few rows of heap per strip. The strips
+ * are stepped in parallel by a {@link ConcurrentSim}: first every strip saves the rows just outside it, then every
+ * strip computes its rows and writes them back.
+ * Cells outside the board are treated as dead.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+public class OffHeapBoard extends Board implements AutoCloseable {
+
+    /**
+     * The largest number of bytes in one buffer.
+     */
+    public static final int MAX_CHUNK_BYTES = 1 << 30;
+
+    private static final int STRIPS_PER_THREAD = 4;
+
+    private final int WIDTH;
+    private final int HEIGHT;
+    private final int words;
+    private final long lastMask;
+    private final int rowsPerChunk;
+    private final LongBuffer[] chunks;
+    private final MappedByteBuffer[] mapped;
+    private final Strip[] strips;
+    private final ConcurrentSim simulator;
+    private LifeLikeRule lifeRule;
+    private byte[] neighbourhoodTable;
+    private final CellCensus census = new CellCensus();
+
+    /**
+     * The rows a single task steps, together with the scratch rows it streams them through.
+     */
+    private final class Strip implements Runnable {
+        final int start;
+        final int end;
+        long[] above;
+        long[] current;
+        long[] below;
+        final long[] result;
+        final long[] afterEnd;
+        final CellCensus census = new CellCensus();
+
+        Strip(int start, int end) {
+            this.start = start;
+            this.end = end;
+            above = new long[words];
+            current = new long[words];
+            below = new long[words];
+            result = new long[words];
+            afterEnd = new long[words];
+        }
+
+        /**
+         * Saves the rows just above and just below the strip before the neighbouring strips overwrite them.
+         */
+        void saveEdges() {
+            readRowOrEmpty(start - 1, above);
+            readRowOrEmpty(end, afterEnd);
+        }
+
+        /**
+         * Streams the rows of the strip through the scratch rows and writes every new row back in place.
+         */
+        @Override
+        public void run() {
+            census.clear();
+            readRow(start, current);
+            for (int y = start; y < end; y++) {
+                if (y + 1 < end) {
+                    readRow(y + 1, below);
+                } else {
+                    System.arraycopy(afterEnd, 0, below, 0, words);
+                }
+                nextRow(above, current, below, result);
+                writeRow(y, result);
+                census.addRow(y, result, 0, words);
+
+                long[] temp = above;
+                above = current;
+                current = below;
+                below = temp;
+            }
+        }
+    }
+
+    /**
+     * Constructs an empty board with its cells in direct buffers, stepped by one thread per available processor.
+     * @param width Number of cells in x direction.
+     * @param height Number of cells in y direction.
+     */
+    public OffHeapBoard(int width, int height) {
+        this(width, height, null, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a board with its cells in the given file. The file is created if it does not exist and grown to the
+     * size of the board, and the cells already in it are kept, so a board can be saved and opened again.
+     * @param width Number of cells in x direction.
+     * @param height Number of cells in y direction.
+     * @param file The file to map, or null to keep the cells in direct buffers.
+     * @param threads The number of threads that step the board.
+     * @throws UncheckedIOException If the file cannot be mapped.
+     */
+    public OffHeapBoard(int width, int height, Path file, int threads) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Board dimensions must be positive");
+        }
+        WIDTH = width;
+        HEIGHT = height;
+        words = (width + 63) >>> 6;
+        lastMask = (width & 63) == 0 ? -1L : (1L << (width & 63)) - 1;
+
+        long rowBytes = (long) words * Long.BYTES;
+        rowsPerChunk = (int) Math.max(1, Math.min(height, MAX_CHUNK_BYTES / rowBytes));
+        int chunkCount = (height + rowsPerChunk - 1) / rowsPerChunk;
+        chunks = new LongBuffer[chunkCount];
+        mapped = file == null ? null : new MappedByteBuffer[chunkCount];
+
+        if (file == null) {
+            for (int i = 0; i < chunkCount; i++) {
+                chunks[i] = ByteBuffer.allocateDirect((int) (chunkRows(i) * rowBytes))
+                        .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            }
+        } else {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                for (int i = 0; i < chunkCount; i++) {
+                    mapped[i] = channel.map(FileChannel.MapMode.READ_WRITE, i * rowsPerChunk * rowBytes,
+                            chunkRows(i) * rowBytes);
+                    chunks[i] = mapped[i].order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+                }
+            } catch (IOException ioe) {
+                throw new UncheckedIOException("Could not map " + file, ioe);
+            }
+        }
+
+        simulator = new ConcurrentSim(threads);
+        int stripCount = Math.min(height, threads * STRIPS_PER_THREAD);
+        strips = new Strip[stripCount];
+        for (int i = 0; i < stripCount; i++) {
+            strips[i] = new Strip((int) ((long) height * i / stripCount), (int) ((long) height * (i + 1) / stripCount));
+        }
+        setRule(new ConwayRule());
+        if (file != null) {
+            recount();
+        }
+    }
+
+    /**
+     * Returns the number of rows in the given chunk.
+     */
+    private int chunkRows(int chunk) {
+        return Math.min(rowsPerChunk, HEIGHT - chunk * rowsPerChunk);
+    }
+
+    /**
+     * Sets the rule used by the board. Life-like rules run on bit-sliced neighbour counts, every other rule is
+     * evaluated through its neighbourhood table.
+     * @param rule The new rule.
+     */
+    @Override
+    public void setRule(Rule rule) {
+        super.setRule(rule);
+        lifeRule = rule instanceof LifeLikeRule ? (LifeLikeRule) rule : null;
+        neighbourhoodTable = rule.neighbourhoodTable();
+    }
+
+    /**
+     * Returns the cell state of the cell in position (x,y) if inside the board.
+     * @param x
+     *          x-position of the tested cell
+     * @param y
+     *          y-position of the tested cell
+     * @return True if the cell is inside the board and alive.
+     */
+    @Override
+    public boolean getCellState(int x, int y) {
+        if (x < 0 || y < 0 || x >= WIDTH || y >= HEIGHT) return false;
+        return (chunks[y / rowsPerChunk].get(wordIndex(x, y)) & (1L << x)) != 0;
+    }
+
+    /**
+     * Sets the cell in position (x,y) to alive or dead. Positions outside the board are ignored.
+     * @param x
+     *          x-position of the cell
+     * @param y
+     *          y-position of the cell
+     * @param b
+     *          state that the cell will be set to; false or true (0 or 1)
+     */
+    @Override
+    public void setCellState(int x, int y, boolean b) {
+        if (x < 0 || y < 0 || x >= WIDTH || y >= HEIGHT) return;
+        LongBuffer chunk = chunks[y / rowsPerChunk];
+        int index = wordIndex(x, y);
+        long word = chunk.get(index);
+        boolean alive = (word & (1L << x)) != 0;
+        if (b && !alive) {
+            chunk.put(index, word | (1L << x));
+            census.add(x, y);
+        } else if (!b && alive) {
+            chunk.put(index, word & ~(1L << x));
+            census.remove(x, y);
+        }
+    }
+
+    /**
+     * Returns the index of the word holding cell (x,y) within its chunk.
+     */
+    private int wordIndex(int x, int y) {
+        return (y % rowsPerChunk) * words + (x >>> 6);
+    }
+
+    /**
+     * Copies the states of the cells in a rectangle row by row, reading each row of the board in one bulk read.
+     * @param states Array of at least {@code width * height} entries that receives the states.
+     * @param fromX x-position of the left edge of the rectangle.
+     * @param fromY y-position of the top edge of the rectangle.
+     * @param width Number of cells in a row of the rectangle.
+     * @param height Number of rows in the rectangle.
+     */
+    @Override
+    public void getCellStates(byte[] states, int fromX, int fromY, int width, int height) {
+        long[] row = new long[words];
+        for (int y = 0; y < height; y++) {
+            readRow(fromY + y, row);
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                int column = fromX + x;
+                states[offset + x] = (byte) (row[column >>> 6] >>> column & 1);
+            }
+        }
+    }
+
+    /**
+     * Tells a visitor about every living cell row by row, reading each row in one bulk read and skipping the words
+     * without living cells.
+     * @param visitor The visitor to tell about the cells.
+     */
+    @Override
+    public void forEachCell(CellVisitor visitor) {
+        long[] row = new long[words];
+        for (int y = 0; y < HEIGHT; y++) {
+            readRow(y, row);
+            for (int w = 0; w < words; w++) {
+                long bits = row[w];
+                while (bits != 0) {
+                    visitor.visit(w << 6 | Long.numberOfTrailingZeros(bits), y, 1);
+                    bits &= bits - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the height of the board.
+     * @return Number of rows in the board.
+     */
+    @Override
+    public int getHEIGHT() {
+        return HEIGHT;
+    }
+
+    /**
+     * Returns the width of the board.
+     * @return Number of cells in each row.
+     */
+    @Override
+    public int getWIDTH() {
+        return WIDTH;
+    }
+
+    /**
+     * Calculates the next generation of the board in place. Every strip first saves the rows just outside it, and
+     * once all strips have done so, every strip streams its own rows through its scratch rows and takes the census of
+     * them, and the censuses of the strips are added up. With metrics set, the generation is timed as one step.
+     * @see SimulationMetrics
+     */
+    @Override
+    public void nextGeneration() {
+        SimulationMetrics metrics = getMetrics();
+        long start = metrics == null ? 0 : metrics.startGeneration();
+        simulator.describe("OffHeapBoard", WIDTH, HEIGHT, census.getPopulation());
+        for (Strip strip : strips) {
+            simulator.addThreadTask(strip::saveEdges);
+        }
+        simulator.doWork();
+        for (Strip strip : strips) {
+            simulator.addThreadTask(strip);
+        }
+        simulator.doWork();
+
+        census.clear();
+        for (Strip strip : strips) {
+            census.add(strip.census);
+        }
+        if (metrics != null) {
+            metrics.recordPhase(SimulationMetrics.Phase.STEP, start);
+            metrics.endGeneration(start, (long) WIDTH * HEIGHT);
+        }
+    }
+
+    /**
+     * Computes the next state of one row from the rows above and below it.
+     */
+    private void nextRow(long[] above, long[] current, long[] below, long[] result) {
+        for (int w = 0; w < words; w++) {
+            boolean west = w > 0;
+            boolean east = w < words - 1;
+            long aw = west ? above[w - 1] : 0;
+            long ae = east ? above[w + 1] : 0;
+            long cw = west ? current[w - 1] : 0;
+            long ce = east ? current[w + 1] : 0;
+            long bw = west ? below[w - 1] : 0;
+            long be = east ? below[w + 1] : 0;
+
+            long next = lifeRule != null
+                    ? BitBoard.nextWord(lifeRule, aw, above[w], ae, cw, current[w], ce, bw, below[w], be)
+                    : BitBoard.nextWord(neighbourhoodTable, aw, above[w], ae, cw, current[w], ce, bw, below[w], be);
+            result[w] = east ? next : next & lastMask;
+        }
+    }
+
+    /**
+     * Copies a row of the board into an array.
+     */
+    private void readRow(int y, long[] row) {
+        chunks[y / rowsPerChunk].get((y % rowsPerChunk) * words, row, 0, words);
+    }
+
+    /**
+     * Copies a row of the board into an array, or clears the array if the row is outside the board.
+     */
+    private void readRowOrEmpty(int y, long[] row) {
+        if (y < 0 || y >= HEIGHT) {
+            Arrays.fill(row, 0);
+        } else {
+            readRow(y, row);
+        }
+    }
+
+    /**
+     * Copies an array into a row of the board.
+     */
+    private void writeRow(int y, long[] row) {
+        chunks[y / rowsPerChunk].put((y % rowsPerChunk) * words, row, 0, words);
+    }
+
+    /**
+     * Neighbours are counted as part of {@link #nextGeneration()}, so this method is not supported.
+     */
+    @Override
+    public void countNeighbours() {
+        throw new UnsupportedOperationException("Neighbours are counted in nextGeneration()");
+    }
+
+    /**
+     * Kills every cell on the board.
+     */
+    @Override
+    public void clear() {
+        long[] empty = new long[words];
+        for (int y = 0; y < HEIGHT; y++) {
+            writeRow(y, empty);
+        }
+        census.clear();
+    }
+
+    /**
+     * Returns the census of the living cells, which is taken while the board steps. If a cell on the edge of the
+     * bounding box has been killed since, the rows are counted again.
+     */
+    @Override
+    CellCensus census() {
+        if (census.isStale()) {
+            recount();
+        }
+        return census;
+    }
+
+    /**
+     * Takes the census of the board by reading every row.
+     */
+    private void recount() {
+        census.clear();
+        long[] row = new long[words];
+        for (int y = 0; y < HEIGHT; y++) {
+            readRow(y, row);
+            census.addRow(y, row, 0, words);
+        }
+    }
+
+    /**
+     * Writes the cells back to the file if the board is mapped from one.
+     */
+    public void flush() {
+        if (mapped != null) {
+            for (MappedByteBuffer buffer : mapped) {
+                buffer.force();
+            }
+        }
+    }
+
+    /**
+     * Writes the cells back to the file if the board is mapped from one, and stops the worker threads. The memory
+     * of the buffers is given back once the board is garbage collected.
+     */
+    @Override
+    public void close() {
+        flush();
+        simulator.shutdown();
+    }
+
+    /**
+     * ToString method to return the cells in the board in a String format.
+     * @return String of the cells in the board.
+     */
+    @Override
+    public String toString() {
+        StringBuilder stringBuilder = new StringBuilder();
+
+        for (int i = 0; i < WIDTH; i++) {
+            for (int j = 0; j < HEIGHT; j++) {
+                stringBuilder.append(getCellState(i, j) ? 1 : 0);
+            }
+        }
+        return stringBuilder.toString();
+    }
+}
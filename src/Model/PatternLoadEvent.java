@@ -0,0 +1,42 @@
+package Model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event spanning the parsing of one pattern file by {@link FileHandler}, from reading the first
+ * character to returning the cells. A pattern has no engine or threads yet, so the event describes the size and
+ * population of the pattern itself.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+@Name("gameoflife17.PatternLoad")
+@Label("Pattern Load")
+@Description("Parsing of one pattern file")
+@Category({"Game of Life"})
+public class PatternLoadEvent extends Event {
+
+    @Label("Source")
+    @Description("File or URL the pattern was read from")
+    String source;
+
+    @Label("Format")
+    String format;
+
+    @Label("Characters")
+    @Description("Length of the pattern file")
+    long characters;
+
+    @Label("Width")
+    int width;
+
+    @Label("Height")
+    int height;
+
+    @Label("Population")
+    @Description("Number of living cells in the pattern")
+    long population;
+}
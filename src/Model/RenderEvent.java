@@ -0,0 +1,28 @@
+package Model;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event spanning the drawing of one frame of a board.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+@Name("gameoflife17.Render")
+@Label("Render")
+@Description("Drawing of one frame")
+public class RenderEvent extends BoardEvent {
+
+    @Label("Cell Size")
+    @Description("Size of a cell on screen")
+    double cellSize;
+
+    /**
+     * Sets the size the cells were drawn with.
+     * @param cellSize The size of a cell on screen.
+     */
+    public void setCellSize(double cellSize) {
+        this.cellSize = cellSize;
+    }
+}
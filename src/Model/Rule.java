@@ -3,9 +3,19 @@ package Model;
 
 /**
  * This class provides general functionality for the {@code nextGeneration()} methods of its subclasses.
+ * Every rule can also be evaluated on a whole 3x3 neighbourhood through {@link #nextCellState(int)}, which is the
+ * contract used by the boards. Totalistic rules only need to implement the neighbour count methods, while
+ * non-totalistic rules override the neighbourhood method.
  * */
 public abstract class Rule {
 
+    /**
+     * Bit of the centre cell in a neighbourhood given to {@link #nextCellState(int)}.
+     */
+    public static final int CENTRE = 1 << 4;
+
+    private byte[] neighbourhoodTable;
+
     /**
      * Determines the next generation of a pattern based on the rules that are implemented.
      *
@@ -27,4 +37,110 @@ public abstract class Rule {
      */
     public abstract boolean nextGenCell(Integer cell);
 
+    /**
+     * Determines whether a cell lives in the next generation from its current state and number of living
+     * neighbours. Unlike {@link #nextGenCell(Integer)}, this method works on primitives and never boxes.
+     *
+     * @param alive
+     *      Whether the cell is alive.
+     * @param neighbours
+     *      The number of living neighbours of the cell.
+     * @return
+     *      True if the cell lives.
+     *      False otherwise.
+     */
+    public abstract boolean nextCellState(boolean alive, int neighbours);
+
+    /**
+     * Determines whether a cell lives in the next generation from its whole 3x3 neighbourhood. Bit
+     * {@code row * 3 + column} of the neighbourhood holds the cell in that row and column, counted from the
+     * north-west corner, so bit 4 ({@link #CENTRE}) is the cell itself. This implementation counts the neighbours
+     * and calls {@link #nextCellState(boolean, int)}.
+     *
+     * @param neighbourhood
+     *      The nine cells around and including the cell, as a bit mask from 0 to 511.
+     * @return
+     *      True if the cell lives.
+     *      False otherwise.
+     */
+    public boolean nextCellState(int neighbourhood) {
+        return nextCellState((neighbourhood & CENTRE) != 0, Integer.bitCount(neighbourhood & ~CENTRE));
+    }
+
+    /**
+     * Returns whether the rule only depends on the number of living neighbours. Boards that work on neighbour counts
+     * can only run totalistic rules.
+     *
+     * @return
+     *      True if the rule is totalistic.
+     */
+    public boolean isTotalistic() {
+        return true;
+    }
+
+    /**
+     * Returns the number of states a cell can be in under the rule. Two-state rules only know dead and alive.
+     *
+     * @return The number of states, 2 unless the rule has refractory states.
+     */
+    public int getStates() {
+        return 2;
+    }
+
+    /**
+     * Returns the radius of the neighbourhood the rule looks at. The neighbour count methods of rules with a radius
+     * larger than 1 count every cell within the radius.
+     *
+     * @return The radius, 1 for the eight cells around a cell.
+     */
+    public int getRadius() {
+        return 1;
+    }
+
+    /**
+     * Returns the rule compiled into a table of 512 entries indexed by the neighbourhood bit mask described in
+     * {@link #nextCellState(int)}. Each entry is 1 if the centre cell lives and 0 otherwise, so that the boards can
+     * shift the entries into place without branching. The table is built on first use and must not be modified.
+     *
+     * @return The next state of the centre cell for every neighbourhood.
+     */
+    byte[] neighbourhoodTable() {
+        byte[] table = neighbourhoodTable;
+        if (table == null) {
+            table = new byte[512];
+            for (int neighbourhood = 0; neighbourhood < table.length; neighbourhood++) {
+                table[neighbourhood] = (byte) (nextCellState(neighbourhood) ? 1 : 0);
+            }
+            neighbourhoodTable = table;
+        }
+        return table;
+    }
+
+    /**
+     * Compiles a rulestring into the most specific rule that supports it: a {@link LargerThanLifeRule} for
+     * rulestrings with a radius such as {@code R5,C0,M1,S34..58,B34..45}, a {@link GenerationsRule} for rulestrings
+     * with a number of states such as {@code B2/S/C3}, a {@link LifeLikeRule} for totalistic rules such as
+     * {@code B36/S23}, otherwise an {@link IsotropicRule} for rules in Hensel notation such as {@code B2-a/S12}.
+     *
+     * @param rulestring
+     *      The rule to compile.
+     * @return
+     *      The compiled rule.
+     * @throws IllegalArgumentException
+     *      If the rulestring cannot be parsed
+     */
+    public static Rule forRulestring(String rulestring) {
+        if (rulestring.trim().toUpperCase().startsWith("R")) {
+            return new LargerThanLifeRule(rulestring);
+        }
+        if (rulestring.split("/", -1).length == 3) {
+            return new GenerationsRule(rulestring);
+        }
+        try {
+            return new LifeLikeRule(rulestring);
+        } catch (IllegalArgumentException ex) {
+            return new IsotropicRule(rulestring);
+        }
+    }
+
 }
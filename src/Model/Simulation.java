@@ -0,0 +1,545 @@
+package Model;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs a board on a thread of its own, so that computing generations never holds up the user interface. The board is
+ * only ever touched by the simulation thread: changes to it are submitted as tasks, which the thread runs in order
+ * between two generations. After the tasks, and after a generation whenever the view has taken the snapshot before,
+ * the thread publishes a {@link BoardSnapshot}. The view draws the latest snapshot, so a view that cannot keep up with
+ * the simulation simply skips the generations in between, and no copy is made of a generation nobody will see. Only
+ * the cells in the viewport of the view are copied.
+ * In turbo mode the simulation does not keep to a rate, but computes as many generations between two snapshots as fit
+ * into one frame. The size of these batches is tuned from the measured time of a generation, of taking a snapshot and
+ * of drawing it, so that the view keeps to the target frame rate however slow or fast the board is.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+public class Simulation implements AutoCloseable {
+
+    /**
+     * Is told about every generation the simulation computes. The methods are called on the simulation thread, so they
+     * may read and change the board. In turbo mode they are called once for every batch of generations.
+     */
+    public interface Listener {
+
+        /**
+         * Tells whether the listener is called around every generation in turbo mode. Listeners that follow the
+         * generations one by one, such as a history or a cycle detector, need this; otherwise a batch is computed in
+         * one call to {@link Board#step(int)}, which is faster on boards that compute several generations in one pass,
+         * and the listener is called once around the whole batch.
+         * @return True to be called around every generation.
+         */
+        default boolean wantsEveryGeneration() {
+            return false;
+        }
+
+        /**
+         * Called before the board computes a generation, or a batch of generations.
+         * @param board The board.
+         * @param generation The generation the board is at.
+         */
+        default void beforeGeneration(Board board, long generation) {
+        }
+
+        /**
+         * Called after the board has computed a generation, or a batch of generations.
+         * @param board The board.
+         * @param generation The generation the board is at now.
+         */
+        default void afterGeneration(Board board, long generation) {
+        }
+
+        /**
+         * Called when computing a generation or taking a snapshot has failed. The simulation has been stopped, and the
+         * changes and queries that are waiting are dropped once this returns; new ones are still run.
+         * @param failure What was thrown.
+         */
+        default void simulationFailed(Throwable failure) {
+        }
+
+        /**
+         * Called when a submitted change has failed. The simulation goes on with the board as the change left it.
+         * @param failure What the change threw.
+         */
+        default void taskFailed(RuntimeException failure) {
+        }
+    }
+
+    /**
+     * A query that can be failed when the simulation drops it.
+     */
+    private static final class Query<T> extends FutureTask<T> {
+
+        Query(Callable<T> callable) {
+            super(callable);
+        }
+
+        void fail(Throwable failure) {
+            setException(failure);
+        }
+    }
+
+    /**
+     * The largest number of generations computed between two snapshots.
+     */
+    public static final int MAX_BATCH = 1 << 16;
+
+    /**
+     * The weight of a new measurement in the averages the batch size is tuned from.
+     */
+    private static final double SMOOTHING = 0.25;
+
+    /**
+     * The achieved rate is measured over periods of at least this length.
+     */
+    private static final long RATE_WINDOW = 500_000_000L;
+
+    private final LinkedBlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+    private final AtomicReference<BoardSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicBoolean snapshotWanted = new AtomicBoolean();
+    private final Thread thread;
+    private volatile boolean running;
+    private volatile boolean closed;
+    private volatile long period;
+    private volatile boolean turbo;
+    private volatile long framePeriod = (long) (1e9 / 30);
+    private volatile long renderNanos;
+    private volatile int batch = 1;
+    private volatile double generationsPerSecond;
+    private volatile Listener listener = new Listener() {
+    };
+    // x, y, width and height of the cells the view shows, replaced as a whole
+    private volatile int[] viewport = {0, 0, 0, 0};
+
+    // only touched by the simulation thread
+    private Board board;
+    private long generation;
+    private long nextStep;
+    private boolean changed;
+    private double generationNanos = -1;
+    private double snapshotNanos;
+    private long rateStart;
+    private long rateGenerations;
+    private boolean rateMeasured;
+
+    /**
+     * Constructs a stopped simulation of a board and starts its thread. The board must no longer be used by the
+     * calling thread.
+     * @param board The board to simulate.
+     */
+    public Simulation(Board board) {
+        this.board = board;
+        snapshot.set(new BoardSnapshot(board, 0, 0, 0, 0, 0));
+        thread = new Thread(this::run, "Simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Runs tasks and generations until the simulation is closed.
+     */
+    private void run() {
+        while (!closed) {
+            try {
+                long wait = turbo ? 0 : nextStep - System.nanoTime();
+                Runnable task = running ? tasks.poll(wait, TimeUnit.NANOSECONDS) : tasks.take();
+                if (task != null) {
+                    // run every waiting task before showing the result
+                    do {
+                        changed = true;
+                        runTask(task);
+                    } while ((task = tasks.poll()) != null);
+                    if (changed) {
+                        publish();
+                    }
+                } else if (running && turbo) {
+                    computeBatch();
+                    nextStep = System.nanoTime();
+                    if (snapshotWanted.getAndSet(false)) {
+                        publish();
+                    }
+                } else if (running) {
+                    long now = System.nanoTime();
+                    computeGeneration();
+                    countGenerations(1);
+                    // a generation that took longer than the period delays the next one instead of bunching them up
+                    nextStep = Math.max(nextStep + period, now);
+                    if (snapshotWanted.getAndSet(false)) {
+                        publish();
+                    }
+                }
+            } catch (InterruptedException ex) {
+                return;
+            } catch (RuntimeException | Error ex) {
+                fail(ex);
+            }
+        }
+    }
+
+    /**
+     * Stops the simulation after a generation or snapshot has failed, tells the listener, and fails the queries that
+     * are waiting so that their callers do not wait forever.
+     */
+    private void fail(Throwable failure) {
+        running = false;
+        try {
+            listener.simulationFailed(failure);
+        } catch (RuntimeException ex) {
+            // the listener is the one to tell, so there is nobody left to tell that it failed as well
+        }
+        // only the tasks waiting now are dropped; the ones submitted once the queries have failed are run
+        ArrayList<Runnable> waiting = new ArrayList<>();
+        tasks.drainTo(waiting);
+        for (Runnable task : waiting) {
+            if (task instanceof Query) {
+                ((Query<?>) task).fail(new IllegalStateException("Simulation failed", failure));
+            }
+        }
+    }
+
+    /**
+     * Runs a task, telling the listener instead of passing on what it throws, so that a failed edit does not end the
+     * simulation.
+     */
+    private void runTask(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException ex) {
+            listener.taskFailed(ex);
+        }
+    }
+
+    /**
+     * Computes one generation and tells the listener.
+     */
+    private void computeGeneration() {
+        Listener listener = this.listener;
+        listener.beforeGeneration(board, generation);
+        board.nextGeneration();
+        generation++;
+        listener.afterGeneration(board, generation);
+    }
+
+    /**
+     * Computes a batch of generations in one call to {@link Board#step(int)}, so that boards that compute several
+     * generations in one pass do so, and tells the listener once. A listener that wants every generation is told
+     * about each of them instead, and the generations are computed one by one.
+     */
+    private void computeBatch() {
+        int generations = tuneBatch();
+        long start = System.nanoTime();
+        Listener listener = this.listener;
+        if (listener.wantsEveryGeneration()) {
+            for (int i = 0; i < generations; i++) {
+                computeGeneration();
+            }
+        } else {
+            listener.beforeGeneration(board, generation);
+            board.step(generations);
+            generation += generations;
+            listener.afterGeneration(board, generation);
+        }
+        generationNanos = smooth(generationNanos, (double) (System.nanoTime() - start) / generations);
+        countGenerations(generations);
+    }
+
+    /**
+     * Chooses the size of the next batch. A snapshot is wanted once per frame, and a frame lasts the target frame
+     * period, or as long as the view takes to draw one if that is longer. The batch fills the frame apart from the
+     * time the snapshot takes. The batch at most doubles from one frame to the next, so that one fast generation
+     * cannot make the view stall.
+     */
+    private int tuneBatch() {
+        if (generationNanos < 0) {
+            batch = 1;
+            return 1;
+        }
+        double budget = Math.max(framePeriod, renderNanos) - snapshotNanos;
+        double generations = Math.min(budget / Math.max(generationNanos, 1), Math.min(2.0 * batch, MAX_BATCH));
+        batch = (int) Math.max(1, generations);
+        return batch;
+    }
+
+    /**
+     * Returns the moving average of a measurement.
+     */
+    private static double smooth(double average, double value) {
+        return average < 0 ? value : average + SMOOTHING * (value - average);
+    }
+
+    /**
+     * Counts computed generations towards the achieved rate.
+     */
+    private void countGenerations(long generations) {
+        long now = System.nanoTime();
+        rateGenerations += generations;
+        // until a whole window has passed, the rate is measured over the generations since the start
+        if (now - rateStart >= RATE_WINDOW || !rateMeasured) {
+            generationsPerSecond = rateGenerations * 1e9 / Math.max(now - rateStart, 1);
+        }
+        if (now - rateStart >= RATE_WINDOW) {
+            rateStart = now;
+            rateGenerations = 0;
+            rateMeasured = true;
+        }
+    }
+
+    /**
+     * Copies the viewport of the board into a new snapshot.
+     */
+    private void publish() {
+        long start = System.nanoTime();
+        changed = false;
+        snapshotWanted.set(false);
+        int[] view = viewport;
+        snapshot.set(new BoardSnapshot(board, generation, view[0], view[1], view[2], view[3]));
+        snapshotNanos = smooth(snapshotNanos, System.nanoTime() - start);
+    }
+
+    /**
+     * Returns the latest snapshot of the board, and asks the simulation thread for a new one of the given viewport after
+     * the next generation. Snapshots the caller does not ask for are never taken, so calling this once per frame keeps
+     * the copying down to one viewport per frame however fast the simulation runs. When the viewport changes, a new
+     * snapshot is taken even if the simulation is stopped.
+     * @param x The x-position of the left edge of the viewport.
+     * @param y The y-position of the top edge of the viewport.
+     * @param width The number of cells in a row of the viewport.
+     * @param height The number of rows in the viewport.
+     * @return The latest snapshot, which may be the one returned before and may show an earlier viewport.
+     * @throws IllegalArgumentException If the viewport has a negative size or more cells than an array can hold.
+     */
+    public BoardSnapshot getSnapshot(int x, int y, int width, int height) {
+        if (width < 0 || height < 0 || (long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid viewport size " + width + "x" + height);
+        }
+        int[] view = viewport;
+        if (view[0] != x || view[1] != y || view[2] != width || view[3] != height) {
+            viewport = new int[]{x, y, width, height};
+            // an empty task makes the thread publish the new viewport
+            tasks.add(() -> {
+            });
+        }
+        snapshotWanted.set(true);
+        return snapshot.get();
+    }
+
+    /**
+     * Submits a change to the board. The change is run on the simulation thread after the current generation, and a
+     * snapshot showing it is published once the changes waiting with it have been run as well.
+     * @param edit The change, which is given the current board.
+     */
+    public void submit(Consumer<Board> edit) {
+        tasks.add(() -> edit.accept(board));
+    }
+
+    /**
+     * Runs a query or change on the simulation thread and waits for it. What the query throws is thrown on to the
+     * caller. When the call returns, the latest snapshot shows the board as the query left it. Called on the
+     * simulation thread, the query is run right away. If the simulation fails before the query is run, the query is
+     * dropped and an {@code IllegalStateException} is thrown.
+     * @param query The query, which is given the current board.
+     * @param <T> The type of the result.
+     * @return The result of the query.
+     * @throws IllegalStateException If the calling thread is interrupted while waiting.
+     */
+    public <T> T call(Function<Board, T> query) {
+        if (Thread.currentThread() == thread) {
+            return query.apply(board);
+        }
+        Query<T> future = new Query<>(() -> {
+            try {
+                return query.apply(board);
+            } finally {
+                publish();
+            }
+        });
+        tasks.add(future);
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the simulation", ex);
+        }
+    }
+
+    /**
+     * Submits the computation of one generation, whether the simulation is running or not.
+     */
+    public void nextGeneration() {
+        tasks.add(this::computeGeneration);
+    }
+
+    /**
+     * Starts computing generations at the current rate.
+     */
+    public void start() {
+        running = true;
+        // wakes the thread up if it is waiting for changes
+        tasks.add(() -> {
+            nextStep = System.nanoTime();
+            rateStart = nextStep;
+            rateGenerations = 0;
+            rateMeasured = false;
+            generationsPerSecond = 0;
+        });
+    }
+
+    /**
+     * Stops computing generations after the current one. Changes can still be submitted.
+     */
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * @return True if the simulation computes generations on its own.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Sets how many generations are computed per second while the simulation is running.
+     * @param generationsPerSecond The rate, {@code Double.POSITIVE_INFINITY} to compute generations as fast as the
+     *                             board can.
+     * @throws IllegalArgumentException If the rate is not positive.
+     */
+    public void setRate(double generationsPerSecond) {
+        if (!(generationsPerSecond > 0)) {
+            throw new IllegalArgumentException("Rate must be positive");
+        }
+        period = (long) (1e9 / generationsPerSecond);
+    }
+
+    /**
+     * Switches turbo mode on or off. In turbo mode the rate is ignored, and batches of generations are computed
+     * between two snapshots, as many as fit into one frame.
+     * @param turbo True for turbo mode.
+     */
+    public void setTurbo(boolean turbo) {
+        this.turbo = turbo;
+        batch = 1;
+    }
+
+    /**
+     * @return True if the simulation is in turbo mode.
+     */
+    public boolean isTurbo() {
+        return turbo;
+    }
+
+    /**
+     * Sets the frame rate turbo mode tunes its batches for. The default is 30 frames per second.
+     * @param framesPerSecond The target frame rate.
+     * @throws IllegalArgumentException If the frame rate is not positive.
+     */
+    public void setTargetFrameRate(double framesPerSecond) {
+        if (!(framesPerSecond > 0)) {
+            throw new IllegalArgumentException("Frame rate must be positive");
+        }
+        framePeriod = (long) (1e9 / framesPerSecond);
+    }
+
+    /**
+     * Tells the simulation how long the view took to draw the last frame. Turbo mode does not publish snapshots faster
+     * than the view can draw them.
+     * @param nanos The time drawing took in nanoseconds.
+     */
+    public void setRenderTime(long nanos) {
+        renderNanos = (long) smooth(renderNanos, nanos);
+    }
+
+    /**
+     * @return The number of generations in the last batch computed in turbo mode, 1 outside turbo mode.
+     */
+    public int getBatchSize() {
+        return turbo ? batch : 1;
+    }
+
+    /**
+     * Returns the generations computed per second while the simulation has been running, measured over the last half
+     * second or more, or over the time since it was started if that is shorter.
+     * @return The achieved rate, 0 until it has been measured.
+     */
+    public double getGenerationsPerSecond() {
+        return generationsPerSecond;
+    }
+
+    /**
+     * Sets the listener that is told about every generation.
+     * @param listener The listener, or null for none.
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener != null ? listener : new Listener() {
+        };
+    }
+
+    /**
+     * Replaces the board. May only be called on the simulation thread, from a submitted change; the generation
+     * counter is left to the caller.
+     * @param board The new board.
+     * @throws IllegalStateException If called on another thread.
+     */
+    public void setBoard(Board board) {
+        checkThread();
+        this.board = board;
+        // the batches are tuned for the new board from scratch
+        generationNanos = -1;
+    }
+
+    /**
+     * Returns the generation the board is at. May only be called on the simulation thread, for example from a
+     * submitted change or a listener; other threads read the generation of the latest snapshot.
+     * @return The number of generations computed since the counter was last set.
+     * @throws IllegalStateException If called on another thread.
+     */
+    public long getGeneration() {
+        checkThread();
+        return generation;
+    }
+
+    /**
+     * Sets the generation counter, for example after the board has been moved to another generation. May only be
+     * called on the simulation thread.
+     * @param generation The generation the board is at.
+     * @throws IllegalStateException If called on another thread.
+     */
+    public void setGeneration(long generation) {
+        checkThread();
+        this.generation = generation;
+    }
+
+    /**
+     * Throws if the calling thread is not the simulation thread.
+     */
+    private void checkThread() {
+        if (Thread.currentThread() != thread) {
+            throw new IllegalStateException("Only the simulation thread may do this");
+        }
+    }
+
+    /**
+     * Ends the simulation thread. Tasks that are still waiting are not run.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        running = false;
+        thread.interrupt();
+    }
+}
@@ -0,0 +1,392 @@
+package Model;
+
+import javax.management.ConstructorParameters;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Measures how long the phases of each generation take, and how fast the simulation runs. A board given a metrics
+ * object with {@link Board#setMetrics(SimulationMetrics)} times every phase it runs into the histogram of the phase,
+ * and every generation as a whole, together with the number of cells it computed and the bytes the simulating thread
+ * allocated. The view times the drawing of each frame as well, so a slowdown can be told to come from the engine or
+ * from rendering.
+ * The measurements can be read directly, through JMX once {@link #register(String)} has been called, or as they are
+ * taken by a {@link MetricsListener}. One metrics object should be used by one board at a time.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+public class SimulationMetrics implements SimulationMetricsMXBean {
+
+    /**
+     * The phases that are timed. Boards time the phases they have, so a board that counts the neighbours and applies
+     * the rule in the same pass reports a {@link #STEP} instead of {@link #NEIGHBOURS} and {@link #RULE}.
+     */
+    public enum Phase {
+        /**
+         * Counting the living neighbours of the cells.
+         */
+        NEIGHBOURS,
+        /**
+         * Applying the rule to the counted neighbours.
+         */
+        RULE,
+        /**
+         * Counting the neighbours and applying the rule in one pass.
+         */
+        STEP,
+        /**
+         * Finding the area to compute, and growing or shrinking the board to the living cells.
+         */
+        EXPANSION,
+        /**
+         * Drawing a frame.
+         */
+        RENDER
+    }
+
+    /**
+     * Rates are measured over periods of at least this length.
+     */
+    private static final long WINDOW = 1_000_000_000L;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final EnumMap<Phase, LatencyHistogram> histograms = new EnumMap<>(Phase.class);
+    private final LatencyHistogram generationHistogram = new LatencyHistogram();
+    private final CopyOnWriteArrayList<MetricsListener> listeners = new CopyOnWriteArrayList<>();
+    private ObjectName objectName;
+
+    private volatile long generations;
+    private volatile long totalCells;
+    private volatile long allocatedBytes;
+    private volatile long allocationSamples;
+    private long allocationStart;
+
+    private long lastEnd;
+    private volatile long windowStart;
+    private volatile long windowEnd;
+    private volatile long windowGenerations;
+    private volatile long windowCells;
+    private volatile double generationsPerSecond = -1;
+    private volatile double cellsPerSecond = -1;
+
+    /**
+     * Constructs metrics without any measurement.
+     */
+    public SimulationMetrics() {
+        for (Phase phase : Phase.values()) {
+            histograms.put(phase, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Returns the histogram a phase is timed into.
+     * @param phase The phase.
+     * @return The durations of the phase in nanoseconds.
+     */
+    public LatencyHistogram getHistogram(Phase phase) {
+        return histograms.get(phase);
+    }
+
+    /**
+     * Returns the histogram whole generations are timed into.
+     * @return The durations of the generations in nanoseconds.
+     */
+    public LatencyHistogram getGenerationHistogram() {
+        return generationHistogram;
+    }
+
+    /**
+     * Adds a listener that is told about every measurement from now on.
+     * @param listener The listener to add.
+     */
+    public void addListener(MetricsListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener.
+     * @param listener The listener to remove.
+     */
+    public void removeListener(MetricsListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Records a phase that started at the given time and ends now. The returned time can be passed on as the start
+     * of the following phase.
+     * @param phase The phase that ended.
+     * @param start The value of {@link System#nanoTime()} when the phase started.
+     * @return The value of {@link System#nanoTime()} when the phase ended.
+     */
+    public long recordPhase(Phase phase, long start) {
+        long end = System.nanoTime();
+        long nanos = end - start;
+        histograms.get(phase).record(nanos);
+        for (MetricsListener listener : listeners) {
+            listener.phaseCompleted(phase, nanos);
+        }
+        return end;
+    }
+
+    /**
+     * Starts timing a generation on the calling thread.
+     * @return The value of {@link System#nanoTime()} to pass to {@link #endGeneration(long, long)}.
+     */
+    public long startGeneration() {
+        allocationStart = allocatedBytes();
+        return System.nanoTime();
+    }
+
+    /**
+     * Records a generation that was started with {@link #startGeneration()} on the same thread and ends now.
+     * @param start The value returned by {@link #startGeneration()}.
+     * @param cells The number of cells the board computed.
+     */
+    public void endGeneration(long start, long cells) {
+        endGenerations(start, 1, cells);
+    }
+
+    /**
+     * Records generations that a board computed together in one pass, started with {@link #startGeneration()} on the
+     * same thread and ending now. Each of them is counted with the mean duration of the pass, and listeners are told
+     * about the pass once, with its whole duration and cells.
+     * @param start The value returned by {@link #startGeneration()}.
+     * @param count The number of generations computed.
+     * @param cells The number of cells the board computed in all of them.
+     */
+    public void endGenerations(long start, long count, long cells) {
+        long end = System.nanoTime();
+        long allocated = allocationStart < 0 ? -1 : allocatedBytes() - allocationStart;
+        long nanos = end - start;
+        generationHistogram.record(nanos / count, count);
+        generations += count;
+        totalCells += cells;
+        if (allocated >= 0) {
+            allocatedBytes += allocated;
+            allocationSamples += count;
+        }
+
+        // a pause longer than the window starts a new window, so that rates describe running time
+        if (windowGenerations == 0 || start - lastEnd > WINDOW) {
+            windowStart = start;
+            windowGenerations = 0;
+            windowCells = 0;
+        }
+        windowGenerations += count;
+        windowCells += cells;
+        windowEnd = end;
+        lastEnd = end;
+        if (end - windowStart >= WINDOW) {
+            generationsPerSecond = windowGenerations * 1e9 / (end - windowStart);
+            cellsPerSecond = windowCells * 1e9 / (end - windowStart);
+            windowGenerations = 0;
+            windowCells = 0;
+        }
+
+        for (MetricsListener listener : listeners) {
+            listener.generationCompleted(nanos, cells, allocated);
+        }
+    }
+
+    /**
+     * Returns the bytes allocated by the calling thread so far, or -1 if the virtual machine cannot tell.
+     */
+    @SuppressWarnings("deprecation")
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    @Override
+    public long getGenerations() {
+        return generations;
+    }
+
+    /**
+     * {@inheritDoc} Boards that advance without computing cells one by one, such as {@link HashLifeBoard}, report
+     * none.
+     */
+    @Override
+    public long getCells() {
+        return totalCells;
+    }
+
+    /**
+     * Returns the generations computed per second over the last completed second, or over the generations so far if
+     * the simulation has not yet run for a second.
+     */
+    @Override
+    public double getGenerationsPerSecond() {
+        double rate = generationsPerSecond;
+        return rate >= 0 ? rate : windowRate(windowGenerations);
+    }
+
+    /**
+     * Returns the cells computed per second over the last completed second, or over the generations so far if the
+     * simulation has not yet run for a second.
+     */
+    @Override
+    public double getCellsPerSecond() {
+        double rate = cellsPerSecond;
+        return rate >= 0 ? rate : windowRate(windowCells);
+    }
+
+    /**
+     * Returns the rate of an amount over the current window.
+     */
+    private double windowRate(long amount) {
+        long time = windowEnd - windowStart;
+        return time <= 0 ? 0 : amount * 1e9 / time;
+    }
+
+    @Override
+    public double getAllocatedBytesPerGeneration() {
+        long samples = allocationSamples;
+        return samples == 0 ? -1 : (double) allocatedBytes / samples;
+    }
+
+    @Override
+    public PhaseStatistics getNeighbourCount() {
+        return getStatistics(Phase.NEIGHBOURS);
+    }
+
+    @Override
+    public PhaseStatistics getRuleApplication() {
+        return getStatistics(Phase.RULE);
+    }
+
+    @Override
+    public PhaseStatistics getStep() {
+        return getStatistics(Phase.STEP);
+    }
+
+    @Override
+    public PhaseStatistics getExpansion() {
+        return getStatistics(Phase.EXPANSION);
+    }
+
+    @Override
+    public PhaseStatistics getRender() {
+        return getStatistics(Phase.RENDER);
+    }
+
+    /**
+     * Summarises the durations of a phase.
+     * @param phase The phase.
+     * @return The count, mean and percentiles of the durations of the phase.
+     */
+    public PhaseStatistics getStatistics(Phase phase) {
+        LatencyHistogram histogram = histograms.get(phase);
+        return new PhaseStatistics(histogram.getCount(), histogram.getMean(), histogram.getPercentile(50),
+                histogram.getPercentile(90), histogram.getPercentile(99), histogram.getMax());
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+        generationHistogram.reset();
+        generations = 0;
+        totalCells = 0;
+        allocatedBytes = 0;
+        allocationSamples = 0;
+        windowGenerations = 0;
+        windowCells = 0;
+        windowStart = 0;
+        windowEnd = 0;
+        generationsPerSecond = -1;
+        cellsPerSecond = -1;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server as {@code GameofLife17:type=SimulationMetrics,name=NAME},
+     * replacing metrics registered under the same name before.
+     * @param name The name the metrics are shown under.
+     * @return The name of the registered MBean.
+     * @throws JMException If the metrics cannot be registered.
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName("GameofLife17:type=SimulationMetrics,name=" + ObjectName.quote(name));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(objectName)) {
+            server.unregisterMBean(objectName);
+        }
+        server.registerMBean(this, objectName);
+        this.objectName = objectName;
+        return objectName;
+    }
+
+    /**
+     * Removes the metrics from the platform MBean server, if they were registered.
+     * @throws JMException If the metrics cannot be removed.
+     */
+    public void unregister() throws JMException {
+        if (objectName != null) {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            objectName = null;
+        }
+    }
+
+    /**
+     * The durations of one phase at the time they were summarised, in nanoseconds.
+     */
+    public static class PhaseStatistics {
+
+        private final long count;
+        private final double mean;
+        private final long p50;
+        private final long p90;
+        private final long p99;
+        private final long max;
+
+        @ConstructorParameters({"count", "mean", "p50", "p90", "p99", "max"})
+        public PhaseStatistics(long count, double mean, long p50, long p90, long p99, long max) {
+            this.count = count;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP90() {
+            return p90;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "count %d, mean %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms",
+                    count, mean / 1e6, p50 / 1e6, p99 / 1e6, max / 1e6);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package Model;
+
+/**
+ * The management interface of {@link SimulationMetrics}, as shown by JConsole, VisualVM or any other JMX client.
+ * Durations are in nanoseconds and rates are measured over the last completed second of simulation.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+public interface SimulationMetricsMXBean {
+
+    /**
+     * @return The number of generations timed since the last reset.
+     */
+    long getGenerations();
+
+    /**
+     * @return The number of cells computed in the generations timed since the last reset.
+     */
+    long getCells();
+
+    /**
+     * @return The generations computed per second of wall-clock time.
+     */
+    double getGenerationsPerSecond();
+
+    /**
+     * @return The cells computed per second of wall-clock time.
+     */
+    double getCellsPerSecond();
+
+    /**
+     * @return The mean number of bytes allocated by the simulating thread per generation, or -1 if unknown.
+     */
+    double getAllocatedBytesPerGeneration();
+
+    /**
+     * @return The durations of counting the neighbours, on boards that count them in a pass of their own.
+     */
+    SimulationMetrics.PhaseStatistics getNeighbourCount();
+
+    /**
+     * @return The durations of applying the rule to the counted neighbours.
+     */
+    SimulationMetrics.PhaseStatistics getRuleApplication();
+
+    /**
+     * @return The durations of the kernels that count the neighbours and apply the rule in one pass.
+     */
+    SimulationMetrics.PhaseStatistics getStep();
+
+    /**
+     * @return The durations of finding the area to compute and growing or shrinking the board.
+     */
+    SimulationMetrics.PhaseStatistics getExpansion();
+
+    /**
+     * @return The durations of drawing a frame.
+     */
+    SimulationMetrics.PhaseStatistics getRender();
+
+    /**
+     * Forgets every measurement.
+     */
+    void reset();
+}
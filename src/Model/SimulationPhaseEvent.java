@@ -0,0 +1,50 @@
+package Model;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event spanning one phase of {@link ConcurrentSim#doWork()} on one thread: releasing the workers,
+ * the work a thread did on the batch, or waiting at the barrier for the other threads. The work events of the
+ * threads of a batch show how evenly the batch was divided.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+@Name("gameoflife17.SimulationPhase")
+@Label("Simulation Phase")
+@Description("One phase of a batch of simulation tasks on one thread")
+public class SimulationPhaseEvent extends BoardEvent {
+
+    /**
+     * Waking the worker threads up for a batch.
+     */
+    public static final String RELEASE = "release";
+
+    /**
+     * Running tasks of the batch.
+     */
+    public static final String WORK = "work";
+
+    /**
+     * Waiting for the other threads to finish the batch.
+     */
+    public static final String BARRIER = "barrier";
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Tasks")
+    @Description("Number of tasks this thread ran")
+    int tasks;
+
+    /**
+     * Sets the phase and the number of tasks run in it.
+     * @param phase {@link #RELEASE}, {@link #WORK} or {@link #BARRIER}.
+     * @param tasks The number of tasks the thread ran.
+     */
+    public void setPhase(String phase, int tasks) {
+        this.phase = phase;
+        this.tasks = tasks;
+    }
+}
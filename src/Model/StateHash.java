@@ -0,0 +1,214 @@
+package Model;
+
+/**
+ * A set of hashes of the living cells of a board that is updated cell by cell as cells are born and die, so keeping
+ * it up to date only costs time for the cells that change.
+ * Two hashes are kept. The Zobrist hash is the XOR of a pseudo-random key for the position of every living cell, and
+ * changes completely if the pattern moves. The polynomial hash is the sum of {@code A^x * B^y} over the living cells,
+ * modulo 2^64; moving the pattern by (dx,dy) multiplies it by {@code A^dx * B^dy}. Together with the population and
+ * the sums of the coordinates of the living cells, which give the distance a pattern has moved, it recognises a
+ * pattern that reappears somewhere else.
+ * The epoch counts the changes made from outside the simulation, such as editing cells or changing the rule, so that
+ * a {@link CycleDetector} knows when earlier generations no longer lead to the current one.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+public final class StateHash {
+
+    /**
+     * Base of the polynomial hash in x direction. Both bases are odd, so their powers are invertible modulo 2^64.
+     */
+    static final long A = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Base of the polynomial hash in y direction.
+     */
+    static final long B = 0xC2B2AE3D27D4EB4FL;
+
+    private static final long[] POWERS_A = new long[Tile.SIZE];
+    private static final long[] POWERS_B = new long[Tile.SIZE];
+
+    static {
+        POWERS_A[0] = 1;
+        POWERS_B[0] = 1;
+        for (int i = 1; i < Tile.SIZE; i++) {
+            POWERS_A[i] = POWERS_A[i - 1] * A;
+            POWERS_B[i] = POWERS_B[i - 1] * B;
+        }
+    }
+
+    private long zobrist;
+    private long polynomial;
+    private long population;
+    private long sumX;
+    private long sumY;
+    private long epoch;
+
+    /**
+     * Adds a cell that was born or removes a cell that died.
+     * @param x x-position of the cell
+     * @param y y-position of the cell
+     * @param alive True if the cell was born, false if it died.
+     */
+    void toggle(int x, int y, boolean alive) {
+        long term = power(A, x) * power(B, y);
+        zobrist ^= key(x, y);
+        if (alive) {
+            polynomial += term;
+            population++;
+            sumX += x;
+            sumY += y;
+        } else {
+            polynomial -= term;
+            population--;
+            sumX -= x;
+            sumY -= y;
+        }
+    }
+
+    /**
+     * Updates the hashes with every cell of a tile that differs between two generations of the tile.
+     * @param tx Tile x-coordinate.
+     * @param ty Tile y-coordinate.
+     * @param before The rows of the tile before the change.
+     * @param after The rows of the tile after the change.
+     */
+    void update(int tx, int ty, long[] before, long[] after) {
+        int originX = tx << Tile.SHIFT;
+        int originY = ty << Tile.SHIFT;
+        long powerX = power(A, originX);
+        long powerY = power(B, originY);
+        for (int r = 0; r < Tile.SIZE; r++) {
+            long changed = before[r] ^ after[r];
+            if (changed == 0) continue;
+
+            int y = originY + r;
+            long rowPower = powerY * POWERS_B[r];
+            while (changed != 0) {
+                int bit = Long.numberOfTrailingZeros(changed);
+                changed &= changed - 1;
+                int x = originX + bit;
+                long term = powerX * POWERS_A[bit] * rowPower;
+                zobrist ^= key(x, y);
+                if ((after[r] >>> bit & 1) != 0) {
+                    polynomial += term;
+                    population++;
+                    sumX += x;
+                    sumY += y;
+                } else {
+                    polynomial -= term;
+                    population--;
+                    sumX -= x;
+                    sumY -= y;
+                }
+            }
+        }
+    }
+
+    /**
+     * Records a change made from outside the simulation.
+     */
+    void edited() {
+        epoch++;
+    }
+
+    /**
+     * Forgets every cell. The epoch is kept, so clearing the board also has to call {@link #edited()}.
+     */
+    void clear() {
+        zobrist = 0;
+        polynomial = 0;
+        population = 0;
+        sumX = 0;
+        sumY = 0;
+    }
+
+    /**
+     * Returns the Zobrist hash, which identifies the living cells at their exact positions.
+     * @return The XOR of the keys of the living cells.
+     */
+    public long getZobrist() {
+        return zobrist;
+    }
+
+    /**
+     * Returns the polynomial hash, which changes in a known way when the pattern moves.
+     * @return The sum of {@code A^x * B^y} over the living cells, modulo 2^64.
+     */
+    public long getPolynomial() {
+        return polynomial;
+    }
+
+    /**
+     * Returns the number of living cells.
+     * @return The population.
+     */
+    public long getPopulation() {
+        return population;
+    }
+
+    /**
+     * Returns the sum of the x-positions of the living cells.
+     * @return The sum of x.
+     */
+    public long getSumX() {
+        return sumX;
+    }
+
+    /**
+     * Returns the sum of the y-positions of the living cells.
+     * @return The sum of y.
+     */
+    public long getSumY() {
+        return sumY;
+    }
+
+    /**
+     * Returns the number of changes made from outside the simulation so far.
+     * @return The epoch.
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Returns the pseudo-random Zobrist key of a position.
+     */
+    static long key(int x, int y) {
+        long z = (((long) x << 32) | (y & 0xFFFFFFFFL)) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Raises an odd base to a power modulo 2^64. Negative exponents use the inverse of the base.
+     * @param base An odd number.
+     * @param exponent The exponent, which may be negative.
+     * @return {@code base^exponent} modulo 2^64.
+     */
+    static long power(long base, long exponent) {
+        if (exponent < 0) {
+            base = inverse(base);
+            exponent = -exponent;
+        }
+        long result = 1;
+        while (exponent != 0) {
+            if ((exponent & 1) != 0) result *= base;
+            base *= base;
+            exponent >>>= 1;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the inverse of an odd number modulo 2^64, found with Newton's iteration.
+     */
+    static long inverse(long odd) {
+        long inverse = odd;
+        for (int i = 0; i < 5; i++) {
+            inverse *= 2 - odd * inverse;
+        }
+        return inverse;
+    }
+}
@@ -1,9 +1,15 @@
 package Model;
 
+import java.util.Arrays;
+
 /**
  * This class defines a default static board for the game. It implements the specifications provided by the Board
  * superclass by giving values and functionality to the variables and methods specified. It also implements a set of
  * rules that is going to be used during the game.
+ * The arrays of the board have a border of ghost cells around the cells of the board. Before each generation the
+ * ghost cells are filled according to the topology of the board: dead cells on a bounded board, and copies of the
+ * cells on the opposite edge on a torus or Klein bottle. The neighbours of every cell can then be counted without any
+ * bounds checks.
  *
  * @see Model.Board
  * */
@@ -14,15 +20,16 @@ public class StaticBoard extends Board {
 
     private byte[][] neighBoard;
 
-    private Rule rule;
-
     private final int WIDTH;
 
     private final int HEIGHT;
 
+    private final CellCensus census = new CellCensus();
+
     /**
      * Constructor of {@code StaticBoard}. The width and height of the board are specified by the method's
-     * parameters, which become the dimensions of a new {@code gameBoard}. Conway's rules are implemented.
+     * parameters, which become the dimensions of a new {@code gameBoard} with a border of ghost cells around it.
+     * Conway's rules are implemented, and the board is bounded.
      *
      * @param w
      *          Width of the new {@code gameBoard}
@@ -33,8 +40,26 @@ public class StaticBoard extends Board {
         HEIGHT = h;
         WIDTH = w;
 
-        gameBoard = new byte[w][h];
-        rule = new ConwayRule();
+        gameBoard = new byte[w + 2][h + 2];
+        neighBoard = new byte[w + 2][h + 2];
+        setRule(new ConwayRule());
+    }
+
+    /**
+     * Sets the rule used by the {@code StaticBoard}. The board hands its neighbour counts to the rule, so only
+     * totalistic rules are supported.
+     *
+     * @param rule
+     *          The new rule
+     * @throws IllegalArgumentException
+     *          If the rule is not totalistic
+     * */
+    @Override
+    public void setRule(Rule rule) {
+        if (rule != null && !rule.isTotalistic()) {
+            throw new IllegalArgumentException("StaticBoard only supports totalistic rules");
+        }
+        super.setRule(rule);
     }
 
     /**
@@ -60,15 +85,27 @@ public class StaticBoard extends Board {
     }
 
     /**
-     * Counts the neighbours of each cell, then calls the {@code nextGeneration()} method from the {@code ConwayRule}
-     * class. The result is a new generation specified by Conway's rules.
+     * Fills the ghost cells, counts the neighbours of each cell, then calls the {@code nextGeneration()} method of the
+     * current rule. The result is a new generation specified by that rule, Conway's rules by default.
+     * With metrics set, counting the neighbours and applying the rule are timed as separate phases.
      *
      * @see #countNeighbours()
+     * @see SimulationMetrics
      * */
     @Override
     public void nextGeneration() {
+        SimulationMetrics metrics = getMetrics();
+        long start = metrics == null ? 0 : metrics.startGeneration();
+
+        fillGhostCells();
         countNeighbours();
-        rule.nextGeneration(gameBoard, neighBoard);
+        long time = metrics == null ? 0 : metrics.recordPhase(SimulationMetrics.Phase.NEIGHBOURS, start);
+
+        getRule().nextGeneration(gameBoard, neighBoard);
+        if (metrics != null) metrics.recordPhase(SimulationMetrics.Phase.RULE, time);
+
+        recount();
+        if (metrics != null) metrics.endGeneration(start, (long) WIDTH * HEIGHT);
     }
 
     /**
@@ -83,7 +120,7 @@ public class StaticBoard extends Board {
      * */
     @Override
     public boolean getCellState(int x, int y) {
-        return gameBoard[x][y] == 1;
+        return gameBoard[x + 1][y + 1] == 1;
     }
 
     /**
@@ -98,50 +135,69 @@ public class StaticBoard extends Board {
      * */
     @Override
     public void setCellState(int x, int y, boolean b) {
-        gameBoard[x][y] = (byte) (b ? 1 : 0);
+        boolean alive = gameBoard[x + 1][y + 1] == 1;
+        gameBoard[x + 1][y + 1] = (byte) (b ? 1 : 0);
+        if (b && !alive) {
+            census.add(x, y);
+        } else if (!b && alive) {
+            census.remove(x, y);
+        }
     }
 
     /**
-     * Counts the neighbours of a specified cell in the {@code gameBoard} and fills in the neighbouring cells into
-     * {@code neighBoard}. The method iterates through the boards (which are the same size), then checks whether a
-     * given cell is alive or dead. If it is alive, its neighbours are counted and {@code neighBoard} gets the
-     * neighbouring cells.
+     * The ghost cells can join the edges of the board in any of the fixed-size topologies.
+     * */
+    @Override
+    protected boolean supportsTopology(Topology topology) {
+        return topology != Topology.PLANE;
+    }
+
+    /**
+     * Fills the ghost cells around the board according to its topology. The ghost cells above and below each column
+     * are filled first, then the ghost columns are copied whole, so the corners come out right as well.
+     * */
+    private void fillGhostCells() {
+        Topology topology = getTopology();
+        if (topology == Topology.BOUNDED) {
+            for (int i = 1; i <= WIDTH; i++) {
+                gameBoard[i][0] = 0;
+                gameBoard[i][HEIGHT + 1] = 0;
+            }
+            Arrays.fill(gameBoard[0], (byte) 0);
+            Arrays.fill(gameBoard[WIDTH + 1], (byte) 0);
+            return;
+        }
+
+        // join the top and bottom edges, mirrored on a Klein bottle
+        boolean mirrored = topology == Topology.KLEIN_BOTTLE;
+        for (int i = 1; i <= WIDTH; i++) {
+            int source = mirrored ? WIDTH + 1 - i : i;
+            gameBoard[i][0] = gameBoard[source][HEIGHT];
+            gameBoard[i][HEIGHT + 1] = gameBoard[source][1];
+        }
+
+        // join the left and right edges
+        System.arraycopy(gameBoard[WIDTH], 0, gameBoard[0], 0, HEIGHT + 2);
+        System.arraycopy(gameBoard[1], 0, gameBoard[WIDTH + 1], 0, HEIGHT + 2);
+    }
+
+    /**
+     * Counts the living neighbours of every cell in the {@code gameBoard} into {@code neighBoard}. Each cell gathers
+     * the eight cells around it; the ghost cells make sure that every cell has eight cells around it, so no bounds
+     * are checked.
      * */
     @Override
     public void countNeighbours() {
-        // declare neighBoard with the same dimensions as gameBoard
-        neighBoard = new byte[WIDTH][HEIGHT];
-
-        // iterate through the board dimensions
-        for (int i = 0; i < WIDTH; i++) {
-            for (int j = 0; j < HEIGHT; j++) {
-                // specify when to fill neighBoard, depending on the amount of neighbouring cells in gameBoard
-                if (gameBoard[i][j] == 1) {
-                    if (i > 0) {
-                        neighBoard[i - 1][j]++;
-                    }
-                    if (j > 0) {
-                        neighBoard[i][j - 1]++;
-                    }
-                    if (i > 0 && j > 0) {
-                        neighBoard[i - 1][j - 1]++;
-                    }
-                    if (i < WIDTH - 1) {
-                        neighBoard[i + 1][j]++;
-                    }
-                    if (j < HEIGHT - 1) {
-                        neighBoard[i][j + 1]++;
-                    }
-                    if (i < WIDTH - 1 && j < HEIGHT - 1) {
-                        neighBoard[i + 1][j + 1]++;
-                    }
-                    if (i > 0 && j < HEIGHT - 1) {
-                        neighBoard[i - 1][j + 1]++;
-                    }
-                    if (i < WIDTH - 1 && j > 0) {
-                        neighBoard[i + 1][j - 1]++;
-                    }
-                }
+        for (int i = 1; i <= WIDTH; i++) {
+            byte[] west = gameBoard[i - 1];
+            byte[] column = gameBoard[i];
+            byte[] east = gameBoard[i + 1];
+            byte[] neighbours = neighBoard[i];
+
+            for (int j = 1; j <= HEIGHT; j++) {
+                neighbours[j] = (byte) (west[j - 1] + west[j] + west[j + 1]
+                        + column[j - 1] + column[j + 1]
+                        + east[j - 1] + east[j] + east[j + 1]);
             }
         }
     }
@@ -160,7 +216,7 @@ public class StaticBoard extends Board {
         // iterate through board and append to StringBuilder
         for (int i = 0; i < HEIGHT; i++) {
             for (int j = 0; j < WIDTH ; j++) {
-                stringBuilder.append(gameBoard[j][i]);
+                stringBuilder.append(gameBoard[j + 1][i + 1]);
             }
         }
         return stringBuilder.toString();
@@ -172,11 +228,40 @@ public class StaticBoard extends Board {
      * */
     public void clear(){
 
-        for (int i = 0; i < WIDTH ; i ++) {
-            for (int j = 0; j < HEIGHT ; j++) {
+        for (int i = 0; i < WIDTH + 2; i ++) {
+            for (int j = 0; j < HEIGHT + 2; j++) {
                 gameBoard[i][j] = 0;
             }
         }
+        census.clear();
+    }
+
+    /**
+     * Returns the census of the living cells, which is taken after every generation. If a cell on the edge of the
+     * bounding box has been killed since, the cells are counted again.
+     *
+     * @return
+     *          The census of the board
+     * */
+    @Override
+    CellCensus census() {
+        if (census.isStale()) {
+            recount();
+        }
+        return census;
+    }
+
+    /**
+     * Takes the census of the board by looking at every cell. The rule computes the next generation in place, so
+     * the census cannot be taken while it does.
+     * */
+    private void recount() {
+        census.clear();
+        for (int i = 1; i <= WIDTH; i++) {
+            for (int j = 1; j <= HEIGHT; j++) {
+                if (gameBoard[i][j] == 1) census.add(i - 1, j - 1);
+            }
+        }
     }
 
 
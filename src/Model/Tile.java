@@ -0,0 +1,94 @@
+package Model;
+
+import java.util.Arrays;
+
+/**
+ * A square block of cells used by {@link DynamicBoard}. Each of the {@code SIZE} rows of the tile is a single
+ * {@code long}, where bit x holds the cell in column x of the tile. Tiles are addressed by tile coordinates, so the
+ * tile at (tx,ty) holds the cells from (tx * SIZE, ty * SIZE) up to but not including ((tx + 1) * SIZE,
+ * (ty + 1) * SIZE).
+ * A tile is marked as changed when its cells differ from the previous generation or have been edited, which lets
+ * the board skip tiles whose whole neighbourhood is unchanged.
+ * Every tile owns two row buffers: {@code cells} holds the current generation and {@code next} receives the next
+ * one. The buffers are swapped once a generation is complete, so stepping never allocates. The number of living
+ * cells is kept up to date with the current buffer.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+final class Tile {
+
+    static final int SHIFT = 6;
+    static final int SIZE = 1 << SHIFT;
+    static final int MASK = SIZE - 1;
+
+    int tx;
+    int ty;
+    long key;
+    long[] cells = new long[SIZE];
+    long[] next = new long[SIZE];
+    int population;
+    boolean changed;
+
+    /**
+     * Constructs an empty tile at the given tile coordinates.
+     * @param tx x-coordinate of the tile.
+     * @param ty y-coordinate of the tile.
+     */
+    Tile(int tx, int ty) {
+        moveTo(tx, ty);
+    }
+
+    /**
+     * Empties the tile and gives it new tile coordinates, so that spare tiles can be reused.
+     * @param tx x-coordinate of the tile.
+     * @param ty y-coordinate of the tile.
+     */
+    void moveTo(int tx, int ty) {
+        this.tx = tx;
+        this.ty = ty;
+        key = key(tx, ty);
+        changed = false;
+        population = 0;
+        Arrays.fill(cells, 0);
+    }
+
+    /**
+     * Makes the next generation written to {@code next} the current one.
+     */
+    void swap() {
+        long[] temp = cells;
+        cells = next;
+        next = temp;
+    }
+
+    /**
+     * Packs a pair of tile coordinates into a single map key.
+     * @param tx x-coordinate of the tile.
+     * @param ty y-coordinate of the tile.
+     * @return The key of the tile.
+     */
+    static long key(int tx, int ty) {
+        return ((long) tx << 32) | (ty & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Counts the living cells of the tile again after its buffers have been swapped.
+     */
+    void updatePopulation() {
+        int count = 0;
+        for (long row : cells) {
+            count += Long.bitCount(row);
+        }
+        population = count;
+    }
+
+    /**
+     * Returns the given row of a tile, or an empty row if there is no tile.
+     * @param tile The tile to read, may be null.
+     * @param row Index of the row within the tile.
+     * @return The cells of the row.
+     */
+    static long row(Tile tile, int row) {
+        return tile == null ? 0 : tile.cells[row];
+    }
+}
@@ -0,0 +1,166 @@
+package Model;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash map from packed tile coordinates to {@link Tile} objects. The keys are primitive
+ * {@code long} values, so looking up a tile never allocates.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+final class TileMap {
+
+    private long[] keys;
+    private Tile[] values;
+    private int size;
+    private int mask;
+
+    /**
+     * Constructs an empty map.
+     */
+    TileMap() {
+        this(16);
+    }
+
+    /**
+     * Constructs an empty map with room for at least the given number of tiles before it has to grow.
+     * @param expected Expected number of tiles.
+     */
+    TileMap(int expected) {
+        int capacity = 16;
+        while (capacity * 3 / 4 < expected) capacity <<= 1;
+        keys = new long[capacity];
+        values = new Tile[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Returns the tile at the given tile coordinates.
+     * @param tx x-coordinate of the tile.
+     * @param ty y-coordinate of the tile.
+     * @return The tile, or null if no tile is stored at the coordinates.
+     */
+    Tile get(int tx, int ty) {
+        long key = Tile.key(tx, ty);
+        int index = slot(key);
+        while (values[index] != null) {
+            if (keys[index] == key) return values[index];
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Stores a tile under its own coordinates, replacing any tile already stored there.
+     * @param tile The tile to store.
+     */
+    void put(Tile tile) {
+        int index = slot(tile.key);
+        while (values[index] != null) {
+            if (keys[index] == tile.key) {
+                values[index] = tile;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = tile.key;
+        values[index] = tile;
+        if (++size > (mask + 1) * 3 / 4) {
+            grow();
+        }
+    }
+
+    /**
+     * Removes the tile at the given tile coordinates, if there is one. The entries following it in the same probe
+     * sequence are shifted back, so lookups never have to skip over deleted entries.
+     * @param tx x-coordinate of the tile.
+     * @param ty y-coordinate of the tile.
+     */
+    void remove(int tx, int ty) {
+        long key = Tile.key(tx, ty);
+        int index = slot(key);
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                shiftBack(index);
+                size--;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * Empties the given slot and moves later entries of the probe sequence into it where needed.
+     */
+    private void shiftBack(int free) {
+        values[free] = null;
+        int index = free;
+        while (true) {
+            index = (index + 1) & mask;
+            if (values[index] == null) return;
+
+            int preferred = slot(keys[index]);
+            // the entry may stay where it is if its preferred slot lies cyclically between the free slot and itself
+            boolean stays = free <= index
+                    ? free < preferred && preferred <= index
+                    : free < preferred || preferred <= index;
+            if (!stays) {
+                keys[free] = keys[index];
+                values[free] = values[index];
+                values[index] = null;
+                free = index;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of tiles in the map.
+     * @return Number of stored tiles.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns every tile in the map, in no particular order.
+     * @return A new array containing the stored tiles.
+     */
+    Tile[] tiles() {
+        Tile[] tiles = new Tile[size];
+        int i = 0;
+        for (Tile tile : values) {
+            if (tile != null) tiles[i++] = tile;
+        }
+        return tiles;
+    }
+
+    /**
+     * Removes every tile from the map.
+     */
+    void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Returns the preferred slot of a key.
+     */
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * Doubles the capacity of the map and reinserts every tile.
+     */
+    private void grow() {
+        Tile[] old = values;
+        keys = new long[old.length << 1];
+        values = new Tile[old.length << 1];
+        mask = values.length - 1;
+        size = 0;
+        for (Tile tile : old) {
+            if (tile != null) put(tile);
+        }
+    }
+}
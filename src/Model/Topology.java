@@ -0,0 +1,28 @@
+package Model;
+
+/**
+ * The shapes the universe of a board can have. Fixed-size boards join or close their edges as given by the topology,
+ * while boards that grow with the pattern live on the unbounded plane.
+ * @author Abelsen, Tommy
+ * @author Petrovic, Branislav
+ */
+public enum Topology {
+    /**
+     * The unbounded plane. Only boards that grow with the pattern support it.
+     */
+    PLANE,
+    /**
+     * A fixed-size board surrounded by cells that are always dead.
+     */
+    BOUNDED,
+    /**
+     * A fixed-size board whose left edge is joined to its right edge and top edge to its bottom edge, so patterns
+     * leaving the board on one side come back on the other.
+     */
+    TORUS,
+    /**
+     * A fixed-size board whose left edge is joined to its right edge like a torus, while the top edge is joined to
+     * the bottom edge mirrored, so patterns crossing the top or bottom come back reflected from left to right.
+     */
+    KLEIN_BOTTLE
+}
@@ -0,0 +1,78 @@
+import Model.BitBoard;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+public class bitBoardTest {
+
+    @Test
+    public void settCellStateTest() {
+        BitBoard board = new BitBoard(130, 70);
+
+        board.setCellState(5, 5, true);
+        board.setCellState(64, 3, true);
+        board.setCellState(129, 69, true);
+        board.setCellState(130, 69, true);
+        assertEquals(true, board.getCellState(5, 5));
+        assertEquals(true, board.getCellState(64, 3));
+        assertEquals(true, board.getCellState(129, 69));
+        assertEquals(false, board.getCellState(130, 69));
+        assertEquals(false, board.getCellState(63, 3));
+
+        board.setCellState(64, 3, false);
+        assertEquals(false, board.getCellState(64, 3));
+    }
+
+    @Test
+    public void blockTest() {
+        BitBoard board = new BitBoard(4, 4);
+        board.setCellState(1, 1, true);
+        board.setCellState(1, 2, true);
+        board.setCellState(2, 1, true);
+        board.setCellState(2, 2, true);
+
+        board.nextGeneration();
+        assertEquals("0000011001100000", board.toString());
+    }
+
+    @Test
+    public void blinkerAcrossWordsTest() {
+        // the blinker straddles the boundary between the first and second word of each row
+        BitBoard board = new BitBoard(100, 5);
+        board.setCellState(63, 1, true);
+        board.setCellState(63, 2, true);
+        board.setCellState(63, 3, true);
+
+        board.nextGeneration();
+        assertEquals(true, board.getCellState(62, 2));
+        assertEquals(true, board.getCellState(63, 2));
+        assertEquals(true, board.getCellState(64, 2));
+        assertEquals(false, board.getCellState(63, 1));
+        assertEquals(false, board.getCellState(63, 3));
+
+        board.nextGeneration();
+        assertEquals(true, board.getCellState(63, 1));
+        assertEquals(true, board.getCellState(63, 3));
+        assertEquals(false, board.getCellState(64, 2));
+    }
+
+    @Test
+    public void gliderTest() {
+        BitBoard board = new BitBoard(70, 70);
+        board.setCellState(61, 0, true);
+        board.setCellState(62, 1, true);
+        board.setCellState(60, 2, true);
+        board.setCellState(61, 2, true);
+        board.setCellState(62, 2, true);
+
+        for (int i = 0; i < 4; i++) {
+            board.nextGeneration();
+        }
+        assertEquals(true, board.getCellState(62, 1));
+        assertEquals(true, board.getCellState(63, 2));
+        assertEquals(true, board.getCellState(61, 3));
+        assertEquals(true, board.getCellState(62, 3));
+        assertEquals(true, board.getCellState(63, 3));
+    }
+}
@@ -0,0 +1,133 @@
+import Model.BitBoard;
+import Model.Board;
+import Model.DynamicBoard;
+import Model.GenerationsBoard;
+import Model.HashLifeBoard;
+import Model.LargerThanLifeBoard;
+import Model.OffHeapBoard;
+import Model.StaticBoard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+public class censusTest {
+
+    private static final int SIZE = 150;
+
+    /**
+     * Counts the living cells and their bounding box cell by cell, within a margin around the board.
+     */
+    private static void assertCensus(Board board, int margin) {
+        long population = 0;
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (int y = -margin; y < SIZE + margin; y++) {
+            for (int x = -margin; x < SIZE + margin; x++) {
+                if (board.getCellState(x, y)) {
+                    population++;
+                    minX = Math.min(minX, x);
+                    minY = Math.min(minY, y);
+                    maxX = Math.max(maxX, x);
+                    maxY = Math.max(maxY, y);
+                }
+            }
+        }
+        assertEquals(population, board.getPopulation());
+        assertEquals(minX, board.getMinX());
+        assertEquals(minY, board.getMinY());
+        assertEquals(maxX, board.getMaxX());
+        assertEquals(maxY, board.getMaxY());
+    }
+
+    private static void check(Board board, int margin) {
+        Random random = new Random(31);
+        assertCensus(board, margin);
+        for (int x = 40; x < 110; x++) {
+            for (int y = 50; y < 100; y++) {
+                board.setCellState(x, y, random.nextInt(3) == 0);
+            }
+        }
+        assertCensus(board, margin);
+
+        for (int g = 0; g < 12; g++) {
+            board.nextGeneration();
+            assertCensus(board, margin);
+        }
+        board.step(9);
+        assertCensus(board, margin);
+
+        // killing the cells on the edge of the bounding box makes it shrink
+        int minX = board.getMinX();
+        for (int y = 0; y < SIZE; y++) {
+            board.setCellState(minX, y, false);
+        }
+        int maxY = board.getMaxY();
+        for (int x = 0; x < SIZE; x++) {
+            board.setCellState(x, maxY, false);
+        }
+        assertCensus(board, margin);
+
+        board.setCellState(3, 140, true);
+        assertCensus(board, margin);
+        board.clear();
+        assertCensus(board, margin);
+    }
+
+    @Test
+    public void bitBoardTest() {
+        check(new BitBoard(SIZE, SIZE), 0);
+    }
+
+    @Test
+    public void staticBoardTest() {
+        check(new StaticBoard(SIZE, SIZE), 0);
+    }
+
+    @Test
+    public void generationsBoardTest() {
+        check(new GenerationsBoard(SIZE, SIZE), 0);
+    }
+
+    @Test
+    public void largerThanLifeBoardTest() {
+        check(new LargerThanLifeBoard(SIZE, SIZE), 0);
+    }
+
+    @Test
+    public void offHeapBoardTest() {
+        try (OffHeapBoard board = new OffHeapBoard(SIZE, SIZE, null, 3)) {
+            check(board, 0);
+        }
+    }
+
+    @Test
+    public void dynamicBoardTest() {
+        DynamicBoard board = new DynamicBoard();
+        check(board, 40);
+        board.shutdown();
+    }
+
+    @Test
+    public void hashLifeBoardTest() {
+        check(new HashLifeBoard(SIZE, SIZE), 40);
+    }
+
+    @Test
+    public void negativePositionsTest() {
+        HashLifeBoard board = new HashLifeBoard(SIZE, SIZE);
+        board.setCellState(-1000, 7, true);
+        board.setCellState(5, -300, true);
+        board.setCellState(77, 12, true);
+        assertEquals(3, board.getPopulation());
+        assertEquals(-1000, board.getMinX());
+        assertEquals(-300, board.getMinY());
+        assertEquals(77, board.getMaxX());
+        assertEquals(12, board.getMaxY());
+    }
+}
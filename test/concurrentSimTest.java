@@ -0,0 +1,87 @@
+import Model.ConcurrentSim;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class concurrentSimTest {
+
+    @Test
+    public void reuseTest() {
+        ConcurrentSim simulator = new ConcurrentSim(4);
+        AtomicInteger counter = new AtomicInteger();
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        // the same workers run every batch, and every task runs exactly once
+        for (int batch = 0; batch < 100; batch++) {
+            for (int i = 0; i < 10; i++) {
+                simulator.addThreadTask(() -> {
+                    threads.add(Thread.currentThread());
+                    counter.incrementAndGet();
+                });
+            }
+            simulator.doWork();
+        }
+        assertEquals(1000, counter.get());
+        assertTrue(threads.size() <= simulator.getParallelism(), threads.size() + " threads");
+        simulator.shutdown();
+    }
+
+    @Test
+    public void failureTest() {
+        ConcurrentSim simulator = new ConcurrentSim(3);
+        AtomicInteger counter = new AtomicInteger();
+        IllegalArgumentException broken = new IllegalArgumentException("broken task");
+
+        simulator.addThreadTask(() -> {
+            throw broken;
+        });
+        simulator.addThreadTask(counter::incrementAndGet);
+        simulator.addThreadTask(counter::incrementAndGet);
+        assertSame(broken, assertThrows(IllegalStateException.class, simulator::doWork).getCause());
+        assertEquals(2, counter.get());
+
+        // a batch of one task, which the calling thread runs alone, fails the same way
+        simulator.addThreadTask(() -> {
+            throw broken;
+        });
+        assertSame(broken, assertThrows(IllegalStateException.class, simulator::doWork).getCause());
+
+        // the simulator is still usable after a failed batch
+        simulator.addThreadTask(counter::incrementAndGet);
+        simulator.addThreadTask(counter::incrementAndGet);
+        simulator.doWork();
+        assertEquals(4, counter.get());
+
+        simulator.shutdown();
+        assertThrows(IllegalStateException.class, simulator::doWork);
+    }
+
+    @Test
+    public void serialFailureTest() {
+        ConcurrentSim simulator = new ConcurrentSim(1);
+        AtomicInteger counter = new AtomicInteger();
+        IllegalArgumentException broken = new IllegalArgumentException("broken task");
+
+        // without workers the remaining tasks still run, and the failure is wrapped as with workers
+        simulator.addThreadTask(counter::incrementAndGet);
+        simulator.addThreadTask(() -> {
+            throw broken;
+        });
+        simulator.addThreadTask(counter::incrementAndGet);
+        assertSame(broken, assertThrows(IllegalStateException.class, simulator::doWork).getCause());
+        assertEquals(2, counter.get());
+
+        simulator.addThreadTask(counter::incrementAndGet);
+        simulator.doWork();
+        assertEquals(3, counter.get());
+    }
+}
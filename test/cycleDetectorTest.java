@@ -0,0 +1,97 @@
+import Model.CycleDetector;
+import Model.DynamicBoard;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+
+public class cycleDetectorTest {
+
+    private static final int[][] GLIDER = {{1, 0}, {2, 1}, {0, 2}, {1, 2}, {2, 2}};
+
+    private static DynamicBoard board(int[][] cells, int x, int y) {
+        DynamicBoard board = new DynamicBoard();
+        for (int[] cell : cells) {
+            board.setCellState(x + cell[0], y + cell[1], true);
+        }
+        return board;
+    }
+
+    /**
+     * Steps the board and records every generation until a cycle is found.
+     */
+    private static CycleDetector.Cycle run(DynamicBoard board, CycleDetector detector, int generations) {
+        detector.record(0, board.getStateHash());
+        for (int g = 1; g <= generations; g++) {
+            board.nextGeneration();
+            CycleDetector.Cycle cycle = detector.record(g, board.getStateHash());
+            if (cycle != null) return cycle;
+        }
+        return null;
+    }
+
+    @Test
+    public void stillLifeTest() {
+        DynamicBoard block = board(new int[][]{{0, 0}, {1, 0}, {0, 1}, {1, 1}}, 10, 10);
+        CycleDetector.Cycle cycle = run(block, new CycleDetector(16), 10);
+        assertNotNull(cycle);
+        assertEquals(1, cycle.getStart());
+        assertEquals(1, cycle.getPeriod());
+        assertEquals("still life", cycle.toString());
+    }
+
+    @Test
+    public void oscillatorTest() {
+        DynamicBoard blinker = board(new int[][]{{0, 0}, {1, 0}, {2, 0}}, 10, 10);
+        CycleDetector.Cycle cycle = run(blinker, new CycleDetector(16), 10);
+        assertNotNull(cycle);
+        assertEquals(2, cycle.getPeriod());
+        assertEquals(0, cycle.getDx());
+        assertEquals(0, cycle.getDy());
+    }
+
+    @Test
+    public void spaceshipTest() {
+        DynamicBoard glider = board(GLIDER, 10, 10);
+        CycleDetector.Cycle cycle = run(glider, new CycleDetector(16), 10);
+        assertNotNull(cycle);
+        assertEquals(4, cycle.getStart());
+        assertEquals(4, cycle.getPeriod());
+        assertEquals(1, cycle.getDx());
+        assertEquals(1, cycle.getDy());
+    }
+
+    @Test
+    public void fastForwardTest() {
+        DynamicBoard jumped = board(GLIDER, 10, 10);
+        DynamicBoard stepped = board(GLIDER, 10, 10);
+        CycleDetector detector = new CycleDetector(16);
+        CycleDetector.Cycle cycle = run(jumped, detector, 10);
+        cycle.fastForward(jumped, cycle.getStart(), 203);
+        stepped.step(203);
+
+        for (int x = 0; x < 80; x++) {
+            for (int y = 0; y < 80; y++) {
+                assertEquals(stepped.getCellState(x, y), jumped.getCellState(x, y));
+            }
+        }
+        assertEquals(stepped.getStateHash().getZobrist(), jumped.getStateHash().getZobrist());
+        assertEquals(stepped.getStateHash().getPolynomial(), jumped.getStateHash().getPolynomial());
+
+        // moving the pattern is not an edit, so the cycle is kept
+        assertNotNull(detector.record(203, jumped.getStateHash()));
+    }
+
+    @Test
+    public void editResetsTest() {
+        DynamicBoard blinker = board(new int[][]{{0, 0}, {1, 0}, {2, 0}}, 10, 10);
+        CycleDetector detector = new CycleDetector(16);
+        assertNotNull(run(blinker, detector, 10));
+
+        blinker.setCellState(30, 30, true);
+        assertNull(detector.record(3, blinker.getStateHash()));
+    }
+}
@@ -0,0 +1,111 @@
+import Model.BitBoard;
+import Model.DistributedStrip;
+import Model.Rule;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+
+public class distributedStripTest {
+
+    private static final int WIDTH = 150;
+    private static final int HEIGHT = 90;
+
+    private static boolean[][] soup(long seed) {
+        Random random = new Random(seed);
+        boolean[][] cells = new boolean[WIDTH][HEIGHT];
+        for (int x = 0; x < WIDTH; x++) {
+            for (int y = 0; y < HEIGHT; y++) {
+                cells[x][y] = random.nextInt(3) == 0;
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Runs the strips on threads of this process, connected through localhost, and compares the gathered board with
+     * a single board stepped the same number of generations.
+     */
+    private static void check(int processes, int halo, int generations, String rule) throws Exception {
+        boolean[][] cells = soup(59);
+        BitBoard expected = new BitBoard(WIDTH, HEIGHT);
+        for (int x = 0; x < WIDTH; x++) {
+            for (int y = 0; y < HEIGHT; y++) {
+                expected.setCellState(x, y, cells[x][y]);
+            }
+        }
+        if (rule != null) expected.setRule(Rule.forRulestring(rule));
+
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(processes);
+        try {
+            List<Future<BitBoard>> results = new ArrayList<>();
+            for (int r = 0; r < processes; r++) {
+                int rank = r;
+                results.add(executor.submit(() -> {
+                    try (DistributedStrip strip = new DistributedStrip(WIDTH, HEIGHT, rank, processes, halo)) {
+                        if (rule != null) strip.setRule(Rule.forRulestring(rule));
+                        for (int x = 0; x < WIDTH; x++) {
+                            for (int y = 0; y < HEIGHT; y++) {
+                                strip.setCellState(x, y, cells[x][y]);
+                            }
+                        }
+                        strip.connect("127.0.0.1", port);
+                        strip.step(generations);
+                        long population = strip.reducePopulation();
+                        BitBoard board = strip.gather();
+                        if (board != null) assertEquals(board.getPopulation(), population);
+                        return board;
+                    }
+                }));
+            }
+
+            expected.step(generations);
+            BitBoard board = results.get(0).get();
+            for (int r = 1; r < processes; r++) {
+                assertNull(results.get(r).get());
+            }
+            for (int x = 0; x < WIDTH; x++) {
+                for (int y = 0; y < HEIGHT; y++) {
+                    assertEquals(expected.getCellState(x, y), board.getCellState(x, y), "cell " + x + "," + y);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void singleRowExchangeTest() throws Exception {
+        check(3, 1, 40, null);
+    }
+
+    @Test
+    public void wideHaloTest() throws Exception {
+        // 45 generations are 5 rounds of 8 generations and a last round of 5
+        check(4, 8, 45, null);
+    }
+
+    @Test
+    public void otherRuleTest() throws Exception {
+        check(2, 3, 30, "B36/S23");
+    }
+
+    @Test
+    public void singleProcessTest() throws Exception {
+        check(1, 4, 25, null);
+    }
+}
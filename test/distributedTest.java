@@ -0,0 +1,89 @@
+import Model.BitBoard;
+import Model.FileHandler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class distributedTest {
+
+    private static final int WIDTH = 150;
+    private static final int HEIGHT = 90;
+
+    /**
+     * Runs Main.Distributed the way it is run from the command line: the launcher starts one Java process per strip,
+     * which connect to each other through localhost, and process 0 writes the final board. The board is compared with
+     * a single board stepped the same number of generations.
+     */
+    @Test
+    public void processTest(@TempDir Path directory) throws Exception {
+        BitBoard soup = new BitBoard(120, 60);
+        Random random = new Random(61);
+        for (int x = 0; x < 120; x++) {
+            for (int y = 0; y < 60; y++) {
+                soup.setCellState(x, y, random.nextInt(3) == 0);
+            }
+        }
+        File pattern = directory.resolve("soup.rle").toFile();
+        try (Writer writer = new FileWriter(pattern)) {
+            FileHandler.writeRle(soup, writer);
+        }
+
+        // the pattern as the workers read it, in the middle of the board
+        byte[][] cells = FileHandler.readFromDisk(pattern);
+        BitBoard expected = new BitBoard(WIDTH, HEIGHT);
+        int xOffset = (WIDTH - cells.length) / 2;
+        int yOffset = (HEIGHT - cells[0].length) / 2;
+        for (int x = 0; x < cells.length; x++) {
+            for (int y = 0; y < cells[0].length; y++) {
+                expected.setCellState(x + xOffset, y + yOffset, cells[x][y] == 1);
+            }
+        }
+        long initialPopulation = expected.getPopulation();
+        expected.step(45);
+        StringWriter expectedRle = new StringWriter();
+        FileHandler.writeRle(expected, expectedRle);
+
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        File output = directory.resolve("result.rle").toFile();
+        File log = directory.resolve("log.txt").toFile();
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process launcher = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), "Main.Distributed",
+                pattern.getPath(), "-p", "3", "-k", "4", "-g", "45", "-w", Integer.toString(WIDTH),
+                "-h", Integer.toString(HEIGHT), "--port", Integer.toString(port), "-o", output.getPath())
+                .redirectErrorStream(true).redirectOutput(log).start();
+        assertTrue(launcher.waitFor(60, TimeUnit.SECONDS), "the launcher did not finish");
+        List<String> printed = Files.readAllLines(log.toPath());
+        assertEquals(0, launcher.exitValue(), String.join("\n", printed));
+
+        // process 0 prints the statistics and writes them in front of the board
+        assertTrue(printed.contains("processes: 3, halo: 4, rule: B3/S23, board: " + WIDTH + "x" + HEIGHT),
+                String.join("\n", printed));
+        assertTrue(printed.contains("population: " + initialPopulation + " -> " + expected.getPopulation()),
+                String.join("\n", printed));
+        List<String> written = Files.readAllLines(output.toPath());
+        assertTrue(written.get(0).startsWith("#C pattern: "));
+        String board = written.stream().filter(line -> !line.startsWith("#C")).collect(Collectors.joining("\n"));
+        assertEquals(Arrays.stream(expectedRle.toString().split("\n")).collect(Collectors.joining("\n")), board);
+    }
+}
@@ -40,5 +40,103 @@ public class dynamicBoardTest {
         assertEquals("0000011001100000", board.toString());
     }
 
+    @Test
+    public void negativeCoordinatesTest() {
+        DynamicBoard board = new DynamicBoard();
+
+        board.setCellState(-5, -70, true);
+        assertEquals(true, board.getCellState(-5, -70));
+        assertEquals(false, board.getCellState(-5, -69));
+        assertEquals(100, board.getWIDTH());
+        assertEquals(100, board.getHEIGHT());
+    }
+
+    @Test
+    public void sparseTilesTest() {
+        // a blinker far away from another blinker only allocates the tiles around the two of them
+        DynamicBoard board = new DynamicBoard();
+        for (int i = 0; i < 3; i++) {
+            board.setCellState(10 + i, 10, true);
+            board.setCellState(100000 + i, 100000, true);
+        }
+        board.nextGenerationConcurrent();
+
+        assertEquals(true, board.getCellState(11, 9));
+        assertEquals(true, board.getCellState(100001, 100001));
+        assertEquals(false, board.getCellState(100000, 100000));
+        assertEquals(2, board.getTileCount());
+    }
 
+    @Test
+    public void tileBorderTest() {
+        // a glider travelling north-west crosses from tile (0,0) into tile (-1,-1)
+        DynamicBoard board = new DynamicBoard();
+        board.setCellState(1, 1, true);
+        board.setCellState(2, 1, true);
+        board.setCellState(3, 1, true);
+        board.setCellState(1, 2, true);
+        board.setCellState(2, 3, true);
+
+        for (int i = 0; i < 8; i++) {
+            board.nextGenerationConcurrent();
+        }
+        assertEquals(true, board.getCellState(-1, -1));
+        assertEquals(true, board.getCellState(0, -1));
+        assertEquals(true, board.getCellState(1, -1));
+        assertEquals(true, board.getCellState(-1, 0));
+        assertEquals(true, board.getCellState(0, 1));
+    }
+
+    @Test
+    public void sleepingTilesTest() {
+        // the block settles immediately, so only the blinker's tile stays active
+        DynamicBoard board = new DynamicBoard();
+        board.setCellState(10, 10, true);
+        board.setCellState(10, 11, true);
+        board.setCellState(11, 10, true);
+        board.setCellState(11, 11, true);
+        for (int i = 0; i < 3; i++) {
+            board.setCellState(1000 + i, 1000, true);
+        }
+
+        board.nextGenerationConcurrent();
+        board.nextGenerationConcurrent();
+        assertEquals(1, board.getActiveTileCount());
+        assertEquals(1, board.getSleepingTileCount());
+        assertEquals(true, board.getCellState(11, 11));
+        assertEquals(true, board.getCellState(1001, 1000));
+        assertEquals(true, board.getCellState(1000, 1000));
+
+        // editing the block wakes it up again
+        board.setCellState(10, 10, false);
+        board.nextGenerationConcurrent();
+        assertEquals(2, board.getActiveTileCount());
+        assertEquals(true, board.getCellState(10, 10));
+    }
+
+    @Test
+    public void forkJoinTest() {
+        // both schedulings must give the same generations for a random soup spread over many tiles
+        DynamicBoard staticBoard = new DynamicBoard();
+        DynamicBoard forkJoinBoard = new DynamicBoard();
+        forkJoinBoard.setScheduling(DynamicBoard.Scheduling.FORK_JOIN);
+        java.util.Random random = new java.util.Random(17);
+        for (int i = 0; i < 3000; i++) {
+            int x = random.nextInt(400) - 200;
+            int y = random.nextInt(40);
+            staticBoard.setCellState(x, y, true);
+            forkJoinBoard.setCellState(x, y, true);
+        }
+
+        for (int i = 0; i < 50; i++) {
+            staticBoard.nextGenerationConcurrent();
+            forkJoinBoard.nextGenerationConcurrent();
+        }
+        for (int x = -300; x < 300; x++) {
+            for (int y = -100; y < 140; y++) {
+                assertEquals(staticBoard.getCellState(x, y), forkJoinBoard.getCellState(x, y));
+            }
+        }
+        forkJoinBoard.shutdown();
+    }
 }
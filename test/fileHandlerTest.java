@@ -0,0 +1,56 @@
+import Model.BitBoard;
+import Model.FileHandler;
+import Model.GenerationsBoard;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+public class fileHandlerTest {
+
+    @Test
+    public void writeRleTest() throws Exception {
+        BitBoard board = new BitBoard(200, 100);
+        Random random = new Random(53);
+        for (int x = 30; x < 170; x++) {
+            for (int y = 10; y < 80; y++) {
+                board.setCellState(x, y, random.nextInt(4) == 0);
+            }
+        }
+
+        File file = File.createTempFile("board", ".rle");
+        file.deleteOnExit();
+        try (Writer writer = new FileWriter(file)) {
+            FileHandler.writeRle(board, writer);
+        }
+
+        // the pattern is written within the bounding box of the living cells
+        byte[][] cells = FileHandler.readFromDisk(file);
+        assertEquals(board.getMaxX() - board.getMinX() + 1, cells.length);
+        assertEquals(board.getMaxY() - board.getMinY() + 1, cells[0].length);
+        for (int x = 0; x < cells.length; x++) {
+            for (int y = 0; y < cells[0].length; y++) {
+                assertEquals(board.getCellState(x + board.getMinX(), y + board.getMinY()), cells[x][y] == 1);
+            }
+        }
+    }
+
+    @Test
+    public void writeStatesTest() throws Exception {
+        GenerationsBoard board = new GenerationsBoard(4, 2);
+        board.setState(1, 0, 1);
+        board.setState(2, 0, 2);
+        board.setState(3, 1, 2);
+
+        StringWriter writer = new StringWriter();
+        FileHandler.writeRle(board, writer);
+        assertEquals("x = 4, y = 2, rule = B2/S/C3\n.AB.$3.B!\n", writer.toString());
+    }
+}
@@ -0,0 +1,72 @@
+import Model.DynamicBoard;
+import Model.FileHandler;
+
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class flightRecorderTest {
+
+    private static List<RecordedEvent> events(List<RecordedEvent> all, String name) {
+        return all.stream().filter(e -> e.getEventType().getName().equals(name)).collect(Collectors.toList());
+    }
+
+    @Test
+    public void eventsTest() throws Exception {
+        Path file = Files.createTempFile("simulation", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("gameoflife17.Generation");
+            recording.enable("gameoflife17.SimulationPhase");
+            recording.enable("gameoflife17.PatternLoad");
+            recording.start();
+
+            byte[][] gun = FileHandler.readFromDisk(Path.of("resources", "gosperglidergun.rle").toFile());
+            DynamicBoard board = new DynamicBoard();
+            board.setThreadCount(2);
+            for (int x = 0; x < gun.length; x++) {
+                for (int y = 0; y < gun[0].length; y++) {
+                    if (gun[x][y] == 1) board.setCellState(x + 100, y + 100, true);
+                }
+            }
+            board.step(10);
+            board.shutdown();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> all = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+
+        List<RecordedEvent> loads = events(all, "gameoflife17.PatternLoad");
+        assertEquals(1, loads.size());
+        assertEquals("RLE", loads.get(0).getString("format"));
+        assertEquals(36, loads.get(0).getLong("population"));
+
+        List<RecordedEvent> generations = events(all, "gameoflife17.Generation");
+        assertEquals(10, generations.size());
+        RecordedEvent last = generations.get(9);
+        assertEquals("DynamicBoard", last.getString("engine"));
+        assertEquals(2, last.getInt("threads"));
+        assertTrue(last.getLong("population") > 0);
+        assertTrue(last.getLong("cells") > 0);
+
+        // every batch releases the worker, both threads work and the caller waits at the barrier
+        List<RecordedEvent> phases = events(all, "gameoflife17.SimulationPhase");
+        assertEquals(10, phases.stream().filter(e -> e.getString("phase").equals("release")).count());
+        assertEquals(20, phases.stream().filter(e -> e.getString("phase").equals("work")).count());
+        assertEquals(10, phases.stream().filter(e -> e.getString("phase").equals("barrier")).count());
+        assertTrue(phases.stream().allMatch(e -> e.getString("engine").equals("DynamicBoard")));
+    }
+}
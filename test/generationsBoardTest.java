@@ -0,0 +1,88 @@
+import Model.BitBoard;
+import Model.GenerationsBoard;
+import Model.GenerationsRule;
+import Model.LifeLikeRule;
+import Model.Rule;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class generationsBoardTest {
+
+    @Test
+    public void parseTest() {
+        GenerationsRule starWars = new GenerationsRule("345/2/4");
+        assertEquals(4, starWars.getStates());
+        assertEquals("B2/S345/C4", starWars.toString());
+        assertEquals(1, starWars.nextState(0, 2));
+        assertEquals(0, starWars.nextState(0, 3));
+        assertEquals(1, starWars.nextState(1, 4));
+        assertEquals(2, starWars.nextState(1, 2));
+        assertEquals(3, starWars.nextState(2, 2));
+        assertEquals(0, starWars.nextState(3, 2));
+
+        assertEquals("B2/S/C3", new GenerationsRule("/2/3").toString());
+        assertTrue(Rule.forRulestring("B2/S/C3") instanceof GenerationsRule);
+        assertThrows(IllegalArgumentException.class, () -> new GenerationsRule("B2/S/C1"));
+        assertThrows(IllegalArgumentException.class, () -> new GenerationsRule("B2/S/X"));
+        assertThrows(IllegalArgumentException.class, () -> new BitBoard(10, 10).setRule(starWars));
+    }
+
+    @Test
+    public void briansBrainTest() {
+        GenerationsBoard board = new GenerationsBoard(12, 12);
+        board.setCellState(5, 5, true);
+        board.setCellState(6, 5, true);
+
+        board.nextGeneration();
+        // the pair starts dying and gives birth above and below it
+        assertEquals(2, board.getState(5, 5));
+        assertEquals(2, board.getState(6, 5));
+        assertEquals("1111", "" + board.getState(5, 4) + board.getState(6, 4) + board.getState(5, 6)
+                + board.getState(6, 6));
+        assertFalse(board.getCellState(4, 4));
+
+        board.nextGeneration();
+        assertEquals(0, board.getState(5, 5));
+        assertEquals(2, board.getState(5, 4));
+
+        byte[] states = new byte[12 * 12];
+        board.getCellStates(states);
+        for (int x = 0; x < 12; x++) {
+            for (int y = 0; y < 12; y++) {
+                assertEquals(board.getState(x, y), states[y * 12 + x]);
+            }
+        }
+    }
+
+    @Test
+    public void twoStateTest() {
+        // with a Life-like rule the board has to behave like any other board
+        LifeLikeRule rule = new LifeLikeRule("B36/S23");
+        GenerationsBoard board = new GenerationsBoard(120, 90);
+        BitBoard bitBoard = new BitBoard(120, 90);
+        board.setRule(rule);
+        bitBoard.setRule(rule);
+
+        Random random = new Random(9);
+        for (int x = 0; x < 120; x++) {
+            for (int y = 0; y < 90; y++) {
+                boolean alive = random.nextBoolean();
+                board.setCellState(x, y, alive);
+                bitBoard.setCellState(x, y, alive);
+            }
+        }
+        for (int i = 0; i < 50; i++) {
+            board.nextGeneration();
+            bitBoard.nextGeneration();
+        }
+        assertEquals(bitBoard.toString(), board.toString());
+    }
+}
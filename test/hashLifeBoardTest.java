@@ -0,0 +1,110 @@
+import Model.HashLifeBoard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class hashLifeBoardTest {
+
+    private void glider(HashLifeBoard board, int x, int y) {
+        board.setCellState(x + 1, y, true);
+        board.setCellState(x + 2, y + 1, true);
+        board.setCellState(x, y + 2, true);
+        board.setCellState(x + 1, y + 2, true);
+        board.setCellState(x + 2, y + 2, true);
+    }
+
+    @Test
+    public void settCellStateTest() {
+        HashLifeBoard board = new HashLifeBoard(10, 10);
+
+        board.setCellState(5, 5, true);
+        board.setCellState(-300, 1000, true);
+        assertEquals(true, board.getCellState(5, 5));
+        assertEquals(true, board.getCellState(-300, 1000));
+        assertEquals(false, board.getCellState(4, 5));
+        assertEquals(2, board.getPopulation());
+    }
+
+    @Test
+    public void gliderTest() {
+        HashLifeBoard board = new HashLifeBoard(10, 10);
+        glider(board, 0, 0);
+
+        for (int i = 0; i < 4; i++) {
+            board.nextGeneration();
+        }
+        assertEquals(true, board.getCellState(2, 1));
+        assertEquals(true, board.getCellState(3, 2));
+        assertEquals(true, board.getCellState(1, 3));
+        assertEquals(true, board.getCellState(2, 3));
+        assertEquals(true, board.getCellState(3, 3));
+        assertEquals(5, board.getPopulation());
+    }
+
+    @Test
+    public void stepTest() {
+        HashLifeBoard board = new HashLifeBoard(10, 10);
+        glider(board, 0, 0);
+
+        // a glider moves one cell diagonally every 4 generations
+        board.stepPowerOfTwo(10);
+        assertEquals(1024, board.getGeneration());
+        assertEquals(true, board.getCellState(257, 256));
+        assertEquals(true, board.getCellState(258, 257));
+        assertEquals(true, board.getCellState(256, 258));
+        assertEquals(true, board.getCellState(257, 258));
+        assertEquals(true, board.getCellState(258, 258));
+        assertEquals(5, board.getPopulation());
+    }
+
+    @Test
+    public void collectTest() {
+        HashLifeBoard board = new HashLifeBoard(10, 10, 1024);
+        glider(board, 0, 0);
+
+        for (int i = 0; i < 2000; i++) {
+            board.nextGeneration();
+            assertTrue(board.getNodeCount() <= 1024, "generation " + i + ": " + board.getNodeCount() + " nodes");
+        }
+        assertEquals(true, board.getCellState(501, 500));
+        assertEquals(5, board.getPopulation());
+    }
+
+    /**
+     * Steps one universe by varying numbers of generations, so that the memoized results of different step sizes are
+     * mixed, and compares it with a universe stepped one generation at a time.
+     */
+    @Test
+    public void mixedStepTest() {
+        HashLifeBoard mixed = new HashLifeBoard(64, 64);
+        HashLifeBoard single = new HashLifeBoard(64, 64);
+        Random random = new Random(23);
+        for (int x = 0; x < 32; x++) {
+            for (int y = 0; y < 32; y++) {
+                boolean alive = random.nextInt(3) == 0;
+                mixed.setCellState(x, y, alive);
+                single.setCellState(x, y, alive);
+            }
+        }
+
+        int[] steps = {7, 1, 16, 3, 12, 1, 33, 8, 5, 64, 2};
+        for (int n : steps) {
+            mixed.step(n);
+            for (int i = 0; i < n; i++) {
+                single.nextGeneration();
+            }
+            assertEquals(single.getGeneration(), mixed.getGeneration());
+            assertEquals(single.getPopulation(), mixed.getPopulation(), "generation " + mixed.getGeneration());
+            for (int x = single.getMinX(); x <= single.getMaxX(); x++) {
+                for (int y = single.getMinY(); y <= single.getMaxY(); y++) {
+                    assertEquals(single.getCellState(x, y), mixed.getCellState(x, y), "cell " + x + "," + y);
+                }
+            }
+        }
+    }
+}
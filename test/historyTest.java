@@ -0,0 +1,201 @@
+import Model.BitBoard;
+import Model.Board;
+import Model.DynamicBoard;
+import Model.GenerationsBoard;
+import Model.HashLifeBoard;
+import Model.History;
+import Model.OffHeapBoard;
+import Model.Rule;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class historyTest {
+
+    private static void soup(Board board, long seed) {
+        Random random = new Random(seed);
+        for (int x = 20; x < 80; x++) {
+            for (int y = 20; y < 80; y++) {
+                board.setCellState(x, y, random.nextInt(3) == 0);
+            }
+        }
+    }
+
+    private static void assertSameCells(Board expected, Board actual) {
+        for (int x = -20; x < 120; x++) {
+            for (int y = -20; y < 120; y++) {
+                assertEquals(expected.getState(x, y), actual.getState(x, y), "cell " + x + "," + y);
+            }
+        }
+    }
+
+    /**
+     * Records 150 generations, then goes back to some of them and compares them with a board stepped there directly.
+     */
+    private static void check(Supplier<Board> boards) {
+        Board board = boards.get();
+        soup(board, 41);
+        History history = new History(1 << 24, 16);
+        history.record(0, board);
+        for (int g = 1; g <= 150; g++) {
+            board.nextGeneration();
+            history.record(g, board);
+        }
+        assertEquals(0, history.getFirstGeneration());
+        assertEquals(150, history.getLastGeneration());
+
+        for (int g : new int[]{150, 0, 37, 16, 17, 149, 90}) {
+            history.seek(g, board);
+            Board expected = boards.get();
+            soup(expected, 41);
+            expected.step(g);
+            assertSameCells(expected, board);
+        }
+    }
+
+    @Test
+    public void bitBoardTest() {
+        check(() -> new BitBoard(100, 100));
+    }
+
+    @Test
+    public void dynamicBoardTest() {
+        check(DynamicBoard::new);
+    }
+
+    @Test
+    public void generationsBoardTest() {
+        check(() -> new GenerationsBoard(100, 100));
+    }
+
+    @Test
+    public void hashLifeBoardTest() {
+        check(() -> new HashLifeBoard(100, 100));
+    }
+
+    @Test
+    public void offHeapBoardTest() {
+        check(() -> new OffHeapBoard(100, 100));
+    }
+
+    /**
+     * A cell that is set alive while it is dying changes between two states that are not dead, so the change set has
+     * to keep its state even though the new state is alive.
+     */
+    @Test
+    public void refractoryTest() {
+        GenerationsBoard board = new GenerationsBoard(20, 20);
+        board.setRule(Rule.forRulestring("B2/S/C3"));
+        board.setState(5, 5, 2);
+        History history = new History(1 << 20);
+        history.record(0, board);
+        board.setState(5, 5, 1);
+        history.record(1, board);
+        board.setState(5, 5, 2);
+        history.record(2, board);
+
+        history.seek(1, board);
+        assertEquals(1, board.getState(5, 5));
+        history.seek(0, board);
+        assertEquals(2, board.getState(5, 5));
+        history.seek(2, board);
+        assertEquals(2, board.getState(5, 5));
+    }
+
+    /**
+     * Records two gliders far apart on an unbounded board, whose bounding box is millions of cells large, and goes
+     * back to the first generation.
+     */
+    @Test
+    public void sparseTest() {
+        DynamicBoard board = new DynamicBoard();
+        int[][] glider = {{1, 0}, {2, 1}, {0, 2}, {1, 2}, {2, 2}};
+        for (int[] cell : glider) {
+            board.setCellState(cell[0], cell[1], true);
+            board.setCellState(5000 + cell[0], 5000 + cell[1], true);
+        }
+        History history = new History(1 << 20);
+        history.record(0, board);
+        for (int g = 1; g <= 40; g++) {
+            board.nextGeneration();
+            history.record(g, board);
+        }
+        assertEquals(10, board.getPopulation());
+        assertTrue(board.getCellState(5011, 5012));
+
+        history.seek(0, board);
+        assertEquals(10, board.getPopulation());
+        for (int[] cell : glider) {
+            assertTrue(board.getCellState(cell[0], cell[1]));
+            assertTrue(board.getCellState(5000 + cell[0], 5000 + cell[1]));
+        }
+    }
+
+    @Test
+    public void branchTest() {
+        BitBoard board = new BitBoard(100, 100);
+        soup(board, 43);
+        History history = new History(1 << 24);
+        history.record(0, board);
+        for (int g = 1; g <= 40; g++) {
+            board.nextGeneration();
+            history.record(g, board);
+        }
+
+        // going back and editing the board forgets the generations after it
+        history.seek(10, board);
+        board.setCellState(5, 5, true);
+        history.record(10, board);
+        assertEquals(10, history.getLastGeneration());
+        for (int g = 11; g <= 20; g++) {
+            board.nextGeneration();
+            history.record(g, board);
+        }
+
+        BitBoard expected = new BitBoard(100, 100);
+        soup(expected, 43);
+        expected.step(10);
+        expected.setCellState(5, 5, true);
+        expected.step(5);
+        history.seek(15, board);
+        assertSameCells(expected, board);
+
+        history.seek(3, board);
+        expected = new BitBoard(100, 100);
+        soup(expected, 43);
+        expected.step(3);
+        assertSameCells(expected, board);
+    }
+
+    @Test
+    public void budgetTest() {
+        BitBoard board = new BitBoard(100, 100);
+        soup(board, 47);
+        History history = new History(20000, 8);
+        history.record(0, board);
+        for (int g = 1; g <= 300; g++) {
+            board.nextGeneration();
+            history.record(g, board);
+        }
+        assertTrue(history.getMemoryUsage() <= 20000);
+        assertTrue(history.getFirstGeneration() > 0);
+        assertEquals(300, history.getLastGeneration());
+        assertFalse(history.contains(0));
+        assertThrows(IllegalArgumentException.class, () -> history.seek(0, board));
+
+        long first = history.getFirstGeneration();
+        history.seek(first, board);
+        BitBoard expected = new BitBoard(100, 100);
+        soup(expected, 47);
+        expected.step((int) first);
+        assertSameCells(expected, board);
+    }
+}
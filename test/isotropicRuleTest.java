@@ -0,0 +1,126 @@
+import Model.BitBoard;
+import Model.ConwayRule;
+import Model.DynamicBoard;
+import Model.HashLifeBoard;
+import Model.IsotropicRule;
+import Model.LifeLikeRule;
+import Model.Rule;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class isotropicRuleTest {
+
+    @Test
+    public void totalisticTest() {
+        // Hensel notation without letters has to give the Life-like rule
+        IsotropicRule isotropic = new IsotropicRule("B36/S23");
+        LifeLikeRule lifeLike = new LifeLikeRule("B36/S23");
+        assertTrue(isotropic.isTotalistic());
+        for (int neighbourhood = 0; neighbourhood < 512; neighbourhood++) {
+            assertEquals(lifeLike.nextCellState(neighbourhood), isotropic.nextCellState(neighbourhood));
+        }
+        assertTrue(new IsotropicRule("B2ceaikn/S1ce2ceaikn").isTotalistic());
+    }
+
+    @Test
+    public void shapeTest() {
+        // every count is split into shapes that together cover each neighbourhood exactly once
+        String[] letters = {"", "ce", "ceaikn", "ceaiknjqry", "ceaiknjqrytwz", "ceaiknjqry", "ceaikn", "ce", ""};
+        int[] binomial = {1, 8, 28, 56, 70, 56, 28, 8, 1};
+        for (int count = 1; count < 8; count++) {
+            int total = 0;
+            for (char letter : letters[count].toCharArray()) {
+                IsotropicRule rule = new IsotropicRule("B" + count + letter + "/S");
+                for (int neighbourhood = 0; neighbourhood < 512; neighbourhood++) {
+                    if (rule.nextCellState(neighbourhood)) total++;
+                }
+            }
+            assertEquals(binomial[count], total);
+        }
+    }
+
+    @Test
+    public void parseTest() {
+        IsotropicRule rule = new IsotropicRule("B2-a/S12");
+        assertFalse(rule.isTotalistic());
+        assertEquals("B2-a/S12", rule.toString());
+        assertFalse(rule.nextCellState(0b000_000_011));
+        assertTrue(rule.nextCellState(0b000_000_101));
+        assertTrue(rule.nextCellState(0b000_010_011));
+
+        IsotropicRule same = new IsotropicRule("B2ceikn/S12");
+        for (int neighbourhood = 0; neighbourhood < 512; neighbourhood++) {
+            assertEquals(same.nextCellState(neighbourhood), rule.nextCellState(neighbourhood));
+        }
+
+        assertThrows(UnsupportedOperationException.class, () -> rule.nextCellState(false, 2));
+        assertThrows(IllegalArgumentException.class, () -> new IsotropicRule("B2z/S23"));
+        assertThrows(IllegalArgumentException.class, () -> new IsotropicRule("B3-/S23"));
+        assertTrue(Rule.forRulestring("B3/S23") instanceof LifeLikeRule);
+        assertTrue(Rule.forRulestring("B3/S2-i34q") instanceof IsotropicRule);
+    }
+
+    @Test
+    public void tableKernelTest() {
+        // the table kernel has to agree with the bit-sliced kernel on a totalistic rule
+        BitBoard bitSliced = new BitBoard(150, 150);
+        BitBoard table = new BitBoard(150, 150);
+        bitSliced.setRule(new ConwayRule());
+        table.setRule(new IsotropicRule("B3/S23"));
+        Random random = new Random(5);
+        for (int x = 0; x < 150; x++) {
+            for (int y = 0; y < 150; y++) {
+                boolean alive = random.nextInt(3) == 0;
+                bitSliced.setCellState(x, y, alive);
+                table.setCellState(x, y, alive);
+            }
+        }
+        for (int i = 0; i < 40; i++) {
+            bitSliced.nextGeneration();
+            table.nextGeneration();
+        }
+        assertEquals(bitSliced.toString(), table.toString());
+    }
+
+    @Test
+    public void enginesAgreeTest() {
+        IsotropicRule rule = new IsotropicRule("B3/S2-i34q");
+        BitBoard bitBoard = new BitBoard(200, 200);
+        DynamicBoard dynamicBoard = new DynamicBoard();
+        HashLifeBoard hashLifeBoard = new HashLifeBoard(200, 200);
+        bitBoard.setRule(rule);
+        dynamicBoard.setRule(rule);
+        hashLifeBoard.setRule(rule);
+
+        Random random = new Random(7);
+        for (int x = 80; x < 120; x++) {
+            for (int y = 80; y < 120; y++) {
+                boolean alive = random.nextBoolean();
+                bitBoard.setCellState(x, y, alive);
+                dynamicBoard.setCellState(x, y, alive);
+                hashLifeBoard.setCellState(x, y, alive);
+            }
+        }
+
+        for (int i = 0; i < 60; i++) {
+            bitBoard.nextGeneration();
+            dynamicBoard.nextGeneration();
+            hashLifeBoard.nextGeneration();
+        }
+        for (int x = 0; x < 200; x++) {
+            for (int y = 0; y < 200; y++) {
+                assertEquals(bitBoard.getCellState(x, y), dynamicBoard.getCellState(x, y));
+                assertEquals(bitBoard.getCellState(x, y), hashLifeBoard.getCellState(x, y));
+            }
+        }
+        dynamicBoard.shutdown();
+    }
+}
@@ -0,0 +1,111 @@
+import Model.BitBoard;
+import Model.GenerationsBoard;
+import Model.GenerationsRule;
+import Model.LargerThanLifeBoard;
+import Model.LargerThanLifeRule;
+import Model.LifeLikeRule;
+import Model.Rule;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class largerThanLifeBoardTest {
+
+    @Test
+    public void parseTest() {
+        LargerThanLifeRule bosco = new LargerThanLifeRule("R5,C0,M1,S34..58,B34..45,NM");
+        assertEquals(5, bosco.getRadius());
+        assertEquals(2, bosco.getStates());
+        assertEquals("R5,C0,M1,S34..58,B34..45,NM", bosco.toString());
+        assertEquals(1, bosco.nextState(0, 34));
+        assertEquals(0, bosco.nextState(0, 46));
+        // the cell counts itself when checking for survival
+        assertEquals(1, bosco.nextState(1, 33));
+        assertEquals(0, bosco.nextState(1, 32));
+
+        assertTrue(Rule.forRulestring("r2,c3,m0,s2..4,b3..3") instanceof LargerThanLifeRule);
+        assertThrows(IllegalArgumentException.class, () -> new LargerThanLifeRule("R5,C0,M1,S34..58"));
+        assertThrows(IllegalArgumentException.class, () -> new LargerThanLifeRule("R5,C0,M1,S34..58,B34..45,NN"));
+        assertThrows(IllegalArgumentException.class, () -> new BitBoard(10, 10).setRule(bosco));
+    }
+
+    @Test
+    public void bruteForceTest() {
+        // the summed-area table has to count the same as looking at every cell in the square
+        LargerThanLifeRule rule = new LargerThanLifeRule("R3,C4,M0,S8..20,B9..14");
+        LargerThanLifeBoard board = new LargerThanLifeBoard(40, 30);
+        board.setRule(rule);
+        int[][] expected = new int[40][30];
+        Random random = new Random(11);
+        for (int x = 0; x < 40; x++) {
+            for (int y = 0; y < 30; y++) {
+                expected[x][y] = random.nextInt(4) == 0 ? 1 : 0;
+                board.setCellState(x, y, expected[x][y] == 1);
+            }
+        }
+
+        for (int i = 0; i < 10; i++) {
+            int[][] next = new int[40][30];
+            for (int x = 0; x < 40; x++) {
+                for (int y = 0; y < 30; y++) {
+                    int neighbours = 0;
+                    for (int dx = -3; dx <= 3; dx++) {
+                        for (int dy = -3; dy <= 3; dy++) {
+                            int nx = x + dx;
+                            int ny = y + dy;
+                            if ((dx != 0 || dy != 0) && nx >= 0 && ny >= 0 && nx < 40 && ny < 30
+                                    && expected[nx][ny] == 1) {
+                                neighbours++;
+                            }
+                        }
+                    }
+                    next[x][y] = rule.nextState(expected[x][y], neighbours);
+                }
+            }
+            expected = next;
+            board.nextGeneration();
+
+            for (int x = 0; x < 40; x++) {
+                for (int y = 0; y < 30; y++) {
+                    assertEquals(expected[x][y], board.getState(x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void radiusOneTest() {
+        // radius 1 rules have to give the same generations as the boards for the eight cells around each cell
+        LargerThanLifeBoard lifeBoard = new LargerThanLifeBoard(60, 50);
+        BitBoard bitBoard = new BitBoard(60, 50);
+        lifeBoard.setRule(new LifeLikeRule("B3/S23"));
+        LargerThanLifeBoard brainBoard = new LargerThanLifeBoard(60, 50);
+        GenerationsBoard generationsBoard = new GenerationsBoard(60, 50);
+        brainBoard.setRule(new GenerationsRule("B2/S/C3"));
+
+        Random random = new Random(13);
+        for (int x = 0; x < 60; x++) {
+            for (int y = 0; y < 50; y++) {
+                boolean alive = random.nextBoolean();
+                lifeBoard.setCellState(x, y, alive);
+                bitBoard.setCellState(x, y, alive);
+                brainBoard.setCellState(x, y, alive);
+                generationsBoard.setCellState(x, y, alive);
+            }
+        }
+        for (int i = 0; i < 30; i++) {
+            lifeBoard.nextGeneration();
+            bitBoard.nextGeneration();
+            brainBoard.nextGeneration();
+            generationsBoard.nextGeneration();
+        }
+        assertEquals(bitBoard.toString(), lifeBoard.toString());
+        assertEquals(generationsBoard.toString(), brainBoard.toString());
+    }
+}
@@ -0,0 +1,72 @@
+import Model.BitBoard;
+import Model.DynamicBoard;
+import Model.HashLifeBoard;
+import Model.LifeLikeRule;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+public class lifeLikeRuleTest {
+
+    @Test
+    public void parseTest() {
+        LifeLikeRule highLife = new LifeLikeRule("B36/S23");
+        assertEquals(1 << 3 | 1 << 6, highLife.getBirthMask());
+        assertEquals(1 << 2 | 1 << 3, highLife.getSurvivalMask());
+        assertEquals("B36/S23", highLife.toString());
+
+        assertEquals("B36/S23", new LifeLikeRule("23/36").toString());
+        assertEquals("B36/S23", new LifeLikeRule("s23/b36").toString());
+        assertEquals("B2/S", new LifeLikeRule("B2/S").toString());
+        assertThrows(IllegalArgumentException.class, () -> new LifeLikeRule("B39/S23"));
+        assertThrows(IllegalArgumentException.class, () -> new LifeLikeRule("B3S23"));
+    }
+
+    @Test
+    public void nextCellStateTest() {
+        LifeLikeRule dayAndNight = new LifeLikeRule("B3678/S34678");
+        for (int n = 0; n <= 8; n++) {
+            assertEquals(n == 3 || n >= 6, dayAndNight.nextCellState(false, n));
+            assertEquals(n == 3 || n == 4 || n >= 6, dayAndNight.nextCellState(true, n));
+        }
+    }
+
+    @Test
+    public void enginesAgreeTest() {
+        // every engine has to give the same soup under a rule that is not Conway's
+        LifeLikeRule rule = new LifeLikeRule("B36/S23");
+        BitBoard bitBoard = new BitBoard(200, 200);
+        DynamicBoard dynamicBoard = new DynamicBoard();
+        HashLifeBoard hashLifeBoard = new HashLifeBoard(200, 200);
+        bitBoard.setRule(rule);
+        dynamicBoard.setRule(rule);
+        hashLifeBoard.setRule(rule);
+
+        Random random = new Random(3);
+        for (int x = 80; x < 120; x++) {
+            for (int y = 80; y < 120; y++) {
+                boolean alive = random.nextBoolean();
+                bitBoard.setCellState(x, y, alive);
+                dynamicBoard.setCellState(x, y, alive);
+                hashLifeBoard.setCellState(x, y, alive);
+            }
+        }
+
+        for (int i = 0; i < 60; i++) {
+            bitBoard.nextGeneration();
+            dynamicBoard.nextGeneration();
+            hashLifeBoard.nextGeneration();
+        }
+        for (int x = 0; x < 200; x++) {
+            for (int y = 0; y < 200; y++) {
+                assertEquals(bitBoard.getCellState(x, y), dynamicBoard.getCellState(x, y));
+                assertEquals(bitBoard.getCellState(x, y), hashLifeBoard.getCellState(x, y));
+            }
+        }
+    }
+}
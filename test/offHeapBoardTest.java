@@ -0,0 +1,69 @@
+import Model.BitBoard;
+import Model.LifeLikeRule;
+import Model.OffHeapBoard;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class offHeapBoardTest {
+
+    @Test
+    public void bitBoardTest() {
+        // the in-place strips have to give the same generations as the double-buffered bit board
+        for (int threads = 1; threads <= 3; threads++) {
+            OffHeapBoard offHeapBoard = new OffHeapBoard(150, 97, null, threads);
+            BitBoard bitBoard = new BitBoard(150, 97);
+            LifeLikeRule rule = new LifeLikeRule("B36/S23");
+            offHeapBoard.setRule(rule);
+            bitBoard.setRule(rule);
+
+            Random random = new Random(19);
+            for (int x = 0; x < 150; x++) {
+                for (int y = 0; y < 97; y++) {
+                    boolean alive = random.nextBoolean();
+                    offHeapBoard.setCellState(x, y, alive);
+                    bitBoard.setCellState(x, y, alive);
+                }
+            }
+            for (int i = 0; i < 40; i++) {
+                offHeapBoard.nextGeneration();
+                bitBoard.nextGeneration();
+            }
+            assertEquals(bitBoard.toString(), offHeapBoard.toString());
+            offHeapBoard.close();
+        }
+    }
+
+    @Test
+    public void mappedFileTest() throws Exception {
+        Path file = Files.createTempFile("offHeapBoardTest", ".cells");
+        try {
+            OffHeapBoard board = new OffHeapBoard(70, 10, file, 2);
+            board.setCellState(1, 0, true);
+            board.setCellState(1, 1, true);
+            board.setCellState(1, 2, true);
+            board.setCellState(69, 9, true);
+            board.nextGeneration();
+            board.close();
+            assertEquals(2L * 8 * 10, Files.size(file));
+
+            // the cells are still there when the file is mapped again
+            OffHeapBoard reopened = new OffHeapBoard(70, 10, file, 2);
+            assertTrue(reopened.getCellState(0, 1));
+            assertTrue(reopened.getCellState(1, 1));
+            assertTrue(reopened.getCellState(2, 1));
+            assertEquals(false, reopened.getCellState(1, 0));
+            assertEquals(false, reopened.getCellState(69, 9));
+            reopened.close();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
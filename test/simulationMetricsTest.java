@@ -0,0 +1,155 @@
+import Model.BitBoard;
+import Model.Board;
+import Model.DynamicBoard;
+import Model.GenerationsBoard;
+import Model.HashLifeBoard;
+import Model.LargerThanLifeBoard;
+import Model.LatencyHistogram;
+import Model.MetricsListener;
+import Model.OffHeapBoard;
+import Model.SimulationMetrics;
+import Model.StaticBoard;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class simulationMetricsTest {
+
+    @Test
+    public void histogramTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500500, histogram.getMean(), 1e-6);
+        assertEquals(1000000, histogram.getMax());
+
+        // percentiles are within one eighth above the exact value
+        for (int p : new int[]{1, 50, 90, 99}) {
+            long exact = p * 10000L;
+            long percentile = histogram.getPercentile(p);
+            assertTrue(percentile >= exact && percentile <= exact + exact / 8, p + ": " + percentile);
+        }
+        assertEquals(1000000, histogram.getPercentile(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+    @Test
+    public void dynamicBoardTest() {
+        DynamicBoard board = new DynamicBoard();
+        Random random = new Random(61);
+        for (int x = 0; x < 200; x++) {
+            for (int y = 0; y < 200; y++) {
+                board.setCellState(x, y, random.nextInt(3) == 0);
+            }
+        }
+        SimulationMetrics metrics = new SimulationMetrics();
+        EnumMap<SimulationMetrics.Phase, Integer> phases = new EnumMap<>(SimulationMetrics.Phase.class);
+        long[] cells = new long[1];
+        metrics.addListener(new MetricsListener() {
+            @Override
+            public void phaseCompleted(SimulationMetrics.Phase phase, long nanos) {
+                phases.merge(phase, 1, Integer::sum);
+            }
+
+            @Override
+            public void generationCompleted(long nanos, long computed, long allocatedBytes) {
+                cells[0] += computed;
+            }
+        });
+        board.setMetrics(metrics);
+        board.step(20);
+        board.shutdown();
+
+        // the kernel counts the neighbours and applies the rule in one pass
+        assertEquals(20, metrics.getGenerations());
+        assertEquals(20, metrics.getStep().getCount());
+        assertEquals(20, metrics.getExpansion().getCount());
+        assertEquals(0, metrics.getNeighbourCount().getCount());
+        assertEquals(20, (int) phases.get(SimulationMetrics.Phase.STEP));
+        assertEquals(20, (int) phases.get(SimulationMetrics.Phase.EXPANSION));
+        assertTrue(cells[0] >= 20 * 200 * 200);
+        assertTrue(metrics.getGenerationsPerSecond() > 0);
+        assertTrue(metrics.getCellsPerSecond() > 0);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void staticBoardTest() {
+        StaticBoard board = new StaticBoard(50, 60);
+        board.setCellState(10, 10, true);
+        board.setCellState(11, 10, true);
+        board.setCellState(12, 10, true);
+        SimulationMetrics metrics = new SimulationMetrics();
+        board.setMetrics(metrics);
+        board.step(7);
+
+        assertEquals(7, metrics.getNeighbourCount().getCount());
+        assertEquals(7, metrics.getRuleApplication().getCount());
+        assertEquals(0, metrics.getStep().getCount());
+        assertEquals(50 * 60, metrics.getCellsPerSecond() / metrics.getGenerationsPerSecond(), 1e-6);
+
+        board.setMetrics(null);
+        board.step(3);
+        assertEquals(7, metrics.getGenerations());
+    }
+
+    @Test
+    public void engineTest() {
+        try (OffHeapBoard offHeap = new OffHeapBoard(40, 30)) {
+            Board[] boards = {new BitBoard(40, 30), offHeap, new GenerationsBoard(40, 30),
+                    new LargerThanLifeBoard(40, 30), new HashLifeBoard(40, 30)};
+            for (Board board : boards) {
+                String engine = board.getClass().getSimpleName();
+                board.setCellState(10, 10, true);
+                board.setCellState(11, 10, true);
+                board.setCellState(12, 10, true);
+                SimulationMetrics metrics = new SimulationMetrics();
+                board.setMetrics(metrics);
+                board.step(20);
+
+                assertEquals(20, metrics.getGenerations(), engine);
+                assertEquals(20, metrics.getGenerationHistogram().getCount(), engine);
+                long phases = 0;
+                for (SimulationMetrics.Phase phase : SimulationMetrics.Phase.values()) {
+                    phases += metrics.getHistogram(phase).getCount();
+                }
+                assertTrue(phases > 0, engine);
+                assertEquals(board instanceof HashLifeBoard ? 0 : 20 * 40 * 30, metrics.getCells(), engine);
+            }
+        }
+    }
+
+    @Test
+    public void mbeanTest() throws Exception {
+        SimulationMetrics metrics = new SimulationMetrics();
+        metrics.recordPhase(SimulationMetrics.Phase.RENDER, System.nanoTime() - 2_000_000);
+        ObjectName name = metrics.register("test");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            CompositeData render = (CompositeData) server.getAttribute(name, "Render");
+            assertEquals(1L, render.get("count"));
+            assertTrue((Long) render.get("max") >= 2_000_000);
+            assertEquals(0L, server.getAttribute(name, "Generations"));
+
+            server.invoke(name, "reset", null, null);
+            assertEquals(0, metrics.getRender().getCount());
+        } finally {
+            metrics.unregister();
+        }
+    }
+}
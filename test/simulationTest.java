@@ -0,0 +1,421 @@
+import Model.BitBoard;
+import Model.Board;
+import Model.BoardSnapshot;
+import Model.Rule;
+import Model.Simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class simulationTest {
+
+    // large enough to show every board in these tests
+    private static final int VIEW = 128;
+
+    private static void soup(Board board, long seed) {
+        Random random = new Random(seed);
+        for (int x = 0; x < board.getWIDTH(); x++) {
+            for (int y = 0; y < board.getHEIGHT(); y++) {
+                board.setCellState(x, y, random.nextInt(3) == 0);
+            }
+        }
+    }
+
+    private static void assertSameCells(Board expected, BoardSnapshot actual) {
+        assertEquals(expected.getPopulation(), actual.getPopulation());
+        for (int x = 0; x < expected.getWIDTH(); x++) {
+            for (int y = 0; y < expected.getHEIGHT(); y++) {
+                assertEquals(expected.getState(x, y), actual.getState(x, y), "cell " + x + "," + y);
+            }
+        }
+    }
+
+    private static BoardSnapshot snapshot(Simulation simulation) {
+        return simulation.getSnapshot(0, 0, VIEW, VIEW);
+    }
+
+    /**
+     * Waits until the simulation has run every task submitted before.
+     */
+    private static BoardSnapshot sync(Simulation simulation) {
+        snapshot(simulation);
+        simulation.call(board -> null);
+        return snapshot(simulation);
+    }
+
+    @Test
+    public void editTest() {
+        try (Simulation simulation = new Simulation(new BitBoard(64, 64))) {
+            BoardSnapshot empty = snapshot(simulation);
+            assertEquals(0, empty.getPopulation());
+
+            // edits are run in the order they were submitted
+            simulation.submit(board -> board.setCellState(3, 4, true));
+            simulation.submit(board -> board.setCellState(5, 6, true));
+            simulation.submit(board -> board.setCellState(3, 4, false));
+            BoardSnapshot edited = sync(simulation);
+            assertNotSame(empty, edited);
+            assertEquals(1, edited.getPopulation());
+            assertEquals(1, edited.getState(5, 6));
+            assertEquals(0, edited.getState(3, 4));
+            assertEquals(5, edited.getMinX());
+            assertEquals(6, edited.getMaxY());
+
+            // snapshots do not change with the board
+            assertEquals(0, empty.getState(5, 6));
+            assertEquals(0, empty.getGeneration());
+        }
+    }
+
+    @Test
+    public void pixelTest() {
+        BitBoard board = new BitBoard(8, 6);
+        board.setCellState(0, 0, true);
+        board.setCellState(7, 5, true);
+        board.setCellState(2, 3, true);
+        int[] palette = {0xFF000000, 0xFFFFFFFF};
+        try (Simulation simulation = new Simulation(board)) {
+            BoardSnapshot snapshot = sync(simulation);
+
+            // a corner larger than the board is filled with dead pixels
+            int[] pixels = new int[10 * 7];
+            snapshot.getPixels(pixels, 10, 7, palette);
+            for (int y = 0; y < 7; y++) {
+                for (int x = 0; x < 10; x++) {
+                    int state = x < 8 && y < 6 ? snapshot.getState(x, y) : 0;
+                    assertEquals(palette[state], pixels[y * 10 + x], "pixel " + x + "," + y);
+                }
+            }
+
+            // a smaller corner leaves out the cells beyond it
+            pixels = new int[3 * 4];
+            snapshot.getPixels(pixels, 3, 4, palette);
+            assertEquals(palette[1], pixels[0]);
+            assertEquals(palette[1], pixels[3 * 3 + 2]);
+            assertEquals(2, Arrays.stream(pixels).filter(pixel -> pixel == palette[1]).count());
+        }
+    }
+
+    /**
+     * Takes snapshots of viewports that lie partly off the board, and checks that only their cells are copied.
+     */
+    @Test
+    public void viewportTest() {
+        BitBoard board = new BitBoard(100, 80);
+        board.setCellState(50, 40, true);
+        board.setCellState(10, 10, true);
+        board.setCellState(99, 79, true);
+        int[] palette = {0, 1};
+        try (Simulation simulation = new Simulation(board)) {
+            simulation.getSnapshot(40, 30, 20, 20);
+            simulation.call(b -> null);
+            BoardSnapshot snapshot = simulation.getSnapshot(40, 30, 20, 20);
+            assertEquals(40, snapshot.getViewX());
+            assertEquals(20, snapshot.getViewHeight());
+            assertEquals(1, snapshot.getState(50, 40));
+            // the cells outside the viewport are not copied, but still counted
+            assertEquals(0, snapshot.getState(10, 10));
+            assertEquals(3, snapshot.getPopulation());
+            assertEquals(10, snapshot.getMinX());
+            assertEquals(79, snapshot.getMaxY());
+            int[] pixels = new int[20 * 20];
+            snapshot.getPixels(pixels, 20, 20, palette);
+            assertEquals(1, pixels[10 * 20 + 10]);
+            assertEquals(1, Arrays.stream(pixels).sum());
+
+            // a new viewport is published while the simulation is stopped, and the cells off the board are dead
+            simulation.getSnapshot(90, -5, 20, 100);
+            simulation.call(b -> null);
+            snapshot = simulation.getSnapshot(90, -5, 20, 100);
+            assertEquals(90, snapshot.getViewX());
+            assertEquals(1, snapshot.getState(99, 79));
+            assertEquals(0, snapshot.getState(100, 79));
+            pixels = new int[20 * 100];
+            snapshot.getPixels(pixels, 20, 100, palette);
+            assertEquals(1, pixels[84 * 20 + 9]);
+            assertEquals(1, Arrays.stream(pixels).sum());
+
+            assertThrows(IllegalArgumentException.class, () -> simulation.getSnapshot(0, 0, -1, 10));
+            assertThrows(IllegalArgumentException.class, () -> simulation.getSnapshot(0, 0, 1 << 16, 1 << 16));
+        }
+    }
+
+    @Test
+    public void stepTest() {
+        BitBoard expected = new BitBoard(100, 80);
+        BitBoard board = new BitBoard(100, 80);
+        soup(expected, 7);
+        soup(board, 7);
+        try (Simulation simulation = new Simulation(board)) {
+            for (int i = 0; i < 5; i++) {
+                simulation.nextGeneration();
+            }
+            BoardSnapshot snapshot = sync(simulation);
+            expected.step(5);
+            assertEquals(5, snapshot.getGeneration());
+            assertSameCells(expected, snapshot);
+            assertEquals(5, (long) simulation.call(b -> simulation.getGeneration()));
+        }
+    }
+
+    /**
+     * Runs the simulation as fast as it can while snapshots are taken, and checks that every snapshot is a whole
+     * generation.
+     */
+    @Test
+    public void runTest() throws InterruptedException {
+        BitBoard board = new BitBoard(100, 80);
+        soup(board, 11);
+        AtomicLong before = new AtomicLong(-1);
+        AtomicLong after = new AtomicLong(-1);
+        try (Simulation simulation = new Simulation(board)) {
+            simulation.setListener(new Simulation.Listener() {
+                @Override
+                public void beforeGeneration(Board b, long generation) {
+                    before.set(generation);
+                }
+
+                @Override
+                public void afterGeneration(Board b, long generation) {
+                    after.set(generation);
+                }
+            });
+            simulation.setRate(Double.POSITIVE_INFINITY);
+            simulation.start();
+            assertTrue(simulation.isRunning());
+
+            BoardSnapshot snapshot = snapshot(simulation);
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (snapshot.getGeneration() < 200 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+                snapshot = snapshot(simulation);
+            }
+            simulation.stop();
+            assertFalse(simulation.isRunning());
+            assertTrue(snapshot.getGeneration() >= 200, "generation " + snapshot.getGeneration());
+
+            BitBoard expected = new BitBoard(100, 80);
+            soup(expected, 11);
+            expected.step((int) snapshot.getGeneration());
+            assertSameCells(expected, snapshot);
+
+            // a stopped simulation computes nothing more
+            BoardSnapshot stopped = sync(simulation);
+            Thread.sleep(50);
+            assertEquals(stopped.getGeneration(), sync(simulation).getGeneration());
+            assertEquals(stopped.getGeneration(), after.get());
+            assertEquals(stopped.getGeneration() - 1, before.get());
+
+            // without a change or a generation no snapshot is taken
+            BoardSnapshot idle = snapshot(simulation);
+            Thread.sleep(20);
+            assertSame(idle, snapshot(simulation));
+        }
+    }
+
+    @Test
+    public void pacingTest() throws InterruptedException {
+        try (Simulation simulation = new Simulation(new BitBoard(16, 16))) {
+            simulation.setRate(20);
+            simulation.start();
+            Thread.sleep(500);
+            simulation.stop();
+            long generations = sync(simulation).getGeneration();
+            assertTrue(generations >= 3 && generations <= 15, "generations " + generations);
+        }
+    }
+
+    /**
+     * Runs a fast board in turbo mode, where many generations are computed between two snapshots.
+     */
+    @Test
+    public void turboTest() throws InterruptedException {
+        BitBoard board = new BitBoard(100, 80);
+        soup(board, 13);
+        AtomicLong batches = new AtomicLong();
+        try (Simulation simulation = new Simulation(board)) {
+            simulation.setListener(new Simulation.Listener() {
+                @Override
+                public void afterGeneration(Board b, long generation) {
+                    batches.incrementAndGet();
+                }
+            });
+            simulation.setTurbo(true);
+            simulation.setTargetFrameRate(50);
+            simulation.start();
+
+            BoardSnapshot snapshot = snapshot(simulation);
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (snapshot.getGeneration() < 5000 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+                snapshot = snapshot(simulation);
+            }
+            int batch = simulation.getBatchSize();
+            simulation.stop();
+            assertTrue(snapshot.getGeneration() >= 5000, "generation " + snapshot.getGeneration());
+            assertTrue(batch > 1, "batch " + batch);
+            assertTrue(simulation.getGenerationsPerSecond() > 0);
+
+            // the listener hears about batches, not generations
+            long generations = sync(simulation).getGeneration();
+            assertTrue(batches.get() < generations, batches.get() + " batches");
+
+            BitBoard expected = new BitBoard(100, 80);
+            soup(expected, 13);
+            expected.step((int) snapshot.getGeneration());
+            assertSameCells(expected, snapshot);
+
+            simulation.setTurbo(false);
+            assertEquals(1, simulation.getBatchSize());
+            assertThrows(IllegalArgumentException.class, () -> simulation.setTargetFrameRate(0));
+        }
+    }
+
+    /**
+     * A listener that wants every generation is told about each of them in turbo mode, in order.
+     */
+    @Test
+    public void everyGenerationTest() throws InterruptedException {
+        BitBoard board = new BitBoard(100, 80);
+        soup(board, 13);
+        AtomicLong calls = new AtomicLong();
+        AtomicLong skipped = new AtomicLong();
+        try (Simulation simulation = new Simulation(board)) {
+            simulation.setListener(new Simulation.Listener() {
+                @Override
+                public boolean wantsEveryGeneration() {
+                    return true;
+                }
+
+                @Override
+                public void afterGeneration(Board b, long generation) {
+                    if (generation != calls.incrementAndGet()) skipped.incrementAndGet();
+                }
+            });
+            simulation.setTurbo(true);
+            simulation.setTargetFrameRate(50);
+            simulation.start();
+
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (snapshot(simulation).getGeneration() < 2000 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            int batch = simulation.getBatchSize();
+            simulation.stop();
+            assertTrue(batch > 1, "batch " + batch);
+            assertEquals(sync(simulation).getGeneration(), calls.get());
+            assertEquals(0, skipped.get());
+        }
+    }
+
+    @Test
+    public void errorTest() {
+        AtomicReference<RuntimeException> failedTask = new AtomicReference<>();
+        try (Simulation simulation = new Simulation(new BitBoard(16, 16))) {
+            simulation.setListener(new Simulation.Listener() {
+                @Override
+                public void taskFailed(RuntimeException failure) {
+                    failedTask.set(failure);
+                }
+            });
+            // what a query throws reaches the caller, and the simulation goes on
+            assertThrows(IllegalArgumentException.class,
+                    () -> simulation.call(board -> {
+                        board.setRule(Rule.forRulestring("B2/S/C3"));
+                        return null;
+                    }));
+            assertThrows(IllegalArgumentException.class, () -> simulation.setRate(0));
+            simulation.submit(board -> {
+                throw new IllegalStateException("failed edit");
+            });
+            simulation.nextGeneration();
+            assertEquals(1, sync(simulation).getGeneration());
+            // a failed edit is passed to the listener
+            assertEquals("failed edit", failedTask.get().getMessage());
+
+            // the state of the simulation thread cannot be touched from outside
+            assertThrows(IllegalStateException.class, simulation::getGeneration);
+            assertThrows(IllegalStateException.class, () -> simulation.setGeneration(3));
+            assertThrows(IllegalStateException.class, () -> simulation.setBoard(new BitBoard(8, 8)));
+        }
+    }
+
+    /**
+     * Fails a generation while a query is waiting, and checks that the simulation stops, fails the query instead of
+     * leaving its caller waiting, reports the failure and goes on running tasks.
+     */
+    @Test
+    public void failureTest() throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Throwable> reported = new AtomicReference<>();
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        try (Simulation simulation = new Simulation(new BitBoard(16, 16))) {
+            simulation.setListener(new Simulation.Listener() {
+                @Override
+                public void beforeGeneration(Board board, long generation) {
+                    entered.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                @Override
+                public void afterGeneration(Board board, long generation) {
+                    throw new IllegalStateException("broken generation");
+                }
+
+                @Override
+                public void simulationFailed(Throwable failure) {
+                    reported.set(failure);
+                }
+            });
+            simulation.setRate(Double.POSITIVE_INFINITY);
+            simulation.start();
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+
+            // a query submitted while the generation is being computed waits behind it
+            Thread caller = new Thread(() -> {
+                try {
+                    simulation.call(board -> 1);
+                } catch (RuntimeException ex) {
+                    thrown.set(ex);
+                }
+            });
+            caller.start();
+            while (caller.getState() != Thread.State.WAITING) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            caller.join(10_000);
+            assertFalse(caller.isAlive());
+
+            assertInstanceOf(IllegalStateException.class, thrown.get());
+            assertEquals("broken generation", thrown.get().getCause().getMessage());
+            assertSame(thrown.get().getCause(), reported.get());
+            assertFalse(simulation.isRunning());
+
+            // the simulation still runs changes and queries
+            simulation.setListener(null);
+            simulation.submit(board -> board.setCellState(1, 1, true));
+            assertEquals(1, sync(simulation).getPopulation());
+        }
+    }
+}
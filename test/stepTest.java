@@ -0,0 +1,72 @@
+import Model.BitBoard;
+import Model.Board;
+import Model.DynamicBoard;
+import Model.HashLifeBoard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+public class stepTest {
+
+    @Test
+    public void temporalBlockingTest() {
+        // wide enough that the board is cut into several strips
+        int width = 4096;
+        int height = 400;
+        BitBoard blocked = new BitBoard(width, height);
+        BitBoard single = new BitBoard(width, height);
+        Random random = new Random(23);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                boolean alive = random.nextInt(3) == 0;
+                blocked.setCellState(x, y, alive);
+                single.setCellState(x, y, alive);
+            }
+        }
+
+        blocked.step(21);
+        for (int i = 0; i < 21; i++) {
+            single.nextGeneration();
+        }
+        byte[] expected = new byte[width * height];
+        byte[] actual = new byte[width * height];
+        single.getCellStates(expected);
+        blocked.getCellStates(actual);
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void enginesAgreeTest() {
+        Board[] boards = {new BitBoard(300, 300), new DynamicBoard(), new HashLifeBoard(300, 300)};
+        Random random = new Random(29);
+        for (int x = 120; x < 180; x++) {
+            for (int y = 120; y < 180; y++) {
+                boolean alive = random.nextBoolean();
+                for (Board board : boards) {
+                    board.setCellState(x, y, alive);
+                }
+            }
+        }
+
+        for (Board board : boards) {
+            board.step(0);
+            board.step(37);
+        }
+        for (int x = 0; x < 300; x++) {
+            for (int y = 0; y < 300; y++) {
+                for (Board board : boards) {
+                    assertEquals(boards[0].getCellState(x, y), board.getCellState(x, y));
+                }
+            }
+        }
+        assertEquals(37, ((HashLifeBoard) boards[2]).getGeneration());
+        assertThrows(IllegalArgumentException.class, () -> boards[0].step(-1));
+        ((DynamicBoard) boards[1]).shutdown();
+    }
+}
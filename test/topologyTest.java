@@ -0,0 +1,117 @@
+import Model.BitBoard;
+import Model.Board;
+import Model.DynamicBoard;
+import Model.GenerationsBoard;
+import Model.LifeLikeRule;
+import Model.StaticBoard;
+import Model.Topology;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+public class topologyTest {
+
+    @Test
+    public void gliderTorusTest() {
+        // a glider moves one cell diagonally every four generations, so it comes back after going round the torus
+        StaticBoard staticBoard = new StaticBoard(10, 10);
+        GenerationsBoard generationsBoard = new GenerationsBoard(10, 10);
+        generationsBoard.setRule(new LifeLikeRule("B3/S23"));
+        for (Board board : new Board[]{staticBoard, generationsBoard}) {
+            board.setTopology(Topology.TORUS);
+            board.setCellState(1, 0, true);
+            board.setCellState(2, 1, true);
+            board.setCellState(0, 2, true);
+            board.setCellState(1, 2, true);
+            board.setCellState(2, 2, true);
+            String start = board.toString();
+
+            for (int i = 0; i < 40; i++) {
+                board.nextGeneration();
+            }
+            assertEquals(start, board.toString());
+        }
+    }
+
+    @Test
+    public void referenceTest() {
+        for (Topology topology : new Topology[]{Topology.BOUNDED, Topology.TORUS, Topology.KLEIN_BOTTLE}) {
+            int width = 23;
+            int height = 17;
+            StaticBoard staticBoard = new StaticBoard(height, width);
+            GenerationsBoard generationsBoard = new GenerationsBoard(width, height);
+            generationsBoard.setRule(new LifeLikeRule("B3/S23"));
+            staticBoard.setTopology(topology);
+            generationsBoard.setTopology(topology);
+
+            boolean[][] expected = new boolean[width][height];
+            Random random = new Random(17);
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    expected[x][y] = random.nextInt(3) == 0;
+                    staticBoard.setCellState(x, y, expected[x][y]);
+                    generationsBoard.setCellState(x, y, expected[x][y]);
+                }
+            }
+
+            for (int i = 0; i < 25; i++) {
+                expected = step(expected, topology);
+                staticBoard.nextGeneration();
+                generationsBoard.nextGeneration();
+                for (int x = 0; x < width; x++) {
+                    for (int y = 0; y < height; y++) {
+                        assertEquals(expected[x][y], staticBoard.getCellState(x, y));
+                        assertEquals(expected[x][y], generationsBoard.getCellState(x, y));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void unsupportedTest() {
+        assertThrows(IllegalArgumentException.class, () -> new DynamicBoard().setTopology(Topology.TORUS));
+        assertThrows(IllegalArgumentException.class, () -> new BitBoard(8, 8).setTopology(Topology.KLEIN_BOTTLE));
+        assertThrows(IllegalArgumentException.class, () -> new StaticBoard(8, 8).setTopology(Topology.PLANE));
+        assertEquals(Topology.PLANE, new DynamicBoard().getTopology());
+        assertEquals(Topology.BOUNDED, new BitBoard(8, 8).getTopology());
+    }
+
+    /**
+     * Computes a generation of Conway's rules by looking up every neighbour through the topology.
+     */
+    private static boolean[][] step(boolean[][] cells, Topology topology) {
+        int width = cells.length;
+        int height = cells[0].length;
+        boolean[][] next = new boolean[width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                int neighbours = 0;
+                for (int dx = -1; dx <= 1; dx++) {
+                    for (int dy = -1; dy <= 1; dy++) {
+                        if (dx == 0 && dy == 0) continue;
+                        int nx = x + dx;
+                        int ny = y + dy;
+                        if (topology == Topology.BOUNDED) {
+                            if (nx < 0 || ny < 0 || nx >= width || ny >= height) continue;
+                        } else {
+                            if (ny < 0 || ny >= height) {
+                                ny = (ny + height) % height;
+                                if (topology == Topology.KLEIN_BOTTLE) nx = width - 1 - nx;
+                            }
+                            nx = (nx + width) % width;
+                        }
+                        if (cells[nx][ny]) neighbours++;
+                    }
+                }
+                next[x][y] = neighbours == 3 || (cells[x][y] && neighbours == 2);
+            }
+        }
+        return next;
+    }
+}